@@ -0,0 +1,112 @@
+/**
+ *    BenchmarkGraphs.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.bench;
+
+import java.util.List;
+
+import physarum.code.GraphGenerator;
+import physarum.code.GraphGenerator.LengthDistribution;
+import physarum.code.GraphGenerator.TerminalPlacement;
+import physarum.code.PhysarumConnection;
+import physarum.code.PhysarumGraph;
+import physarum.code.PhysarumNode;
+import physarum.tester.MazeTester;
+
+/**
+ * The graphs of the benchmarks, built from a fixed seed so every run measures
+ * the same graphs.
+ * 
+ * @author Torsten
+ * 
+ */
+public final class BenchmarkGraphs {
+	/** The seed of all random graphs */
+	private static final long SEED = 20061018L;
+
+	private BenchmarkGraphs() {
+	}
+
+	/**
+	 * Creates a graph from a specification
+	 * 
+	 * @param spec
+	 *            "tero" or the topology "grid", "maze", "geometric",
+	 *            "planar", "scalefree" or "chain" and the approximate number
+	 *            of nodes, e.g. "grid-10000"
+	 * @return the graph, the source is node 0 and the sink is getSink(graph)
+	 */
+	public static PhysarumGraph create(String spec) {
+		if (spec.equals("tero")) {
+			return tero();
+		}
+		int dash = spec.indexOf('-');
+		if (dash > 0) {
+			String topology = spec.substring(0, dash);
+			int nodes = Integer.parseInt(spec.substring(dash + 1));
+			int side = Math.max(2, (int) Math.round(Math.sqrt(nodes)));
+			GraphGenerator generator = new GraphGenerator(SEED);
+			generator.setTerminalPlacement(TerminalPlacement.FIRST_LAST);
+			if (topology.equals("grid")) {
+				return generator.grid(side, side).getGraph();
+			} else if (topology.equals("maze")) {
+				return generator.gridMaze(side, side, 0.1).getGraph();
+			} else if (topology.equals("geometric")) {
+				generator.setLengthDistribution(LengthDistribution.EUCLIDEAN,
+						1.0, 1.0);
+				return generator.randomGeometric(nodes, 8.0).getGraph();
+			} else if (topology.equals("planar")) {
+				generator.setLengthDistribution(LengthDistribution.EUCLIDEAN,
+						1.0, 1.0);
+				return generator.planar(nodes).getGraph();
+			} else if (topology.equals("scalefree")) {
+				return generator.scaleFree(nodes, 3).getGraph();
+			} else if (topology.equals("chain")) {
+				return generator.chain(nodes).getGraph();
+			}
+		}
+		throw new IllegalArgumentException("Unknown graph " + spec);
+	}
+
+	/**
+	 * Get the sink of a graph of create(), the source is always node 0
+	 * 
+	 * @param spec
+	 *            the specification of the graph
+	 * @param graph
+	 *            the graph
+	 * @return the sink node index
+	 */
+	public static int getSink(String spec, PhysarumGraph graph) {
+		return spec.equals("tero") ? 1 : graph.getNodeCount() - 1;
+	}
+
+	/**
+	 * The maze of the Tero paper, source 0 and sink 1
+	 */
+	static PhysarumGraph tero() {
+		TeroMaze maze = new TeroMaze();
+		return PhysarumGraph.fromConnections(maze.nodes(), maze.connections());
+	}
+
+	/**
+	 * Gives access to the maze of the MazeTester
+	 */
+	private static class TeroMaze extends MazeTester {
+		TeroMaze() {
+			this.initTeroPaperMaze();
+		}
+
+		List<PhysarumNode> nodes() {
+			return this.myNodes;
+		}
+
+		List<PhysarumConnection> connections() {
+			return this.myConnections;
+		}
+	}
+}
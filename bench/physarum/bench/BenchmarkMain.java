@@ -0,0 +1,39 @@
+/**
+ *    BenchmarkMain.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the allocation profiler and writes the results as
+ * JSON for regression tracking. The first argument is the result file,
+ * default jmh-result.json, the second a regular expression selecting the
+ * benchmarks, default all but the large graphs.
+ * 
+ * @author Torsten
+ * 
+ */
+public class BenchmarkMain {
+
+	public static void main(String[] args) throws RunnerException {
+		String resultFile = args.length > 0 ? args[0] : "jmh-result.json";
+		String include = args.length > 1 ? args[1]
+				: "physarum\\.bench\\.(Phase|Solve)Benchmark";
+
+		Options options = new OptionsBuilder().include(include)
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON).result(resultFile)
+				.build();
+		new Runner(options).run();
+	}
+}
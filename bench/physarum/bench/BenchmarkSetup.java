@@ -0,0 +1,42 @@
+/**
+ *    BenchmarkSetup.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.bench;
+
+import java.util.Random;
+
+import physarum.code.PhysarumGraph;
+import physarum.code.PhysarumState;
+
+/**
+ * Creates the graph and the initial state shared by the benchmarks
+ * 
+ * @author Torsten
+ * 
+ */
+final class BenchmarkSetup {
+
+	private BenchmarkSetup() {
+	}
+
+	/**
+	 * Creates the initial state of a graph with seeded random conductivities
+	 * 
+	 * @param spec
+	 *            the specification the graph was created from
+	 * @param graph
+	 *            the graph
+	 * @return the state
+	 */
+	static PhysarumState initialState(String spec, PhysarumGraph graph) {
+		PhysarumState state = new PhysarumState(graph);
+		state.setSource(0);
+		state.setSink(BenchmarkGraphs.getSink(spec, graph));
+		state.randomizeConductivities(new Random(42), 0.5, 1.0);
+		return state;
+	}
+}
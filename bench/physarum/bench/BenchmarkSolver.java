@@ -0,0 +1,62 @@
+/**
+ *    BenchmarkSolver.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.bench;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.SingularValueDecomposition;
+
+import physarum.code.PhysarumGraph;
+import physarum.code.PhysarumState;
+import physarum.code.PhysarumSolver;
+
+/**
+ * Exposes the phases of an iteration of the PhysarumSolver to the benchmarks
+ * 
+ * @author Torsten
+ * 
+ */
+class BenchmarkSolver extends PhysarumSolver {
+
+	BenchmarkSolver(PhysarumGraph graph, PhysarumState state) {
+		super(graph, state);
+		this.enableLogging(false);
+	}
+
+	/**
+	 * Build the dense equation system of the pressures
+	 */
+	double[][] assemble() {
+		this.myState.setFirstRun(true);
+		return this.buildLinearEquationSystemLefthandSide();
+	}
+
+	/**
+	 * Build the right hand side of the equation system
+	 */
+	double[][] righthandSide() {
+		return this.buildLinearEquationSystemRighthandSide();
+	}
+
+	/**
+	 * Solve a dense equation system with the singular value decomposition
+	 */
+	static RealMatrix denseSolve(double[][] lefthandSide,
+			double[][] righthandSide) {
+		return new SingularValueDecomposition(new Array2DRowRealMatrix(
+				lefthandSide, false)).getSolver().solve(
+				new Array2DRowRealMatrix(righthandSide, false));
+	}
+
+	/**
+	 * Update flux and conductivity of all edges
+	 */
+	void edgeUpdate() {
+		this.updateConductivities(this.myMue);
+	}
+}
@@ -0,0 +1,129 @@
+/**
+ *    LargeGraphBenchmark.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import physarum.code.CancellationToken;
+import physarum.code.ConjugateGradientPressureSolver;
+import physarum.code.LaplacianOperator;
+import physarum.code.PhysarumGraph;
+import physarum.code.PhysarumSolver;
+import physarum.code.PhysarumState;
+
+/**
+ * The phases and end to end solve() on graphs of 10^4 to 10^6 nodes, which
+ * only the conjugate gradient pressure solver can handle. The pressures are
+ * solved to a relative residual of 1e-6 and solve() runs 3 iterations; even
+ * so an operation on the largest graphs takes minutes.
+ * 
+ * @author Torsten
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g" })
+public class LargeGraphBenchmark {
+	/** Iterations per solve */
+	static final int ITERATIONS = 3;
+
+	@Param({ "grid-10000", "geometric-10000", "grid-1000000",
+			"geometric-1000000" })
+	public String graph;
+
+	private PhysarumGraph myGraph;
+	private PhysarumState myInitialState;
+	private PhysarumState mySolvedState;
+	private PhysarumState myState;
+	private BenchmarkSolver myPhaseSolver;
+	private ConjugateGradientPressureSolver myPressureSolver;
+	private PhysarumSolver mySolver;
+	private LaplacianOperator myOperator;
+	private double[] myX;
+	private double[] myY;
+
+	@Setup(Level.Trial)
+	public void setupGraph() {
+		this.myGraph = BenchmarkGraphs.create(this.graph);
+		this.myInitialState = BenchmarkSetup.initialState(this.graph,
+				this.myGraph);
+		this.myState = this.myInitialState.copy();
+		this.myPhaseSolver = new BenchmarkSolver(this.myGraph, this.myState);
+		this.myPressureSolver = new ConjugateGradientPressureSolver(1e-6);
+		this.myPressureSolver.solve(this.myGraph, this.myState, 1.0,
+				CancellationToken.NONE);
+		this.mySolvedState = this.myState.copy();
+
+		this.myOperator = new LaplacianOperator(this.myGraph);
+		this.myOperator.setWeights(this.myState);
+		this.myX = new double[this.myGraph.getNodeCount()];
+		this.myY = new double[this.myGraph.getNodeCount()];
+		for (int i = 0; i < this.myX.length; i++) {
+			this.myX[i] = this.myState.getPressure(i);
+		}
+	}
+
+	/**
+	 * Start every iteration from the initial conductivities with solved
+	 * pressures, edgeUpdate would otherwise keep decaying them
+	 */
+	@Setup(Level.Iteration)
+	public void resetState() {
+		this.myState.copyFrom(this.mySolvedState);
+	}
+
+	@Setup(Level.Invocation)
+	public void setupSolver() {
+		this.mySolver = SolveBenchmark.createSolver(this.myGraph,
+				this.myInitialState.copy(), "cg", ITERATIONS);
+		this.mySolver.setPressureSolver(new ConjugateGradientPressureSolver(
+				1e-6));
+	}
+
+	@Benchmark
+	public int conjugateGradientSolve() {
+		for (int i = 0; i < this.myGraph.getNodeCount(); i++) {
+			this.myState.setPressure(i, 0.0);
+		}
+		return this.myPressureSolver.solve(this.myGraph, this.myState, 1.0,
+				CancellationToken.NONE);
+	}
+
+	@Benchmark
+	public double[] laplacianApply() {
+		this.myOperator.apply(this.myX, this.myY, -1);
+		return this.myY;
+	}
+
+	@Benchmark
+	public void edgeUpdate() {
+		this.myPhaseSolver.edgeUpdate();
+	}
+
+	@Benchmark
+	public PhysarumSolver solve() throws Exception {
+		this.mySolver.solve();
+		return this.mySolver;
+	}
+}
@@ -0,0 +1,108 @@
+/**
+ *    PhaseBenchmark.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math3.linear.RealMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import physarum.code.CancellationToken;
+import physarum.code.ConjugateGradientPressureSolver;
+import physarum.code.PhysarumGraph;
+import physarum.code.PhysarumState;
+
+/**
+ * The phases of one iteration on graphs small enough for the dense pressure
+ * solver: building the dense system, solving it by decomposition or by
+ * conjugate gradients and updating the edges.
+ * 
+ * @author Torsten
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhaseBenchmark {
+	@Param({ "tero", "grid-100", "geometric-100", "grid-1000",
+			"geometric-1000" })
+	public String graph;
+
+	private PhysarumGraph myGraph;
+	private PhysarumState myInitialState;
+	private PhysarumState myState;
+	private BenchmarkSolver mySolver;
+	private ConjugateGradientPressureSolver myPressureSolver;
+	private double[][] myLefthandSide;
+	private double[][] myRighthandSide;
+
+	@Setup
+	public void setup() {
+		this.myGraph = BenchmarkGraphs.create(this.graph);
+		this.myState = BenchmarkSetup.initialState(this.graph, this.myGraph);
+		this.mySolver = new BenchmarkSolver(this.myGraph, this.myState);
+		this.myPressureSolver = new ConjugateGradientPressureSolver();
+		this.myLefthandSide = this.mySolver.assemble();
+		this.myRighthandSide = this.mySolver.righthandSide();
+
+		// pressures and fluxes for the edge update
+		this.myPressureSolver.solve(this.myGraph, this.myState, 1.0,
+				CancellationToken.NONE);
+		this.myInitialState = this.myState.copy();
+	}
+
+	/**
+	 * Start every iteration from the initial conductivities, edgeUpdate would
+	 * otherwise keep decaying them
+	 */
+	@Setup(Level.Iteration)
+	public void resetState() {
+		this.myState.copyFrom(this.myInitialState);
+	}
+
+	@Benchmark
+	public double[][] denseAssembly() {
+		return this.mySolver.assemble();
+	}
+
+	@Benchmark
+	public RealMatrix denseLinearSolve() {
+		return BenchmarkSolver.denseSolve(this.myLefthandSide,
+				this.myRighthandSide);
+	}
+
+	@Benchmark
+	public int conjugateGradientSolve() {
+		// start from zero, the pressures of the last call would make the
+		// solve trivial
+		for (int i = 0; i < this.myGraph.getNodeCount(); i++) {
+			this.myState.setPressure(i, 0.0);
+		}
+		return this.myPressureSolver.solve(this.myGraph, this.myState, 1.0,
+				CancellationToken.NONE);
+	}
+
+	@Benchmark
+	public void edgeUpdate() {
+		this.mySolver.edgeUpdate();
+	}
+}
@@ -0,0 +1,92 @@
+/**
+ *    SolveBenchmark.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import physarum.code.ConjugateGradientPressureSolver;
+import physarum.code.PhysarumGraph;
+import physarum.code.PhysarumSolver;
+import physarum.code.PhysarumState;
+
+/**
+ * End to end solve() of a fixed number of iterations, comparing the dense
+ * and the conjugate gradient pressure solver on graphs both can handle
+ * 
+ * @author Torsten
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveBenchmark {
+	/** Iterations per solve */
+	static final int ITERATIONS = 10;
+
+	@Param({ "tero", "grid-100", "geometric-100", "grid-1000",
+			"geometric-1000" })
+	public String graph;
+
+	@Param({ "dense", "cg" })
+	public String backend;
+
+	private PhysarumGraph myGraph;
+	private PhysarumState myInitialState;
+	private PhysarumSolver mySolver;
+
+	@Setup(Level.Trial)
+	public void setupGraph() {
+		this.myGraph = BenchmarkGraphs.create(this.graph);
+		this.myInitialState = BenchmarkSetup.initialState(this.graph,
+				this.myGraph);
+	}
+
+	@Setup(Level.Invocation)
+	public void setupSolver() {
+		this.mySolver = createSolver(this.myGraph,
+				this.myInitialState.copy(), this.backend, ITERATIONS);
+	}
+
+	/**
+	 * Creates a solver running a fixed number of iterations
+	 */
+	static PhysarumSolver createSolver(PhysarumGraph graph,
+			PhysarumState state, String backend, int iterations) {
+		PhysarumSolver solver = new PhysarumSolver(graph, state);
+		solver.enableLogging(false);
+		solver.setMaximumIterations(iterations);
+		if (backend.equals("cg")) {
+			solver.setPressureSolver(new ConjugateGradientPressureSolver());
+		} else if (!backend.equals("dense")) {
+			throw new IllegalArgumentException("Unknown backend " + backend);
+		}
+		return solver;
+	}
+
+	@Benchmark
+	public PhysarumSolver solve() throws Exception {
+		this.mySolver.solve();
+		return this.mySolver;
+	}
+}
@@ -0,0 +1,137 @@
+/**
+ *    AnytimeResult.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.util.Arrays;
+
+/**
+ * What a PhysarumSolver found until it converged, ran out of iterations or
+ * was cancelled: the survived edges, the path the flux favours and how much
+ * the answer can be trusted.
+ * 
+ * @author Torsten
+ * 
+ */
+public class AnytimeResult {
+	/** The indexes of the survived edges */
+	private final int[] mySurvivedEdges;
+
+	/** The path the flux favours, from source to sink */
+	private final int[] myPath;
+
+	/** The smallest flux on the path relative to I0 */
+	private final double myPathFlux;
+
+	/** The relative residual of the last conductivity update */
+	private final double myRelativeResidual;
+
+	/** The number of iterations run */
+	private final int myIterations;
+
+	/** True if the run converged */
+	private final boolean myConverged;
+
+	/** True if the run was cancelled */
+	private final boolean myCancelled;
+
+	/**
+	 * Creates the result of a solver after solve(CancellationToken)
+	 * 
+	 * @param solver
+	 *            the solver
+	 * @param cancelled
+	 *            true if the run was cancelled
+	 */
+	AnytimeResult(PhysarumSolver solver, boolean cancelled) {
+		PhysarumGraph graph = solver.getGraph();
+		PhysarumState state = solver.getState();
+		this.mySurvivedEdges = solver.getSurvivedEdges();
+		this.myPath = PhysarumPaths.widestFluxPath(graph, state);
+
+		double flux = this.myPath.length > 0 ? Double.POSITIVE_INFINITY : 0.0;
+		for (int edge : this.myPath) {
+			flux = Math.min(flux, Math.abs(state.getFlux(edge)));
+		}
+		this.myPathFlux = solver.getI0() != 0 ? flux / Math.abs(solver.getI0())
+				: 0.0;
+		this.myRelativeResidual = state.getIteration() > 0 ? solver
+				.getIterationStatistics().getRelativeResidual()
+				: Double.POSITIVE_INFINITY;
+		this.myIterations = state.getIteration();
+		this.myConverged = state.isConverged();
+		this.myCancelled = cancelled;
+	}
+
+	public int[] getSurvivedEdges() {
+		return mySurvivedEdges.clone();
+	}
+
+	/**
+	 * Get the path from the source to the sink whose smallest flux is the
+	 * largest
+	 * 
+	 * @return the edge indexes, empty before the first iteration
+	 */
+	public int[] getPath() {
+		return myPath.clone();
+	}
+
+	/**
+	 * Get the share of the flux I0 that passes the whole path. It grows to 1
+	 * while the other edges die, so it tells how decided the path is.
+	 * 
+	 * @return the share between 0 and 1
+	 */
+	public double getPathFlux() {
+		return myPathFlux;
+	}
+
+	/**
+	 * Get the relative residual of the last conductivity update
+	 * 
+	 * @return the residual, infinite before the first iteration
+	 */
+	public double getRelativeResidual() {
+		return myRelativeResidual;
+	}
+
+	/**
+	 * True if the survived edges are exactly the path, i.e. the answer is a
+	 * single path even if the run didn't converge
+	 * 
+	 * @return
+	 */
+	public boolean isSinglePath() {
+		if (myPath.length == 0 || myPath.length != mySurvivedEdges.length) {
+			return false;
+		}
+		int[] sorted = myPath.clone();
+		Arrays.sort(sorted);
+		return Arrays.equals(sorted, mySurvivedEdges);
+	}
+
+	public int getIterations() {
+		return myIterations;
+	}
+
+	public boolean isConverged() {
+		return myConverged;
+	}
+
+	public boolean isCancelled() {
+		return myCancelled;
+	}
+
+	@Override
+	public String toString() {
+		return "path = " + Arrays.toString(this.myPath) + "\tpathFlux = "
+				+ this.myPathFlux + "\tsinglePath = " + this.isSinglePath()
+				+ "\titerations = " + this.myIterations + "\tconverged = "
+				+ this.myConverged + "\tcancelled = " + this.myCancelled;
+	}
+}
@@ -0,0 +1,553 @@
+/**
+ *    BitmapMazeReader.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Builds the corridor graph of a raster maze image. Light pixels are
+ * corridors, dark pixels are walls; the source and the sink are marked with
+ * their own colors. Free pixels are connected to their four neighbours.
+ * 
+ * With corridor compression, the default, only junctions, dead ends, corners
+ * where a corridor turns and the terminals become nodes; the straight runs of
+ * pixels in between are merged into one edge whose length is the number of
+ * pixel steps times the pixel size. Without it every free pixel is a node.
+ * The node ids are the pixel positions y * width + x.
+ * 
+ * PGM and PPM files (P2, P3, P5, P6) are read row by row, holding three rows
+ * of pixels at a time, so even images of many megapixels need memory in the
+ * size of the graph only. Other formats, e.g. PNG, are decoded by
+ * javax.imageio into a packed raster first.
+ * 
+ * @author Torsten
+ * 
+ */
+public class BitmapMazeReader {
+	/** Pixel class of a wall */
+	private static final byte WALL = 0;
+
+	/** Pixel class of a corridor */
+	private static final byte FREE = 1;
+
+	/** Pixel class of a source marker */
+	private static final byte SOURCE = 2;
+
+	/** Pixel class of a sink marker */
+	private static final byte SINK = 3;
+
+	/** Handle of a pixel without node or segment */
+	private static final int NONE = -1;
+
+	/** Pixels with a gray value of at least this are corridors */
+	private int myThreshold = 128;
+
+	/** The RGB color marking the source */
+	private int mySourceColor = 0xFF0000;
+
+	/** The RGB color marking the sink */
+	private int mySinkColor = 0x0000FF;
+
+	/** Merge corridor pixels into edges */
+	private boolean myCompressCorridors = true;
+
+	/** The length of one pixel step */
+	private double myPixelSize = 1.0;
+
+	/**
+	 * Read a maze image file
+	 * 
+	 * @param file
+	 *            a PGM, PPM or any image javax.imageio can read
+	 * @return the corridor graph with source and sink
+	 * @throws IOException
+	 *             if the file can't be read or has no source or sink marker
+	 */
+	public PhysarumProblem read(File file) throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			return this.read(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Read a maze image
+	 * 
+	 * @param in
+	 *            a PGM, PPM or any image javax.imageio can read, not closed
+	 * @return the corridor graph with source and sink
+	 * @throws IOException
+	 *             if the image can't be read or has no source or sink marker
+	 */
+	public PhysarumProblem read(InputStream in) throws IOException {
+		BufferedInputStream buffered = new BufferedInputStream(in, 1 << 16);
+		buffered.mark(2);
+		int first = buffered.read();
+		int second = buffered.read();
+		buffered.reset();
+
+		Raster raster;
+		if (first == 'P' && second >= '2' && second <= '6' && second != '4') {
+			raster = new NetpbmRaster(buffered);
+		} else {
+			BufferedImage image = ImageIO.read(buffered);
+			if (image == null) {
+				throw new IOException("Unsupported image format");
+			}
+			raster = new ImageRaster(image);
+		}
+		return this.build(raster);
+	}
+
+	/**
+	 * Classify the pixels row by row and build the graph
+	 */
+	private PhysarumProblem build(Raster raster) throws IOException {
+		int width = raster.getWidth();
+		int height = raster.getHeight();
+		if (width < 1 || height < 1
+				|| (long) width * height > Integer.MAX_VALUE) {
+			throw new IOException("Bad image size " + width + " x " + height);
+		}
+
+		int[] rgb = new int[width];
+		byte[] previous = new byte[width];
+		byte[] current = new byte[width];
+		byte[] next = new byte[width];
+		this.classify(raster, rgb, next);
+
+		int[] previousHandles = new int[width];
+		int[] currentHandles = new int[width];
+		Arrays.fill(previousHandles, NONE);
+
+		Segments segments = new Segments(new PhysarumGraphBuilder(width
+				+ height), this.myPixelSize);
+		int source = NONE;
+		int sink = NONE;
+
+		for (int y = 0; y < height; y++) {
+			byte[] swap = previous;
+			previous = current;
+			current = next;
+			next = swap;
+			if (y + 1 < height) {
+				this.classify(raster, rgb, next);
+			} else {
+				Arrays.fill(next, WALL);
+			}
+			if (y == 0) {
+				Arrays.fill(previous, WALL);
+			}
+
+			for (int x = 0; x < width; x++) {
+				byte type = current[x];
+				if (type == WALL) {
+					currentHandles[x] = NONE;
+					continue;
+				}
+				boolean left = x > 0 && current[x - 1] != WALL;
+				boolean up = previous[x] != WALL;
+				boolean right = x + 1 < width && current[x + 1] != WALL;
+				boolean down = next[x] != WALL;
+				int degree = (left ? 1 : 0) + (up ? 1 : 0) + (right ? 1 : 0)
+						+ (down ? 1 : 0);
+				boolean terminal = (type == SOURCE && source == NONE)
+						|| (type == SINK && sink == NONE);
+				boolean straight = (left && right) || (up && down);
+
+				int handle;
+				if (!this.myCompressCorridors || terminal || degree != 2
+						|| !straight) {
+					handle = segments.addNode(y * width + x);
+					if (type == SOURCE && source == NONE) {
+						source = handle;
+					} else if (type == SINK && sink == NONE) {
+						sink = handle;
+					}
+					if (left) {
+						segments.connect(currentHandles[x - 1], handle);
+					}
+					if (up) {
+						segments.connect(previousHandles[x], handle);
+					}
+				} else if (left) {
+					// a horizontal corridor continues
+					handle = segments.extend(currentHandles[x - 1]);
+				} else if (up) {
+					// a vertical corridor continues
+					handle = segments.extend(previousHandles[x]);
+				} else {
+					throw new IllegalStateException("Corridor without start");
+				}
+				currentHandles[x] = handle;
+			}
+
+			int[] handles = previousHandles;
+			previousHandles = currentHandles;
+			currentHandles = handles;
+		}
+
+		if (source == NONE) {
+			throw new IOException("No source marker in the image");
+		}
+		if (sink == NONE) {
+			throw new IOException("No sink marker in the image");
+		}
+		PhysarumGraphBuilder builder = segments.getBuilder();
+		builder.setTerminals(source, sink);
+		return builder.buildProblem();
+	}
+
+	/**
+	 * Read the next row and classify its pixels
+	 */
+	private void classify(Raster raster, int[] rgb, byte[] types)
+			throws IOException {
+		raster.readRow(rgb);
+		for (int x = 0; x < rgb.length; x++) {
+			int color = rgb[x] & 0xFFFFFF;
+			if (color == this.mySourceColor) {
+				types[x] = SOURCE;
+			} else if (color == this.mySinkColor) {
+				types[x] = SINK;
+			} else {
+				int r = (color >> 16) & 0xFF;
+				int g = (color >> 8) & 0xFF;
+				int b = color & 0xFF;
+				types[x] = (299 * r + 587 * g + 114 * b) / 1000 >= this.myThreshold ? FREE
+						: WALL;
+			}
+		}
+	}
+
+	// ============================================================================================
+	// Corridor segments
+	// ============================================================================================
+
+	/**
+	 * The straight corridor runs between nodes. A pixel handle >= 0 is a node
+	 * index, a handle < -1 is the segment -(handle + 2) that reaches up to
+	 * the pixel. Only corridors run straight through a pixel, so a segment
+	 * has a node on one end as soon as it is created and gets its second
+	 * node when the corridor ends.
+	 */
+	private static class Segments {
+		private final PhysarumGraphBuilder myBuilder;
+		private final double myPixelSize;
+
+		/** The node the segment starts at */
+		private int[] myStart = new int[64];
+
+		/** The pixel steps of the segment so far */
+		private int[] mySteps = new int[64];
+
+		/** Released segments to reuse */
+		private int[] myFree = new int[64];
+		private int myFreeCount = 0;
+		private int myCount = 0;
+
+		Segments(PhysarumGraphBuilder builder, double pixelSize) {
+			this.myBuilder = builder;
+			this.myPixelSize = pixelSize;
+		}
+
+		int addNode(int id) {
+			return this.myBuilder.addNode(id);
+		}
+
+		/**
+		 * Continue the corridor of a neighbour by one pixel
+		 * 
+		 * @param handle
+		 *            the handle of the neighbour
+		 * @return the handle of the pixel
+		 */
+		int extend(int handle) {
+			int segment;
+			if (handle >= 0) {
+				segment = this.allocate();
+				this.myStart[segment] = handle;
+				this.mySteps[segment] = 1;
+			} else {
+				segment = -(handle + 2);
+				this.mySteps[segment]++;
+			}
+			return -(segment + 2);
+		}
+
+		/**
+		 * A neighbour of a node pixel, ends its corridor at the node
+		 * 
+		 * @param handle
+		 *            the handle of the neighbour
+		 * @param node
+		 *            the node index
+		 */
+		void connect(int handle, int node) {
+			if (handle >= 0) {
+				this.myBuilder.addEdge(handle, node, this.myPixelSize);
+			} else {
+				int segment = -(handle + 2);
+				int start = this.myStart[segment];
+				if (start != node) {
+					this.myBuilder.addEdge(start, node,
+							(this.mySteps[segment] + 1) * this.myPixelSize);
+				}
+				this.release(segment);
+			}
+		}
+
+		private int allocate() {
+			if (this.myFreeCount > 0) {
+				return this.myFree[--this.myFreeCount];
+			}
+			if (this.myCount == this.myStart.length) {
+				this.myStart = Arrays.copyOf(this.myStart, 2 * this.myCount);
+				this.mySteps = Arrays.copyOf(this.mySteps, 2 * this.myCount);
+			}
+			return this.myCount++;
+		}
+
+		private void release(int segment) {
+			if (this.myFreeCount == this.myFree.length) {
+				this.myFree = Arrays.copyOf(this.myFree, 2 * this.myFreeCount);
+			}
+			this.myFree[this.myFreeCount++] = segment;
+		}
+
+		PhysarumGraphBuilder getBuilder() {
+			return this.myBuilder;
+		}
+	}
+
+	// ============================================================================================
+	// Rasters
+	// ============================================================================================
+
+	/**
+	 * Delivers an image row by row
+	 */
+	private interface Raster {
+		int getWidth();
+
+		int getHeight();
+
+		/**
+		 * Read the next row as packed RGB values
+		 */
+		void readRow(int[] rgb) throws IOException;
+	}
+
+	/**
+	 * A decoded image
+	 */
+	private static class ImageRaster implements Raster {
+		private final BufferedImage myImage;
+		private int myRow = 0;
+
+		ImageRaster(BufferedImage image) {
+			this.myImage = image;
+		}
+
+		@Override
+		public int getWidth() {
+			return this.myImage.getWidth();
+		}
+
+		@Override
+		public int getHeight() {
+			return this.myImage.getHeight();
+		}
+
+		@Override
+		public void readRow(int[] rgb) {
+			this.myImage.getRGB(0, this.myRow++, rgb.length, 1, rgb, 0,
+					rgb.length);
+		}
+	}
+
+	/**
+	 * A PGM or PPM stream in plain (P2, P3) or binary (P5, P6) form
+	 */
+	private static class NetpbmRaster implements Raster {
+		private final InputStream myIn;
+		private final boolean myColor;
+		private final boolean myPlain;
+		private final int myWidth;
+		private final int myHeight;
+		private final int myMaximum;
+
+		NetpbmRaster(InputStream in) throws IOException {
+			this.myIn = in;
+			in.read();
+			int type = in.read();
+			this.myColor = type == '3' || type == '6';
+			this.myPlain = type == '2' || type == '3';
+			this.myWidth = this.readNumber();
+			this.myHeight = this.readNumber();
+			this.myMaximum = this.readNumber();
+			if (this.myMaximum < 1 || this.myMaximum > 65535) {
+				throw new IOException("Bad maximum value " + this.myMaximum);
+			}
+			// readNumber() consumed the single whitespace before the pixels
+		}
+
+		@Override
+		public int getWidth() {
+			return this.myWidth;
+		}
+
+		@Override
+		public int getHeight() {
+			return this.myHeight;
+		}
+
+		@Override
+		public void readRow(int[] rgb) throws IOException {
+			for (int x = 0; x < rgb.length; x++) {
+				if (this.myColor) {
+					int r = this.readSample();
+					int g = this.readSample();
+					int b = this.readSample();
+					rgb[x] = (r << 16) | (g << 8) | b;
+				} else {
+					int gray = this.readSample();
+					rgb[x] = (gray << 16) | (gray << 8) | gray;
+				}
+			}
+		}
+
+		/**
+		 * Read a sample scaled to 0..255
+		 */
+		private int readSample() throws IOException {
+			int value;
+			if (this.myPlain) {
+				value = this.readNumber();
+			} else if (this.myMaximum < 256) {
+				value = this.readByte();
+			} else {
+				value = (this.readByte() << 8) | this.readByte();
+			}
+			return this.myMaximum == 255 ? value : value * 255
+					/ this.myMaximum;
+		}
+
+		private int readByte() throws IOException {
+			int b = this.myIn.read();
+			if (b < 0) {
+				throw new EOFException("Image is truncated");
+			}
+			return b;
+		}
+
+		/**
+		 * Read a decimal number, skipping whitespace and comments before it
+		 * and one whitespace after it
+		 */
+		private int readNumber() throws IOException {
+			int c = this.readByte();
+			while (Character.isWhitespace(c) || c == '#') {
+				if (c == '#') {
+					while (c != '\n' && c != '\r') {
+						c = this.readByte();
+					}
+				}
+				c = this.readByte();
+			}
+			int value = 0;
+			while (c >= '0' && c <= '9') {
+				value = 10 * value + (c - '0');
+				c = this.myIn.read();
+			}
+			if (c >= 0 && !Character.isWhitespace(c)) {
+				throw new IOException("Bad number in image header");
+			}
+			return value;
+		}
+	}
+
+	// ============================================================================================
+	// Getters and setters
+	// ============================================================================================
+
+	public int getThreshold() {
+		return myThreshold;
+	}
+
+	/**
+	 * Set the gray value from which on a pixel is a corridor
+	 * 
+	 * @param threshold
+	 *            0..255
+	 */
+	public void setThreshold(int threshold) {
+		this.myThreshold = threshold;
+	}
+
+	public int getSourceColor() {
+		return mySourceColor;
+	}
+
+	/**
+	 * Set the color of the source marker
+	 * 
+	 * @param rgb
+	 *            packed 0xRRGGBB, a gray for PGM images
+	 */
+	public void setSourceColor(int rgb) {
+		this.mySourceColor = rgb & 0xFFFFFF;
+	}
+
+	public int getSinkColor() {
+		return mySinkColor;
+	}
+
+	/**
+	 * Set the color of the sink marker
+	 * 
+	 * @param rgb
+	 *            packed 0xRRGGBB, a gray for PGM images
+	 */
+	public void setSinkColor(int rgb) {
+		this.mySinkColor = rgb & 0xFFFFFF;
+	}
+
+	public boolean isCompressCorridors() {
+		return myCompressCorridors;
+	}
+
+	/**
+	 * Merge straight corridor pixels into single edges
+	 * 
+	 * @param compress
+	 *            false to make every free pixel a node
+	 */
+	public void setCompressCorridors(boolean compress) {
+		this.myCompressCorridors = compress;
+	}
+
+	public double getPixelSize() {
+		return myPixelSize;
+	}
+
+	public void setPixelSize(double pixelSize) {
+		this.myPixelSize = pixelSize;
+	}
+}
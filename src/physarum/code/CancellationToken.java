@@ -0,0 +1,103 @@
+/**
+ *    CancellationToken.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+/**
+ * Tells a running solver to stop, either because somebody called cancel() or
+ * because a deadline passed. The solver checks the token between iterations
+ * and inside iterative pressure solves and then returns what it has found so
+ * far.
+ * 
+ * @author Torsten
+ * 
+ */
+public class CancellationToken {
+	/** A token that is never cancelled */
+	public static final CancellationToken NONE = new CancellationToken() {
+		@Override
+		public void cancel() {
+			throw new UnsupportedOperationException(
+					"The NONE token can't be cancelled");
+		}
+	};
+
+	/** True once cancel() was called or the deadline passed */
+	private volatile boolean myCancelled = false;
+
+	/** The deadline in System.nanoTime() */
+	private final long myDeadline;
+
+	/** True if the token has a deadline */
+	private final boolean myHasDeadline;
+
+	/**
+	 * Creates a token without deadline
+	 */
+	public CancellationToken() {
+		this.myDeadline = 0;
+		this.myHasDeadline = false;
+	}
+
+	/**
+	 * Creates a token that cancels itself at a deadline
+	 * 
+	 * @param deadlineNanos
+	 *            the deadline in System.nanoTime()
+	 */
+	public CancellationToken(long deadlineNanos) {
+		this.myDeadline = deadlineNanos;
+		this.myHasDeadline = true;
+	}
+
+	/**
+	 * Creates a token that cancels itself after some time
+	 * 
+	 * @param millis
+	 *            the time from now in milliseconds
+	 * @return the token
+	 */
+	public static CancellationToken withTimeout(long millis) {
+		return new CancellationToken(System.nanoTime() + millis * 1000000L);
+	}
+
+	/**
+	 * Cancel the work using this token
+	 */
+	public void cancel() {
+		this.myCancelled = true;
+	}
+
+	/**
+	 * Checks if the work should stop
+	 * 
+	 * @return true if cancelled or past the deadline
+	 */
+	public boolean isCancelled() {
+		if (this.myCancelled) {
+			return true;
+		}
+		if (this.myHasDeadline && System.nanoTime() - this.myDeadline >= 0) {
+			this.myCancelled = true;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Get the time left until the deadline
+	 * 
+	 * @return nanoseconds, Long.MAX_VALUE without deadline, 0 if cancelled
+	 */
+	public long getRemainingNanos() {
+		if (this.isCancelled()) {
+			return 0;
+		}
+		return this.myHasDeadline ? this.myDeadline - System.nanoTime()
+				: Long.MAX_VALUE;
+	}
+}
@@ -0,0 +1,37 @@
+/**
+ *    ConductivityThresholdListener.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+/**
+ * Is notified by the PhysarumSolver whenever the conductivity of an edge
+ * crosses the event threshold of the solver, by default the survival
+ * threshold. The events are delivered during the conductivity update on the
+ * thread running the solver and consist of primitives only, so listening
+ * doesn't allocate. Implementations have to be fast and must not change the
+ * solver.
+ * 
+ * @author Torsten
+ * 
+ */
+public interface ConductivityThresholdListener {
+	/**
+	 * The conductivity of an edge crossed the threshold
+	 * 
+	 * @param iteration
+	 *            the iteration of the update, starting with 0
+	 * @param edge
+	 *            the edge index
+	 * @param formerConductivity
+	 *            the conductivity before the update
+	 * @param conductivity
+	 *            the conductivity after the update, above the threshold if
+	 *            the edge came back and not above if it died
+	 */
+	void thresholdCrossed(int iteration, int edge, double formerConductivity,
+			double conductivity);
+}
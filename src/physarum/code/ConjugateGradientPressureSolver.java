@@ -0,0 +1,242 @@
+/**
+ *    ConjugateGradientPressureSolver.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Solves the pressures with the conjugate gradient method, preconditioned
+ * with the diagonal of the matrix. The matrix is never built, it is applied
+ * edge by edge by a LaplacianOperator, so a solve needs O(edges) memory and
+ * time per inner iteration instead of the O(nodes^3) of the dense
+ * decomposition. On large graphs the operator scatters in parallel. The
+ * pressure of the sink is fixed to 0 which makes the system positive definite,
+ * and the pressures of the previous iteration are the start value.
+ * 
+ * The cancellation token is checked every few inner iterations. An instance
+ * keeps its work arrays between solves and belongs to one solver.
+ * 
+ * @author Torsten
+ * 
+ */
+public class ConjugateGradientPressureSolver implements PressureSolver {
+	/** The relative residual to reach */
+	private double myTolerance = 1e-10;
+
+	/** The maximum inner iterations, 0 for ten times the number of nodes */
+	private int myMaximumIterations = 0;
+
+	/** Inner iterations between two checks of the cancellation token */
+	private int myCheckInterval = 16;
+
+	/** The threads of the operator, 0 for its default */
+	private int myThreads = 0;
+
+	/** The relative residual of the last solve */
+	private double myLastResidual = 0;
+
+	/** The operator of the graph of the last solve */
+	private LaplacianOperator myOperator = null;
+
+	/** The inverse of the diagonal of the matrix */
+	private double[] myInverseDiagonal = new double[0];
+
+	/** The work vectors */
+	private double[] myX = new double[0];
+	private double[] myR = new double[0];
+	private double[] myZ = new double[0];
+	private double[] myP = new double[0];
+	private double[] myQ = new double[0];
+
+	/**
+	 * Creates a solver with a relative tolerance of 1e-10
+	 */
+	public ConjugateGradientPressureSolver() {
+	}
+
+	/**
+	 * Creates a solver
+	 * 
+	 * @param tolerance
+	 *            the relative residual to reach
+	 */
+	public ConjugateGradientPressureSolver(double tolerance) {
+		this.myTolerance = tolerance;
+	}
+
+	@Override
+	public int solve(PhysarumGraph graph, PhysarumState state, double I0,
+			CancellationToken token) throws CancellationException {
+		int n = graph.getNodeCount();
+		int sink = state.getSink();
+		int source = state.getSource();
+		this.ensureCapacity(n);
+
+		if (this.myOperator == null || this.myOperator.getGraph() != graph) {
+			this.myOperator = new LaplacianOperator(graph);
+			if (this.myThreads > 0) {
+				this.myOperator.setThreads(this.myThreads);
+			}
+		}
+		LaplacianOperator operator = this.myOperator;
+		operator.setWeights(state);
+		for (int i = 0; i < n; i++) {
+			double diagonal = operator.getDiagonal(i);
+			this.myInverseDiagonal[i] = diagonal > 0 ? 1.0 / diagonal : 1.0;
+		}
+
+		// start with the last pressures, shifted so the sink is 0
+		double[] x = this.myX;
+		double shift = sink >= 0 ? state.getPressure(sink) : 0.0;
+		for (int i = 0; i < n; i++) {
+			x[i] = i == sink ? 0.0 : state.getPressure(i) - shift;
+		}
+
+		// r = b - A x with b = -I0 at the source, the sink row is dropped
+		double[] r = this.myR;
+		operator.apply(x, r, sink);
+		double bNorm = 0;
+		for (int i = 0; i < n; i++) {
+			double b = (i == source && i != sink) ? -I0 : 0.0;
+			r[i] = i == sink ? 0.0 : b - r[i];
+			bNorm += b * b;
+		}
+		bNorm = Math.sqrt(bNorm);
+		if (bNorm == 0) {
+			for (int i = 0; i < n; i++) {
+				state.setPressure(i, 0.0);
+			}
+			state.setFirstRun(false);
+			this.myLastResidual = 0;
+			return 0;
+		}
+
+		double[] z = this.myZ;
+		double[] p = this.myP;
+		double[] q = this.myQ;
+		double rz = 0;
+		double rr = 0;
+		for (int i = 0; i < n; i++) {
+			z[i] = r[i] * this.myInverseDiagonal[i];
+			p[i] = z[i];
+			rz += r[i] * z[i];
+			rr += r[i] * r[i];
+		}
+
+		int maximum = this.myMaximumIterations > 0 ? this.myMaximumIterations
+				: 10 * n;
+		double limit = this.myTolerance * bNorm;
+		int iteration = 0;
+		while (Math.sqrt(rr) > limit && iteration < maximum) {
+			if (iteration % this.myCheckInterval == 0 && token.isCancelled()) {
+				throw new CancellationException(
+						"Pressure solve cancelled at inner iteration "
+								+ iteration);
+			}
+
+			operator.apply(p, q, sink);
+			double pq = 0;
+			for (int i = 0; i < n; i++) {
+				pq += p[i] * q[i];
+			}
+			if (pq <= 0) {
+				break;
+			}
+
+			double alpha = rz / pq;
+			double rzNext = 0;
+			rr = 0;
+			for (int i = 0; i < n; i++) {
+				x[i] += alpha * p[i];
+				r[i] -= alpha * q[i];
+				z[i] = r[i] * this.myInverseDiagonal[i];
+				rzNext += r[i] * z[i];
+				rr += r[i] * r[i];
+			}
+
+			double beta = rzNext / rz;
+			rz = rzNext;
+			for (int i = 0; i < n; i++) {
+				p[i] = z[i] + beta * p[i];
+			}
+			iteration++;
+		}
+
+		for (int i = 0; i < n; i++) {
+			state.setPressure(i, x[i]);
+		}
+		state.setFirstRun(false);
+		this.myLastResidual = Math.sqrt(rr) / bNorm;
+		return iteration;
+	}
+
+	private void ensureCapacity(int nodes) {
+		if (this.myX.length < nodes) {
+			this.myInverseDiagonal = new double[nodes];
+			this.myX = new double[nodes];
+			this.myR = new double[nodes];
+			this.myZ = new double[nodes];
+			this.myP = new double[nodes];
+			this.myQ = new double[nodes];
+		}
+	}
+
+	@Override
+	public double getLastResidual() {
+		return this.myLastResidual;
+	}
+
+	public double getTolerance() {
+		return myTolerance;
+	}
+
+	public void setTolerance(double tolerance) {
+		this.myTolerance = tolerance;
+	}
+
+	public int getMaximumIterations() {
+		return myMaximumIterations;
+	}
+
+	/**
+	 * Set the maximum number of inner iterations
+	 * 
+	 * @param iterations
+	 *            the maximum, 0 for ten times the number of nodes
+	 */
+	public void setMaximumIterations(int iterations) {
+		this.myMaximumIterations = iterations;
+	}
+
+	/**
+	 * Set the number of inner iterations between two checks of the
+	 * cancellation token
+	 * 
+	 * @param interval
+	 */
+	public void setCheckInterval(int interval) {
+		this.myCheckInterval = Math.max(1, interval);
+	}
+
+	/**
+	 * Set the number of threads the operator scatters with
+	 * 
+	 * @param threads
+	 *            the threads, 1 to solve on the calling thread only
+	 * @see LaplacianOperator#setThreads(int)
+	 */
+	public void setThreads(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Thread count must be positive");
+		}
+		this.myThreads = threads;
+		if (this.myOperator != null) {
+			this.myOperator.setThreads(threads);
+		}
+	}
+}
@@ -0,0 +1,38 @@
+/**
+ *    ConvergenceCriterion.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+/**
+ * Decides after every iteration of a PhysarumSolver whether the run is
+ * finished. Criteria may keep state between iterations, so an instance
+ * belongs to one solver.
+ * 
+ * @author Torsten
+ * 
+ */
+public interface ConvergenceCriterion {
+	/**
+	 * Called when solve() starts or continues a run, before the first
+	 * iteration
+	 * 
+	 * @param solver
+	 *            the solver
+	 */
+	void start(PhysarumSolver solver);
+
+	/**
+	 * Checks the run after an iteration
+	 * 
+	 * @param solver
+	 *            the solver
+	 * @param statistics
+	 *            the figures of the iteration, only valid during the call
+	 * @return true if the run converged
+	 */
+	boolean isConverged(PhysarumSolver solver, IterationStatistics statistics);
+}
@@ -0,0 +1,695 @@
+/**
+ *    DomainDecompositionPressureSolver.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Solves the pressures in parallel with the conjugate gradient method and a
+ * two level additive Schwarz preconditioner, meant for graphs of 10^6 nodes
+ * and more. The graph is cut into subdomains by recursive bisection and
+ * renumbered so every subdomain is a contiguous range of nodes. The
+ * preconditioner adds two corrections:
+ * <ul>
+ * <li>the local one, an incomplete Cholesky factorization without fill of the
+ * matrix of every subdomain, the couplings to other subdomains left out. The
+ * subdomains are factorized and solved in parallel.</li>
+ * <li>the coarse one with one unknown per subdomain, the pressure shift of the
+ * whole subdomain, solved with a dense Cholesky factorization. It carries the
+ * global part of the solution between the subdomains, so the number of
+ * iterations doesn't grow with the number of subdomains.</li>
+ * </ul>
+ * The matrix is applied by a LaplacianOperator and the vector updates run per
+ * subdomain, all on the common fork join pool. As in the
+ * ConjugateGradientPressureSolver the sink is held at 0 and the pressures of
+ * the previous iteration are the start value.
+ * 
+ * The decomposition is computed on the first solve of a graph and kept. An
+ * instance belongs to one solver.
+ * 
+ * @author Torsten
+ * 
+ */
+public class DomainDecompositionPressureSolver implements PressureSolver {
+	/** Nodes per subdomain when the count is chosen automatically */
+	private static final int SUBDOMAIN_NODES = 4096;
+
+	/** The largest automatic subdomain count, the coarse matrix is dense */
+	private static final int MAXIMUM_SUBDOMAINS = 512;
+
+	/** The relative residual to reach */
+	private double myTolerance = 1e-10;
+
+	/** The maximum inner iterations, 0 for ten times the number of nodes */
+	private int myMaximumIterations = 0;
+
+	/** Inner iterations between two checks of the cancellation token */
+	private int myCheckInterval = 16;
+
+	/** The number of subdomains, 0 to choose it from the graph size */
+	private int mySubdomains = 0;
+
+	/** The relative residual of the last solve */
+	private double myLastResidual = 0;
+
+	/** The graph of the decomposition */
+	private PhysarumGraph myGraph = null;
+
+	/** The renumbering into subdomains */
+	private GraphOrdering myOrdering;
+
+	/** The matrix of the renumbered graph */
+	private LaplacianOperator myOperator;
+
+	/** Subdomain p holds the nodes myPartStarts[p] until myPartStarts[p + 1] */
+	private int[] myPartStarts;
+
+	/** The subdomain of every node */
+	private int[] myPartOf;
+
+	/**
+	 * The strictly lower triangle of the subdomain matrices in compressed
+	 * rows, the columns of a row ascending; after the factorization the
+	 * incomplete Cholesky factor
+	 */
+	private int[] myLowerStarts;
+	private int[] myLowerColumns;
+	private double[] myLowerValues;
+
+	/** The position of every edge in myLowerValues, -1 between subdomains */
+	private int[] myEdgePositions;
+
+	/** The diagonal of the matrix and of the factor */
+	private double[] myDiagonal;
+	private double[] myFactorDiagonal;
+
+	/** The coarse matrix, row by row, and its Cholesky factor in place */
+	private double[] myCoarse;
+
+	/** Per subdomain: the coarse right hand side and solution */
+	private double[] myCoarseRight;
+	private double[] myCoarseSolution;
+
+	/** Per subdomain partial sums of the dot products */
+	private double[] myPartialA;
+	private double[] myPartialB;
+
+	/** The work vectors in the new order */
+	private double[] myX;
+	private double[] myR;
+	private double[] myZ;
+	private double[] myP;
+	private double[] myQ;
+
+	/** The fixed node of the current solve in the new order, -1 for none */
+	private int myFixed = -1;
+
+	/**
+	 * Creates a solver with a relative tolerance of 1e-10
+	 */
+	public DomainDecompositionPressureSolver() {
+	}
+
+	/**
+	 * Creates a solver
+	 * 
+	 * @param tolerance
+	 *            the relative residual to reach
+	 */
+	public DomainDecompositionPressureSolver(double tolerance) {
+		this.myTolerance = tolerance;
+	}
+
+	@Override
+	public int solve(PhysarumGraph graph, PhysarumState state, double I0,
+			CancellationToken token) throws CancellationException {
+		if (graph != this.myGraph) {
+			this.decompose(graph);
+		}
+		final int n = graph.getNodeCount();
+		final GraphOrdering ordering = this.myOrdering;
+		final int fixed = state.getSink() >= 0 ? ordering.toNewNode(state
+				.getSink()) : -1;
+		int source = state.getSource() >= 0 ? ordering.toNewNode(state
+				.getSource()) : -1;
+		this.myFixed = fixed;
+
+		this.myOperator.setWeights(state, ordering);
+		this.assemble(state);
+		this.forEachPart(new PartAction() {
+			@Override
+			public void run(int part) {
+				factorize(part);
+			}
+		});
+		this.factorizeCoarse();
+
+		// start with the last pressures, shifted so the sink is 0
+		final double[] x = this.myX;
+		final double[] r = this.myR;
+		final double[] z = this.myZ;
+		final double[] p = this.myP;
+		final double[] q = this.myQ;
+		double shift = fixed >= 0 ? state.getPressure(state.getSink()) : 0.0;
+		for (int i = 0; i < n; i++) {
+			x[i] = i == fixed ? 0.0 : state.getPressure(ordering
+					.toOriginalNode(i)) - shift;
+		}
+
+		// r = b - A x with b = -I0 at the source, the sink row is dropped
+		this.myOperator.apply(x, r, fixed);
+		double bNorm = source >= 0 && source != fixed ? Math.abs(I0) : 0.0;
+		for (int i = 0; i < n; i++) {
+			r[i] = (i == source && i != fixed ? -I0 : 0.0) - r[i];
+		}
+		if (fixed >= 0) {
+			r[fixed] = 0.0;
+		}
+		if (bNorm == 0) {
+			for (int i = 0; i < n; i++) {
+				state.setPressure(i, 0.0);
+			}
+			state.setFirstRun(false);
+			this.myLastResidual = 0;
+			return 0;
+		}
+
+		this.forEachPart(new PartAction() {
+			@Override
+			public void run(int part) {
+				precondition(part);
+			}
+		});
+		double rz = this.correctCoarse();
+		double rr = this.sum(this.myPartialA);
+		this.forEachPart(new PartAction() {
+			@Override
+			public void run(int part) {
+				double[] c = myCoarseSolution;
+				for (int i = myPartStarts[part]; i < myPartStarts[part + 1]; i++) {
+					p[i] = i == fixed ? 0.0 : z[i] + c[part];
+				}
+			}
+		});
+
+		int maximum = this.myMaximumIterations > 0 ? this.myMaximumIterations
+				: 10 * n;
+		double limit = this.myTolerance * bNorm;
+		int iteration = 0;
+		while (Math.sqrt(rr) > limit && iteration < maximum) {
+			if (iteration % this.myCheckInterval == 0 && token.isCancelled()) {
+				throw new CancellationException(
+						"Pressure solve cancelled at inner iteration "
+								+ iteration);
+			}
+
+			this.myOperator.apply(p, q, fixed);
+			this.forEachPart(new PartAction() {
+				@Override
+				public void run(int part) {
+					double pq = 0;
+					for (int i = myPartStarts[part]; i < myPartStarts[part + 1]; i++) {
+						pq += p[i] * q[i];
+					}
+					myPartialA[part] = pq;
+				}
+			});
+			double pq = this.sum(this.myPartialA);
+			if (pq <= 0) {
+				break;
+			}
+
+			final double alpha = rz / pq;
+			this.forEachPart(new PartAction() {
+				@Override
+				public void run(int part) {
+					for (int i = myPartStarts[part]; i < myPartStarts[part + 1]; i++) {
+						x[i] += alpha * p[i];
+						r[i] -= alpha * q[i];
+					}
+					precondition(part);
+				}
+			});
+			double rzNext = this.correctCoarse();
+			rr = this.sum(this.myPartialA);
+
+			final double beta = rzNext / rz;
+			rz = rzNext;
+			this.forEachPart(new PartAction() {
+				@Override
+				public void run(int part) {
+					double c = myCoarseSolution[part];
+					for (int i = myPartStarts[part]; i < myPartStarts[part + 1]; i++) {
+						p[i] = i == fixed ? 0.0 : z[i] + c + beta * p[i];
+					}
+				}
+			});
+			iteration++;
+		}
+
+		for (int i = 0; i < n; i++) {
+			state.setPressure(ordering.toOriginalNode(i), x[i]);
+		}
+		state.setFirstRun(false);
+		this.myLastResidual = Math.sqrt(rr) / bNorm;
+		return iteration;
+	}
+
+	// ============================================================================================
+	// Decomposition
+	// ============================================================================================
+
+	@Override
+	public void lengthsChanged(PhysarumGraph graph, int[] edges, int count) {
+		// a graph not decomposed yet is copied with its new lengths
+		if (graph != this.myGraph) {
+			return;
+		}
+		PhysarumGraph local = this.myOrdering.getReorderedGraph();
+		for (int k = 0; k < count; k++) {
+			local.setLength(this.myOrdering.toNewEdge(edges[k]),
+					graph.getLength(edges[k]));
+		}
+	}
+
+	/**
+	 * Cut a graph into subdomains and set up the structure of their matrices
+	 */
+	private void decompose(PhysarumGraph graph) {
+		int n = graph.getNodeCount();
+		int parts = this.mySubdomains > 0 ? this.mySubdomains : Math.max(
+				Runtime.getRuntime().availableProcessors(), Math.min(
+						MAXIMUM_SUBDOMAINS, n / SUBDOMAIN_NODES));
+		parts = Math.max(1, Math.min(parts, n));
+
+		this.myOrdering = GraphOrdering.bisection(graph, parts);
+		PhysarumGraph local = this.myOrdering.getReorderedGraph();
+		this.myOperator = new LaplacianOperator(local);
+		this.myPartStarts = new int[parts + 1];
+		this.myPartOf = new int[n];
+		for (int part = 0; part <= parts; part++) {
+			this.myPartStarts[part] = this.myOrdering.getPartStart(part);
+		}
+		for (int part = 0; part < parts; part++) {
+			for (int i = this.myPartStarts[part]; i < this.myPartStarts[part + 1]; i++) {
+				this.myPartOf[i] = part;
+			}
+		}
+
+		// the edges inside a subdomain by their higher end node, as column
+		// << 32 | edge so sorting a row sorts the columns
+		int m = local.getEdgeCount();
+		int[] rowStarts = new int[n + 1];
+		for (int e = 0; e < m; e++) {
+			if (this.isInside(local, e)) {
+				rowStarts[Math.max(local.getEdgeStart(e), local.getEdgeEnd(e)) + 1]++;
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			rowStarts[i + 1] += rowStarts[i];
+		}
+		long[] entries = new long[rowStarts[n]];
+		int[] fill = Arrays.copyOf(rowStarts, n);
+		for (int e = 0; e < m; e++) {
+			if (this.isInside(local, e)) {
+				int i = Math.max(local.getEdgeStart(e), local.getEdgeEnd(e));
+				int j = Math.min(local.getEdgeStart(e), local.getEdgeEnd(e));
+				entries[fill[i]++] = (long) j << 32 | e;
+			}
+		}
+
+		// merge parallel edges into one entry
+		this.myEdgePositions = new int[m];
+		Arrays.fill(this.myEdgePositions, -1);
+		this.myLowerStarts = new int[n + 1];
+		int[] columns = new int[entries.length];
+		int count = 0;
+		for (int i = 0; i < n; i++) {
+			Arrays.sort(entries, rowStarts[i], rowStarts[i + 1]);
+			this.myLowerStarts[i] = count;
+			for (int k = rowStarts[i]; k < rowStarts[i + 1]; k++) {
+				int column = (int) (entries[k] >>> 32);
+				if (count == this.myLowerStarts[i]
+						|| columns[count - 1] != column) {
+					columns[count++] = column;
+				}
+				this.myEdgePositions[(int) entries[k]] = count - 1;
+			}
+		}
+		this.myLowerStarts[n] = count;
+		this.myLowerColumns = Arrays.copyOf(columns, count);
+		this.myLowerValues = new double[count];
+
+		this.myDiagonal = new double[n];
+		this.myFactorDiagonal = new double[n];
+		this.myCoarse = new double[parts * parts];
+		this.myCoarseRight = new double[parts];
+		this.myCoarseSolution = new double[parts];
+		this.myPartialA = new double[parts];
+		this.myPartialB = new double[parts];
+		this.myX = new double[n];
+		this.myR = new double[n];
+		this.myZ = new double[n];
+		this.myP = new double[n];
+		this.myQ = new double[n];
+		this.myGraph = graph;
+	}
+
+	private boolean isInside(PhysarumGraph local, int edge) {
+		int i = local.getEdgeStart(edge);
+		int j = local.getEdgeEnd(edge);
+		return i != j && this.myPartOf[i] == this.myPartOf[j];
+	}
+
+	/**
+	 * Fill the subdomain and coarse matrices with the weights D/L of a state
+	 */
+	private void assemble(PhysarumState state) {
+		PhysarumGraph local = this.myOrdering.getReorderedGraph();
+		int parts = this.myPartStarts.length - 1;
+		int fixed = this.myFixed;
+		double[] values = this.myLowerValues;
+		double[] diagonal = this.myDiagonal;
+		double[] coarse = this.myCoarse;
+		Arrays.fill(values, 0.0);
+		Arrays.fill(diagonal, 0.0);
+		Arrays.fill(coarse, 0.0);
+		for (int e = 0; e < local.getEdgeCount(); e++) {
+			int i = local.getEdgeStart(e);
+			int j = local.getEdgeEnd(e);
+			if (i == j) {
+				continue;
+			}
+			double w = state.getConductivity(this.myOrdering
+					.toOriginalEdge(e)) / local.getLength(e);
+			diagonal[i] += w;
+			diagonal[j] += w;
+			if (this.myEdgePositions[e] >= 0) {
+				values[this.myEdgePositions[e]] -= w;
+			}
+
+			// the coarse matrix sums the rows and columns of a subdomain
+			int pi = this.myPartOf[i];
+			int pj = this.myPartOf[j];
+			if (i == fixed) {
+				coarse[pj * parts + pj] += w;
+			} else if (j == fixed) {
+				coarse[pi * parts + pi] += w;
+			} else if (pi != pj) {
+				coarse[pi * parts + pi] += w;
+				coarse[pj * parts + pj] += w;
+				coarse[pi * parts + pj] -= w;
+				coarse[pj * parts + pi] -= w;
+			}
+		}
+	}
+
+	/**
+	 * The incomplete Cholesky factorization without fill of a subdomain, the
+	 * row and column of the fixed node are dropped
+	 */
+	private void factorize(int part) {
+		int[] starts = this.myLowerStarts;
+		int[] columns = this.myLowerColumns;
+		double[] values = this.myLowerValues;
+		double[] factor = this.myFactorDiagonal;
+		int fixed = this.myFixed;
+		for (int i = this.myPartStarts[part]; i < this.myPartStarts[part + 1]; i++) {
+			if (i == fixed) {
+				Arrays.fill(values, starts[i], starts[i + 1], 0.0);
+				factor[i] = 1.0;
+				continue;
+			}
+			double sum = 0;
+			for (int a = starts[i]; a < starts[i + 1]; a++) {
+				int k = columns[a];
+				if (k == fixed) {
+					values[a] = 0.0;
+					continue;
+				}
+				// subtract the entries of both rows left of column k
+				double v = values[a];
+				int b = starts[k];
+				for (int c = starts[i]; c < a && b < starts[k + 1];) {
+					if (columns[c] == columns[b]) {
+						v -= values[c++] * values[b++];
+					} else if (columns[c] < columns[b]) {
+						c++;
+					} else {
+						b++;
+					}
+				}
+				v /= factor[k];
+				values[a] = v;
+				sum += v * v;
+			}
+			double pivot = this.myDiagonal[i] - sum;
+			factor[i] = this.myDiagonal[i] <= 0 ? 1.0 : Math.sqrt(pivot > 1e-12
+					* this.myDiagonal[i] ? pivot : this.myDiagonal[i]);
+		}
+	}
+
+	/**
+	 * The Cholesky factorization of the coarse matrix, subdomains without a
+	 * connection to the fixed node get no coarse correction
+	 */
+	private void factorizeCoarse() {
+		int parts = this.myPartStarts.length - 1;
+		double[] a = this.myCoarse;
+		for (int j = 0; j < parts; j++) {
+			double diagonal = a[j * parts + j];
+			for (int k = 0; k < j; k++) {
+				diagonal -= a[j * parts + k] * a[j * parts + k];
+			}
+			double pivot = diagonal > 1e-12 * a[j * parts + j] && diagonal > 0 ? Math
+					.sqrt(diagonal) : Double.POSITIVE_INFINITY;
+			a[j * parts + j] = pivot;
+			for (int i = j + 1; i < parts; i++) {
+				double v = a[i * parts + j];
+				for (int k = 0; k < j; k++) {
+					v -= a[i * parts + k] * a[j * parts + k];
+				}
+				a[i * parts + j] = v / pivot;
+			}
+		}
+	}
+
+	// ============================================================================================
+	// Preconditioner
+	// ============================================================================================
+
+	/**
+	 * The local correction of a subdomain: z = (L L^T)^-1 r on the subdomain,
+	 * and the partial sums r r, r z and the coarse right hand side
+	 */
+	private void precondition(int part) {
+		int[] starts = this.myLowerStarts;
+		int[] columns = this.myLowerColumns;
+		double[] values = this.myLowerValues;
+		double[] factor = this.myFactorDiagonal;
+		double[] r = this.myR;
+		double[] z = this.myZ;
+		int from = this.myPartStarts[part];
+		int to = this.myPartStarts[part + 1];
+
+		for (int i = from; i < to; i++) {
+			double v = r[i];
+			for (int a = starts[i]; a < starts[i + 1]; a++) {
+				v -= values[a] * z[columns[a]];
+			}
+			z[i] = v / factor[i];
+		}
+		for (int i = to - 1; i >= from; i--) {
+			double v = z[i] / factor[i];
+			z[i] = v;
+			for (int a = starts[i]; a < starts[i + 1]; a++) {
+				z[columns[a]] -= values[a] * v;
+			}
+		}
+
+		double rr = 0;
+		double rz = 0;
+		double rSum = 0;
+		for (int i = from; i < to; i++) {
+			rr += r[i] * r[i];
+			rz += r[i] * z[i];
+			rSum += r[i];
+		}
+		this.myPartialA[part] = rr;
+		this.myPartialB[part] = rz;
+		this.myCoarseRight[part] = rSum;
+	}
+
+	/**
+	 * Solve the coarse system for the subdomain sums of r
+	 * 
+	 * @return r z of the whole preconditioner
+	 */
+	private double correctCoarse() {
+		int parts = this.myPartStarts.length - 1;
+		double[] a = this.myCoarse;
+		double[] b = this.myCoarseRight;
+		double[] c = this.myCoarseSolution;
+		for (int i = 0; i < parts; i++) {
+			double v = b[i];
+			for (int k = 0; k < i; k++) {
+				v -= a[i * parts + k] * c[k];
+			}
+			c[i] = v / a[i * parts + i];
+		}
+		for (int i = parts - 1; i >= 0; i--) {
+			double v = c[i];
+			for (int k = i + 1; k < parts; k++) {
+				v -= a[k * parts + i] * c[k];
+			}
+			c[i] = v / a[i * parts + i];
+		}
+
+		double rz = this.sum(this.myPartialB);
+		for (int i = 0; i < parts; i++) {
+			rz += c[i] * b[i];
+		}
+		return rz;
+	}
+
+	/**
+	 * The sum of partial sums in the order of the subdomains, so the result
+	 * doesn't depend on the scheduling
+	 */
+	private double sum(double[] partial) {
+		double sum = 0;
+		for (int i = 0; i < partial.length; i++) {
+			sum += partial[i];
+		}
+		return sum;
+	}
+
+	// ============================================================================================
+	// Parallel loops
+	// ============================================================================================
+
+	/**
+	 * Work on one subdomain
+	 */
+	private interface PartAction {
+		void run(int part);
+	}
+
+	/**
+	 * Run an action for every subdomain on the common fork join pool
+	 */
+	private void forEachPart(PartAction action) {
+		int parts = this.myPartStarts.length - 1;
+		if (parts == 1) {
+			action.run(0);
+		} else {
+			ForkJoinPool.commonPool().invoke(new PartTask(action, 0, parts));
+		}
+	}
+
+	/**
+	 * Runs an action for a range of subdomains, split in halves
+	 */
+	private static class PartTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final PartAction myAction;
+		private final int myFrom;
+		private final int myTo;
+
+		PartTask(PartAction action, int from, int to) {
+			this.myAction = action;
+			this.myFrom = from;
+			this.myTo = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.myTo - this.myFrom == 1) {
+				this.myAction.run(this.myFrom);
+				return;
+			}
+			int middle = (this.myFrom + this.myTo) >>> 1;
+			invokeAll(new PartTask(this.myAction, this.myFrom, middle),
+					new PartTask(this.myAction, middle, this.myTo));
+		}
+	}
+
+	// ============================================================================================
+	// Getters and setters
+	// ============================================================================================
+
+	@Override
+	public double getLastResidual() {
+		return this.myLastResidual;
+	}
+
+	public double getTolerance() {
+		return myTolerance;
+	}
+
+	public void setTolerance(double tolerance) {
+		this.myTolerance = tolerance;
+	}
+
+	public int getMaximumIterations() {
+		return myMaximumIterations;
+	}
+
+	/**
+	 * Set the maximum number of inner iterations
+	 * 
+	 * @param iterations
+	 *            the maximum, 0 for ten times the number of nodes
+	 */
+	public void setMaximumIterations(int iterations) {
+		this.myMaximumIterations = iterations;
+	}
+
+	/**
+	 * Set the number of inner iterations between two checks of the
+	 * cancellation token
+	 * 
+	 * @param interval
+	 */
+	public void setCheckInterval(int interval) {
+		this.myCheckInterval = Math.max(1, interval);
+	}
+
+	public int getSubdomains() {
+		return mySubdomains;
+	}
+
+	/**
+	 * Set the number of subdomains, a graph that was already decomposed keeps
+	 * its subdomains
+	 * 
+	 * @param subdomains
+	 *            the count, 0 for the number of processors or one subdomain
+	 *            per 4096 nodes, whichever is more
+	 */
+	public void setSubdomains(int subdomains) {
+		if (subdomains < 0) {
+			throw new IllegalArgumentException(
+					"Subdomain count must not be negative");
+		}
+		this.mySubdomains = subdomains;
+	}
+
+	/**
+	 * Get the decomposition of the last solved graph
+	 * 
+	 * @return the ordering of the subdomains, null before the first solve
+	 */
+	public GraphOrdering getOrdering() {
+		return myOrdering;
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ *    FloatPhysarumState.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 19. October 2026
+ */
+package physarum.code;
+
+/**
+ * A PhysarumState that stores the fluxes and conductivities of the edges in
+ * single precision, about half the memory of a PhysarumState as a graph has
+ * more edges than nodes. The values are still computed in double precision:
+ * the pressure solvers, the flux and the conductivity update work on doubles
+ * and only round when they store a value.
+ * 
+ * The roughly seven significant digits of a float are plenty for
+ * conductivities, which only have to be told apart from the survival
+ * threshold. The pressures stay double: the flux of an edge is computed from
+ * the difference of two pressures, which is tiny next to the pressures
+ * themselves on a long path, and in float it would be noise larger than the
+ * delta conductivity threshold.
+ * 
+ * @author Torsten
+ * 
+ */
+public class FloatPhysarumState extends PhysarumState {
+	/** The pressure of each node */
+	private final double[] myPressure;
+
+	/** The flux Q of each edge */
+	private final float[] myFlux;
+
+	/** The conductivity D of each edge */
+	private final float[] myConductivity;
+
+	/** The conductivity of each edge before the last update */
+	private final float[] myFormerConductivity;
+
+	/**
+	 * Creates an empty state for a graph, all values are 0
+	 * 
+	 * @param graph
+	 *            the graph
+	 */
+	public FloatPhysarumState(PhysarumGraph graph) {
+		this(graph.getNodeCount(), graph.getEdgeCount());
+	}
+
+	/**
+	 * Creates an empty state, all values are 0
+	 * 
+	 * @param nodeCount
+	 *            The number of nodes
+	 * @param edgeCount
+	 *            The number of edges
+	 */
+	public FloatPhysarumState(int nodeCount, int edgeCount) {
+		super(nodeCount, edgeCount, false);
+		this.myPressure = new double[nodeCount];
+		this.myFlux = new float[edgeCount];
+		this.myConductivity = new float[edgeCount];
+		this.myFormerConductivity = new float[edgeCount];
+	}
+
+	@Override
+	public PhysarumState newState(int nodeCount, int edgeCount) {
+		return new FloatPhysarumState(nodeCount, edgeCount);
+	}
+
+	@Override
+	public long getValueBytes() {
+		return 8L * this.getNodeCount() + 12L * this.getEdgeCount();
+	}
+
+	@Override
+	public double getPressure(int node) {
+		return this.myPressure[node];
+	}
+
+	@Override
+	public void setPressure(int node, double p) {
+		this.myPressure[node] = p;
+	}
+
+	@Override
+	public double getFlux(int edge) {
+		return this.myFlux[edge];
+	}
+
+	@Override
+	public void setFlux(int edge, double flux_Q) {
+		this.myFlux[edge] = (float) flux_Q;
+	}
+
+	@Override
+	public double getConductivity(int edge) {
+		return this.myConductivity[edge];
+	}
+
+	@Override
+	public void setConductivity(int edge, double conductivity_D) {
+		this.myConductivity[edge] = (float) conductivity_D;
+	}
+
+	@Override
+	public double getFormerConductivity(int edge) {
+		return this.myFormerConductivity[edge];
+	}
+
+	@Override
+	public void setFormerConductivity(int edge, double conductivity_D) {
+		this.myFormerConductivity[edge] = (float) conductivity_D;
+	}
+}
@@ -0,0 +1,308 @@
+/**
+ *    GraphEdit.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 19. October 2026
+ */
+package physarum.code;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A set of changes to a PhysarumGraph: edges added, edges removed and edge
+ * lengths changed, e.g. a closed road or an opened maze wall. The graph
+ * itself is immutable and may be shared, apply() builds the edited graph.
+ * The edges keep their order, removed ones are left out and added ones follow
+ * the kept ones. Before apply() the edges are addressed by their index in the
+ * graph, an added edge by the graph's edge count plus the number of edges
+ * added before it, which is what addEdge returns.
+ * 
+ * carryOver maps the state of a run on the graph to the edited graph, so a
+ * solver can go on from the conductivities and pressures it had reached
+ * instead of starting over, see PhysarumSolver.applyEdit. A local edit then
+ * takes a few iterations to settle instead of a whole run.
+ * 
+ * @author Torsten
+ * 
+ */
+public class GraphEdit {
+	/** The graph the edit applies to */
+	private final PhysarumGraph myGraph;
+
+	/** The removed edges, added ones included */
+	private final BitSet myRemoved = new BitSet();
+
+	/** The changed lengths by edge */
+	private final Map<Integer, Double> myLengths = new HashMap<Integer, Double>();
+
+	/** The added edges */
+	private int[] myAddedStart = new int[4];
+	private int[] myAddedEnd = new int[4];
+	private double[] myAddedLength = new double[4];
+	private int myAddedCount = 0;
+
+	/** The conductivity an added edge starts with */
+	private double myAddedConductivity = 1.0;
+
+	/**
+	 * The smallest conductivity carried over, dead edges may have underflowed
+	 * to 0 and could not take up flux after an edit
+	 */
+	private double myConductivityFloor = 1e-6;
+
+	/** The edited graph, null until apply() */
+	private PhysarumGraph myEdited = null;
+
+	/** The edge of the edited graph for each edge of the edit, -1 if removed */
+	private int[] myNewEdge;
+
+	/** The edge of the graph for each edited edge, -1 for added ones */
+	private int[] myOldEdge;
+
+	/**
+	 * Creates an empty edit
+	 * 
+	 * @param graph
+	 *            the graph to change
+	 */
+	public GraphEdit(PhysarumGraph graph) {
+		this.myGraph = graph;
+	}
+
+	/**
+	 * Add an edge between two nodes
+	 * 
+	 * @param start
+	 *            the start node index
+	 * @param end
+	 *            the end node index
+	 * @param length_L
+	 *            the length
+	 * @return the index of the edge in this edit
+	 */
+	public int addEdge(int start, int end, double length_L) {
+		this.checkOpen();
+		int n = this.myGraph.getNodeCount();
+		if (start < 0 || start >= n || end < 0 || end >= n) {
+			throw new IllegalArgumentException("Edge references a node outside of 0.."
+					+ (n - 1));
+		}
+		checkLength(length_L);
+		if (this.myAddedCount == this.myAddedStart.length) {
+			int capacity = 2 * this.myAddedCount;
+			this.myAddedStart = Arrays.copyOf(this.myAddedStart, capacity);
+			this.myAddedEnd = Arrays.copyOf(this.myAddedEnd, capacity);
+			this.myAddedLength = Arrays.copyOf(this.myAddedLength, capacity);
+		}
+		this.myAddedStart[this.myAddedCount] = start;
+		this.myAddedEnd[this.myAddedCount] = end;
+		this.myAddedLength[this.myAddedCount] = length_L;
+		return this.myGraph.getEdgeCount() + this.myAddedCount++;
+	}
+
+	/**
+	 * Remove an edge, its end nodes stay
+	 * 
+	 * @param edge
+	 *            the index of the edge in this edit
+	 */
+	public void removeEdge(int edge) {
+		this.checkOpen();
+		this.checkEdge(edge);
+		this.myRemoved.set(edge);
+	}
+
+	/**
+	 * Change the length of an edge, the conductivity is kept
+	 * 
+	 * @param edge
+	 *            the index of the edge in this edit
+	 * @param length_L
+	 *            the new length
+	 */
+	public void setLength_L(int edge, double length_L) {
+		this.checkOpen();
+		this.checkEdge(edge);
+		checkLength(length_L);
+		int edges = this.myGraph.getEdgeCount();
+		if (edge >= edges) {
+			this.myAddedLength[edge - edges] = length_L;
+		} else {
+			this.myLengths.put(edge, length_L);
+		}
+	}
+
+	/**
+	 * Build the edited graph, the edit can't be changed afterwards
+	 * 
+	 * @return the edited graph, the same one on every call
+	 */
+	public PhysarumGraph apply() {
+		if (this.myEdited != null) {
+			return this.myEdited;
+		}
+
+		PhysarumGraph graph = this.myGraph;
+		int edges = graph.getEdgeCount();
+		int total = edges + this.myAddedCount;
+		int count = total - this.myRemoved.cardinality();
+
+		int[] nodeIds = new int[graph.getNodeCount()];
+		for (int i = 0; i < nodeIds.length; i++) {
+			nodeIds[i] = graph.getNodeId(i);
+		}
+		int[] start = new int[count];
+		int[] end = new int[count];
+		double[] lengths = new double[count];
+		this.myNewEdge = new int[total];
+		this.myOldEdge = new int[count];
+
+		int next = 0;
+		for (int e = 0; e < total; e++) {
+			if (this.myRemoved.get(e)) {
+				this.myNewEdge[e] = -1;
+				continue;
+			}
+			if (e < edges) {
+				start[next] = graph.getEdgeStart(e);
+				end[next] = graph.getEdgeEnd(e);
+				Double length = this.myLengths.get(e);
+				lengths[next] = length != null ? length : graph.getLength(e);
+				this.myOldEdge[next] = e;
+			} else {
+				start[next] = this.myAddedStart[e - edges];
+				end[next] = this.myAddedEnd[e - edges];
+				lengths[next] = this.myAddedLength[e - edges];
+				this.myOldEdge[next] = -1;
+			}
+			this.myNewEdge[e] = next++;
+		}
+
+		this.myEdited = new PhysarumGraph(nodeIds, start, end, lengths, false);
+		return this.myEdited;
+	}
+
+	/**
+	 * Map the state of a run on the graph to the edited graph. Pressures,
+	 * fluxes and conductivities are taken over, conductivities below the floor
+	 * are raised to it and added edges start with the added conductivity. The
+	 * iteration count and the converged flag are reset so the run goes on
+	 * with its full iteration budget.
+	 * 
+	 * @param state
+	 *            a state of the graph, not changed
+	 * @return a new state of the edited graph
+	 */
+	public PhysarumState carryOver(PhysarumState state) {
+		if (state.getNodeCount() != this.myGraph.getNodeCount()
+				|| state.getEdgeCount() != this.myGraph.getEdgeCount()) {
+			throw new IllegalArgumentException(
+					"The state does not match the graph");
+		}
+		PhysarumGraph edited = this.apply();
+		PhysarumState next = state.newState(edited.getNodeCount(),
+				edited.getEdgeCount());
+		for (int i = 0; i < edited.getNodeCount(); i++) {
+			next.setPressure(i, state.getPressure(i));
+		}
+		for (int e = 0; e < edited.getEdgeCount(); e++) {
+			int old = this.myOldEdge[e];
+			if (old >= 0) {
+				next.setConductivity(e, Math.max(this.myConductivityFloor,
+						state.getConductivity(old)));
+				next.setFormerConductivity(e, state.getFormerConductivity(old));
+				next.setFlux(e, state.getFlux(old));
+			} else {
+				next.setConductivity(e, this.myAddedConductivity);
+			}
+		}
+		next.setSource(state.getSource());
+		next.setSink(state.getSink());
+		next.setFirstRun(state.isFirstRun());
+		return next;
+	}
+
+	private void checkOpen() {
+		if (this.myEdited != null) {
+			throw new IllegalStateException("The edit has been applied");
+		}
+	}
+
+	private void checkEdge(int edge) {
+		if (edge < 0 || edge >= this.myGraph.getEdgeCount() + this.myAddedCount) {
+			throw new IllegalArgumentException("No edge " + edge);
+		}
+	}
+
+	private static void checkLength(double length_L) {
+		if (!(length_L > 0) || Double.isInfinite(length_L)) {
+			throw new IllegalArgumentException("Length must be positive: "
+					+ length_L);
+		}
+	}
+
+	/**
+	 * Get the graph the edit applies to
+	 * 
+	 * @return
+	 */
+	public PhysarumGraph getGraph() {
+		return this.myGraph;
+	}
+
+	/**
+	 * Get the index of an edge in the edited graph
+	 * 
+	 * @param edge
+	 *            the index of the edge in this edit
+	 * @return the index in the edited graph, -1 if it was removed
+	 */
+	public int toNewEdge(int edge) {
+		this.apply();
+		return this.myNewEdge[edge];
+	}
+
+	/**
+	 * Get the index in the graph of an edge of the edited graph
+	 * 
+	 * @param edge
+	 *            the index in the edited graph
+	 * @return the index in the graph, -1 for an added edge
+	 */
+	public int toOldEdge(int edge) {
+		this.apply();
+		return this.myOldEdge[edge];
+	}
+
+	public double getAddedConductivity() {
+		return myAddedConductivity;
+	}
+
+	/**
+	 * Set the conductivity added edges start with
+	 * 
+	 * @param conductivity_D
+	 *            the conductivity, 1.0 by default
+	 */
+	public void setAddedConductivity(double conductivity_D) {
+		this.myAddedConductivity = conductivity_D;
+	}
+
+	public double getConductivityFloor() {
+		return myConductivityFloor;
+	}
+
+	/**
+	 * Set the smallest conductivity carried over by carryOver
+	 * 
+	 * @param conductivity_D
+	 *            the floor, 1e-6 by default
+	 */
+	public void setConductivityFloor(double conductivity_D) {
+		this.myConductivityFloor = conductivity_D;
+	}
+}
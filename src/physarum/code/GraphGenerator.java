@@ -0,0 +1,784 @@
+/**
+ *    GraphGenerator.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.SplittableRandom;
+
+/**
+ * Generates seeded test graphs: grids, perfect and braided grid mazes, random
+ * geometric graphs, Delaunay-like planar graphs, scale-free graphs and long
+ * chains. The same seed and settings always give the same graph.
+ * 
+ * Every generator passes its graph edge by edge to a GraphSink, so a graph
+ * can go straight into a PhysarumGraphBuilder or into a file without being
+ * held as objects. The generators take linear time and memory in the size of
+ * the graph, a million edges take well below a second.
+ * 
+ * @author Torsten
+ * 
+ */
+public class GraphGenerator {
+
+	/**
+	 * Where source and sink are placed
+	 */
+	public enum TerminalPlacement {
+		/** The first and the last node */
+		FIRST_LAST,
+		/** The nodes closest to two opposite corners of the layout */
+		CORNERS,
+		/** Two distinct random nodes */
+		RANDOM
+	}
+
+	/**
+	 * How the edge lengths are drawn
+	 */
+	public enum LengthDistribution {
+		/** Every edge has the minimum length */
+		UNIT,
+		/** Uniform between the minimum and the maximum length */
+		UNIFORM,
+		/**
+		 * The minimum length plus an exponential part with the mean maximum
+		 * minus minimum, not bounded by the maximum
+		 */
+		EXPONENTIAL,
+		/**
+		 * The distance of the node positions times the minimum length, the
+		 * layouts have a spacing of one. Graphs without a layout use UNIFORM.
+		 */
+		EUCLIDEAN
+	}
+
+	/** The random number generator of the graph */
+	private final SplittableRandom myRandom;
+
+	/** The placement of source and sink */
+	private TerminalPlacement myPlacement = TerminalPlacement.CORNERS;
+
+	/** The distribution of the edge lengths */
+	private LengthDistribution myLengthDistribution = LengthDistribution.UNIFORM;
+
+	/** The minimum edge length */
+	private double myMinimumLength = 1.0;
+
+	/** The maximum edge length */
+	private double myMaximumLength = 2.0;
+
+	/**
+	 * Creates a generator
+	 * 
+	 * @param seed
+	 *            the seed of all random choices
+	 */
+	public GraphGenerator(long seed) {
+		this.myRandom = new SplittableRandom(seed);
+	}
+
+	// ============================================================================================
+	// Grids and mazes
+	// ============================================================================================
+
+	/**
+	 * A full grid of width x height nodes
+	 * 
+	 * @param width
+	 * @param height
+	 * @return the problem
+	 */
+	public PhysarumProblem grid(int width, int height) {
+		PhysarumGraphBuilder builder = new PhysarumGraphBuilder(2 * width
+				* height);
+		run(new Generation() {
+			@Override
+			public void generate(GraphSink sink) throws IOException {
+				gridMaze(width, height, 1.0, sink);
+			}
+		}, builder);
+		return builder.buildProblem();
+	}
+
+	/**
+	 * A perfect maze of width x height cells, there is exactly one path
+	 * between any two cells
+	 * 
+	 * @param width
+	 * @param height
+	 * @return the problem
+	 */
+	public PhysarumProblem perfectMaze(int width, int height) {
+		return this.gridMaze(width, height, 0.0);
+	}
+
+	/**
+	 * A braided maze of width x height cells
+	 * 
+	 * @param width
+	 * @param height
+	 * @param braid
+	 *            the probability that a wall of the perfect maze is opened, 0
+	 *            gives a perfect maze and 1 the full grid
+	 * @return the problem
+	 */
+	public PhysarumProblem gridMaze(int width, int height, double braid) {
+		PhysarumGraphBuilder builder = new PhysarumGraphBuilder(
+				(int) Math.min(Integer.MAX_VALUE - 8, (long) width * height
+						* (1.0 + braid)));
+		run(new Generation() {
+			@Override
+			public void generate(GraphSink sink) throws IOException {
+				gridMaze(width, height, braid, sink);
+			}
+		}, builder);
+		return builder.buildProblem();
+	}
+
+	/**
+	 * Generate a maze of width x height cells with a randomized Kruskal: the
+	 * walls are visited in random order and opened if they separate two
+	 * unconnected parts. A wall that isn't needed is opened with the
+	 * probability braid, which adds loops.
+	 * 
+	 * @param width
+	 * @param height
+	 * @param braid
+	 *            the probability to open a wall that isn't needed
+	 * @param out
+	 *            receives the graph, node y * width + x is cell (x, y)
+	 * @throws IOException
+	 */
+	public void gridMaze(int width, int height, double braid, GraphSink out)
+			throws IOException {
+		if (width < 1 || height < 1 || (long) width * height > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Bad maze size " + width + " x "
+					+ height);
+		}
+		int n = width * height;
+		int horizontal = (width - 1) * height;
+		int walls = horizontal + width * (height - 1);
+
+		int[] terminals = this.placeTerminals(n, new Layout() {
+			@Override
+			public double x(int node) {
+				return node % width;
+			}
+
+			@Override
+			public double y(int node) {
+				return node / width;
+			}
+		});
+		out.begin(n, terminals[0], terminals[1]);
+
+		if (braid >= 1.0) {
+			for (int wall = 0; wall < walls; wall++) {
+				this.emitWall(wall, width, horizontal, out);
+			}
+			out.end();
+			return;
+		}
+
+		int[] order = new int[walls];
+		for (int i = 0; i < walls; i++) {
+			order[i] = i;
+		}
+		for (int i = walls - 1; i > 0; i--) {
+			int j = this.myRandom.nextInt(i + 1);
+			int swap = order[i];
+			order[i] = order[j];
+			order[j] = swap;
+		}
+
+		int[] parent = newUnionFind(n);
+		for (int k = 0; k < walls; k++) {
+			int wall = order[k];
+			int a = wall < horizontal ? wall / (width - 1) * width + wall
+					% (width - 1) : wall - horizontal;
+			int b = wall < horizontal ? a + 1 : a + width;
+			if (union(parent, a, b)
+					|| (braid > 0.0 && this.myRandom.nextDouble() < braid)) {
+				this.emitWall(wall, width, horizontal, out);
+			}
+		}
+		out.end();
+	}
+
+	private void emitWall(int wall, int width, int horizontal, GraphSink out)
+			throws IOException {
+		if (wall < horizontal) {
+			int a = wall / (width - 1) * width + wall % (width - 1);
+			out.edge(a, a + 1, this.nextLength(1.0));
+		} else {
+			int a = wall - horizontal;
+			out.edge(a, a + width, this.nextLength(1.0));
+		}
+	}
+
+	// ============================================================================================
+	// Geometric graphs
+	// ============================================================================================
+
+	/**
+	 * A random geometric graph
+	 * 
+	 * @param nodes
+	 *            the number of nodes
+	 * @param averageDegree
+	 *            the expected average degree
+	 * @return the problem
+	 */
+	public PhysarumProblem randomGeometric(int nodes, double averageDegree) {
+		PhysarumGraphBuilder builder = new PhysarumGraphBuilder(
+				(int) Math.min(Integer.MAX_VALUE - 8, nodes * averageDegree
+						/ 2 * 1.05));
+		run(new Generation() {
+			@Override
+			public void generate(GraphSink sink) throws IOException {
+				randomGeometric(nodes, averageDegree, sink);
+			}
+		}, builder);
+		return builder.buildProblem();
+	}
+
+	/**
+	 * Generate a random geometric graph: the nodes are uniformly distributed
+	 * on a square with one node per unit area and every two nodes closer than
+	 * sqrt(averageDegree / pi) are connected. Components apart from the
+	 * largest are joined to it by an edge to a nearby node, so the graph is
+	 * always connected.
+	 * 
+	 * @param nodes
+	 *            the number of nodes
+	 * @param averageDegree
+	 *            the expected average degree
+	 * @param out
+	 *            receives the graph
+	 * @throws IOException
+	 */
+	public void randomGeometric(int nodes, double averageDegree, GraphSink out)
+			throws IOException {
+		if (nodes < 2 || !(averageDegree > 0.0)) {
+			throw new IllegalArgumentException("Bad geometric graph " + nodes
+					+ " / " + averageDegree);
+		}
+		double side = Math.sqrt(nodes);
+		double radius = Math.sqrt(averageDegree / Math.PI);
+		double[] px = new double[nodes];
+		double[] py = new double[nodes];
+		for (int i = 0; i < nodes; i++) {
+			px[i] = this.myRandom.nextDouble() * side;
+			py[i] = this.myRandom.nextDouble() * side;
+		}
+		int[] terminals = this.placeTerminals(nodes, new PointLayout(px, py));
+		out.begin(nodes, terminals[0], terminals[1]);
+
+		// bucket the points into cells of the size of the radius
+		int cells = Math.max(1, (int) (side / radius));
+		double cellSize = side / cells;
+		int[] cellStart = new int[cells * cells + 1];
+		int[] cellOf = new int[nodes];
+		for (int i = 0; i < nodes; i++) {
+			int cx = Math.min(cells - 1, (int) (px[i] / cellSize));
+			int cy = Math.min(cells - 1, (int) (py[i] / cellSize));
+			cellOf[i] = cy * cells + cx;
+			cellStart[cellOf[i] + 1]++;
+		}
+		for (int c = 0; c < cells * cells; c++) {
+			cellStart[c + 1] += cellStart[c];
+		}
+		int[] cellPoints = new int[nodes];
+		int[] fill = cellStart.clone();
+		for (int i = 0; i < nodes; i++) {
+			cellPoints[fill[cellOf[i]]++] = i;
+		}
+
+		int[] parent = newUnionFind(nodes);
+		double radius2 = radius * radius;
+		for (int i = 0; i < nodes; i++) {
+			int cx = cellOf[i] % cells;
+			int cy = cellOf[i] / cells;
+			for (int y = Math.max(0, cy - 1); y <= Math.min(cells - 1, cy + 1); y++) {
+				for (int x = Math.max(0, cx - 1); x <= Math.min(cells - 1,
+						cx + 1); x++) {
+					int c = y * cells + x;
+					for (int k = cellStart[c]; k < cellStart[c + 1]; k++) {
+						int j = cellPoints[k];
+						if (j <= i) {
+							continue;
+						}
+						double dx = px[i] - px[j];
+						double dy = py[i] - py[j];
+						double d2 = dx * dx + dy * dy;
+						if (d2 < radius2) {
+							union(parent, i, j);
+							out.edge(i, j, this.nextLength(Math.sqrt(d2)));
+						}
+					}
+				}
+			}
+		}
+
+		// join the smaller components to the largest one
+		int[] size = new int[nodes];
+		int largest = 0;
+		for (int i = 0; i < nodes; i++) {
+			int root = find(parent, i);
+			if (++size[root] > size[largest]) {
+				largest = root;
+			}
+		}
+		for (int i = 0; i < nodes; i++) {
+			if (find(parent, i) == find(parent, largest)) {
+				continue;
+			}
+			int cx = cellOf[i] % cells;
+			int cy = cellOf[i] / cells;
+			int nearest = -1;
+			double best = Double.POSITIVE_INFINITY;
+			for (int ring = 0; nearest < 0 && ring < cells; ring++) {
+				for (int y = Math.max(0, cy - ring); y <= Math.min(cells - 1,
+						cy + ring); y++) {
+					for (int x = Math.max(0, cx - ring); x <= Math.min(
+							cells - 1, cx + ring); x++) {
+						if (Math.max(Math.abs(x - cx), Math.abs(y - cy)) != ring) {
+							continue;
+						}
+						int c = y * cells + x;
+						for (int k = cellStart[c]; k < cellStart[c + 1]; k++) {
+							int j = cellPoints[k];
+							if (find(parent, j) != find(parent, largest)) {
+								continue;
+							}
+							double d2 = (px[i] - px[j]) * (px[i] - px[j])
+									+ (py[i] - py[j]) * (py[i] - py[j]);
+							if (d2 < best) {
+								best = d2;
+								nearest = j;
+							}
+						}
+					}
+				}
+			}
+			union(parent, i, nearest);
+			out.edge(nearest, i, this.nextLength(Math.sqrt(best)));
+		}
+		out.end();
+	}
+
+	/**
+	 * A Delaunay-like planar graph
+	 * 
+	 * @param nodes
+	 *            the approximate number of nodes, rounded to a square
+	 * @return the problem
+	 */
+	public PhysarumProblem planar(int nodes) {
+		PhysarumGraphBuilder builder = new PhysarumGraphBuilder(3 * nodes);
+		run(new Generation() {
+			@Override
+			public void generate(GraphSink sink) throws IOException {
+				planar(nodes, sink);
+			}
+		}, builder);
+		return builder.buildProblem();
+	}
+
+	/**
+	 * Generate a Delaunay-like planar graph: the points are jittered around a
+	 * square lattice and every lattice cell is split into two triangles along
+	 * its shorter diagonal. The jitter keeps the points inside their own
+	 * quarter of the lattice, so no two edges cross.
+	 * 
+	 * @param nodes
+	 *            the approximate number of nodes, rounded to a square
+	 * @param out
+	 *            receives the graph
+	 * @throws IOException
+	 */
+	public void planar(int nodes, GraphSink out) throws IOException {
+		int side = Math.max(2, (int) Math.round(Math.sqrt(nodes)));
+		int n = side * side;
+		double[] px = new double[n];
+		double[] py = new double[n];
+		for (int i = 0; i < n; i++) {
+			px[i] = (i % side) + 0.45 * (this.myRandom.nextDouble() - 0.5);
+			py[i] = (i / side) + 0.45 * (this.myRandom.nextDouble() - 0.5);
+		}
+		int[] terminals = this.placeTerminals(n, new PointLayout(px, py));
+		out.begin(n, terminals[0], terminals[1]);
+
+		for (int y = 0; y < side; y++) {
+			for (int x = 0; x < side; x++) {
+				int i = y * side + x;
+				if (x + 1 < side) {
+					this.emitPoints(i, i + 1, px, py, out);
+				}
+				if (y + 1 < side) {
+					this.emitPoints(i, i + side, px, py, out);
+				}
+				if (x + 1 < side && y + 1 < side) {
+					int a = i + side + 1;
+					int b = i + side;
+					double d1 = Math.hypot(px[i] - px[a], py[i] - py[a]);
+					double d2 = Math.hypot(px[i + 1] - px[b], py[i + 1] - py[b]);
+					if (d1 <= d2) {
+						this.emitPoints(i, a, px, py, out);
+					} else {
+						this.emitPoints(i + 1, b, px, py, out);
+					}
+				}
+			}
+		}
+		out.end();
+	}
+
+	private void emitPoints(int a, int b, double[] px, double[] py,
+			GraphSink out) throws IOException {
+		out.edge(a, b, this.nextLength(Math.hypot(px[a] - px[b], py[a] - py[b])));
+	}
+
+	// ============================================================================================
+	// Scale-free graphs and chains
+	// ============================================================================================
+
+	/**
+	 * A scale-free graph
+	 * 
+	 * @param nodes
+	 *            the number of nodes
+	 * @param edgesPerNode
+	 *            the number of edges of every new node
+	 * @return the problem
+	 */
+	public PhysarumProblem scaleFree(int nodes, int edgesPerNode) {
+		PhysarumGraphBuilder builder = new PhysarumGraphBuilder(
+				(int) Math.min(Integer.MAX_VALUE - 8, (long) nodes
+						* edgesPerNode));
+		run(new Generation() {
+			@Override
+			public void generate(GraphSink sink) throws IOException {
+				scaleFree(nodes, edgesPerNode, sink);
+			}
+		}, builder);
+		return builder.buildProblem();
+	}
+
+	/**
+	 * Generate a scale-free graph by preferential attachment (Barabasi-Albert):
+	 * the first edgesPerNode + 1 nodes form a clique and every further node is
+	 * connected to edgesPerNode distinct older nodes, chosen with a
+	 * probability proportional to their degree. The graph has no layout, the
+	 * first nodes are the hubs.
+	 * 
+	 * @param nodes
+	 *            the number of nodes
+	 * @param edgesPerNode
+	 *            the number of edges of every new node
+	 * @param out
+	 *            receives the graph
+	 * @throws IOException
+	 */
+	public void scaleFree(int nodes, int edgesPerNode, GraphSink out)
+			throws IOException {
+		int m = edgesPerNode;
+		if (m < 1 || nodes <= m) {
+			throw new IllegalArgumentException("Bad scale-free graph " + nodes
+					+ " / " + m);
+		}
+		long edges = (long) m * (m + 1) / 2 + (long) (nodes - m - 1) * m;
+		if (2 * edges > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Scale-free graph too large");
+		}
+		int[] terminals = this.placeTerminals(nodes, null);
+		out.begin(nodes, terminals[0], terminals[1]);
+
+		// every edge end once, so a uniform pick is proportional to degree
+		int[] ends = new int[(int) (2 * edges)];
+		int count = 0;
+		for (int i = 0; i <= m; i++) {
+			for (int j = i + 1; j <= m; j++) {
+				out.edge(i, j, this.nextLength(Double.NaN));
+				ends[count++] = i;
+				ends[count++] = j;
+			}
+		}
+		int[] targets = new int[m];
+		for (int i = m + 1; i < nodes; i++) {
+			int chosen = 0;
+			while (chosen < m) {
+				int target = ends[this.myRandom.nextInt(count)];
+				boolean duplicate = false;
+				for (int k = 0; k < chosen; k++) {
+					duplicate |= targets[k] == target;
+				}
+				if (!duplicate) {
+					targets[chosen++] = target;
+				}
+			}
+			for (int k = 0; k < m; k++) {
+				out.edge(targets[k], i, this.nextLength(Double.NaN));
+				ends[count++] = targets[k];
+				ends[count++] = i;
+			}
+		}
+		out.end();
+	}
+
+	/**
+	 * A chain
+	 * 
+	 * @param nodes
+	 *            the number of nodes
+	 * @return the problem
+	 */
+	public PhysarumProblem chain(int nodes) {
+		PhysarumGraphBuilder builder = new PhysarumGraphBuilder(nodes);
+		run(new Generation() {
+			@Override
+			public void generate(GraphSink sink) throws IOException {
+				chain(nodes, sink);
+			}
+		}, builder);
+		return builder.buildProblem();
+	}
+
+	/**
+	 * Generate a chain, node i is connected to node i + 1. Its layout is a
+	 * straight line, so CORNERS is the same as FIRST_LAST.
+	 * 
+	 * @param nodes
+	 *            the number of nodes
+	 * @param out
+	 *            receives the graph
+	 * @throws IOException
+	 */
+	public void chain(int nodes, GraphSink out) throws IOException {
+		if (nodes < 2) {
+			throw new IllegalArgumentException("Bad chain " + nodes);
+		}
+		int[] terminals = this.placeTerminals(nodes, new Layout() {
+			@Override
+			public double x(int node) {
+				return node;
+			}
+
+			@Override
+			public double y(int node) {
+				return 0.0;
+			}
+		});
+		out.begin(nodes, terminals[0], terminals[1]);
+		for (int i = 0; i + 1 < nodes; i++) {
+			out.edge(i, i + 1, this.nextLength(1.0));
+		}
+		out.end();
+	}
+
+	// ============================================================================================
+	// Helpers
+	// ============================================================================================
+
+	/**
+	 * Generates into a sink that doesn't throw
+	 */
+	private interface Generation {
+		void generate(GraphSink sink) throws IOException;
+	}
+
+	private static void run(Generation generation, GraphSink sink) {
+		try {
+			generation.generate(sink);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * The positions of the nodes
+	 */
+	private interface Layout {
+		double x(int node);
+
+		double y(int node);
+	}
+
+	/**
+	 * Positions held in arrays
+	 */
+	private static class PointLayout implements Layout {
+		private final double[] myX;
+		private final double[] myY;
+
+		PointLayout(double[] x, double[] y) {
+			this.myX = x;
+			this.myY = y;
+		}
+
+		@Override
+		public double x(int node) {
+			return this.myX[node];
+		}
+
+		@Override
+		public double y(int node) {
+			return this.myY[node];
+		}
+	}
+
+	/**
+	 * Choose source and sink
+	 * 
+	 * @param nodes
+	 *            the number of nodes
+	 * @param layout
+	 *            the positions, null if the graph has none
+	 * @return source and sink
+	 */
+	private int[] placeTerminals(int nodes, Layout layout) {
+		switch (this.myPlacement) {
+		case RANDOM:
+			int source = this.myRandom.nextInt(nodes);
+			int sink = this.myRandom.nextInt(nodes - 1);
+			return new int[] { source, sink >= source ? sink + 1 : sink };
+		case CORNERS:
+			if (layout != null) {
+				int low = 0;
+				int high = 0;
+				for (int i = 1; i < nodes; i++) {
+					double sum = layout.x(i) + layout.y(i);
+					if (sum < layout.x(low) + layout.y(low)) {
+						low = i;
+					}
+					if (sum > layout.x(high) + layout.y(high)) {
+						high = i;
+					}
+				}
+				return new int[] { low, high };
+			}
+			return new int[] { 0, nodes - 1 };
+		default:
+			return new int[] { 0, nodes - 1 };
+		}
+	}
+
+	/**
+	 * Draw the length of the next edge
+	 * 
+	 * @param distance
+	 *            the distance of the end points in the layout, NaN if there
+	 *            is no layout
+	 * @return the length
+	 */
+	private double nextLength(double distance) {
+		switch (this.myLengthDistribution) {
+		case UNIT:
+			return this.myMinimumLength;
+		case EXPONENTIAL:
+			return this.myMinimumLength
+					- (this.myMaximumLength - this.myMinimumLength)
+					* Math.log(1.0 - this.myRandom.nextDouble());
+		case EUCLIDEAN:
+			if (!Double.isNaN(distance)) {
+				// coinciding points still need a positive length
+				return Math.max(distance, 1e-9) * this.myMinimumLength;
+			}
+			// without a layout like uniform lengths
+			return this.nextUniformLength();
+		default:
+			return this.nextUniformLength();
+		}
+	}
+
+	/**
+	 * Draw a length uniformly between the minimum and the maximum, both
+	 * included
+	 */
+	private double nextUniformLength() {
+		return this.myRandom.nextDouble(this.myMinimumLength,
+				Math.nextUp(this.myMaximumLength));
+	}
+
+	private static int[] newUnionFind(int n) {
+		int[] parent = new int[n];
+		for (int i = 0; i < n; i++) {
+			parent[i] = i;
+		}
+		return parent;
+	}
+
+	private static int find(int[] parent, int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+
+	/**
+	 * Join the sets of a and b
+	 * 
+	 * @return true if they were different sets
+	 */
+	private static boolean union(int[] parent, int a, int b) {
+		int ra = find(parent, a);
+		int rb = find(parent, b);
+		if (ra == rb) {
+			return false;
+		}
+		parent[ra] = rb;
+		return true;
+	}
+
+	// ============================================================================================
+	// Getters and setters
+	// ============================================================================================
+
+	public TerminalPlacement getTerminalPlacement() {
+		return myPlacement;
+	}
+
+	public void setTerminalPlacement(TerminalPlacement placement) {
+		this.myPlacement = placement;
+	}
+
+	public LengthDistribution getLengthDistribution() {
+		return myLengthDistribution;
+	}
+
+	/**
+	 * Set the length distribution and its range
+	 * 
+	 * @param distribution
+	 *            the distribution
+	 * @param minimum
+	 *            the minimum length, > 0
+	 * @param maximum
+	 *            the maximum length, >= minimum
+	 */
+	public void setLengthDistribution(LengthDistribution distribution,
+			double minimum, double maximum) {
+		if (!(minimum > 0.0) || !(maximum >= minimum)) {
+			throw new IllegalArgumentException("Bad length range [" + minimum
+					+ ", " + maximum + "]");
+		}
+		this.myLengthDistribution = distribution;
+		this.myMinimumLength = minimum;
+		this.myMaximumLength = maximum;
+	}
+
+	public double getMinimumLength() {
+		return myMinimumLength;
+	}
+
+	public double getMaximumLength() {
+		return myMaximumLength;
+	}
+}
@@ -0,0 +1,619 @@
+/**
+ *    GraphOrdering.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A renumbering of the nodes and edges of a graph for memory locality. The
+ * pressure and flux kernels walk the edges and touch the values of both end
+ * nodes; when neighbouring nodes have close indexes those values share cache
+ * lines, and a dense factorization gets less fill when the bandwidth is small.
+ * 
+ * An ordering is computed once per graph and the solver runs on the reordered
+ * graph. The node ids travel with the nodes, so descriptions of nodes and
+ * connections stay those of the caller, and edge indexes, states and results
+ * are mapped back with the toOriginal methods. The edges are sorted by their
+ * lower end node in the new order.
+ * 
+ * Three orderings are available: reverse Cuthill-McKee, which minimizes the
+ * bandwidth; a Hilbert curve through node positions, for geometric graphs;
+ * and recursive bisection of breadth first orders, which also yields parts
+ * of about equal size with few edges between them.
+ * 
+ * @author Torsten
+ * 
+ */
+public class GraphOrdering {
+	/** The Hilbert curve runs through a grid of 2^HILBERT_ORDER squares */
+	private static final int HILBERT_ORDER = 15;
+
+	/** The graph in the order of the caller */
+	private final PhysarumGraph myGraph;
+
+	/** The reordered graph */
+	private final PhysarumGraph myReorderedGraph;
+
+	/** The new index of every original node and the other way round */
+	private final int[] myNewNodes;
+	private final int[] myOriginalNodes;
+
+	/** The new index of every original edge and the other way round */
+	private final int[] myNewEdges;
+	private final int[] myOriginalEdges;
+
+	/**
+	 * Part p holds the new node indexes myParts[p] until myParts[p + 1], the
+	 * orderings apart from bisection have one part
+	 */
+	private final int[] myParts;
+
+	/**
+	 * Creates an ordering out of a node permutation
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param originalNodes
+	 *            the original index of the node at each new index, taken over
+	 * @param parts
+	 *            the bounds of the parts, taken over
+	 */
+	private GraphOrdering(PhysarumGraph graph, int[] originalNodes, int[] parts) {
+		int n = graph.getNodeCount();
+		int m = graph.getEdgeCount();
+		this.myGraph = graph;
+		this.myOriginalNodes = originalNodes;
+		this.myParts = parts;
+		this.myNewNodes = new int[n];
+		for (int i = 0; i < n; i++) {
+			this.myNewNodes[originalNodes[i]] = i;
+		}
+
+		// counting sort of the edges by their lower new end node
+		int[] offsets = new int[n + 1];
+		for (int e = 0; e < m; e++) {
+			offsets[this.lowerEnd(e) + 1]++;
+		}
+		for (int i = 0; i < n; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+		this.myOriginalEdges = new int[m];
+		this.myNewEdges = new int[m];
+		for (int e = 0; e < m; e++) {
+			int k = offsets[this.lowerEnd(e)]++;
+			this.myOriginalEdges[k] = e;
+			this.myNewEdges[e] = k;
+		}
+
+		int[] ids = new int[n];
+		for (int i = 0; i < n; i++) {
+			ids[i] = graph.getNodeId(originalNodes[i]);
+		}
+		int[] starts = new int[m];
+		int[] ends = new int[m];
+		double[] lengths = new double[m];
+		for (int k = 0; k < m; k++) {
+			int e = this.myOriginalEdges[k];
+			starts[k] = this.myNewNodes[graph.getEdgeStart(e)];
+			ends[k] = this.myNewNodes[graph.getEdgeEnd(e)];
+			lengths[k] = graph.getLength(e);
+		}
+		this.myReorderedGraph = new PhysarumGraph(ids, starts, ends, lengths,
+				false);
+	}
+
+	private int lowerEnd(int edge) {
+		return Math.min(this.myNewNodes[this.myGraph.getEdgeStart(edge)],
+				this.myNewNodes[this.myGraph.getEdgeEnd(edge)]);
+	}
+
+	// ============================================================================================
+	// Orderings
+	// ============================================================================================
+
+	/**
+	 * The reverse Cuthill-McKee ordering: every component is numbered breadth
+	 * first from a node of large eccentricity, the unnumbered neighbours of a
+	 * node by increasing degree, and the whole order is reversed
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @return the ordering
+	 */
+	public static GraphOrdering reverseCuthillMcKee(PhysarumGraph graph) {
+		int n = graph.getNodeCount();
+		int[] order = new int[n];
+		boolean[] numbered = new boolean[n];
+		int[] distance = new int[n];
+		Arrays.fill(distance, -1);
+		int[] neighbours = new int[16];
+		int count = 0;
+		for (int first = 0; first < n; first++) {
+			if (numbered[first]) {
+				continue;
+			}
+			int root = peripheralNode(graph, first, null, 0, distance, order,
+					count);
+
+			int head = count;
+			order[count++] = root;
+			numbered[root] = true;
+			while (head < count) {
+				int node = order[head++];
+				int degree = graph.getDegree(node);
+				if (neighbours.length < degree) {
+					neighbours = new int[2 * degree];
+				}
+				int found = 0;
+				for (int k = 0; k < degree; k++) {
+					int other = graph.getOtherEnd(graph.getAdjacentEdge(node, k),
+							node);
+					if (!numbered[other]) {
+						numbered[other] = true;
+						neighbours[found++] = other;
+					}
+				}
+				// insertion sort by degree, the lists are short
+				for (int i = 1; i < found; i++) {
+					int other = neighbours[i];
+					int j = i - 1;
+					while (j >= 0
+							&& graph.getDegree(neighbours[j]) > graph
+									.getDegree(other)) {
+						neighbours[j + 1] = neighbours[j];
+						j--;
+					}
+					neighbours[j + 1] = other;
+				}
+				System.arraycopy(neighbours, 0, order, count, found);
+				count += found;
+			}
+		}
+
+		for (int i = 0, j = n - 1; i < j; i++, j--) {
+			int swap = order[i];
+			order[i] = order[j];
+			order[j] = swap;
+		}
+		return new GraphOrdering(graph, order, new int[] { 0, n });
+	}
+
+	/**
+	 * The order of the nodes along a Hilbert curve through their positions,
+	 * nodes close in the plane get close indexes
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param x
+	 *            the x coordinate of every node
+	 * @param y
+	 *            the y coordinate of every node
+	 * @return the ordering
+	 */
+	public static GraphOrdering spatial(PhysarumGraph graph, double[] x,
+			double[] y) {
+		int n = graph.getNodeCount();
+		if (x.length != n || y.length != n) {
+			throw new IllegalArgumentException(
+					"Coordinate arrays differ from the node count");
+		}
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		int side = 1 << HILBERT_ORDER;
+		double scale = (side - 1) / Math.max(1e-300, Math.max(maxX - minX, maxY
+				- minY));
+
+		// the curve index in the upper bits, the node in the lower ones
+		long[] keys = new long[n];
+		for (int i = 0; i < n; i++) {
+			int cx = (int) ((x[i] - minX) * scale);
+			int cy = (int) ((y[i] - minY) * scale);
+			keys[i] = hilbertIndex(cx, cy, side) << 31 | i;
+		}
+		Arrays.sort(keys);
+		int[] order = new int[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = (int) (keys[i] & Integer.MAX_VALUE);
+		}
+		return new GraphOrdering(graph, order, new int[] { 0, n });
+	}
+
+	/**
+	 * The distance of a square along the Hilbert curve
+	 */
+	private static long hilbertIndex(int x, int y, int side) {
+		long d = 0;
+		for (int s = side / 2; s > 0; s /= 2) {
+			int rx = (x & s) > 0 ? 1 : 0;
+			int ry = (y & s) > 0 ? 1 : 0;
+			d += (long) s * s * ((3 * rx) ^ ry);
+			if (ry == 0) {
+				if (rx == 1) {
+					x = side - 1 - x;
+					y = side - 1 - y;
+				}
+				int swap = x;
+				x = y;
+				y = swap;
+			}
+		}
+		return d;
+	}
+
+	/**
+	 * Recursive bisection: the nodes of a part are ordered breadth first from
+	 * a node of large eccentricity and the part is cut in two at the middle of
+	 * that order, until the requested number of parts is reached. The parts
+	 * are contiguous in the new order and connected as far as the graph
+	 * allows. The searches run on the reverse Cuthill-McKee order of the
+	 * graph, which makes them several times faster on badly ordered graphs.
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param parts
+	 *            the number of parts, 1 up to the number of nodes
+	 * @return the ordering
+	 */
+	public static GraphOrdering bisection(PhysarumGraph graph, int parts) {
+		int n = graph.getNodeCount();
+		if (parts < 1 || parts > Math.max(1, n)) {
+			throw new IllegalArgumentException("Bad part count " + parts);
+		}
+		GraphOrdering local = reverseCuthillMcKee(graph);
+		int[] bounds = new int[parts + 1];
+		int[] order = bisect(local.myReorderedGraph, parts, bounds);
+		for (int i = 0; i < n; i++) {
+			order[i] = local.myOriginalNodes[order[i]];
+		}
+		return new GraphOrdering(graph, order, bounds);
+	}
+
+	/**
+	 * The recursive bisection of a graph
+	 * 
+	 * @param bounds
+	 *            receives the bounds of the parts
+	 * @return the node at each new index
+	 */
+	private static int[] bisect(PhysarumGraph graph, int parts, int[] bounds) {
+		int n = graph.getNodeCount();
+		int[] order = new int[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		// the nodes of a part are marked with the first index of the part
+		int[] owner = new int[n];
+		int[] distance = new int[n];
+		Arrays.fill(distance, -1);
+		int[] queue = new int[n];
+		int partCount = 0;
+
+		ArrayDeque<int[]> pending = new ArrayDeque<int[]>();
+		pending.push(new int[] { 0, n, parts });
+		while (!pending.isEmpty()) {
+			int[] part = pending.pop();
+			int from = part[0];
+			int to = part[1];
+			int k = part[2];
+			if (k == 1) {
+				bounds[partCount++] = from;
+				continue;
+			}
+
+			// breadth first order of the part, component by component
+			int count = from;
+			for (int i = from; i < to; i++) {
+				int start = order[i];
+				if (distance[start] >= 0) {
+					continue;
+				}
+				int root = peripheralNode(graph, start, owner, from, distance,
+						queue, count);
+				count = breadthFirst(graph, root, owner, from, distance, queue,
+						count);
+			}
+			System.arraycopy(queue, from, order, from, to - from);
+
+			int middle = from + (int) ((long) (to - from) * (k / 2) / k);
+			for (int i = from; i < to; i++) {
+				distance[order[i]] = -1;
+				owner[order[i]] = i < middle ? from : middle;
+			}
+			pending.push(new int[] { middle, to, k - k / 2 });
+			pending.push(new int[] { from, middle, k / 2 });
+		}
+
+		Arrays.sort(bounds, 0, partCount);
+		bounds[partCount] = n;
+		return order;
+	}
+
+	/**
+	 * Find a node of large eccentricity in the component of a node: search
+	 * breadth first and restart from the farthest node of lowest degree as
+	 * long as the depth grows. The distances are reset afterwards.
+	 * 
+	 * @param owner
+	 *            the part of every node, null for the whole graph
+	 * @param queue
+	 *            work space, used from index offset on
+	 */
+	private static int peripheralNode(PhysarumGraph graph, int start,
+			int[] owner, int part, int[] distance, int[] queue, int offset) {
+		int root = start;
+		int depth = -1;
+		while (true) {
+			int count = breadthFirst(graph, root, owner, part, distance, queue,
+					offset);
+			int far = root;
+			for (int i = offset; i < count; i++) {
+				int node = queue[i];
+				if (distance[node] > distance[far]
+						|| (distance[node] == distance[far] && graph
+								.getDegree(node) < graph.getDegree(far))) {
+					far = node;
+				}
+			}
+			int farDepth = distance[far];
+			for (int i = offset; i < count; i++) {
+				distance[queue[i]] = -1;
+			}
+			if (farDepth <= depth) {
+				return root;
+			}
+			depth = farDepth;
+			root = far;
+		}
+	}
+
+	/**
+	 * Append the nodes of the part reachable from root in breadth first order
+	 * to the queue and set their distances, nodes with a distance are skipped
+	 * 
+	 * @return the end of the queue
+	 */
+	private static int breadthFirst(PhysarumGraph graph, int root,
+			int[] owner, int part, int[] distance, int[] queue, int offset) {
+		int count = offset;
+		queue[count++] = root;
+		distance[root] = 0;
+		int head = offset;
+		while (head < count) {
+			int node = queue[head++];
+			for (int k = 0; k < graph.getDegree(node); k++) {
+				int other = graph.getOtherEnd(graph.getAdjacentEdge(node, k),
+						node);
+				if (distance[other] < 0
+						&& (owner == null || owner[other] == part)) {
+					distance[other] = distance[node] + 1;
+					queue[count++] = other;
+				}
+			}
+		}
+		return count;
+	}
+
+	// ============================================================================================
+	// Mapping
+	// ============================================================================================
+
+	/**
+	 * Creates a solver on the reordered graph. The initial conductivities are
+	 * drawn in the original edge order, so the run is the one of
+	 * PhysarumParameters.createSolver on the original graph.
+	 * 
+	 * @param source
+	 *            the original source node index
+	 * @param sink
+	 *            the original sink node index
+	 * @param parameters
+	 *            the parameters
+	 * @return the solver, with logging disabled
+	 */
+	public PhysarumSolver createSolver(int source, int sink,
+			PhysarumParameters parameters) {
+		PhysarumState state = parameters.createState(this.myGraph);
+		state.setSource(source);
+		state.setSink(sink);
+		state.randomizeConductivities(new Random(parameters.getSeed()),
+				parameters.getConductivityMinimum(),
+				parameters.getConductivityMaximum());
+
+		PhysarumState reordered = this.toReordered(state);
+		PhysarumParameters.releaseState(state);
+		PhysarumSolver solver = new PhysarumSolver(this.myReorderedGraph,
+				reordered);
+		solver.enableLogging(false);
+		parameters.applyTo(solver);
+		return solver;
+	}
+
+	/**
+	 * Map a state of the original graph to the reordered graph
+	 * 
+	 * @param state
+	 *            the state in the original order
+	 * @return a new state in the new order
+	 */
+	public PhysarumState toReordered(PhysarumState state) {
+		return permute(state, this.myNewNodes, this.myNewEdges);
+	}
+
+	/**
+	 * Map a state of the reordered graph back to the original graph
+	 * 
+	 * @param state
+	 *            the state in the new order
+	 * @return a new state in the original order
+	 */
+	public PhysarumState toOriginal(PhysarumState state) {
+		return permute(state, this.myOriginalNodes, this.myOriginalEdges);
+	}
+
+	/**
+	 * Map a result of a run on the reordered graph back to original edges
+	 * 
+	 * @param result
+	 *            the result
+	 * @return a new result
+	 */
+	public SolveResult toOriginal(SolveResult result) {
+		return new SolveResult(this.toOriginalEdges(result.getSurvivedEdges()),
+				result.getIterations(), result.isConverged(), result.getNanos());
+	}
+
+	/**
+	 * Map new edge indexes to original ones
+	 * 
+	 * @param edges
+	 *            edge indexes of the reordered graph
+	 * @return the original indexes in ascending order
+	 */
+	public int[] toOriginalEdges(int[] edges) {
+		int[] original = new int[edges.length];
+		for (int i = 0; i < edges.length; i++) {
+			original[i] = this.myOriginalEdges[edges[i]];
+		}
+		Arrays.sort(original);
+		return original;
+	}
+
+	/**
+	 * Copy a state, value i goes to index map[i]
+	 */
+	private static PhysarumState permute(PhysarumState state, int[] nodeMap,
+			int[] edgeMap) {
+		PhysarumState permuted = state.newState(state.getNodeCount(),
+				state.getEdgeCount());
+		for (int i = 0; i < state.getNodeCount(); i++) {
+			permuted.setPressure(nodeMap[i], state.getPressure(i));
+		}
+		for (int e = 0; e < state.getEdgeCount(); e++) {
+			permuted.setFlux(edgeMap[e], state.getFlux(e));
+			permuted.setConductivity(edgeMap[e], state.getConductivity(e));
+			permuted.setFormerConductivity(edgeMap[e],
+					state.getFormerConductivity(e));
+		}
+		permuted.setSource(state.getSource() < 0 ? -1 : nodeMap[state
+				.getSource()]);
+		permuted.setSink(state.getSink() < 0 ? -1 : nodeMap[state.getSink()]);
+		permuted.setIteration(state.getIteration());
+		permuted.setFirstRun(state.isFirstRun());
+		permuted.setConverged(state.isConverged());
+		return permuted;
+	}
+
+	/**
+	 * Get the bandwidth of a graph, the largest index difference of the end
+	 * nodes of an edge
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @return the bandwidth
+	 */
+	public static int getBandwidth(PhysarumGraph graph) {
+		int bandwidth = 0;
+		for (int e = 0; e < graph.getEdgeCount(); e++) {
+			bandwidth = Math.max(bandwidth, Math.abs(graph.getEdgeStart(e)
+					- graph.getEdgeEnd(e)));
+		}
+		return bandwidth;
+	}
+
+	// ============================================================================================
+	// Getters
+	// ============================================================================================
+
+	/**
+	 * Get the graph in the original order
+	 * 
+	 * @return
+	 */
+	public PhysarumGraph getGraph() {
+		return myGraph;
+	}
+
+	/**
+	 * Get the graph in the new order
+	 * 
+	 * @return
+	 */
+	public PhysarumGraph getReorderedGraph() {
+		return myReorderedGraph;
+	}
+
+	/**
+	 * Get the new index of an original node
+	 * 
+	 * @param node
+	 * @return
+	 */
+	public int toNewNode(int node) {
+		return myNewNodes[node];
+	}
+
+	/**
+	 * Get the original index of a new node
+	 * 
+	 * @param node
+	 * @return
+	 */
+	public int toOriginalNode(int node) {
+		return myOriginalNodes[node];
+	}
+
+	/**
+	 * Get the new index of an original edge
+	 * 
+	 * @param edge
+	 * @return
+	 */
+	public int toNewEdge(int edge) {
+		return myNewEdges[edge];
+	}
+
+	/**
+	 * Get the original index of a new edge
+	 * 
+	 * @param edge
+	 * @return
+	 */
+	public int toOriginalEdge(int edge) {
+		return myOriginalEdges[edge];
+	}
+
+	/**
+	 * Get the number of parts, 1 unless the ordering is a bisection
+	 * 
+	 * @return
+	 */
+	public int getPartCount() {
+		return myParts.length - 1;
+	}
+
+	/**
+	 * Get the first new node index of a part, part getPartCount() gives the
+	 * node count
+	 * 
+	 * @param part
+	 * @return
+	 */
+	public int getPartStart(int part) {
+		return myParts[part];
+	}
+}
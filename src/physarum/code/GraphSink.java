@@ -0,0 +1,53 @@
+/**
+ *    GraphSink.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.io.IOException;
+
+/**
+ * Receives a graph edge by edge, so a graph can be passed from a generator or
+ * a file to its destination without keeping it in memory twice. begin() is
+ * called once before the edges and end() once after them.
+ * 
+ * @author Torsten
+ * 
+ */
+public interface GraphSink {
+	/**
+	 * The graph starts
+	 * 
+	 * @param nodeCount
+	 *            the number of nodes
+	 * @param source
+	 *            the source node index, -1 if there is none
+	 * @param sink
+	 *            the sink node index, -1 if there is none
+	 * @throws IOException
+	 */
+	void begin(int nodeCount, int source, int sink) throws IOException;
+
+	/**
+	 * An edge of the graph
+	 * 
+	 * @param start
+	 *            the start node index
+	 * @param end
+	 *            the end node index
+	 * @param length
+	 *            the length
+	 * @throws IOException
+	 */
+	void edge(int start, int end, double length) throws IOException;
+
+	/**
+	 * All edges have been passed
+	 * 
+	 * @throws IOException
+	 */
+	void end() throws IOException;
+}
@@ -0,0 +1,107 @@
+/**
+ *    IterationStatistics.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+/**
+ * Figures of the last conductivity update of a PhysarumSolver, gathered while
+ * the edges are updated. The solver reuses one instance for all iterations,
+ * so it must not be kept beyond the call it is handed to.
+ * 
+ * @author Torsten
+ * 
+ */
+public class IterationStatistics {
+	/** The iteration of the update, starting with 0 */
+	int myIteration;
+
+	/** Number of edges */
+	int myEdgeCount;
+
+	/** Number of edges that changed less than the delta threshold */
+	int myUnchangedCount;
+
+	/** Number of edges above the survival threshold after the update */
+	int myActiveCount;
+
+	/** The largest absolute conductivity change, NaN if one was NaN */
+	double myMaximumChange;
+
+	/** Sum of the squared conductivity changes */
+	double mySquaredChangeSum;
+
+	/** Sum of the squared conductivities after the update */
+	double mySquaredConductivitySum;
+
+	/**
+	 * Start gathering the figures of an iteration
+	 * 
+	 * @param iteration
+	 *            the iteration
+	 * @param edgeCount
+	 *            the number of edges
+	 */
+	void reset(int iteration, int edgeCount) {
+		this.myIteration = iteration;
+		this.myEdgeCount = edgeCount;
+		this.myUnchangedCount = 0;
+		this.myActiveCount = 0;
+		this.myMaximumChange = 0;
+		this.mySquaredChangeSum = 0;
+		this.mySquaredConductivitySum = 0;
+	}
+
+	public int getIteration() {
+		return myIteration;
+	}
+
+	public int getEdgeCount() {
+		return myEdgeCount;
+	}
+
+	/**
+	 * Get the number of edges whose conductivity changed less than the delta
+	 * threshold of the solver
+	 * 
+	 * @return
+	 */
+	public int getUnchangedCount() {
+		return myUnchangedCount;
+	}
+
+	/**
+	 * Get the number of edges above the survival threshold of the solver
+	 * 
+	 * @return
+	 */
+	public int getActiveCount() {
+		return myActiveCount;
+	}
+
+	/**
+	 * Get the largest absolute conductivity change
+	 * 
+	 * @return
+	 */
+	public double getMaximumChange() {
+		return myMaximumChange;
+	}
+
+	/**
+	 * Get the euclidean norm of the conductivity changes relative to the norm
+	 * of the conductivities, the relative residual of the conductivity
+	 * equation
+	 * 
+	 * @return
+	 */
+	public double getRelativeResidual() {
+		if (mySquaredConductivitySum == 0) {
+			return mySquaredChangeSum == 0 ? 0.0 : Double.POSITIVE_INFINITY;
+		}
+		return Math.sqrt(mySquaredChangeSum / mySquaredConductivitySum);
+	}
+}
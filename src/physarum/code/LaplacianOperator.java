@@ -0,0 +1,432 @@
+/**
+ *    LaplacianOperator.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The graph Laplacian weighted with D/L as a matrix-free operator y = L x for
+ * iterative pressure solvers. Only the endpoints and the weight of every edge
+ * are stored, in flat arrays, and y is scattered edge by edge: every edge adds
+ * D/L (x_i - x_j) to y_i and subtracts it from y_j. Compared to gathering over
+ * the adjacency lists every edge is read once instead of twice.
+ * 
+ * To scatter in parallel without races the edges are colored greedily so that
+ * no two edges of one color share a node. The colors are run one after the
+ * other and each color is split into parts for the common fork join pool.
+ * Edges that don't get one of the first 64 colors, e.g. around hub nodes,
+ * are scattered by one thread after the colors.
+ * 
+ * The operator is built for one graph; setWeights reads the conductivities of
+ * a state before each solve. In single precision the weights are stored as
+ * floats and the operator can also be applied to float vectors, which halves
+ * the bytes of the weights and vectors, not of the edge indexes; see
+ * MixedPrecisionPressureSolver.
+ * 
+ * @author Torsten
+ * 
+ */
+public class LaplacianOperator {
+	/** The number of colors, one bit of a long per color */
+	private static final int MAXIMUM_COLORS = 64;
+
+	/** Parts of a color have at least this many edges */
+	private static final int MINIMUM_PART = 8192;
+
+	/** The graph */
+	private final PhysarumGraph myGraph;
+
+	/** The edge indexes sorted by color, self loops left out */
+	private final int[] myEdges;
+
+	/** The endpoints of the edges in the order of myEdges */
+	private final int[] myStarts;
+	private final int[] myEnds;
+
+	/** D/L of the edges in the order of myEdges, null in single precision */
+	private final double[] myWeights;
+
+	/** D/L of the edges in single precision, null in double precision */
+	private final float[] myFloatWeights;
+
+	/**
+	 * The edges of color c are myColorStarts[c] until myColorStarts[c + 1],
+	 * the last range holds the edges without color
+	 */
+	private final int[] myColorStarts;
+
+	/** The weighted degree of every node, the diagonal of L */
+	private final double[] myDiagonal;
+
+	/** The number of parts a color is split into */
+	private int myThreads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Creates the operator for a graph and colors its edges
+	 * 
+	 * @param graph
+	 *            the graph
+	 */
+	public LaplacianOperator(PhysarumGraph graph) {
+		this(graph, false);
+	}
+
+	/**
+	 * Creates the operator for a graph and colors its edges
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param singlePrecision
+	 *            store the weights as floats
+	 */
+	public LaplacianOperator(PhysarumGraph graph, boolean singlePrecision) {
+		this.myGraph = graph;
+		int edges = graph.getEdgeCount();
+
+		long[] used = new long[graph.getNodeCount()];
+		byte[] colors = new byte[edges];
+		int[] counts = new int[MAXIMUM_COLORS + 1];
+		int count = 0;
+		for (int e = 0; e < edges; e++) {
+			int start = graph.getEdgeStart(e);
+			int end = graph.getEdgeEnd(e);
+			if (start == end) {
+				colors[e] = -1;
+				continue;
+			}
+			long free = ~(used[start] | used[end]);
+			int color = free == 0 ? MAXIMUM_COLORS : Long
+					.numberOfTrailingZeros(free);
+			if (color < MAXIMUM_COLORS) {
+				used[start] |= 1L << color;
+				used[end] |= 1L << color;
+			}
+			colors[e] = (byte) color;
+			counts[color]++;
+			count++;
+		}
+
+		this.myColorStarts = new int[MAXIMUM_COLORS + 2];
+		for (int c = 0; c <= MAXIMUM_COLORS; c++) {
+			this.myColorStarts[c + 1] = this.myColorStarts[c] + counts[c];
+		}
+		int[] next = this.myColorStarts.clone();
+		this.myEdges = new int[count];
+		this.myStarts = new int[count];
+		this.myEnds = new int[count];
+		for (int e = 0; e < edges; e++) {
+			if (colors[e] >= 0) {
+				int k = next[colors[e]]++;
+				this.myEdges[k] = e;
+				this.myStarts[k] = graph.getEdgeStart(e);
+				this.myEnds[k] = graph.getEdgeEnd(e);
+			}
+		}
+		this.myWeights = singlePrecision ? null : new double[count];
+		this.myFloatWeights = singlePrecision ? new float[count] : null;
+		this.myDiagonal = new double[graph.getNodeCount()];
+	}
+
+	/**
+	 * Read the weights D/L from the conductivities of a state and update the
+	 * diagonal
+	 * 
+	 * @param state
+	 *            the state, of the graph of the operator
+	 */
+	public void setWeights(PhysarumState state) {
+		double[] diagonal = this.myDiagonal;
+		for (int i = 0; i < diagonal.length; i++) {
+			diagonal[i] = 0.0;
+		}
+		for (int k = 0; k < this.myEdges.length; k++) {
+			int e = this.myEdges[k];
+			double w = this.store(k, state.getConductivity(e)
+					/ this.myGraph.getLength(e));
+			diagonal[this.myStarts[k]] += w;
+			diagonal[this.myEnds[k]] += w;
+		}
+	}
+
+	/**
+	 * Read the weights D/L from a state of the original graph of an ordering,
+	 * the operator belongs to the reordered graph
+	 * 
+	 * @param state
+	 *            the state in the original order
+	 * @param ordering
+	 *            the ordering
+	 */
+	public void setWeights(PhysarumState state, GraphOrdering ordering) {
+		double[] diagonal = this.myDiagonal;
+		for (int i = 0; i < diagonal.length; i++) {
+			diagonal[i] = 0.0;
+		}
+		for (int k = 0; k < this.myEdges.length; k++) {
+			int e = this.myEdges[k];
+			double w = this.store(k,
+					state.getConductivity(ordering.toOriginalEdge(e))
+							/ this.myGraph.getLength(e));
+			diagonal[this.myStarts[k]] += w;
+			diagonal[this.myEnds[k]] += w;
+		}
+	}
+
+	/**
+	 * Store the weight at position k
+	 * 
+	 * @return the weight as stored
+	 */
+	private double store(int k, double w) {
+		if (this.myFloatWeights != null) {
+			this.myFloatWeights[k] = (float) w;
+			return this.myFloatWeights[k];
+		}
+		this.myWeights[k] = w;
+		return w;
+	}
+
+	/**
+	 * y = L x without the row and column of a fixed node, its entry of y is
+	 * set to 0 and its entry of x must be 0
+	 * 
+	 * @param x
+	 *            the vector, not changed
+	 * @param y
+	 *            the result, must not be x
+	 * @param fixed
+	 *            the fixed node, -1 for none
+	 */
+	public void apply(double[] x, double[] y, int fixed) {
+		int n = this.myDiagonal.length;
+		for (int i = 0; i < n; i++) {
+			y[i] = 0.0;
+		}
+
+		this.run(new ScatterTask(x, y, null, null, 0, this.myEdges.length, 1));
+
+		if (fixed >= 0) {
+			y[fixed] = 0.0;
+		}
+	}
+
+	/**
+	 * y = L x in single precision without the row and column of a fixed node,
+	 * its entry of y is set to 0 and its entry of x must be 0
+	 * 
+	 * @param x
+	 *            the vector, not changed
+	 * @param y
+	 *            the result, must not be x
+	 * @param fixed
+	 *            the fixed node, -1 for none
+	 * @throws IllegalStateException
+	 *             if the operator is not in single precision
+	 */
+	public void apply(float[] x, float[] y, int fixed) {
+		if (this.myFloatWeights == null) {
+			throw new IllegalStateException(
+					"The operator is not in single precision");
+		}
+		int n = this.myDiagonal.length;
+		for (int i = 0; i < n; i++) {
+			y[i] = 0.0f;
+		}
+
+		this.run(new ScatterTask(null, null, x, y, 0, this.myEdges.length, 1));
+
+		if (fixed >= 0) {
+			y[fixed] = 0.0f;
+		}
+	}
+
+	/**
+	 * Scatter all edges with the vectors of a task, color by color
+	 */
+	private void run(ScatterTask all) {
+		int colored = this.myColorStarts[MAXIMUM_COLORS];
+		if (this.myThreads == 1 || colored < 2 * MINIMUM_PART) {
+			all.scatter(0, this.myEdges.length);
+			return;
+		}
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		for (int c = 0; c < MAXIMUM_COLORS; c++) {
+			int from = this.myColorStarts[c];
+			int to = this.myColorStarts[c + 1];
+			if (to - from < 2 * MINIMUM_PART) {
+				all.scatter(from, to);
+			} else {
+				int parts = Math.min(this.myThreads, (to - from) / MINIMUM_PART);
+				pool.invoke(all.part(from, to, parts));
+			}
+		}
+		all.scatter(colored, this.myEdges.length);
+	}
+
+	/**
+	 * Scatter the edges from until to into y
+	 */
+	private void scatter(double[] x, double[] y, int from, int to) {
+		int[] starts = this.myStarts;
+		int[] ends = this.myEnds;
+		if (this.myFloatWeights != null) {
+			float[] weights = this.myFloatWeights;
+			for (int k = from; k < to; k++) {
+				int i = starts[k];
+				int j = ends[k];
+				double flux = weights[k] * (x[i] - x[j]);
+				y[i] += flux;
+				y[j] -= flux;
+			}
+			return;
+		}
+		double[] weights = this.myWeights;
+		for (int k = from; k < to; k++) {
+			int i = starts[k];
+			int j = ends[k];
+			double flux = weights[k] * (x[i] - x[j]);
+			y[i] += flux;
+			y[j] -= flux;
+		}
+	}
+
+	/**
+	 * Scatter the edges from until to into y in single precision
+	 */
+	private void scatter(float[] x, float[] y, int from, int to) {
+		int[] starts = this.myStarts;
+		int[] ends = this.myEnds;
+		float[] weights = this.myFloatWeights;
+		for (int k = from; k < to; k++) {
+			int i = starts[k];
+			int j = ends[k];
+			float flux = weights[k] * (x[i] - x[j]);
+			y[i] += flux;
+			y[j] -= flux;
+		}
+	}
+
+	/**
+	 * Scatters a range of edges of one color, split into parts, with either
+	 * the double or the float vectors
+	 */
+	private class ScatterTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final double[] myX;
+		private final double[] myY;
+		private final float[] myFloatX;
+		private final float[] myFloatY;
+		private final int myFrom;
+		private final int myTo;
+		private final int myParts;
+
+		ScatterTask(double[] x, double[] y, float[] floatX, float[] floatY,
+				int from, int to, int parts) {
+			this.myX = x;
+			this.myY = y;
+			this.myFloatX = floatX;
+			this.myFloatY = floatY;
+			this.myFrom = from;
+			this.myTo = to;
+			this.myParts = parts;
+		}
+
+		/**
+		 * Creates a task on the same vectors for another range
+		 */
+		ScatterTask part(int from, int to, int parts) {
+			return new ScatterTask(this.myX, this.myY, this.myFloatX,
+					this.myFloatY, from, to, parts);
+		}
+
+		void scatter(int from, int to) {
+			if (this.myX != null) {
+				LaplacianOperator.this.scatter(this.myX, this.myY, from, to);
+			} else {
+				LaplacianOperator.this.scatter(this.myFloatX, this.myFloatY,
+						from, to);
+			}
+		}
+
+		@Override
+		protected void compute() {
+			if (this.myParts <= 1) {
+				this.scatter(this.myFrom, this.myTo);
+				return;
+			}
+			int half = this.myParts / 2;
+			int middle = this.myFrom
+					+ (int) ((long) (this.myTo - this.myFrom) * half / this.myParts);
+			invokeAll(this.part(this.myFrom, middle, half),
+					this.part(middle, this.myTo, this.myParts - half));
+		}
+	}
+
+	/**
+	 * Get the graph of the operator
+	 * 
+	 * @return
+	 */
+	public PhysarumGraph getGraph() {
+		return myGraph;
+	}
+
+	/**
+	 * Get the diagonal entry of a node, the sum of D/L over its edges
+	 * 
+	 * @param node
+	 * @return
+	 */
+	public double getDiagonal(int node) {
+		return myDiagonal[node];
+	}
+
+	/**
+	 * Tell if the weights are stored in single precision
+	 * 
+	 * @return
+	 */
+	public boolean isSinglePrecision() {
+		return this.myFloatWeights != null;
+	}
+
+	/**
+	 * Get the number of colors the edges needed, edges without color not
+	 * counted
+	 * 
+	 * @return
+	 */
+	public int getColorCount() {
+		int colors = 0;
+		for (int c = 0; c < MAXIMUM_COLORS; c++) {
+			if (this.myColorStarts[c + 1] > this.myColorStarts[c]) {
+				colors = c + 1;
+			}
+		}
+		return colors;
+	}
+
+	public int getThreads() {
+		return myThreads;
+	}
+
+	/**
+	 * Set the number of parts a color is split into, 1 scatters on the
+	 * calling thread only
+	 * 
+	 * @param threads
+	 */
+	public void setThreads(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Thread count must be positive");
+		}
+		this.myThreads = threads;
+	}
+}
@@ -0,0 +1,1191 @@
+/**
+ *    LatticeSolver.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.random.RandomGenerator;
+
+import physarum.code.PhysarumConnection.Q_Method;
+
+/**
+ * A Physarum solver for 2D and 3D lattices, e.g. grid mazes. The cells of the
+ * lattice are the nodes and every open cell is connected to its open
+ * neighbours along the axes. Nothing about the adjacency is stored: the
+ * conductivities are kept in one primitive array per direction, indexed by
+ * the cell the edge starts at, and the weighted Laplacian is applied as a
+ * stencil. A lattice of 10^7 cells needs about 100 bytes per cell.
+ * 
+ * The pressures are solved with the conjugate gradient method, preconditioned
+ * with a geometric multigrid W-cycle: every coarse level merges blocks of 2 x
+ * 2 (x 2) cells, its conductances are the sums of the fine edges between the
+ * blocks, and red-black Gauss-Seidel is the smoother. As in the
+ * ConjugateGradientPressureSolver the sink is held at pressure 0 and the
+ * pressures of the previous iteration are the start value. The conductivity
+ * update is the one of PhysarumConnection, including the Q methods.
+ * 
+ * The aggregation is unsmoothed and the coarse correction is scaled by a
+ * fixed factor, so the preconditioner degrades as the conductivities
+ * separate into channels: on an open lattice the inner iterations grow from
+ * about 8 in the first iterations to 50-70 at 300 x 300 cells and to about
+ * 110 at 1000 x 1000, i.e. from about 2.6 to 15 s per outer iteration per
+ * 10^6 cells on one core, and fall again as the run converges.
+ * 
+ * The directions are 0 for +x, 1 for +y and 2 for +z; the edge (cell, d)
+ * connects a cell with its neighbour in direction d.
+ * 
+ * @author Torsten
+ * 
+ */
+public class LatticeSolver {
+	/** Coarse levels stop at this many cells and are solved directly */
+	private static final int COARSEST_CELLS = 512;
+
+	/** Gauss-Seidel sweeps before and after the coarse correction */
+	private static final int SMOOTHING_SWEEPS = 2;
+
+	/**
+	 * The factor of the coarse correction, aggregation underestimates the
+	 * smooth error and the plain correction would be too short. It fits a
+	 * smooth conductivity field; with high contrast it is too short or too
+	 * long at places and the inner iterations go up.
+	 */
+	private static final double CORRECTION_FACTOR = 2.0;
+
+	/** The size of the lattice */
+	private final int myWidth;
+	private final int myHeight;
+	private final int myDepth;
+
+	/** The number of directions, 2 or 3 */
+	private final int myDirections;
+
+	/** The closed cells, walls of a maze */
+	private final BitSet myClosed = new BitSet();
+
+	/** The length of an edge per direction */
+	private final double[] myLengths;
+
+	/** The conductivity of every edge, per direction, 0 if there is none */
+	private final double[][] myConductivities;
+
+	/** The pressure of every cell */
+	private final double[] myPressures;
+
+	/** The source cell */
+	private int mySource = -1;
+
+	/** The sink cell */
+	private int mySink = -1;
+
+	/** The parameters of the dynamics */
+	private PhysarumParameters myParameters = new PhysarumParameters();
+
+	/** The number of iterations run */
+	private int myIteration = 0;
+
+	/** True once the run converged */
+	private boolean myConverged = false;
+
+	/** The relative residual the pressure solve has to reach */
+	private double myTolerance = 1e-8;
+
+	/** The maximum inner iterations per pressure solve */
+	private int myMaximumInnerIterations = 1000;
+
+	/** Inner iterations of the last pressure solve */
+	private int myLastInnerIterations = 0;
+
+	/** The relative residual of the last pressure solve */
+	private double myLastResidual = 0;
+
+	/** The figures of the last conductivity update */
+	private final IterationStatistics myStatistics = new IterationStatistics();
+
+	/** The multigrid hierarchy, level 0 works on the conductivities */
+	private Level[] myLevels;
+
+	/** The work vectors of the conjugate gradient method */
+	private double[] myR;
+	private double[] myZ;
+	private double[] myP;
+	private double[] myQ;
+
+	/**
+	 * Creates a 2D lattice with all cells open
+	 * 
+	 * @param width
+	 *            the cells in x direction
+	 * @param height
+	 *            the cells in y direction
+	 */
+	public LatticeSolver(int width, int height) {
+		this(width, height, 1);
+	}
+
+	/**
+	 * Creates a 3D lattice with all cells open, a depth of 1 gives a 2D
+	 * lattice
+	 * 
+	 * @param width
+	 *            the cells in x direction
+	 * @param height
+	 *            the cells in y direction
+	 * @param depth
+	 *            the cells in z direction
+	 */
+	public LatticeSolver(int width, int height, int depth) {
+		if (width < 1 || height < 1 || depth < 1
+				|| (long) width * height * depth > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Bad lattice size " + width
+					+ " x " + height + " x " + depth);
+		}
+		this.myWidth = width;
+		this.myHeight = height;
+		this.myDepth = depth;
+		this.myDirections = depth > 1 ? 3 : 2;
+		int cells = width * height * depth;
+		this.myLengths = new double[this.myDirections];
+		Arrays.fill(this.myLengths, 1.0);
+		this.myConductivities = new double[this.myDirections][cells];
+		this.myPressures = new double[cells];
+	}
+
+	// ============================================================================================
+	// Setup
+	// ============================================================================================
+
+	/**
+	 * Get the index of a cell
+	 * 
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @return the cell index
+	 */
+	public int getCell(int x, int y, int z) {
+		return (z * this.myHeight + y) * this.myWidth + x;
+	}
+
+	/**
+	 * Get the neighbour of a cell
+	 * 
+	 * @param cell
+	 *            the cell index
+	 * @param direction
+	 *            0, 1 or 2 for +x, +y or +z
+	 * @return the index of the neighbour, -1 at the border of the lattice
+	 */
+	public int getNeighbour(int cell, int direction) {
+		int x = cell % this.myWidth;
+		int y = (cell / this.myWidth) % this.myHeight;
+		int z = cell / (this.myWidth * this.myHeight);
+		switch (direction) {
+		case 0:
+			return x + 1 < this.myWidth ? cell + 1 : -1;
+		case 1:
+			return y + 1 < this.myHeight ? cell + this.myWidth : -1;
+		default:
+			return z + 1 < this.myDepth ? cell + this.myWidth * this.myHeight
+					: -1;
+		}
+	}
+
+	/**
+	 * Open or close a cell, the conductivities have to be initialized after
+	 * the last change
+	 * 
+	 * @param cell
+	 *            the cell index
+	 * @param open
+	 *            false for a wall
+	 */
+	public void setOpen(int cell, boolean open) {
+		this.myClosed.set(cell, !open);
+	}
+
+	public boolean isOpen(int cell) {
+		return !this.myClosed.get(cell);
+	}
+
+	/**
+	 * Check if an edge exists, i.e. both of its cells are open
+	 * 
+	 * @param cell
+	 *            the cell index
+	 * @param direction
+	 *            the direction
+	 * @return true if the edge exists
+	 */
+	public boolean hasEdge(int cell, int direction) {
+		int neighbour = this.getNeighbour(cell, direction);
+		return neighbour >= 0 && this.isOpen(cell) && this.isOpen(neighbour);
+	}
+
+	/**
+	 * Set the length of the edges in one direction
+	 * 
+	 * @param direction
+	 *            the direction
+	 * @param length
+	 *            the length, > 0
+	 */
+	public void setLength(int direction, double length) {
+		if (!(length > 0)) {
+			throw new IllegalArgumentException("Bad length " + length);
+		}
+		this.myLengths[direction] = length;
+	}
+
+	/**
+	 * Set the parameters of the dynamics: mue, I0, alpha, the Q method, the
+	 * thresholds, the maximum iterations, the range of the initial
+	 * conductivities and their seed
+	 * 
+	 * @param parameters
+	 *            the parameters, copied
+	 */
+	public void setParameters(PhysarumParameters parameters) {
+		this.myParameters = parameters.copy();
+	}
+
+	/**
+	 * Draw the initial conductivities from the seed of the parameters
+	 */
+	public void initializeConductivities() {
+		this.initializeConductivities(new Random(this.myParameters.getSeed()),
+				this.myParameters.getConductivityMinimum(),
+				this.myParameters.getConductivityMaximum());
+	}
+
+	/**
+	 * Draw the initial conductivities of all edges, in the order of the edges
+	 * of toProblem(), and start a new run
+	 * 
+	 * @param random
+	 *            the generator
+	 * @param min
+	 *            the minimum conductivity
+	 * @param max
+	 *            the maximum conductivity
+	 */
+	public void initializeConductivities(RandomGenerator random, double min,
+			double max) {
+		for (int cell = 0; cell < this.myPressures.length; cell++) {
+			for (int d = 0; d < this.myDirections; d++) {
+				this.myConductivities[d][cell] = this.hasEdge(cell, d) ? min
+						+ random.nextDouble() * (max - min) : 0.0;
+			}
+		}
+		Arrays.fill(this.myPressures, 0.0);
+		this.myIteration = 0;
+		this.myConverged = false;
+	}
+
+	/**
+	 * Creates the graph of the lattice for the PhysarumSolver. The open cells
+	 * are the nodes in the order of their index, with the cell index as id;
+	 * the edges follow the cells and within a cell the directions.
+	 * 
+	 * @return the graph with the source and the sink of the lattice
+	 */
+	public PhysarumProblem toProblem() {
+		PhysarumGraphBuilder builder = new PhysarumGraphBuilder();
+		int[] nodes = new int[this.myPressures.length];
+		for (int cell = 0; cell < this.myPressures.length; cell++) {
+			nodes[cell] = this.isOpen(cell) ? builder.addNode(cell) : -1;
+		}
+		for (int cell = 0; cell < this.myPressures.length; cell++) {
+			for (int d = 0; d < this.myDirections; d++) {
+				if (this.hasEdge(cell, d)) {
+					builder.addEdge(nodes[cell],
+							nodes[this.getNeighbour(cell, d)],
+							this.myLengths[d]);
+				}
+			}
+		}
+		builder.setTerminals(nodes[this.mySource], nodes[this.mySink]);
+		return builder.buildProblem();
+	}
+
+	// ============================================================================================
+	// Solving
+	// ============================================================================================
+
+	/**
+	 * Run until the run converges or reaches the maximum iterations of the
+	 * parameters
+	 */
+	public void solve() {
+		this.solve(CancellationToken.NONE);
+	}
+
+	/**
+	 * Run until the run converges, reaches the maximum iterations or the
+	 * token is cancelled. A cancelled run keeps its last finished iteration
+	 * and continues with the next call.
+	 * 
+	 * @param token
+	 *            checked between the iterations and in the pressure solve
+	 * @return false if the token stopped the run
+	 */
+	public boolean solve(CancellationToken token) {
+		if (this.mySource < 0 || this.mySink < 0 || this.mySource == this.mySink) {
+			throw new IllegalStateException("Source and sink must be set");
+		}
+		while (!this.myConverged
+				&& this.myIteration < this.myParameters.getMaximumIterations()) {
+			if (token.isCancelled()) {
+				return false;
+			}
+			try {
+				this.solvePressures(token);
+			} catch (CancellationException e) {
+				return false;
+			}
+			this.updateConductivities();
+			// the rule of the PhysarumSolver: no edge changed more than
+			// the delta threshold
+			this.myConverged = this.myStatistics.getMaximumChange() < this.myParameters
+					.getDeltaConductivityThreshold();
+			this.myIteration++;
+		}
+		return true;
+	}
+
+	/**
+	 * Solve the pressures of the current conductivities
+	 * 
+	 * @param token
+	 *            checked every inner iteration
+	 * @throws CancellationException
+	 *             if the token stopped the solve, the pressures reached so
+	 *             far are kept as start value of the next solve
+	 */
+	protected void solvePressures(CancellationToken token)
+			throws CancellationException {
+		int n = this.myPressures.length;
+		if (this.myLevels == null) {
+			this.myLevels = this.createLevels();
+			this.myR = new double[n];
+			this.myZ = new double[n];
+			this.myP = new double[n];
+			this.myQ = new double[n];
+		}
+		this.updateLevels();
+		Level fine = this.myLevels[0];
+
+		// start with the last pressures, the sink is 0
+		double[] x = this.myP;
+		double shift = this.myPressures[this.mySink];
+		for (int i = 0; i < n; i++) {
+			x[i] = this.myPressures[i] - shift;
+		}
+		x[this.mySink] = 0.0;
+
+		// r = b - A x with b = -I0 at the source
+		double[] r = this.myR;
+		fine.apply(x, r);
+		double I0 = this.myParameters.getI0();
+		for (int i = 0; i < n; i++) {
+			r[i] = -r[i];
+		}
+		r[this.mySource] -= I0;
+		r[this.mySink] = 0.0;
+		double bNorm = Math.abs(I0);
+		System.arraycopy(x, 0, this.myPressures, 0, n);
+		if (bNorm == 0) {
+			Arrays.fill(this.myPressures, 0.0);
+			this.myLastInnerIterations = 0;
+			this.myLastResidual = 0;
+			return;
+		}
+
+		double[] pressures = this.myPressures;
+		double[] z = this.myZ;
+		double[] p = this.myP;
+		double[] q = this.myQ;
+		this.precondition(r, z, q);
+		double rz = 0;
+		double rr = 0;
+		for (int i = 0; i < n; i++) {
+			p[i] = z[i];
+			rz += r[i] * z[i];
+			rr += r[i] * r[i];
+		}
+
+		double limit = this.myTolerance * bNorm;
+		int iteration = 0;
+		while (Math.sqrt(rr) > limit
+				&& iteration < this.myMaximumInnerIterations) {
+			if (token.isCancelled()) {
+				throw new CancellationException(
+						"Pressure solve cancelled at inner iteration "
+								+ iteration);
+			}
+			fine.apply(p, q);
+			double pq = 0;
+			for (int i = 0; i < n; i++) {
+				pq += p[i] * q[i];
+			}
+			if (pq <= 0) {
+				break;
+			}
+			double alpha = rz / pq;
+			rr = 0;
+			for (int i = 0; i < n; i++) {
+				pressures[i] += alpha * p[i];
+				r[i] -= alpha * q[i];
+				rr += r[i] * r[i];
+			}
+
+			this.precondition(r, z, q);
+			double rzNext = 0;
+			for (int i = 0; i < n; i++) {
+				rzNext += r[i] * z[i];
+			}
+			double beta = rzNext / rz;
+			rz = rzNext;
+			for (int i = 0; i < n; i++) {
+				p[i] = z[i] + beta * p[i];
+			}
+			iteration++;
+		}
+		this.myLastInnerIterations = iteration;
+		this.myLastResidual = Math.sqrt(rr) / bNorm;
+	}
+
+	/**
+	 * Update the conductivity of every edge from the new pressures:
+	 * deltaD = w * (f(Q) - alpha * D)
+	 */
+	protected void updateConductivities() {
+		double mue = this.myParameters.getMue();
+		double alpha = this.myParameters.getAlpha();
+		double weight = this.myParameters.getWeightAdaption();
+		double fQAlpha = this.myParameters.getfQAlpha();
+		Q_Method method = this.myParameters.getQMethod();
+		double delta = this.myParameters.getDeltaConductivityThreshold();
+		double survival = this.myParameters.getSurvivalThreshold();
+		double[] pressures = this.myPressures;
+
+		int edges = 0;
+		int unchanged = 0;
+		int active = 0;
+		double maximumChange = 0;
+		double squaredChangeSum = 0;
+		double squaredConductivitySum = 0;
+		int plane = this.myWidth * this.myHeight;
+		int[] strides = { 1, this.myWidth, plane };
+		for (int d = 0; d < this.myDirections; d++) {
+			double[] conductivities = this.myConductivities[d];
+			double inverseLength = 1.0 / this.myLengths[d];
+			int stride = strides[d];
+			for (int i = 0; i < conductivities.length; i++) {
+				double c = conductivities[i];
+				if (c == 0.0) {
+					continue;
+				}
+				double q = c * inverseLength
+						* (pressures[i] - pressures[i + stride]);
+				double next = c
+						+ weight
+						* (PhysarumConnection.f_Q(method, fQAlpha, q, mue) - alpha
+								* c);
+				conductivities[i] = next;
+
+				double change = Math.abs(next - c);
+				edges++;
+				if (change < delta) {
+					unchanged++;
+				}
+				if (next > survival) {
+					active++;
+				}
+				maximumChange = Math.max(maximumChange, change);
+				squaredChangeSum += change * change;
+				squaredConductivitySum += next * next;
+			}
+		}
+
+		IterationStatistics statistics = this.myStatistics;
+		statistics.reset(this.myIteration, edges);
+		statistics.myUnchangedCount = unchanged;
+		statistics.myActiveCount = active;
+		statistics.myMaximumChange = maximumChange;
+		statistics.mySquaredChangeSum = squaredChangeSum;
+		statistics.mySquaredConductivitySum = squaredConductivitySum;
+	}
+
+	// ============================================================================================
+	// Multigrid
+	// ============================================================================================
+
+	/**
+	 * z = M^-1 r with one W-cycle, q is overwritten
+	 */
+	private void precondition(double[] r, double[] z, double[] q) {
+		Arrays.fill(z, 0.0);
+		this.cycle(0, z, r, q);
+	}
+
+	/**
+	 * One W-cycle on a level, x starts at 0. Red before black on the way
+	 * down and black before red on the way up keeps the preconditioner
+	 * symmetric. Below the finest level every coarse problem is solved with
+	 * two cycles, which costs little as every level has a quarter of the
+	 * cells of the one above, and the coarse correction is doubled: the sum
+	 * of the conductances between two blocks overestimates the stiffness of
+	 * the coarse problem by about that factor.
+	 */
+	private void cycle(int k, double[] x, double[] b, double[] r) {
+		Level level = this.myLevels[k];
+		if (k == this.myLevels.length - 1) {
+			level.solveDirect(x, b);
+			return;
+		}
+		for (int s = 0; s < SMOOTHING_SWEEPS; s++) {
+			level.relax(x, b, 0);
+		}
+		level.residual(x, b, r);
+		Level coarse = this.myLevels[k + 1];
+		level.restrict(r, coarse, coarse.myB);
+		Arrays.fill(coarse.myX, 0.0);
+		this.cycle(k + 1, coarse.myX, coarse.myB, coarse.myR);
+		if (k + 2 < this.myLevels.length) {
+			// the second cycle on the coarse residual
+			coarse.residual(coarse.myX, coarse.myB, coarse.myR);
+			Arrays.fill(coarse.myE, 0.0);
+			this.cycle(k + 1, coarse.myE, coarse.myR, coarse.myT);
+			for (int i = 0; i < coarse.myCells; i++) {
+				coarse.myX[i] += coarse.myE[i];
+			}
+		}
+		level.prolongate(coarse, coarse.myX, CORRECTION_FACTOR, x);
+		for (int s = 0; s < SMOOTHING_SWEEPS; s++) {
+			level.relax(x, b, 1);
+		}
+	}
+
+	/**
+	 * Create the levels, level 0 is a view on the conductivities
+	 */
+	private Level[] createLevels() {
+		Level fine = new Level(this.myWidth, this.myHeight, this.myDepth,
+				this.myDirections, this.myConductivities, false);
+		Level[] levels = { fine };
+		Level level = fine;
+		while (level.myCells > COARSEST_CELLS
+				&& (level.myWidth > 1 || level.myHeight > 1 || level.myDepth > 1)) {
+			Level coarse = new Level((level.myWidth + 1) / 2,
+					(level.myHeight + 1) / 2, (level.myDepth + 1) / 2,
+					this.myDirections, null, true);
+			levels = Arrays.copyOf(levels, levels.length + 1);
+			levels[levels.length - 1] = coarse;
+			level = coarse;
+		}
+		return levels;
+	}
+
+	/**
+	 * Take over the current conductivities into all levels
+	 */
+	private void updateLevels() {
+		Level fine = this.myLevels[0];
+		for (int d = 0; d < this.myDirections; d++) {
+			fine.myScale[d] = 1.0 / this.myLengths[d];
+		}
+		fine.myFixed = this.mySink;
+		fine.myGroundCount = 0;
+		fine.updateDiagonal();
+		for (int k = 1; k < this.myLevels.length; k++) {
+			this.myLevels[k - 1].coarsen(this.myLevels[k]);
+			this.myLevels[k].updateDiagonal();
+		}
+		this.myLevels[this.myLevels.length - 1].factorize();
+	}
+
+	/**
+	 * A level of the multigrid hierarchy: a lattice with a conductance per
+	 * direction and cell, optional conductances to ground and one optional
+	 * cell fixed at 0
+	 */
+	private static final class Level {
+		final int myWidth;
+		final int myHeight;
+		final int myDepth;
+		final int myCells;
+		final int myDirections;
+
+		/** The conductance of the edge in a direction, times the scale */
+		final double[][] myConductances;
+		final double[] myScale;
+
+		/** The cell held at 0, -1 for none */
+		int myFixed = -1;
+
+		/** The conductances to ground */
+		int[] myGroundCells = new int[4];
+		double[] myGroundValues = new double[4];
+		int myGroundCount = 0;
+
+		final double[] myInverseDiagonal;
+
+		/** The work vectors of a coarse level */
+		final double[] myX;
+		final double[] myB;
+		final double[] myR;
+		final double[] myE;
+		final double[] myT;
+
+		/** The Cholesky factor of the coarsest level */
+		double[] myFactor;
+
+		Level(int width, int height, int depth, int directions,
+				double[][] conductances, boolean coarse) {
+			this.myWidth = width;
+			this.myHeight = height;
+			this.myDepth = depth;
+			this.myCells = width * height * depth;
+			this.myDirections = directions;
+			this.myConductances = conductances != null ? conductances
+					: new double[directions][this.myCells];
+			this.myScale = new double[directions];
+			Arrays.fill(this.myScale, 1.0);
+			this.myInverseDiagonal = new double[this.myCells];
+			this.myX = coarse ? new double[this.myCells] : null;
+			this.myB = coarse ? new double[this.myCells] : null;
+			this.myR = coarse ? new double[this.myCells] : null;
+			this.myE = coarse ? new double[this.myCells] : null;
+			this.myT = coarse ? new double[this.myCells] : null;
+		}
+
+		void updateDiagonal() {
+			double[] diagonal = this.myInverseDiagonal;
+			Arrays.fill(diagonal, 0.0);
+			int plane = this.myWidth * this.myHeight;
+			int[] strides = { 1, this.myWidth, plane };
+			for (int d = 0; d < this.myDirections; d++) {
+				double[] c = this.myConductances[d];
+				double scale = this.myScale[d];
+				int stride = strides[d];
+				for (int i = 0; i < this.myCells; i++) {
+					double w = c[i] * scale;
+					if (w != 0.0) {
+						diagonal[i] += w;
+						diagonal[i + stride] += w;
+					}
+				}
+			}
+			for (int g = 0; g < this.myGroundCount; g++) {
+				diagonal[this.myGroundCells[g]] += this.myGroundValues[g];
+			}
+			for (int i = 0; i < this.myCells; i++) {
+				diagonal[i] = diagonal[i] > 0 && i != this.myFixed ? 1.0 / diagonal[i]
+						: 0.0;
+			}
+		}
+
+		/**
+		 * y = A x, the row of the fixed cell is 0 and x must be 0 there
+		 */
+		void apply(double[] x, double[] y) {
+			int w = this.myWidth;
+			int plane = w * this.myHeight;
+			double[] c0 = this.myConductances[0];
+			double[] c1 = this.myConductances[1];
+			double[] c2 = this.myDirections > 2 ? this.myConductances[2] : null;
+			double s0 = this.myScale[0];
+			double s1 = this.myScale[1];
+			double s2 = this.myDirections > 2 ? this.myScale[2] : 0.0;
+			for (int k = 0; k < this.myDepth; k++) {
+				boolean back = c2 != null && k > 0;
+				boolean front = c2 != null && k + 1 < this.myDepth;
+				for (int j = 0; j < this.myHeight; j++) {
+					boolean up = j > 0;
+					boolean down = j + 1 < this.myHeight;
+					int i = (k * this.myHeight + j) * w;
+					for (int h = 0; h < w; h++, i++) {
+						double xi = x[i];
+						double sum = 0;
+						if (h > 0) {
+							sum += c0[i - 1] * s0 * (xi - x[i - 1]);
+						}
+						if (h + 1 < w) {
+							sum += c0[i] * s0 * (xi - x[i + 1]);
+						}
+						if (up) {
+							sum += c1[i - w] * s1 * (xi - x[i - w]);
+						}
+						if (down) {
+							sum += c1[i] * s1 * (xi - x[i + w]);
+						}
+						if (back) {
+							sum += c2[i - plane] * s2 * (xi - x[i - plane]);
+						}
+						if (front) {
+							sum += c2[i] * s2 * (xi - x[i + plane]);
+						}
+						y[i] = sum;
+					}
+				}
+			}
+			for (int g = 0; g < this.myGroundCount; g++) {
+				int cell = this.myGroundCells[g];
+				y[cell] += this.myGroundValues[g] * x[cell];
+			}
+			if (this.myFixed >= 0) {
+				y[this.myFixed] = 0.0;
+			}
+		}
+
+		/**
+		 * r = b - A x
+		 */
+		void residual(double[] x, double[] b, double[] r) {
+			this.apply(x, r);
+			for (int i = 0; i < this.myCells; i++) {
+				r[i] = this.myInverseDiagonal[i] > 0 ? b[i] - r[i] : 0.0;
+			}
+		}
+
+		/**
+		 * One red-black Gauss-Seidel sweep: the cells of the first color and
+		 * then the cells of the second color. Both colors are done in the
+		 * same pass over the memory, the second one lags behind by as many
+		 * lines as its neighbours of the first color reach ahead.
+		 */
+		void relax(double[] x, double[] b, int first) {
+			int lines = this.myHeight * this.myDepth;
+			int lag = this.myDirections > 2 ? this.myHeight : 1;
+			for (int line = 0; line < lines + lag; line++) {
+				if (line < lines) {
+					this.relaxLine(x, b, first, line);
+				}
+				if (line >= lag) {
+					this.relaxLine(x, b, 1 - first, line - lag);
+				}
+			}
+		}
+
+		/**
+		 * Relax the cells of one color in one line of the lattice
+		 */
+		private void relaxLine(double[] x, double[] b, int color, int line) {
+			int w = this.myWidth;
+			int plane = w * this.myHeight;
+			int j = line % this.myHeight;
+			int k = line / this.myHeight;
+			double[] c0 = this.myConductances[0];
+			double[] c1 = this.myConductances[1];
+			double[] c2 = this.myDirections > 2 ? this.myConductances[2] : null;
+			double s0 = this.myScale[0];
+			double s1 = this.myScale[1];
+			double s2 = this.myDirections > 2 ? this.myScale[2] : 0.0;
+			double[] inverseDiagonal = this.myInverseDiagonal;
+			boolean back = c2 != null && k > 0;
+			boolean front = c2 != null && k + 1 < this.myDepth;
+			boolean up = j > 0;
+			boolean down = j + 1 < this.myHeight;
+			int h = (color + j + k) & 1;
+			int i = line * w + h;
+			for (; h < w; h += 2, i += 2) {
+				double inverse = inverseDiagonal[i];
+				if (inverse == 0.0) {
+					continue;
+				}
+				double sum = b[i];
+				if (h > 0) {
+					sum += c0[i - 1] * s0 * x[i - 1];
+				}
+				if (h + 1 < w) {
+					sum += c0[i] * s0 * x[i + 1];
+				}
+				if (up) {
+					sum += c1[i - w] * s1 * x[i - w];
+				}
+				if (down) {
+					sum += c1[i] * s1 * x[i + w];
+				}
+				if (back) {
+					sum += c2[i - plane] * s2 * x[i - plane];
+				}
+				if (front) {
+					sum += c2[i] * s2 * x[i + plane];
+				}
+				x[i] = sum * inverse;
+			}
+		}
+
+		/**
+		 * The coarse level of this one: the conductance between two blocks is
+		 * the sum of the fine edges between them, the edges to the fixed cell
+		 * become conductances to ground
+		 */
+		void coarsen(Level coarse) {
+			for (int d = 0; d < this.myDirections; d++) {
+				Arrays.fill(coarse.myConductances[d], 0.0);
+			}
+			coarse.myGroundCount = 0;
+			coarse.myFixed = -1;
+			int w = this.myWidth;
+			int plane = w * this.myHeight;
+			int[] strides = { 1, w, plane };
+			for (int k = 0, i = 0; k < this.myDepth; k++) {
+				for (int j = 0; j < this.myHeight; j++) {
+					for (int h = 0; h < w; h++, i++) {
+						int block = coarse.getBlock(h, j, k);
+						int[] position = { h, j, k };
+						for (int d = 0; d < this.myDirections; d++) {
+							double c = this.myConductances[d][i]
+									* this.myScale[d];
+							if (c == 0.0) {
+								continue;
+							}
+							int neighbour = i + strides[d];
+							if (i == this.myFixed) {
+								position[d]++;
+								coarse.addGround(coarse.getBlock(position[0],
+										position[1], position[2]), c);
+								position[d]--;
+							} else if (neighbour == this.myFixed) {
+								coarse.addGround(block, c);
+							} else if ((position[d] & 1) == 1) {
+								// the edge leaves the block
+								coarse.myConductances[d][block] += c;
+							}
+						}
+					}
+				}
+			}
+			for (int g = 0; g < this.myGroundCount; g++) {
+				int cell = this.myGroundCells[g];
+				int h = cell % w;
+				int j = (cell / w) % this.myHeight;
+				int k = cell / plane;
+				coarse.addGround(coarse.getBlock(h, j, k),
+						this.myGroundValues[g]);
+			}
+		}
+
+		int getBlock(int h, int j, int k) {
+			return ((k >> 1) * this.myHeight + (j >> 1)) * this.myWidth
+					+ (h >> 1);
+		}
+
+		void addGround(int cell, double value) {
+			for (int g = 0; g < this.myGroundCount; g++) {
+				if (this.myGroundCells[g] == cell) {
+					this.myGroundValues[g] += value;
+					return;
+				}
+			}
+			if (this.myGroundCount == this.myGroundCells.length) {
+				this.myGroundCells = Arrays.copyOf(this.myGroundCells,
+						2 * this.myGroundCount);
+				this.myGroundValues = Arrays.copyOf(this.myGroundValues,
+						2 * this.myGroundCount);
+			}
+			this.myGroundCells[this.myGroundCount] = cell;
+			this.myGroundValues[this.myGroundCount++] = value;
+		}
+
+		/**
+		 * b of the coarse level, the sum of the residuals of every block
+		 */
+		void restrict(double[] r, Level coarse, double[] b) {
+			Arrays.fill(b, 0.0);
+			for (int k = 0, i = 0; k < this.myDepth; k++) {
+				for (int j = 0; j < this.myHeight; j++) {
+					for (int h = 0; h < this.myWidth; h++, i++) {
+						b[coarse.getBlock(h, j, k)] += r[i];
+					}
+				}
+			}
+		}
+
+		/**
+		 * Add the coarse correction of every block times a factor to its
+		 * cells
+		 */
+		void prolongate(Level coarse, double[] correction, double factor,
+				double[] x) {
+			for (int k = 0, i = 0; k < this.myDepth; k++) {
+				for (int j = 0; j < this.myHeight; j++) {
+					for (int h = 0; h < this.myWidth; h++, i++) {
+						if (this.myInverseDiagonal[i] > 0) {
+							x[i] += factor * correction[coarse.getBlock(h, j, k)];
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Build and factorize the dense matrix of the level, cells without
+		 * conductance get a unit row. A tiny shift of the diagonal keeps
+		 * parts without a path to ground solvable.
+		 */
+		void factorize() {
+			int n = this.myCells;
+			double[] a = new double[n * n];
+			for (int k = 0, i = 0; k < this.myDepth; k++) {
+				for (int j = 0; j < this.myHeight; j++) {
+					for (int h = 0; h < this.myWidth; h++, i++) {
+						if (this.myInverseDiagonal[i] == 0) {
+							a[i * n + i] = 1.0;
+							continue;
+						}
+						a[i * n + i] = (1.0 + 1e-10) / this.myInverseDiagonal[i];
+						// the off diagonal entries are -conductance
+						this.addOffDiagonal(a, i, h, j, k);
+					}
+				}
+			}
+			for (int j = 0; j < n; j++) {
+				double sum = a[j * n + j];
+				for (int k = 0; k < j; k++) {
+					sum -= a[j * n + k] * a[j * n + k];
+				}
+				double diagonal = Math.sqrt(Math.max(sum, 1e-300));
+				a[j * n + j] = diagonal;
+				for (int i = j + 1; i < n; i++) {
+					double s = a[i * n + j];
+					for (int k = 0; k < j; k++) {
+						s -= a[i * n + k] * a[j * n + k];
+					}
+					a[i * n + j] = s / diagonal;
+				}
+			}
+			this.myFactor = a;
+		}
+
+		private void addOffDiagonal(double[] a, int i, int h, int j, int k) {
+			int n = this.myCells;
+			int w = this.myWidth;
+			int plane = w * this.myHeight;
+			int[][] neighbours = { { h + 1 < w ? i + 1 : -1, i },
+					{ h > 0 ? i - 1 : -1, i - 1 },
+					{ j + 1 < this.myHeight ? i + w : -1, i },
+					{ j > 0 ? i - w : -1, i - w },
+					{ this.myDirections > 2 && k + 1 < this.myDepth ? i + plane : -1, i },
+					{ this.myDirections > 2 && k > 0 ? i - plane : -1, i - plane } };
+			for (int m = 0; m < neighbours.length; m++) {
+				int neighbour = neighbours[m][0];
+				if (neighbour < 0 || this.myInverseDiagonal[neighbour] == 0) {
+					continue;
+				}
+				int d = m / 2;
+				a[i * n + neighbour] -= this.myConductances[d][neighbours[m][1]]
+						* this.myScale[d];
+			}
+		}
+
+		/**
+		 * x = A^-1 b with the Cholesky factor
+		 */
+		void solveDirect(double[] x, double[] b) {
+			int n = this.myCells;
+			double[] l = this.myFactor;
+			for (int i = 0; i < n; i++) {
+				double sum = this.myInverseDiagonal[i] > 0 ? b[i] : 0.0;
+				for (int k = 0; k < i; k++) {
+					sum -= l[i * n + k] * x[k];
+				}
+				x[i] = sum / l[i * n + i];
+			}
+			for (int i = n - 1; i >= 0; i--) {
+				double sum = x[i];
+				for (int k = i + 1; k < n; k++) {
+					sum -= l[k * n + i] * x[k];
+				}
+				x[i] = sum / l[i * n + i];
+			}
+			for (int i = 0; i < n; i++) {
+				if (this.myInverseDiagonal[i] == 0) {
+					x[i] = 0.0;
+				}
+			}
+		}
+	}
+
+	// ============================================================================================
+	// Getters and setters
+	// ============================================================================================
+
+	public int getWidth() {
+		return myWidth;
+	}
+
+	public int getHeight() {
+		return myHeight;
+	}
+
+	public int getDepth() {
+		return myDepth;
+	}
+
+	public int getCellCount() {
+		return myPressures.length;
+	}
+
+	public int getDirectionCount() {
+		return myDirections;
+	}
+
+	public int getSource() {
+		return mySource;
+	}
+
+	public void setSource(int cell) {
+		this.mySource = cell;
+	}
+
+	public int getSink() {
+		return mySink;
+	}
+
+	public void setSink(int cell) {
+		this.mySink = cell;
+	}
+
+	/**
+	 * Get a copy of the parameters
+	 * 
+	 * @return
+	 */
+	public PhysarumParameters getParameters() {
+		return myParameters.copy();
+	}
+
+	public double getConductivity(int cell, int direction) {
+		return myConductivities[direction][cell];
+	}
+
+	/**
+	 * Set the conductivity of an existing edge
+	 * 
+	 * @param cell
+	 *            the cell index
+	 * @param direction
+	 *            the direction
+	 * @param conductivity
+	 *            the conductivity, > 0
+	 */
+	public void setConductivity(int cell, int direction, double conductivity) {
+		if (!this.hasEdge(cell, direction)) {
+			throw new IllegalArgumentException("No edge at cell " + cell
+					+ " in direction " + direction);
+		}
+		this.myConductivities[direction][cell] = conductivity;
+	}
+
+	public double getPressure(int cell) {
+		return myPressures[cell];
+	}
+
+	/**
+	 * Get the flux of an edge from the current pressures
+	 * 
+	 * @param cell
+	 *            the cell index
+	 * @param direction
+	 *            the direction
+	 * @return the flux from the cell to its neighbour, 0 if there is no edge
+	 */
+	public double getFlux(int cell, int direction) {
+		double c = this.myConductivities[direction][cell];
+		if (c == 0.0) {
+			return 0.0;
+		}
+		return c / this.myLengths[direction]
+				* (this.myPressures[cell] - this.myPressures[this.getNeighbour(
+						cell, direction)]);
+	}
+
+	/**
+	 * Check if an edge survived, its conductivity is above the survival
+	 * threshold
+	 * 
+	 * @param cell
+	 *            the cell index
+	 * @param direction
+	 *            the direction
+	 * @return true if the edge survived
+	 */
+	public boolean isSurvived(int cell, int direction) {
+		return this.myConductivities[direction][cell] > this.myParameters
+				.getSurvivalThreshold();
+	}
+
+	/**
+	 * Get the number of survived edges
+	 * 
+	 * @return
+	 */
+	public int getSurvivedEdgeCount() {
+		int count = 0;
+		double threshold = this.myParameters.getSurvivalThreshold();
+		for (int d = 0; d < this.myDirections; d++) {
+			for (double c : this.myConductivities[d]) {
+				if (c > threshold) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	public int getIterationCount() {
+		return myIteration;
+	}
+
+	public boolean isConverged() {
+		return myConverged;
+	}
+
+	/**
+	 * Get the figures of the last conductivity update
+	 * 
+	 * @return
+	 */
+	public IterationStatistics getIterationStatistics() {
+		return myStatistics;
+	}
+
+	public double getTolerance() {
+		return myTolerance;
+	}
+
+	/**
+	 * Set the relative residual the pressure solve has to reach
+	 * 
+	 * @param tolerance
+	 */
+	public void setTolerance(double tolerance) {
+		this.myTolerance = tolerance;
+	}
+
+	public int getMaximumInnerIterations() {
+		return myMaximumInnerIterations;
+	}
+
+	public void setMaximumInnerIterations(int iterations) {
+		this.myMaximumInnerIterations = iterations;
+	}
+
+	public int getLastInnerIterations() {
+		return myLastInnerIterations;
+	}
+
+	public double getLastResidual() {
+		return myLastResidual;
+	}
+}
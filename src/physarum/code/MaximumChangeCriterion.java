@@ -0,0 +1,52 @@
+/**
+ *    MaximumChangeCriterion.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+/**
+ * Converged if no conductivity changed by the tolerance or more in the last
+ * iteration. Without a tolerance the delta conductivity threshold of the
+ * solver is used, which is the original stopping rule of the solver and its
+ * default criterion.
+ * 
+ * @author Torsten
+ * 
+ */
+public class MaximumChangeCriterion implements ConvergenceCriterion {
+	/** The tolerance, NaN for the threshold of the solver */
+	private final double myTolerance;
+
+	/**
+	 * Creates the criterion with the delta conductivity threshold of the
+	 * solver as tolerance
+	 */
+	public MaximumChangeCriterion() {
+		this(Double.NaN);
+	}
+
+	/**
+	 * Creates the criterion
+	 * 
+	 * @param tolerance
+	 *            the largest change still counted as unchanged is below it
+	 */
+	public MaximumChangeCriterion(double tolerance) {
+		this.myTolerance = tolerance;
+	}
+
+	@Override
+	public void start(PhysarumSolver solver) {
+	}
+
+	@Override
+	public boolean isConverged(PhysarumSolver solver,
+			IterationStatistics statistics) {
+		double tolerance = Double.isNaN(this.myTolerance) ? solver
+				.getDeltaConductivityThreshold() : this.myTolerance;
+		return statistics.getMaximumChange() < tolerance;
+	}
+}
@@ -0,0 +1,360 @@
+/**
+ *    MixedPrecisionPressureSolver.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 19. October 2026
+ */
+package physarum.code;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Solves the pressures by iterative refinement around a single precision
+ * conjugate gradient method. The operator stores the weights D/L as floats
+ * and the inner iterations run on float vectors. The residual b - A x of the
+ * outer loop is computed in double precision straight from the lengths of
+ * the graph and the conductivities of the state, and the inner solve only
+ * has to reduce it by a few digits; its correction is added to the double
+ * pressures and the loop repeats until the relative residual reaches the
+ * tolerance. So the result is as accurate as the one of the double solver.
+ * Dot products are summed in double throughout.
+ * 
+ * The gain is memory, not time: the operator takes about 16 bytes per edge
+ * instead of 20 for the ConjugateGradientPressureSolver. An inner iteration
+ * is only some 5-10% cheaper than a double one, as the edge indexes dominate
+ * the traffic, and the rounded weights cost about 1.8 times the iterations,
+ * so a solve is slower than in double precision; in the PrecisionTester on
+ * one core it takes about twice as long.
+ * 
+ * The pressure of the sink is fixed to 0 and the pressures of the previous
+ * iteration are the start value.
+ * 
+ * @author Torsten
+ * 
+ */
+public class MixedPrecisionPressureSolver implements PressureSolver {
+	/** The relative residual to reach */
+	private double myTolerance = 1e-10;
+
+	/** The reduction of the residual an inner solve aims for */
+	private double myInnerTolerance = 1e-4;
+
+	/** The maximum inner iterations, 0 for ten times the number of nodes */
+	private int myMaximumIterations = 0;
+
+	/** Inner iterations between two checks of the cancellation token */
+	private int myCheckInterval = 16;
+
+	/** The threads of the operator, 0 for its default */
+	private int myThreads = 0;
+
+	/** The relative residual of the last solve */
+	private double myLastResidual = 0;
+
+	/** The refinement steps of the last solve */
+	private int myLastRefinements = 0;
+
+	/** The single precision operator of the graph of the last solve */
+	private LaplacianOperator myOperator = null;
+
+	/** The inverse of the diagonal of the matrix, 0 where it overflows */
+	private float[] myInverseDiagonal = new float[0];
+
+	/** The pressures and the residual in double precision */
+	private double[] myX = new double[0];
+	private double[] myR = new double[0];
+
+	/** The work vectors of the inner solve */
+	private float[] myInnerR = new float[0];
+	private float[] myD = new float[0];
+	private float[] myZ = new float[0];
+	private float[] myP = new float[0];
+	private float[] myQ = new float[0];
+
+	/**
+	 * Creates a solver with a relative tolerance of 1e-10
+	 */
+	public MixedPrecisionPressureSolver() {
+	}
+
+	/**
+	 * Creates a solver
+	 * 
+	 * @param tolerance
+	 *            the relative residual to reach
+	 */
+	public MixedPrecisionPressureSolver(double tolerance) {
+		this.myTolerance = tolerance;
+	}
+
+	@Override
+	public int solve(PhysarumGraph graph, PhysarumState state, double I0,
+			CancellationToken token) throws CancellationException {
+		int n = graph.getNodeCount();
+		int sink = state.getSink();
+		int source = state.getSource();
+		this.ensureCapacity(n);
+
+		if (this.myOperator == null || this.myOperator.getGraph() != graph) {
+			this.myOperator = new LaplacianOperator(graph, true);
+			if (this.myThreads > 0) {
+				this.myOperator.setThreads(this.myThreads);
+			}
+		}
+		LaplacianOperator operator = this.myOperator;
+		operator.setWeights(state);
+		// nodes whose weights vanish in float are left to the outer loop, a
+		// diagonal whose inverse overflows would spread infinities
+		for (int i = 0; i < n; i++) {
+			float inverse = (float) (1.0 / operator.getDiagonal(i));
+			this.myInverseDiagonal[i] = inverse < Float.MAX_VALUE ? inverse
+					: 0.0f;
+		}
+
+		// start with the last pressures, shifted so the sink is 0
+		double[] x = this.myX;
+		double shift = sink >= 0 ? state.getPressure(sink) : 0.0;
+		for (int i = 0; i < n; i++) {
+			x[i] = i == sink ? 0.0 : state.getPressure(i) - shift;
+		}
+		double bNorm = (source >= 0 && source != sink) ? Math.abs(I0) : 0.0;
+		if (bNorm == 0) {
+			for (int i = 0; i < n; i++) {
+				state.setPressure(i, 0.0);
+			}
+			state.setFirstRun(false);
+			this.myLastResidual = 0;
+			this.myLastRefinements = 0;
+			return 0;
+		}
+
+		int maximum = this.myMaximumIterations > 0 ? this.myMaximumIterations
+				: 10 * n;
+		double limit = this.myTolerance * bNorm;
+		double[] r = this.myR;
+		double rNorm = Double.POSITIVE_INFINITY;
+		int iterations = 0;
+		int refinements = 0;
+		while (true) {
+			// r = b - A x in double precision, the sink row is dropped
+			applyExact(graph, state, x, r);
+			double rr = 0;
+			for (int i = 0; i < n; i++) {
+				double b = (i == source && i != sink) ? -I0 : 0.0;
+				r[i] = i == sink ? 0.0 : b - r[i];
+				rr += r[i] * r[i];
+			}
+			double norm = Math.sqrt(rr);
+			// stop at the tolerance, the iteration limit or when the
+			// refinement stalls
+			if (norm <= limit || iterations >= maximum || norm >= rNorm) {
+				rNorm = Math.min(norm, rNorm);
+				break;
+			}
+			rNorm = norm;
+
+			int inner = this.solveCorrection(operator, sink, rNorm, maximum
+					- iterations, iterations, token);
+			if (inner == 0) {
+				break;
+			}
+			iterations += inner;
+			float[] d = this.myD;
+			for (int i = 0; i < n; i++) {
+				x[i] += rNorm * d[i];
+			}
+			refinements++;
+		}
+
+		for (int i = 0; i < n; i++) {
+			state.setPressure(i, x[i]);
+		}
+		state.setFirstRun(false);
+		this.myLastResidual = rNorm / bNorm;
+		this.myLastRefinements = refinements;
+		return iterations;
+	}
+
+	/**
+	 * y = A x with the exact weights D/L of the state, edge by edge from the
+	 * graph, so no second operator is kept in double precision
+	 */
+	private static void applyExact(PhysarumGraph graph, PhysarumState state,
+			double[] x, double[] y) {
+		int n = graph.getNodeCount();
+		for (int i = 0; i < n; i++) {
+			y[i] = 0.0;
+		}
+		for (int e = 0; e < graph.getEdgeCount(); e++) {
+			int i = graph.getEdgeStart(e);
+			int j = graph.getEdgeEnd(e);
+			if (i == j) {
+				continue;
+			}
+			double flux = state.getConductivity(e) / graph.getLength(e)
+					* (x[i] - x[j]);
+			y[i] += flux;
+			y[j] -= flux;
+		}
+	}
+
+	/**
+	 * Solve A d = r / |r| in single precision until the residual is reduced
+	 * by the inner tolerance
+	 * 
+	 * @return the number of inner iterations
+	 */
+	private int solveCorrection(LaplacianOperator operator, int sink,
+			double rNorm, int maximum, int done, CancellationToken token) {
+		int n = this.myOperator.getGraph().getNodeCount();
+		float[] r = this.myInnerR;
+		float[] d = this.myD;
+		float[] z = this.myZ;
+		float[] p = this.myP;
+		float[] q = this.myQ;
+		float[] inverseDiagonal = this.myInverseDiagonal;
+
+		double rz = 0;
+		double rr = 0;
+		for (int i = 0; i < n; i++) {
+			r[i] = (float) (this.myR[i] / rNorm);
+			d[i] = 0.0f;
+			z[i] = r[i] * inverseDiagonal[i];
+			p[i] = z[i];
+			rz += r[i] * z[i];
+			rr += r[i] * r[i];
+		}
+
+		double limit = this.myInnerTolerance * this.myInnerTolerance * rr;
+		int iteration = 0;
+		while (rr > limit && iteration < maximum) {
+			if ((done + iteration) % this.myCheckInterval == 0
+					&& token.isCancelled()) {
+				throw new CancellationException(
+						"Pressure solve cancelled at inner iteration "
+								+ (done + iteration));
+			}
+
+			operator.apply(p, q, sink);
+			double pq = 0;
+			for (int i = 0; i < n; i++) {
+				pq += p[i] * q[i];
+			}
+			if (pq <= 0) {
+				break;
+			}
+
+			float alpha = (float) (rz / pq);
+			double rzNext = 0;
+			rr = 0;
+			for (int i = 0; i < n; i++) {
+				d[i] += alpha * p[i];
+				r[i] -= alpha * q[i];
+				z[i] = r[i] * inverseDiagonal[i];
+				rzNext += r[i] * z[i];
+				rr += r[i] * r[i];
+			}
+
+			float beta = (float) (rzNext / rz);
+			rz = rzNext;
+			for (int i = 0; i < n; i++) {
+				p[i] = z[i] + beta * p[i];
+			}
+			iteration++;
+		}
+		return iteration;
+	}
+
+	private void ensureCapacity(int nodes) {
+		if (this.myX.length < nodes) {
+			this.myInverseDiagonal = new float[nodes];
+			this.myX = new double[nodes];
+			this.myR = new double[nodes];
+			this.myInnerR = new float[nodes];
+			this.myD = new float[nodes];
+			this.myZ = new float[nodes];
+			this.myP = new float[nodes];
+			this.myQ = new float[nodes];
+		}
+	}
+
+	@Override
+	public double getLastResidual() {
+		return this.myLastResidual;
+	}
+
+	/**
+	 * Get the number of refinement steps of the last solve
+	 * 
+	 * @return
+	 */
+	public int getLastRefinements() {
+		return this.myLastRefinements;
+	}
+
+	public double getTolerance() {
+		return myTolerance;
+	}
+
+	public void setTolerance(double tolerance) {
+		this.myTolerance = tolerance;
+	}
+
+	public double getInnerTolerance() {
+		return myInnerTolerance;
+	}
+
+	/**
+	 * Set the factor an inner solve reduces the residual by
+	 * 
+	 * @param tolerance
+	 *            the factor, 1e-4 by default; float precision doesn't allow
+	 *            much less than 1e-5
+	 */
+	public void setInnerTolerance(double tolerance) {
+		this.myInnerTolerance = tolerance;
+	}
+
+	public int getMaximumIterations() {
+		return myMaximumIterations;
+	}
+
+	/**
+	 * Set the maximum number of inner iterations of a solve
+	 * 
+	 * @param iterations
+	 *            the maximum, 0 for ten times the number of nodes
+	 */
+	public void setMaximumIterations(int iterations) {
+		this.myMaximumIterations = iterations;
+	}
+
+	/**
+	 * Set the number of inner iterations between two checks of the
+	 * cancellation token
+	 * 
+	 * @param interval
+	 */
+	public void setCheckInterval(int interval) {
+		this.myCheckInterval = Math.max(1, interval);
+	}
+
+	/**
+	 * Set the number of threads the single precision operator scatters with,
+	 * the residual is computed on the calling thread
+	 * 
+	 * @param threads
+	 *            the threads, 1 to solve on the calling thread only
+	 * @see LaplacianOperator#setThreads(int)
+	 */
+	public void setThreads(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Thread count must be positive");
+		}
+		this.myThreads = threads;
+		if (this.myOperator != null) {
+			this.myOperator.setThreads(threads);
+		}
+	}
+}
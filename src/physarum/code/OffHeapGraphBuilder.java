@@ -0,0 +1,165 @@
+/**
+ *    OffHeapGraphBuilder.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 19. October 2026
+ */
+package physarum.code;
+
+import java.io.IOException;
+
+import physarum.code.OffHeapStorage.DoubleArray;
+import physarum.code.OffHeapStorage.IntArray;
+
+/**
+ * Collects the edges passed to it as a GraphSink in an OffHeapStorage and
+ * builds an OffHeapPhysarumGraph of them, so a generated or loaded graph
+ * never passes through the heap. The edge arrays grow by doubling; with the
+ * expected number of edges they are allocated once, which matters for a file
+ * backed storage, where the space of a replaced array is not used again.
+ * 
+ * The node ids equal the node indexes.
+ * 
+ * @author Torsten
+ * 
+ */
+public class OffHeapGraphBuilder implements GraphSink {
+	/** The storage of the graph */
+	private final OffHeapStorage myStorage;
+
+	/** The number of nodes, -1 before begin() */
+	private int myNodeCount = -1;
+
+	/** The source of the problem, -1 if none was given */
+	private int mySource = -1;
+
+	/** The sink of the problem, -1 if none was given */
+	private int mySink = -1;
+
+	/** The number of edges */
+	private int myEdgeCount = 0;
+
+	/** The start node of each edge */
+	private IntArray myEdgeStart;
+
+	/** The end node of each edge */
+	private IntArray myEdgeEnd;
+
+	/** The length of each edge */
+	private DoubleArray myLengths;
+
+	/** The built graph, null until end() */
+	private OffHeapPhysarumGraph myGraph = null;
+
+	/**
+	 * Creates an empty builder
+	 * 
+	 * @param storage
+	 *            the storage of the graph
+	 * @param expectedEdges
+	 *            the initial capacity
+	 * @throws IOException
+	 *             if a file backed storage can't be extended
+	 */
+	public OffHeapGraphBuilder(OffHeapStorage storage, int expectedEdges)
+			throws IOException {
+		this.myStorage = storage;
+		this.allocate(Math.max(1, expectedEdges));
+	}
+
+	@Override
+	public void begin(int nodeCount, int source, int sink) {
+		if (this.myNodeCount >= 0) {
+			throw new IllegalStateException("The graph has begun already");
+		}
+		if (nodeCount < 0) {
+			throw new IllegalArgumentException("Negative node count");
+		}
+		this.myNodeCount = nodeCount;
+		this.mySource = source;
+		this.mySink = sink;
+	}
+
+	@Override
+	public void edge(int start, int end, double length) throws IOException {
+		if (this.myNodeCount < 0 || this.myGraph != null) {
+			throw new IllegalStateException("Edges must come between begin() and end()");
+		}
+		if (start < 0 || start >= this.myNodeCount || end < 0
+				|| end >= this.myNodeCount) {
+			throw new IllegalArgumentException("Edge " + this.myEdgeCount
+					+ " references a node outside of 0.."
+					+ (this.myNodeCount - 1));
+		}
+		if (this.myEdgeCount == this.myEdgeStart.length()) {
+			this.allocate((int) Math.min(Integer.MAX_VALUE - 8,
+					2L * this.myEdgeCount));
+		}
+		this.myEdgeStart.set(this.myEdgeCount, start);
+		this.myEdgeEnd.set(this.myEdgeCount, end);
+		this.myLengths.set(this.myEdgeCount, length);
+		this.myEdgeCount++;
+	}
+
+	@Override
+	public void end() throws IOException {
+		if (this.myNodeCount < 0) {
+			throw new IllegalStateException("The graph has not begun");
+		}
+		if (this.myGraph == null) {
+			this.myGraph = new OffHeapPhysarumGraph(this.myStorage,
+					this.myNodeCount, null, this.myEdgeCount,
+					this.myEdgeStart, this.myEdgeEnd, this.myLengths);
+		}
+	}
+
+	/**
+	 * Move the edges into arrays of a new capacity
+	 */
+	private void allocate(int capacity) throws IOException {
+		if (capacity <= this.myEdgeCount) {
+			throw new IllegalStateException("Too many edges for an int index");
+		}
+		IntArray start = this.myStorage.newIntArray(capacity);
+		IntArray end = this.myStorage.newIntArray(capacity);
+		DoubleArray lengths = this.myStorage.newDoubleArray(capacity);
+		if (this.myEdgeStart != null) {
+			for (int e = 0; e < this.myEdgeCount; e++) {
+				start.set(e, this.myEdgeStart.get(e));
+				end.set(e, this.myEdgeEnd.get(e));
+				lengths.set(e, this.myLengths.get(e));
+			}
+			this.myStorage.release(this.myEdgeStart);
+			this.myStorage.release(this.myEdgeEnd);
+			this.myStorage.release(this.myLengths);
+		}
+		this.myEdgeStart = start;
+		this.myEdgeEnd = end;
+		this.myLengths = lengths;
+	}
+
+	/**
+	 * Get the graph built by end()
+	 * 
+	 * @return the graph
+	 * @throws IllegalStateException
+	 *             if end() was not called
+	 */
+	public OffHeapPhysarumGraph getGraph() {
+		if (this.myGraph == null) {
+			throw new IllegalStateException("The graph has not ended");
+		}
+		return this.myGraph;
+	}
+
+	/**
+	 * Get the graph built by end() together with the source and sink given
+	 * to begin()
+	 * 
+	 * @return the problem
+	 */
+	public PhysarumProblem getProblem() {
+		return new PhysarumProblem(this.getGraph(), this.mySource, this.mySink);
+	}
+}
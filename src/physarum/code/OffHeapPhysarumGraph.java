@@ -0,0 +1,216 @@
+/**
+ *    OffHeapPhysarumGraph.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 19. October 2026
+ */
+package physarum.code;
+
+import java.io.IOException;
+
+import physarum.code.OffHeapStorage.DoubleArray;
+import physarum.code.OffHeapStorage.IntArray;
+
+/**
+ * A PhysarumGraph whose topology lies in an OffHeapStorage instead of the
+ * Java heap, for graphs the heap can't hold or the garbage collector
+ * shouldn't have to scan. It is used like any other graph, the solvers read
+ * it through the getters. Built with an OffHeapGraphBuilder, e.g. from a
+ * generator or PhysarumGraphIO.read, or copied from a graph with copyOf.
+ * 
+ * The graph lives until its storage is closed. PhysarumParameters creates
+ * the states of runs on it as OffHeapPhysarumStates in the same storage;
+ * PhysarumParameters.releaseState gives their memory back when a run ends.
+ * 
+ * @author Torsten
+ * 
+ */
+public class OffHeapPhysarumGraph extends PhysarumGraph {
+	/** The storage of the arrays */
+	private final OffHeapStorage myStorage;
+
+	/** The number of nodes */
+	private final int myNodeCount;
+
+	/** The number of edges */
+	private final int myEdgeCount;
+
+	/** The id of each node, null if the ids equal the indexes */
+	private final IntArray myNodeIds;
+
+	/** The start node index of each edge */
+	private final IntArray myEdgeStart;
+
+	/** The end node index of each edge */
+	private final IntArray myEdgeEnd;
+
+	/** The length L of each edge */
+	private final DoubleArray myLengths;
+
+	/** Offsets into myAdjacentEdges, see PhysarumGraph */
+	private final IntArray myAdjacencyOffsets;
+
+	/** The edges touching each node, grouped by node */
+	private final IntArray myAdjacentEdges;
+
+	/**
+	 * Creates a graph that takes ownership of the given arrays and builds the
+	 * adjacency lists in the same storage
+	 * 
+	 * @param storage
+	 *            the storage of the arrays
+	 * @param nodeCount
+	 *            the number of nodes
+	 * @param nodeIds
+	 *            the id of each node, null if they equal the indexes
+	 * @param edgeCount
+	 *            the number of edges, the edge arrays may be longer
+	 * @param edgeStart
+	 *            the start node index of each edge
+	 * @param edgeEnd
+	 *            the end node index of each edge
+	 * @param lengths
+	 *            the length of each edge
+	 * @throws IOException
+	 */
+	OffHeapPhysarumGraph(OffHeapStorage storage, int nodeCount,
+			IntArray nodeIds, int edgeCount, IntArray edgeStart,
+			IntArray edgeEnd, DoubleArray lengths) throws IOException {
+		this.myStorage = storage;
+		this.myNodeCount = nodeCount;
+		this.myNodeIds = nodeIds;
+		this.myEdgeCount = edgeCount;
+		this.myEdgeStart = edgeStart;
+		this.myEdgeEnd = edgeEnd;
+		this.myLengths = lengths;
+
+		// count the end points, then use the offsets as fill cursors and
+		// shift them back afterwards, so no third array is needed
+		IntArray offsets = storage.newIntArray(nodeCount + 1);
+		for (int e = 0; e < edgeCount; e++) {
+			int s = edgeStart.get(e) + 1;
+			int t = edgeEnd.get(e) + 1;
+			offsets.set(s, offsets.get(s) + 1);
+			offsets.set(t, offsets.get(t) + 1);
+		}
+		for (int n = 0; n < nodeCount; n++) {
+			offsets.set(n + 1, offsets.get(n + 1) + offsets.get(n));
+		}
+
+		IntArray adjacent = storage.newIntArray(offsets.get(nodeCount));
+		for (int e = 0; e < edgeCount; e++) {
+			int s = edgeStart.get(e);
+			int t = edgeEnd.get(e);
+			int k = offsets.get(s);
+			adjacent.set(k, e);
+			offsets.set(s, k + 1);
+			k = offsets.get(t);
+			adjacent.set(k, e);
+			offsets.set(t, k + 1);
+		}
+		for (int n = nodeCount; n > 0; n--) {
+			offsets.set(n, offsets.get(n - 1));
+		}
+		offsets.set(0, 0);
+
+		this.myAdjacencyOffsets = offsets;
+		this.myAdjacentEdges = adjacent;
+	}
+
+	/**
+	 * Copy a graph into a storage
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param storage
+	 *            the storage
+	 * @return the copy
+	 * @throws IOException
+	 *             if a file backed storage can't be extended
+	 */
+	public static OffHeapPhysarumGraph copyOf(PhysarumGraph graph,
+			OffHeapStorage storage) throws IOException {
+		int nodes = graph.getNodeCount();
+		int edges = graph.getEdgeCount();
+
+		IntArray nodeIds = null;
+		for (int i = 0; i < nodes; i++) {
+			if (graph.getNodeId(i) != i) {
+				nodeIds = storage.newIntArray(nodes);
+				for (int j = 0; j < nodes; j++) {
+					nodeIds.set(j, graph.getNodeId(j));
+				}
+				break;
+			}
+		}
+
+		IntArray start = storage.newIntArray(edges);
+		IntArray end = storage.newIntArray(edges);
+		DoubleArray lengths = storage.newDoubleArray(edges);
+		for (int e = 0; e < edges; e++) {
+			start.set(e, graph.getEdgeStart(e));
+			end.set(e, graph.getEdgeEnd(e));
+			lengths.set(e, graph.getLength(e));
+		}
+		return new OffHeapPhysarumGraph(storage, nodes, nodeIds, edges, start,
+				end, lengths);
+	}
+
+	/**
+	 * Get the storage the graph lies in
+	 * 
+	 * @return
+	 */
+	public OffHeapStorage getStorage() {
+		return this.myStorage;
+	}
+
+	// ============================================================================================
+	// Getters
+	// ============================================================================================
+
+	@Override
+	public int getNodeCount() {
+		return this.myNodeCount;
+	}
+
+	@Override
+	public int getEdgeCount() {
+		return this.myEdgeCount;
+	}
+
+	@Override
+	public int getNodeId(int node) {
+		if (node < 0 || node >= this.myNodeCount) {
+			throw new IndexOutOfBoundsException("No node " + node);
+		}
+		return this.myNodeIds != null ? this.myNodeIds.get(node) : node;
+	}
+
+	@Override
+	public int getEdgeStart(int edge) {
+		return this.myEdgeStart.get(edge);
+	}
+
+	@Override
+	public int getEdgeEnd(int edge) {
+		return this.myEdgeEnd.get(edge);
+	}
+
+	@Override
+	public double getLength(int edge) {
+		return this.myLengths.get(edge);
+	}
+
+	@Override
+	public int getDegree(int node) {
+		return this.myAdjacencyOffsets.get(node + 1)
+				- this.myAdjacencyOffsets.get(node);
+	}
+
+	@Override
+	public int getAdjacentEdge(int node, int k) {
+		return this.myAdjacentEdges.get(this.myAdjacencyOffsets.get(node) + k);
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ *    OffHeapPhysarumState.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 19. October 2026
+ */
+package physarum.code;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import physarum.code.OffHeapStorage.DoubleArray;
+
+/**
+ * A PhysarumState whose pressures, fluxes and conductivities lie in an
+ * OffHeapStorage instead of the Java heap, in double precision. Copies and
+ * the states created by newState are allocated in the same storage. A state
+ * lives until it is closed or the storage is closed, so a storage that
+ * outlives many runs, e.g. the one of a shared graph, needs the states of
+ * finished runs closed.
+ * 
+ * @author Torsten
+ * 
+ */
+public class OffHeapPhysarumState extends PhysarumState implements Closeable {
+	/** The storage of the arrays */
+	private final OffHeapStorage myStorage;
+
+	/** The pressure of each node */
+	private final DoubleArray myPressure;
+
+	/** The flux Q of each edge */
+	private final DoubleArray myFlux;
+
+	/** The conductivity D of each edge */
+	private final DoubleArray myConductivity;
+
+	/** The conductivity of each edge before the last update */
+	private final DoubleArray myFormerConductivity;
+
+	/**
+	 * Creates an empty state for a graph, all values are 0
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param storage
+	 *            the storage of the values
+	 * @throws IOException
+	 *             if a file backed storage can't be extended
+	 */
+	public OffHeapPhysarumState(PhysarumGraph graph, OffHeapStorage storage)
+			throws IOException {
+		this(graph.getNodeCount(), graph.getEdgeCount(), storage);
+	}
+
+	/**
+	 * Creates an empty state, all values are 0
+	 * 
+	 * @param nodeCount
+	 *            The number of nodes
+	 * @param edgeCount
+	 *            The number of edges
+	 * @param storage
+	 *            the storage of the values
+	 * @throws IOException
+	 *             if a file backed storage can't be extended
+	 */
+	public OffHeapPhysarumState(int nodeCount, int edgeCount,
+			OffHeapStorage storage) throws IOException {
+		super(nodeCount, edgeCount, false);
+		this.myStorage = storage;
+		this.myPressure = storage.newDoubleArray(nodeCount);
+		this.myFlux = storage.newDoubleArray(edgeCount);
+		this.myConductivity = storage.newDoubleArray(edgeCount);
+		this.myFormerConductivity = storage.newDoubleArray(edgeCount);
+	}
+
+	@Override
+	public PhysarumState newState(int nodeCount, int edgeCount) {
+		try {
+			return new OffHeapPhysarumState(nodeCount, edgeCount, this.myStorage);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Get the storage the values lie in
+	 * 
+	 * @return
+	 */
+	public OffHeapStorage getStorage() {
+		return this.myStorage;
+	}
+
+	/**
+	 * Release the values from the storage, nothing happens if they are
+	 * released already. The state must not be used afterwards, by no thread.
+	 */
+	@Override
+	public void close() {
+		this.myStorage.release(this.myPressure);
+		this.myStorage.release(this.myFlux);
+		this.myStorage.release(this.myConductivity);
+		this.myStorage.release(this.myFormerConductivity);
+	}
+
+	@Override
+	public double getPressure(int node) {
+		return this.myPressure.get(node);
+	}
+
+	@Override
+	public void setPressure(int node, double p) {
+		this.myPressure.set(node, p);
+	}
+
+	@Override
+	public double getFlux(int edge) {
+		return this.myFlux.get(edge);
+	}
+
+	@Override
+	public void setFlux(int edge, double flux_Q) {
+		this.myFlux.set(edge, flux_Q);
+	}
+
+	@Override
+	public double getConductivity(int edge) {
+		return this.myConductivity.get(edge);
+	}
+
+	@Override
+	public void setConductivity(int edge, double conductivity_D) {
+		this.myConductivity.set(edge, conductivity_D);
+	}
+
+	@Override
+	public double getFormerConductivity(int edge) {
+		return this.myFormerConductivity.get(edge);
+	}
+
+	@Override
+	public void setFormerConductivity(int edge, double conductivity_D) {
+		this.myFormerConductivity.set(edge, conductivity_D);
+	}
+}
@@ -0,0 +1,394 @@
+/**
+ *    OffHeapStorage.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 19. October 2026
+ */
+package physarum.code;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memory outside of the Java heap for graphs and states too large for it,
+ * see OffHeapPhysarumGraph and OffHeapPhysarumState. The arrays of a storage
+ * are either direct memory or regions of a file mapped into memory; a file
+ * backed storage can hold graphs larger than the RAM, the operating system
+ * pages them in and out.
+ * 
+ * close() releases all arrays of the storage at once instead of waiting for
+ * the garbage collector, so a storage is the unit of life time of the arrays
+ * allocated from it. Arrays must not be used after close(), on the thread
+ * that closed the storage they throw an IndexOutOfBoundsException then. A
+ * file is left in place by close().
+ * 
+ * The arrays are split into chunks of 1 GiB, the limit of a ByteBuffer, and
+ * use the native byte order. A storage can be allocated from by several
+ * threads. Releasing is not guarded against readers, for the speed of the
+ * accessors: close() and the release of an array must only be called when no
+ * other thread uses the arrays concerned any more, e.g. after joining the
+ * threads of a run. An access racing with them reads freed memory and may
+ * crash the JVM.
+ * 
+ * @author Torsten
+ * 
+ */
+public class OffHeapStorage implements Closeable {
+	/** log2 of the bytes of a chunk */
+	private static final int CHUNK_SHIFT = 30;
+
+	/** Frees a direct or mapped buffer, null if the JVM doesn't allow it */
+	private static final Object UNSAFE;
+	private static final Method INVOKE_CLEANER;
+
+	static {
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		try {
+			Class<?> type = Class.forName("sun.misc.Unsafe");
+			Field field = type.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			unsafe = field.get(null);
+			invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+		} catch (Exception e) {
+			// the buffers are freed by the garbage collector then
+			unsafe = null;
+			invokeCleaner = null;
+		}
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+	}
+
+	/** The file of a file backed storage, null for direct memory */
+	private final File myFile;
+
+	/** The channel of the file, null for direct memory */
+	private final FileChannel myChannel;
+
+	/** The bytes of the file in use */
+	private long myFileSize = 0;
+
+	/** The arrays allocated so far, released by close() */
+	private final List<Array> myArrays = new ArrayList<Array>();
+
+	/** The bytes allocated so far */
+	private long myAllocatedBytes = 0;
+
+	/** True once close() was called */
+	private boolean myClosed = false;
+
+	/**
+	 * Creates a storage in direct memory
+	 */
+	public OffHeapStorage() {
+		this.myFile = null;
+		this.myChannel = null;
+	}
+
+	/**
+	 * Creates a storage backed by a file, an existing file is overwritten
+	 * 
+	 * @param file
+	 *            the file, left in place by close()
+	 * @throws IOException
+	 */
+	@SuppressWarnings("resource")
+	public OffHeapStorage(File file) throws IOException {
+		this.myFile = file;
+		RandomAccessFile access = new RandomAccessFile(file, "rw");
+		try {
+			access.setLength(0);
+			this.myChannel = access.getChannel();
+		} catch (IOException e) {
+			access.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Allocate an int array, all values are 0
+	 * 
+	 * @param length
+	 *            the number of values
+	 * @return the array
+	 * @throws IOException
+	 *             if the file can't be extended or mapped
+	 */
+	public IntArray newIntArray(int length) throws IOException {
+		IntArray array = new IntArray(this.allocate(length, 2), length);
+		this.register(array);
+		return array;
+	}
+
+	/**
+	 * Allocate a double array, all values are 0
+	 * 
+	 * @param length
+	 *            the number of values
+	 * @return the array
+	 * @throws IOException
+	 *             if the file can't be extended or mapped
+	 */
+	public DoubleArray newDoubleArray(int length) throws IOException {
+		DoubleArray array = new DoubleArray(this.allocate(length, 3), length);
+		this.register(array);
+		return array;
+	}
+
+	/**
+	 * Allocate the chunks of an array
+	 * 
+	 * @param length
+	 *            the number of values
+	 * @param shift
+	 *            log2 of the bytes of a value
+	 */
+	private synchronized ByteBuffer[] allocate(int length, int shift)
+			throws IOException {
+		if (this.myClosed) {
+			throw new IllegalStateException("The storage is closed");
+		}
+		if (length < 0) {
+			throw new IllegalArgumentException("Negative length");
+		}
+		long bytes = (long) length << shift;
+		long chunk = 1L << CHUNK_SHIFT;
+		ByteBuffer[] chunks = new ByteBuffer[(int) Math.max(1,
+				(bytes + chunk - 1) >> CHUNK_SHIFT)];
+		for (int c = 0; c < chunks.length; c++) {
+			int size = (int) Math.min(chunk, bytes - c * chunk);
+			ByteBuffer buffer;
+			if (this.myChannel == null) {
+				buffer = ByteBuffer.allocateDirect(size);
+			} else {
+				buffer = this.myChannel.map(FileChannel.MapMode.READ_WRITE,
+						this.myFileSize, size);
+				this.myFileSize += size;
+			}
+			buffer.order(ByteOrder.nativeOrder());
+			chunks[c] = buffer;
+			this.myAllocatedBytes += size;
+		}
+		return chunks;
+	}
+
+	private synchronized void register(Array array) {
+		this.myArrays.add(array);
+	}
+
+	/**
+	 * Release one array before the storage is closed, e.g. one that was
+	 * replaced by a larger one. In a file backed storage the region of the
+	 * file is not used again. Nothing happens if the array was released
+	 * already.
+	 * 
+	 * @param array
+	 *            an array of this storage, must not be used afterwards and
+	 *            not be in use by another thread
+	 */
+	synchronized void release(Array array) {
+		if (this.myClosed || !this.myArrays.remove(array)) {
+			return;
+		}
+		if (this.myChannel == null) {
+			this.myAllocatedBytes -= array.getBytes();
+		}
+		array.free();
+	}
+
+	/**
+	 * Release all arrays of the storage and close the file, nothing happens
+	 * if the storage is closed already. No other thread may use the arrays
+	 * any more.
+	 * 
+	 * @throws IOException
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (this.myClosed) {
+			return;
+		}
+		this.myClosed = true;
+		for (Array array : this.myArrays) {
+			array.free();
+		}
+		this.myArrays.clear();
+		if (this.myChannel != null) {
+			this.myChannel.close();
+		}
+	}
+
+	/**
+	 * Get the bytes allocated so far
+	 * 
+	 * @return
+	 */
+	public synchronized long getAllocatedBytes() {
+		return this.myAllocatedBytes;
+	}
+
+	/**
+	 * Get the file of a file backed storage
+	 * 
+	 * @return the file, null for direct memory
+	 */
+	public File getFile() {
+		return this.myFile;
+	}
+
+	/**
+	 * Tell if close() was called
+	 * 
+	 * @return
+	 */
+	public synchronized boolean isClosed() {
+		return this.myClosed;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return (this.myFile != null ? "file " + this.myFile : "direct memory")
+				+ ", " + this.myAllocatedBytes + " bytes"
+				+ (this.myClosed ? ", closed" : "");
+	}
+
+	// ============================================================================================
+	// Arrays
+	// ============================================================================================
+
+	/**
+	 * The common part of the arrays
+	 */
+	static abstract class Array {
+		/** The number of values */
+		protected final int myLength;
+
+		/** The buffers of the chunks */
+		private final ByteBuffer[] myBuffers;
+
+		Array(ByteBuffer[] buffers, int length) {
+			this.myBuffers = buffers;
+			this.myLength = length;
+		}
+
+		/**
+		 * Drop the chunks, later accesses throw
+		 */
+		abstract void invalidate();
+
+		/**
+		 * Invalidate the array and free its buffers now if the JVM allows it
+		 */
+		void free() {
+			this.invalidate();
+			if (INVOKE_CLEANER == null) {
+				return;
+			}
+			for (ByteBuffer buffer : this.myBuffers) {
+				try {
+					INVOKE_CLEANER.invoke(UNSAFE, buffer);
+				} catch (Exception e) {
+					// left to the garbage collector
+				}
+			}
+		}
+
+		/**
+		 * Get the bytes of the chunks
+		 * 
+		 * @return
+		 */
+		long getBytes() {
+			long bytes = 0;
+			for (ByteBuffer buffer : this.myBuffers) {
+				bytes += buffer.capacity();
+			}
+			return bytes;
+		}
+
+		/**
+		 * Get the number of values
+		 * 
+		 * @return
+		 */
+		public int length() {
+			return this.myLength;
+		}
+	}
+
+	/**
+	 * An int array outside of the heap
+	 */
+	public static final class IntArray extends Array {
+		/** log2 of the values of a chunk */
+		private static final int SHIFT = CHUNK_SHIFT - 2;
+		private static final int MASK = (1 << SHIFT) - 1;
+
+		private IntBuffer[] myChunks;
+
+		IntArray(ByteBuffer[] chunks, int length) {
+			super(chunks, length);
+			this.myChunks = new IntBuffer[chunks.length];
+			for (int c = 0; c < chunks.length; c++) {
+				this.myChunks[c] = chunks[c].asIntBuffer();
+			}
+		}
+
+		public int get(int index) {
+			return this.myChunks[index >>> SHIFT].get(index & MASK);
+		}
+
+		public void set(int index, int value) {
+			this.myChunks[index >>> SHIFT].put(index & MASK, value);
+		}
+
+		@Override
+		void invalidate() {
+			this.myChunks = new IntBuffer[0];
+		}
+	}
+
+	/**
+	 * A double array outside of the heap
+	 */
+	public static final class DoubleArray extends Array {
+		/** log2 of the values of a chunk */
+		private static final int SHIFT = CHUNK_SHIFT - 3;
+		private static final int MASK = (1 << SHIFT) - 1;
+
+		private DoubleBuffer[] myChunks;
+
+		DoubleArray(ByteBuffer[] chunks, int length) {
+			super(chunks, length);
+			this.myChunks = new DoubleBuffer[chunks.length];
+			for (int c = 0; c < chunks.length; c++) {
+				this.myChunks[c] = chunks[c].asDoubleBuffer();
+			}
+		}
+
+		public double get(int index) {
+			return this.myChunks[index >>> SHIFT].get(index & MASK);
+		}
+
+		public void set(int index, double value) {
+			this.myChunks[index >>> SHIFT].put(index & MASK, value);
+		}
+
+		@Override
+		void invalidate() {
+			this.myChunks = new DoubleBuffer[0];
+		}
+	}
+}
@@ -0,0 +1,504 @@
+/**
+ *    ParameterSweep.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import physarum.code.PhysarumConnection.Q_Method;
+
+/**
+ * Runs many parameter configurations of the PhysarumSolver in parallel on one
+ * shared graph. The configurations are either the full grid of the given
+ * values or a random search within their range. Every finished run is handed
+ * to a listener right away, e.g. a SweepCsvWriter.
+ * 
+ * If an iteration budget is set, runs are stopped once they needed that many
+ * times the iterations of the fastest converged run so far, they are reported
+ * as over budget. Only the iteration counts are compared, a run stopped this
+ * way may have been heading for a shorter path than the fast one. The runs
+ * are solved in chunks of iterations to check this, which doesn't change
+ * their result.
+ * 
+ * @author Torsten
+ * 
+ */
+public class ParameterSweep {
+	/** The parameters of all values not swept */
+	private PhysarumParameters myBase;
+
+	/** The values of mue */
+	private double[] myMues;
+
+	/** The values of alpha */
+	private double[] myAlphas;
+
+	/** The values of the survival threshold */
+	private double[] mySurvivalThresholds;
+
+	/** The values of the conductivity change threshold */
+	private double[] myDeltaConductivityThresholds;
+
+	/** The Q methods */
+	private Q_Method[] myQMethods;
+
+	/** The seeds of the initial conductivities */
+	private long[] mySeeds;
+
+	/** Number of runs solved at the same time */
+	private int myThreads = Runtime.getRuntime().availableProcessors();
+
+	/** Stop runs after this many times the best iteration count, 0 for never */
+	private double myIterationBudget = 0;
+
+	/** Iterations between two budget checks */
+	private int myChunkIterations = 10;
+
+	/**
+	 * Creates a sweep over nothing, all runs use the given parameters until
+	 * values are set
+	 * 
+	 * @param base
+	 *            the parameters of all values not swept, copied
+	 */
+	public ParameterSweep(PhysarumParameters base) {
+		this.myBase = base.copy();
+		this.myMues = new double[] { base.getMue() };
+		this.myAlphas = new double[] { base.getAlpha() };
+		this.mySurvivalThresholds = new double[] { base.getSurvivalThreshold() };
+		this.myDeltaConductivityThresholds = new double[] { base
+				.getDeltaConductivityThreshold() };
+		this.myQMethods = new Q_Method[] { base.getQMethod() };
+		this.mySeeds = new long[] { base.getSeed() };
+	}
+
+	// ============================================================================================
+	// Configurations
+	// ============================================================================================
+
+	/**
+	 * Get the cartesian product of all values
+	 * 
+	 * @return the configurations
+	 */
+	public List<PhysarumParameters> gridConfigurations() {
+		List<PhysarumParameters> configurations = new ArrayList<PhysarumParameters>();
+		for (Q_Method method : this.myQMethods) {
+			for (double mue : this.myMues) {
+				for (double alpha : this.myAlphas) {
+					for (double survival : this.mySurvivalThresholds) {
+						for (double delta : this.myDeltaConductivityThresholds) {
+							for (long seed : this.mySeeds) {
+								PhysarumParameters parameters = this.myBase
+										.copy();
+								parameters.setQMethod(method);
+								parameters.setMue(mue);
+								parameters.setAlpha(alpha);
+								parameters.setSurvivalThreshold(survival);
+								parameters.setDeltaConductivityThreshold(delta);
+								parameters.setSeed(seed);
+								configurations.add(parameters);
+							}
+						}
+					}
+				}
+			}
+		}
+		return configurations;
+	}
+
+	/**
+	 * Get random configurations. Every number is drawn uniformly between the
+	 * smallest and the largest of its values, the Q method and the seed are
+	 * picked from their values.
+	 * 
+	 * @param count
+	 *            the number of configurations
+	 * @param seed
+	 *            the seed of the random search
+	 * @return the configurations
+	 */
+	public List<PhysarumParameters> randomConfigurations(int count, long seed) {
+		Random random = new Random(seed);
+		List<PhysarumParameters> configurations = new ArrayList<PhysarumParameters>(
+				count);
+		for (int i = 0; i < count; i++) {
+			PhysarumParameters parameters = this.myBase.copy();
+			parameters.setQMethod(this.myQMethods[random
+					.nextInt(this.myQMethods.length)]);
+			parameters.setMue(uniform(random, this.myMues));
+			parameters.setAlpha(uniform(random, this.myAlphas));
+			parameters.setSurvivalThreshold(uniform(random,
+					this.mySurvivalThresholds));
+			parameters.setDeltaConductivityThreshold(uniform(random,
+					this.myDeltaConductivityThresholds));
+			parameters.setSeed(this.mySeeds[random.nextInt(this.mySeeds.length)]);
+			configurations.add(parameters);
+		}
+		return configurations;
+	}
+
+	private static double uniform(Random random, double[] values) {
+		double min = values[0];
+		double max = values[0];
+		for (double value : values) {
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+		return min + random.nextDouble() * (max - min);
+	}
+
+	// ============================================================================================
+	// Running
+	// ============================================================================================
+
+	/**
+	 * Solve all configurations in parallel and wait for them
+	 * 
+	 * @param graph
+	 *            the shared graph
+	 * @param source
+	 *            the source node index
+	 * @param sink
+	 *            the sink node index
+	 * @param configurations
+	 *            the configurations
+	 * @param listener
+	 *            called on the solving threads with every finished run, may be
+	 *            null
+	 * @return the results in the order of the configurations
+	 * @throws InterruptedException
+	 *             if the calling thread or a solving thread was interrupted,
+	 *             the runs are cancelled
+	 * @throws IllegalStateException
+	 *             if the listener failed
+	 */
+	public List<Result> run(final PhysarumGraph graph, final int source,
+			final int sink, List<PhysarumParameters> configurations,
+			final Listener listener) throws InterruptedException {
+		final AtomicInteger bestIterations = new AtomicInteger(
+				Integer.MAX_VALUE);
+		ExecutorService executor = Executors.newFixedThreadPool(this.myThreads);
+		try {
+			List<Future<Result>> futures = new ArrayList<Future<Result>>();
+			for (int i = 0; i < configurations.size(); i++) {
+				final int index = i;
+				final PhysarumParameters parameters = configurations.get(i)
+						.copy();
+				futures.add(executor.submit(new Callable<Result>() {
+					@Override
+					public Result call() throws Exception {
+						Result result = runOne(index, graph, source, sink,
+								parameters, bestIterations);
+						if (listener != null) {
+							try {
+								listener.resultAvailable(result);
+							} catch (RuntimeException e) {
+								throw new IllegalStateException(
+										"Sweep listener failed", e);
+							}
+						}
+						return result;
+					}
+				}));
+			}
+
+			List<Result> results = new ArrayList<Result>(futures.size());
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					results.add(futures.get(i).get());
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof InterruptedException) {
+						InterruptedException interrupted = new InterruptedException(
+								"Sweep run " + i + " was interrupted");
+						interrupted.initCause(e.getCause());
+						throw interrupted;
+					}
+					if (e.getCause() instanceof IllegalStateException) {
+						throw (IllegalStateException) e.getCause();
+					}
+					throw new IllegalStateException("Sweep run " + i
+							+ " failed", e.getCause());
+				}
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Solve one configuration in chunks, stopping if it runs over budget
+	 */
+	private Result runOne(int index, PhysarumGraph graph, int source,
+			int sink, PhysarumParameters parameters, AtomicInteger bestIterations)
+			throws InterruptedException {
+		long start = System.nanoTime();
+		PhysarumSolver solver;
+		try {
+			solver = parameters.createSolver(graph, source, sink);
+		} catch (RuntimeException e) {
+			return new Result(index, parameters, null, false, false, 0, 0,
+					System.nanoTime() - start, e.toString());
+		}
+
+		try {
+			return this.solveOne(index, graph, source, sink, parameters,
+					bestIterations, solver, start);
+		} finally {
+			PhysarumParameters.releaseState(solver.getState());
+		}
+	}
+
+	/**
+	 * Solve the solver of one configuration and build its result
+	 */
+	private Result solveOne(int index, PhysarumGraph graph, int source,
+			int sink, PhysarumParameters parameters,
+			AtomicInteger bestIterations, PhysarumSolver solver, long start)
+			throws InterruptedException {
+		int maximum = parameters.getMaximumIterations();
+		int chunk = this.myIterationBudget > 0 ? Math.max(1,
+				this.myChunkIterations) : maximum;
+		boolean overBudget = false;
+		try {
+			for (int end = Math.min(chunk, maximum); !solver.isConverged(); end = Math
+					.min(end + chunk, maximum)) {
+				solver.setMaximumIterations(end);
+				solver.solve();
+				if (solver.isConverged() || end == maximum) {
+					break;
+				}
+				int best = bestIterations.get();
+				if (best != Integer.MAX_VALUE
+						&& solver.getIterationCount() >= best
+								* this.myIterationBudget) {
+					overBudget = true;
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			throw e;
+		} catch (Exception e) {
+			return new Result(index, parameters, null, false, false, 0,
+					solver.getIterationCount(), System.nanoTime() - start,
+					e.toString());
+		}
+
+		if (solver.isConverged()) {
+			int iterations = solver.getIterationCount();
+			int best;
+			while (iterations < (best = bestIterations.get())
+					&& !bestIterations.compareAndSet(best, iterations)) {
+			}
+		}
+
+		int[] survived = solver.getSurvivedEdges();
+		int[] path = PhysarumPaths.widestFluxPath(graph, solver.getState());
+		double pathLength = path.length > 0 || source == sink ? PhysarumPaths
+				.getLength(graph, path) : Double.NaN;
+		return new Result(index, parameters, survived, overBudget,
+				solver.isConverged(), pathLength,
+				solver.getIterationCount(), System.nanoTime() - start, null);
+	}
+
+	// ============================================================================================
+	// Setters
+	// ============================================================================================
+
+	public void setMueValues(double... mues) {
+		this.myMues = nonEmpty(mues).clone();
+	}
+
+	public void setAlphaValues(double... alphas) {
+		this.myAlphas = nonEmpty(alphas).clone();
+	}
+
+	public void setSurvivalThresholds(double... thresholds) {
+		this.mySurvivalThresholds = nonEmpty(thresholds).clone();
+	}
+
+	public void setDeltaConductivityThresholds(double... thresholds) {
+		this.myDeltaConductivityThresholds = nonEmpty(thresholds).clone();
+	}
+
+	public void setQMethods(Q_Method... methods) {
+		if (methods.length == 0) {
+			throw new IllegalArgumentException("No values to sweep");
+		}
+		this.myQMethods = methods.clone();
+	}
+
+	public void setSeeds(long... seeds) {
+		if (seeds.length == 0) {
+			throw new IllegalArgumentException("No values to sweep");
+		}
+		this.mySeeds = seeds.clone();
+	}
+
+	private static double[] nonEmpty(double[] values) {
+		if (values.length == 0) {
+			throw new IllegalArgumentException("No values to sweep");
+		}
+		return values;
+	}
+
+	/**
+	 * Set the number of runs solved at the same time
+	 * 
+	 * @param threads
+	 */
+	public void setThreads(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Thread count must be positive");
+		}
+		this.myThreads = threads;
+	}
+
+	/**
+	 * Stop runs that needed factor times the iterations of the fastest
+	 * converged run without converging themselves
+	 * 
+	 * @param factor
+	 *            the factor, 0 to run every configuration to its end
+	 */
+	public void setIterationBudget(double factor) {
+		this.myIterationBudget = factor;
+	}
+
+	/**
+	 * Set the iterations between two budget checks
+	 * 
+	 * @param iterations
+	 */
+	public void setChunkIterations(int iterations) {
+		this.myChunkIterations = iterations;
+	}
+
+	/**
+	 * Is called with every finished run of a sweep
+	 */
+	public interface Listener {
+		/**
+		 * A run finished, called on the thread that solved it
+		 * 
+		 * @param result
+		 *            the result
+		 */
+		void resultAvailable(Result result);
+	}
+
+	/**
+	 * The outcome of one configuration of a sweep
+	 */
+	public static class Result {
+		private final int myIndex;
+		private final PhysarumParameters myParameters;
+		private final int[] mySurvivedEdges;
+		private final boolean myOverBudget;
+		private final boolean myConverged;
+		private final double myPathLength;
+		private final int myIterations;
+		private final long myNanos;
+		private final String myError;
+
+		Result(int index, PhysarumParameters parameters, int[] survivedEdges,
+				boolean overBudget, boolean converged, double pathLength, int iterations,
+				long nanos, String error) {
+			this.myIndex = index;
+			this.myParameters = parameters;
+			this.mySurvivedEdges = survivedEdges != null ? survivedEdges
+					: new int[0];
+			this.myOverBudget = overBudget;
+			this.myConverged = converged;
+			this.myPathLength = pathLength;
+			this.myIterations = iterations;
+			this.myNanos = nanos;
+			this.myError = error;
+		}
+
+		/**
+		 * Get the position of the configuration in the sweep
+		 * 
+		 * @return
+		 */
+		public int getIndex() {
+			return myIndex;
+		}
+
+		/**
+		 * Get a copy of the parameters of the run
+		 * 
+		 * @return
+		 */
+		public PhysarumParameters getParameters() {
+			return myParameters.copy();
+		}
+
+		public int[] getSurvivedEdges() {
+			return mySurvivedEdges.clone();
+		}
+
+		public int getSurvivedEdgeCount() {
+			return mySurvivedEdges.length;
+		}
+
+		/**
+		 * True if the run was stopped because it exceeded the iteration budget
+		 * set by faster converged runs
+		 * 
+		 * @return
+		 */
+		public boolean isOverBudget() {
+			return myOverBudget;
+		}
+
+		/**
+		 * True if the run converged before the iteration limit
+		 * 
+		 * @return
+		 */
+		public boolean isConverged() {
+			return myConverged;
+		}
+
+		/**
+		 * Get the length of the widest flux path from the source to the sink
+		 * at the end of the run, the survived path of a converged run
+		 * 
+		 * @return the length, NaN if the flux doesn't reach the sink
+		 */
+		public double getPathLength() {
+			return myPathLength;
+		}
+
+		public int getIterations() {
+			return myIterations;
+		}
+
+		public long getNanos() {
+			return myNanos;
+		}
+
+		/**
+		 * Get the error of a failed run
+		 * 
+		 * @return the error or null
+		 */
+		public String getError() {
+			return myError;
+		}
+	}
+}
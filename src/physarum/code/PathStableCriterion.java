@@ -0,0 +1,178 @@
+/**
+ *    PathStableCriterion.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.util.Arrays;
+
+/**
+ * Converged if the surviving edges have formed the same single path from the
+ * source to the sink for a number of consecutive iterations. This decides a
+ * routing query long before the conductivities of the dying edges settle.
+ * 
+ * The survivors are counted incrementally by a SurvivorTracker. After every
+ * iteration the path is followed from the source along the surviving edge
+ * with the largest flux to a node not visited yet, which costs the edges
+ * touching the path only. The surviving subgraph is that path if it reaches
+ * the sink and the number of survivors equals its length.
+ * 
+ * @author Torsten
+ * 
+ */
+public class PathStableCriterion implements ConvergenceCriterion {
+	/** Consecutive iterations the path has to stay unchanged */
+	private final int myIterations;
+
+	/** The survivors of the solver */
+	private SurvivorTracker myTracker;
+
+	/** The path of the last iteration */
+	private int[] myPath = new int[0];
+
+	/** The length of the path of the last iteration, -1 for no path */
+	private int myPathLength = -1;
+
+	/** The path of the current iteration */
+	private int[] myNextPath = new int[0];
+
+	/** The iterations the path has been unchanged */
+	private int myStableIterations = 0;
+
+	/** Marks the nodes visited by the current walk */
+	private int[] myVisited = new int[0];
+
+	/** The stamp of the current walk in myVisited */
+	private int myWalk = 0;
+
+	/**
+	 * Creates the criterion
+	 * 
+	 * @param iterations
+	 *            the consecutive iterations the path has to stay unchanged
+	 */
+	public PathStableCriterion(int iterations) {
+		if (iterations <= 0) {
+			throw new IllegalArgumentException(
+					"Stable iterations must be positive");
+		}
+		this.myIterations = iterations;
+	}
+
+	@Override
+	public void start(PhysarumSolver solver) {
+		// the conductivities may have been changed since the last solve()
+		if (this.myTracker != null) {
+			solver.removeThresholdListener(this.myTracker);
+		}
+		this.myTracker = new SurvivorTracker(solver);
+
+		PhysarumGraph graph = solver.getGraph();
+		if (this.myVisited.length != graph.getNodeCount()) {
+			this.myVisited = new int[graph.getNodeCount()];
+			this.myPath = new int[graph.getNodeCount()];
+			this.myNextPath = new int[graph.getNodeCount()];
+			this.myPathLength = -1;
+			this.myStableIterations = 0;
+		}
+		// a new run, or one on an edited graph whose edge indexes changed
+		if (solver.getState().getIteration() == 0) {
+			this.myPathLength = -1;
+			this.myStableIterations = 0;
+		}
+	}
+
+	@Override
+	public boolean isConverged(PhysarumSolver solver,
+			IterationStatistics statistics) {
+		int length = this.walk(solver.getGraph(), solver.getState());
+		if (length < 0 || length != this.myTracker.getSurvivorCount()) {
+			this.myPathLength = -1;
+			this.myStableIterations = 0;
+			return false;
+		}
+
+		if (length == this.myPathLength
+				&& Arrays.equals(this.myNextPath, 0, length, this.myPath, 0,
+						length)) {
+			this.myStableIterations++;
+		} else {
+			this.myStableIterations = 1;
+		}
+
+		int[] swap = this.myPath;
+		this.myPath = this.myNextPath;
+		this.myNextPath = swap;
+		this.myPathLength = length;
+		return this.myStableIterations >= this.myIterations;
+	}
+
+	/**
+	 * Follow the largest surviving flux from the source into myNextPath
+	 * 
+	 * @return the number of edges to the sink, -1 if the sink isn't reached
+	 */
+	private int walk(PhysarumGraph graph, PhysarumState state) {
+		if (++this.myWalk == 0) {
+			Arrays.fill(this.myVisited, 0);
+			this.myWalk = 1;
+		}
+
+		int node = state.getSource();
+		int sink = state.getSink();
+		int length = 0;
+		while (node >= 0 && node != sink) {
+			if (this.myVisited[node] == this.myWalk
+					|| length == this.myNextPath.length) {
+				return -1;
+			}
+			this.myVisited[node] = this.myWalk;
+
+			// the sign of the flux depends on the orientation of the edge
+			// and the pressure convention, so only its amount is compared
+			int best = -1;
+			double bestFlux = 0;
+			for (int k = 0; k < graph.getDegree(node); k++) {
+				int edge = graph.getAdjacentEdge(node, k);
+				if (!this.myTracker.isSurviving(edge)
+						|| this.myVisited[graph.getOtherEnd(edge, node)] == this.myWalk) {
+					continue;
+				}
+				double flux = Math.abs(state.getFlux(edge));
+				if (flux > bestFlux) {
+					best = edge;
+					bestFlux = flux;
+				}
+			}
+			if (best < 0) {
+				return -1;
+			}
+			this.myNextPath[length++] = best;
+			node = graph.getOtherEnd(best, node);
+		}
+		return node == sink ? length : -1;
+	}
+
+	/**
+	 * Get the iterations the current path has been unchanged
+	 * 
+	 * @return
+	 */
+	public int getStableIterations() {
+		return this.myStableIterations;
+	}
+
+	/**
+	 * Get the edges of the path found in the last iteration
+	 * 
+	 * @return the edge indexes from source to sink, empty if there was no
+	 *         single path
+	 */
+	public int[] getPath() {
+		return this.myPathLength < 0 ? new int[0] : Arrays.copyOf(
+				this.myPath, this.myPathLength);
+	}
+}
@@ -0,0 +1,480 @@
+/**
+ *    PhysarumCheckpoint.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import physarum.code.PhysarumConnection.Q_Method;
+
+/**
+ * A snapshot of the complete dynamic state of a PhysarumSolver run. The
+ * snapshot is written in a compact binary form and allows a new solver over
+ * the same nodes and connections to resume exactly where the old one stopped.
+ * It holds the settings of the conductivity dynamics too, a resumed solver
+ * takes them over, and the source, the sink and the fingerprint of the graph,
+ * which must match the solver.
+ * 
+ * @author Torsten
+ * 
+ */
+public class PhysarumCheckpoint {
+	/** Magic number at the beginning of every checkpoint file ("PHYC") */
+	public static final int MAGIC = 0x50485943;
+
+	/** Version of the binary layout */
+	public static final int VERSION = 3;
+
+	/** The fingerprint of the graph of the run */
+	private long myGraphFingerprint = 0L;
+
+	/** The iteration the solver continues with after resuming */
+	private int myIteration = 0;
+
+	/** True if the solver already converged when the snapshot was taken */
+	private boolean myConverged = false;
+
+	/** True if the next iteration is the first one of the run */
+	private boolean myFirstRun = true;
+
+	/** Greek mue */
+	private double myMue = 0.0;
+
+	/** The flux I0 entering at the source */
+	private double myI0 = 0.0;
+
+	/** The maximum number of iterations */
+	private int myMaximumIterations = 0;
+
+	/** The survival threshold */
+	private double mySurvivalThreshold = 0.0;
+
+	/** The delta conductivity threshold */
+	private double myDeltaConductivityThreshold = 0.0;
+
+	/** Initial conductivity minimum */
+	private double myConductivityMinimum = 0.0;
+
+	/** Initial conductivity maximum */
+	private double myConductivityMaximum = 0.0;
+
+	/** The decay rate alpha of the conductivities */
+	private double myAlpha = 0.0;
+
+	/** The alpha of f(Q) */
+	private double myfQAlpha = 0.0;
+
+	/** The weight of an adaption step */
+	private double myWeightAdaption = 0.0;
+
+	/** The function f(Q) */
+	private Q_Method myQMethod = Q_Method.TypeOne;
+
+	/** The source node index, -1 if none */
+	private int mySource = -1;
+
+	/** The sink node index, -1 if none */
+	private int mySink = -1;
+
+	/** The conductivity of each connection */
+	private double[] myConductivities = new double[0];
+
+	/** The former conductivity of each connection */
+	private double[] myFormerConductivities = new double[0];
+
+	/** The flux of each connection */
+	private double[] myFluxes = new double[0];
+
+	/** The pressure of each node */
+	private double[] myPressures = new double[0];
+
+	/**
+	 * Creates an empty checkpoint for nrNodes nodes and nrConnections
+	 * connections
+	 * 
+	 * @param nrNodes
+	 *            The number of nodes
+	 * @param nrConnections
+	 *            The number of connections
+	 */
+	public PhysarumCheckpoint(int nrNodes, int nrConnections) {
+		this.myPressures = new double[nrNodes];
+		this.myConductivities = new double[nrConnections];
+		this.myFormerConductivities = new double[nrConnections];
+		this.myFluxes = new double[nrConnections];
+	}
+
+	/**
+	 * Write the checkpoint to a file. The data is written to a temporary file
+	 * next to the target first and then moved over it, so an interrupted write
+	 * never destroys the last complete checkpoint. The temporary file is
+	 * synced to disk before the move, so a crash can't leave a renamed but
+	 * empty file behind.
+	 * 
+	 * @param file
+	 *            The target file
+	 * @throws IOException
+	 */
+	public void write(File file) throws IOException {
+		File parent = file.getAbsoluteFile().getParentFile();
+		File tmp = new File(parent, file.getName() + ".tmp");
+
+		FileOutputStream stream = new FileOutputStream(tmp);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				stream, 1 << 16));
+		try {
+			this.writeTo(out);
+			out.flush();
+			stream.getFD().sync();
+		} finally {
+			out.close();
+		}
+
+		try {
+			Files.move(tmp.toPath(), file.toPath(),
+					StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp.toPath(), file.toPath(),
+					StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Read a checkpoint from a file
+	 * 
+	 * @param file
+	 *            The checkpoint file
+	 * @return the checkpoint
+	 * @throws IOException
+	 *             if the file is no valid checkpoint
+	 */
+	public static PhysarumCheckpoint read(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file), 1 << 16));
+		try {
+			return readFrom(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Write the checkpoint to a stream
+	 * 
+	 * @param out
+	 *            The stream
+	 * @throws IOException
+	 */
+	public void writeTo(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+
+		out.writeLong(this.myGraphFingerprint);
+		out.writeInt(this.myIteration);
+		out.writeBoolean(this.myConverged);
+		out.writeBoolean(this.myFirstRun);
+
+		out.writeDouble(this.myMue);
+		out.writeDouble(this.myI0);
+		out.writeInt(this.myMaximumIterations);
+		out.writeDouble(this.mySurvivalThreshold);
+		out.writeDouble(this.myDeltaConductivityThreshold);
+		out.writeDouble(this.myConductivityMinimum);
+		out.writeDouble(this.myConductivityMaximum);
+		out.writeDouble(this.myAlpha);
+		out.writeDouble(this.myfQAlpha);
+		out.writeDouble(this.myWeightAdaption);
+		out.writeByte(this.myQMethod.ordinal());
+		out.writeInt(this.mySource);
+		out.writeInt(this.mySink);
+
+		out.writeInt(this.myPressures.length);
+		out.writeInt(this.myConductivities.length);
+
+		writeArray(out, this.myPressures);
+		writeArray(out, this.myConductivities);
+		writeArray(out, this.myFormerConductivities);
+		writeArray(out, this.myFluxes);
+	}
+
+	/**
+	 * Read a checkpoint from a stream
+	 * 
+	 * @param in
+	 *            The stream
+	 * @return the checkpoint
+	 * @throws IOException
+	 *             if the stream holds no valid checkpoint
+	 */
+	public static PhysarumCheckpoint readFrom(DataInputStream in)
+			throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a Physarum checkpoint");
+		}
+
+		int version = in.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported checkpoint version " + version);
+		}
+
+		long graphFingerprint = in.readLong();
+		int iteration = in.readInt();
+		boolean converged = in.readBoolean();
+		boolean firstRun = in.readBoolean();
+
+		double mue = in.readDouble();
+		double i0 = in.readDouble();
+		int maximumIterations = in.readInt();
+		double survivalThreshold = in.readDouble();
+		double deltaThreshold = in.readDouble();
+		double conductivityMinimum = in.readDouble();
+		double conductivityMaximum = in.readDouble();
+		double alpha = in.readDouble();
+		double fQAlpha = in.readDouble();
+		double weightAdaption = in.readDouble();
+		int method = in.readByte();
+		if (method < 0 || method >= Q_Method.values().length) {
+			throw new IOException("Unknown Q method " + method);
+		}
+		int source = in.readInt();
+		int sink = in.readInt();
+
+		int nrNodes = in.readInt();
+		int nrConnections = in.readInt();
+		if (nrNodes < 0 || nrConnections < 0) {
+			throw new IOException("Corrupt checkpoint header");
+		}
+
+		PhysarumCheckpoint checkpoint = new PhysarumCheckpoint(nrNodes,
+				nrConnections);
+		checkpoint.myGraphFingerprint = graphFingerprint;
+		checkpoint.myIteration = iteration;
+		checkpoint.myConverged = converged;
+		checkpoint.myFirstRun = firstRun;
+		checkpoint.myMue = mue;
+		checkpoint.myI0 = i0;
+		checkpoint.myMaximumIterations = maximumIterations;
+		checkpoint.mySurvivalThreshold = survivalThreshold;
+		checkpoint.myDeltaConductivityThreshold = deltaThreshold;
+		checkpoint.myConductivityMinimum = conductivityMinimum;
+		checkpoint.myConductivityMaximum = conductivityMaximum;
+		checkpoint.myAlpha = alpha;
+		checkpoint.myfQAlpha = fQAlpha;
+		checkpoint.myWeightAdaption = weightAdaption;
+		checkpoint.myQMethod = Q_Method.values()[method];
+		checkpoint.mySource = source;
+		checkpoint.mySink = sink;
+
+		readArray(in, checkpoint.myPressures);
+		readArray(in, checkpoint.myConductivities);
+		readArray(in, checkpoint.myFormerConductivities);
+		readArray(in, checkpoint.myFluxes);
+
+		return checkpoint;
+	}
+
+	private static void writeArray(DataOutputStream out, double[] array)
+			throws IOException {
+		for (int i = 0; i < array.length; i++) {
+			out.writeDouble(array[i]);
+		}
+	}
+
+	private static void readArray(DataInputStream in, double[] array)
+			throws IOException {
+		for (int i = 0; i < array.length; i++) {
+			array[i] = in.readDouble();
+		}
+	}
+
+	// ============================================================================================
+	// Getters and setters
+	// ============================================================================================
+
+	public long getGraphFingerprint() {
+		return myGraphFingerprint;
+	}
+
+	public void setGraphFingerprint(long fingerprint) {
+		this.myGraphFingerprint = fingerprint;
+	}
+
+	public int getIteration() {
+		return myIteration;
+	}
+
+	public void setIteration(int iteration) {
+		this.myIteration = iteration;
+	}
+
+	public boolean isConverged() {
+		return myConverged;
+	}
+
+	public void setConverged(boolean converged) {
+		this.myConverged = converged;
+	}
+
+	public boolean isFirstRun() {
+		return myFirstRun;
+	}
+
+	public void setFirstRun(boolean firstRun) {
+		this.myFirstRun = firstRun;
+	}
+
+	public double getMue() {
+		return myMue;
+	}
+
+	public void setMue(double mue) {
+		this.myMue = mue;
+	}
+
+	public double getI0() {
+		return myI0;
+	}
+
+	public void setI0(double i0) {
+		this.myI0 = i0;
+	}
+
+	public int getMaximumIterations() {
+		return myMaximumIterations;
+	}
+
+	public void setMaximumIterations(int maximumIterations) {
+		this.myMaximumIterations = maximumIterations;
+	}
+
+	public double getSurvivalThreshold() {
+		return mySurvivalThreshold;
+	}
+
+	public void setSurvivalThreshold(double survivalThreshold) {
+		this.mySurvivalThreshold = survivalThreshold;
+	}
+
+	public double getDeltaConductivityThreshold() {
+		return myDeltaConductivityThreshold;
+	}
+
+	public void setDeltaConductivityThreshold(double threshold) {
+		this.myDeltaConductivityThreshold = threshold;
+	}
+
+	public double getConductivityMinimum() {
+		return myConductivityMinimum;
+	}
+
+	public void setConductivityMinimum(double dMin) {
+		this.myConductivityMinimum = dMin;
+	}
+
+	public double getConductivityMaximum() {
+		return myConductivityMaximum;
+	}
+
+	public void setConductivityMaximum(double dMax) {
+		this.myConductivityMaximum = dMax;
+	}
+
+	public double getAlpha() {
+		return myAlpha;
+	}
+
+	public void setAlpha(double alpha) {
+		this.myAlpha = alpha;
+	}
+
+	public double getfQAlpha() {
+		return myfQAlpha;
+	}
+
+	public void setfQAlpha(double fQAlpha) {
+		this.myfQAlpha = fQAlpha;
+	}
+
+	public double getWeightAdaption() {
+		return myWeightAdaption;
+	}
+
+	public void setWeightAdaption(double weightAdaption) {
+		this.myWeightAdaption = weightAdaption;
+	}
+
+	public Q_Method getQMethod() {
+		return myQMethod;
+	}
+
+	public void setQMethod(Q_Method qMethod) {
+		this.myQMethod = qMethod;
+	}
+
+	public int getSource() {
+		return mySource;
+	}
+
+	public void setSource(int source) {
+		this.mySource = source;
+	}
+
+	public int getSink() {
+		return mySink;
+	}
+
+	public void setSink(int sink) {
+		this.mySink = sink;
+	}
+
+	/**
+	 * Get the conductivities, one entry per connection
+	 * 
+	 * @return
+	 */
+	public double[] getConductivities() {
+		return myConductivities;
+	}
+
+	/**
+	 * Get the former conductivities, one entry per connection
+	 * 
+	 * @return
+	 */
+	public double[] getFormerConductivities() {
+		return myFormerConductivities;
+	}
+
+	/**
+	 * Get the fluxes, one entry per connection
+	 * 
+	 * @return
+	 */
+	public double[] getFluxes() {
+		return myFluxes;
+	}
+
+	/**
+	 * Get the pressures, one entry per node
+	 * 
+	 * @return
+	 */
+	public double[] getPressures() {
+		return myPressures;
+	}
+}
@@ -78,6 +78,14 @@ public class PhysarumConnection implements Cloneable {
 		this.myfQAlpha = myfQAlpha;
 	}
 
+	public double getMyWeightAdaption() {
+		return myWeigthAdaption;
+	}
+
+	public void setMyWeightAdaption(double myWeightAdaption) {
+		this.myWeigthAdaption = myWeightAdaption;
+	}
+
 	public Q_Method getMyQMethod() {
 		return myQMethod;
 	}
@@ -187,6 +195,25 @@ public class PhysarumConnection implements Cloneable {
 		this.myConductivity_D = conductivity_D;
 	}
 
+	/**
+	 * Get the conductivity before the last update
+	 * 
+	 * @return
+	 */
+	public double getFormerConductivity_D() {
+		return this.myFormerConductivity_D;
+	}
+
+	/**
+	 * Set the conductivity before the last update, used to restore a
+	 * connection from a checkpoint
+	 * 
+	 * @param formerConductivity_D
+	 */
+	public void setFormerConductivity_D(double formerConductivity_D) {
+		this.myFormerConductivity_D = formerConductivity_D;
+	}
+
 	/**
 	 * Get conductivity divided by length
 	 * 
@@ -250,16 +277,33 @@ public class PhysarumConnection implements Cloneable {
 	}
 
 	private double f_Q(double mue) {
-		if (this.myQMethod == Q_Method.TypeOne) {
-			return Math.pow(Math.abs(this.myFlux_Q), mue);
-		} else if (this.myQMethod == Q_Method.TypeTwo) {
-			return ((1 + this.myfQAlpha) * Math.pow(Math.abs(this.myFlux_Q),
-					mue))
-					/ (1 + (this.myfQAlpha * Math.pow(Math.abs(this.myFlux_Q),
-							mue)));
+		return f_Q(this.myQMethod, this.myfQAlpha, this.myFlux_Q, mue);
+	}
+
+	/**
+	 * The flux response f(Q) that drives the conductivity towards its new
+	 * value, shared by all solvers that don't work on connection objects
+	 * 
+	 * @param method
+	 *            The Q method
+	 * @param fQAlpha
+	 *            The alpha of Q method TypeTwo
+	 * @param flux_Q
+	 *            The flux
+	 * @param mue
+	 *            The mue value
+	 * @return f(Q)
+	 */
+	public static double f_Q(Q_Method method, double fQAlpha, double flux_Q,
+			double mue) {
+		if (method == Q_Method.TypeOne) {
+			return Math.pow(Math.abs(flux_Q), mue);
+		} else if (method == Q_Method.TypeTwo) {
+			return ((1 + fQAlpha) * Math.pow(Math.abs(flux_Q), mue))
+					/ (1 + (fQAlpha * Math.pow(Math.abs(flux_Q), mue)));
 		} else {
-			return (Math.pow(Math.abs(this.myFlux_Q), mue))
-					/ (1 + Math.pow(Math.abs(this.myFlux_Q), mue));
+			return (Math.pow(Math.abs(flux_Q), mue))
+					/ (1 + Math.pow(Math.abs(flux_Q), mue));
 		}
 	}
 
@@ -276,4 +320,24 @@ public class PhysarumConnection implements Cloneable {
 		// return true if D has changed and crossed the threshold
 		return ((this.myFormerConductivity_D > conductivityParentThreshold && this.myConductivity_D < conductivityParentThreshold) || (this.myFormerConductivity_D < conductivityParentThreshold && this.myConductivity_D > conductivityParentThreshold));
 	}
+
+	/**
+	 * Checks if a conductivity update crossed a threshold in either direction,
+	 * i.e. if the conductivity was above the threshold before and isn't any
+	 * more or the other way round. Above means the same as for a survived
+	 * connection, strictly greater. Unlike scoreChangedThreshold, a move from
+	 * above the threshold onto it, or from it to above, counts as a crossing.
+	 * 
+	 * @param formerConductivity
+	 *            the conductivity before the update
+	 * @param conductivity
+	 *            the conductivity after the update
+	 * @param threshold
+	 *            the threshold
+	 * @return true if the threshold was crossed
+	 */
+	public static boolean crossesThreshold(double formerConductivity,
+			double conductivity, double threshold) {
+		return (formerConductivity > threshold) != (conductivity > threshold);
+	}
 }
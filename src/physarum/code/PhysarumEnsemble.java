@@ -0,0 +1,340 @@
+/**
+ *    PhysarumEnsemble.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the PhysarumSolver many times on one shared graph with independent
+ * random initial conductivities and aggregates how often every edge survives.
+ * 
+ * Every run draws its conductivities from its own SplittableRandom, split off
+ * a root generator in the order of the runs, so the outcome depends on the
+ * seed only and not on the number of threads or the order the runs finish.
+ * The runs are solved in batches of a fixed size; after each batch the
+ * consensus, the edges surviving in more than half of the runs, is checked.
+ * The ensemble stops early when the consensus didn't change for a number of
+ * batches and every edge frequency is significantly away from one half. Where
+ * it stops depends on the seed and the batch size, not on the threads.
+ * 
+ * @author Torsten
+ * 
+ */
+public class PhysarumEnsemble {
+	/** The parameters of every run, the seed is not used */
+	private final PhysarumParameters myParameters;
+
+	/** Number of runs solved at the same time */
+	private int myThreads = Runtime.getRuntime().availableProcessors();
+
+	/** Default number of runs between two stability checks */
+	public static final int DEFAULT_BATCH_SIZE = 16;
+
+	/** Number of runs between two stability checks, independent of the threads */
+	private int myBatchSize = DEFAULT_BATCH_SIZE;
+
+	/** Number of unchanged batches before stopping early, 0 to never stop */
+	private int myStableBatches = 3;
+
+	/** The z value of the significance test of the edge frequencies */
+	private double myZ = 2.576;
+
+	/**
+	 * Creates an ensemble
+	 * 
+	 * @param parameters
+	 *            the parameters of every run, copied
+	 */
+	public PhysarumEnsemble(PhysarumParameters parameters) {
+		this.myParameters = parameters.copy();
+	}
+
+	/**
+	 * Solve up to maxRuns runs
+	 * 
+	 * @param graph
+	 *            the shared graph
+	 * @param source
+	 *            the source node index
+	 * @param sink
+	 *            the sink node index
+	 * @param maxRuns
+	 *            the maximum number of runs
+	 * @param seed
+	 *            the seed of the root generator
+	 * @return the aggregated result
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 *             if a run failed
+	 */
+	public Result run(final PhysarumGraph graph, final int source,
+			final int sink, int maxRuns, long seed)
+			throws InterruptedException, ExecutionException {
+		int edgeCount = graph.getEdgeCount();
+		int[] survivalCounts = new int[edgeCount];
+		Map<BitSet, Integer> pathCounts = new HashMap<BitSet, Integer>();
+		int runs = 0;
+		int converged = 0;
+		int stable = 0;
+		boolean stoppedEarly = false;
+		BitSet consensus = new BitSet(edgeCount);
+
+		SplittableRandom root = new SplittableRandom(seed);
+		ExecutorService executor = Executors.newFixedThreadPool(this.myThreads);
+		try {
+			while (runs < maxRuns) {
+				int batch = Math.min(Math.max(1, this.myBatchSize), maxRuns
+						- runs);
+				List<Future<SolveResult>> futures = new ArrayList<Future<SolveResult>>(
+						batch);
+				for (int k = 0; k < batch; k++) {
+					final SplittableRandom random = root.split();
+					futures.add(executor.submit(new Callable<SolveResult>() {
+						@Override
+						public SolveResult call() throws Exception {
+							long start = System.nanoTime();
+							PhysarumSolver solver = myParameters.createSolver(
+									graph, source, sink, random);
+							try {
+								solver.solve();
+								return SolveResult.of(solver, System.nanoTime()
+										- start);
+							} finally {
+								PhysarumParameters.releaseState(solver
+										.getState());
+							}
+						}
+					}));
+				}
+
+				// aggregate in the order of the runs
+				for (Future<SolveResult> future : futures) {
+					SolveResult result = future.get();
+					BitSet path = new BitSet(edgeCount);
+					for (int i = 0; i < result.getSurvivedEdgeCount(); i++) {
+						int edge = result.getSurvivedEdge(i);
+						survivalCounts[edge]++;
+						path.set(edge);
+					}
+					Integer count = pathCounts.get(path);
+					pathCounts.put(path, count == null ? 1 : count + 1);
+					converged += result.isConverged() ? 1 : 0;
+				}
+				runs += batch;
+
+				BitSet current = new BitSet(edgeCount);
+				boolean significant = true;
+				for (int e = 0; e < edgeCount; e++) {
+					double p = (double) survivalCounts[e] / runs;
+					if (p > 0.5) {
+						current.set(e);
+					}
+					if (Math.abs(p - 0.5) <= this.myZ
+							* Math.sqrt(p * (1 - p) / runs)) {
+						significant = false;
+					}
+				}
+				stable = current.equals(consensus) ? stable + 1 : 0;
+				consensus = current;
+
+				if (this.myStableBatches > 0 && significant
+						&& stable >= this.myStableBatches && runs < maxRuns) {
+					stoppedEarly = true;
+					break;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		BitSet modalPath = new BitSet();
+		int modalCount = 0;
+		for (Map.Entry<BitSet, Integer> entry : pathCounts.entrySet()) {
+			if (entry.getValue() > modalCount) {
+				modalPath = entry.getKey();
+				modalCount = entry.getValue();
+			}
+		}
+
+		double[] frequencies = new double[edgeCount];
+		for (int e = 0; e < edgeCount; e++) {
+			frequencies[e] = runs == 0 ? 0.0 : (double) survivalCounts[e]
+					/ runs;
+		}
+		return new Result(runs, converged, stoppedEarly, frequencies,
+				consensus.stream().toArray(), modalPath.stream().toArray(),
+				modalCount, pathCounts.size());
+	}
+
+	// ============================================================================================
+	// Setters
+	// ============================================================================================
+
+	/**
+	 * Set the number of runs solved at the same time, doesn't change the
+	 * result
+	 * 
+	 * @param threads
+	 */
+	public void setThreads(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Thread count must be positive");
+		}
+		this.myThreads = threads;
+	}
+
+	/**
+	 * Set the number of runs between two stability checks. This changes where
+	 * the ensemble stops early and thus the result; a multiple of the threads
+	 * keeps them all busy.
+	 * 
+	 * @param batchSize
+	 */
+	public void setBatchSize(int batchSize) {
+		this.myBatchSize = batchSize;
+	}
+
+	/**
+	 * Set the number of batches the consensus has to stay unchanged before
+	 * the ensemble stops early
+	 * 
+	 * @param batches
+	 *            the number of batches, 0 to always run all runs
+	 */
+	public void setStableBatches(int batches) {
+		this.myStableBatches = batches;
+	}
+
+	/**
+	 * Set the z value of the test whether an edge frequency is away from one
+	 * half, 2.576 for 99% confidence
+	 * 
+	 * @param z
+	 */
+	public void setConfidenceZ(double z) {
+		this.myZ = z;
+	}
+
+	/**
+	 * The aggregate of the runs of an ensemble
+	 */
+	public static class Result {
+		private final int myRuns;
+		private final int myConvergedRuns;
+		private final boolean myStoppedEarly;
+		private final double[] myFrequencies;
+		private final int[] myConsensusEdges;
+		private final int[] myModalPath;
+		private final int myModalPathCount;
+		private final int myDistinctPaths;
+
+		Result(int runs, int convergedRuns, boolean stoppedEarly,
+				double[] frequencies, int[] consensusEdges, int[] modalPath,
+				int modalPathCount, int distinctPaths) {
+			this.myRuns = runs;
+			this.myConvergedRuns = convergedRuns;
+			this.myStoppedEarly = stoppedEarly;
+			this.myFrequencies = frequencies;
+			this.myConsensusEdges = consensusEdges;
+			this.myModalPath = modalPath;
+			this.myModalPathCount = modalPathCount;
+			this.myDistinctPaths = distinctPaths;
+		}
+
+		/**
+		 * Get the number of runs solved
+		 * 
+		 * @return
+		 */
+		public int getRuns() {
+			return myRuns;
+		}
+
+		public int getConvergedRuns() {
+			return myConvergedRuns;
+		}
+
+		/**
+		 * True if the consensus was stable before all runs were solved
+		 * 
+		 * @return
+		 */
+		public boolean isStoppedEarly() {
+			return myStoppedEarly;
+		}
+
+		/**
+		 * Get the share of the runs an edge survived in
+		 * 
+		 * @param edge
+		 *            the edge index
+		 * @return the frequency between 0 and 1
+		 */
+		public double getSurvivalFrequency(int edge) {
+			return myFrequencies[edge];
+		}
+
+		public double[] getSurvivalFrequencies() {
+			return myFrequencies.clone();
+		}
+
+		/**
+		 * Get the edges that survived in more than half of the runs
+		 * 
+		 * @return
+		 */
+		public int[] getConsensusEdges() {
+			return myConsensusEdges.clone();
+		}
+
+		/**
+		 * Get the set of survived edges that occurred most often
+		 * 
+		 * @return
+		 */
+		public int[] getModalPath() {
+			return myModalPath.clone();
+		}
+
+		public int getModalPathCount() {
+			return myModalPathCount;
+		}
+
+		/**
+		 * Get the number of different sets of survived edges
+		 * 
+		 * @return
+		 */
+		public int getDistinctPaths() {
+			return myDistinctPaths;
+		}
+
+		@Override
+		public String toString() {
+			return "runs = " + this.myRuns + "\tconverged = "
+					+ this.myConvergedRuns + "\tstoppedEarly = "
+					+ this.myStoppedEarly + "\tconsensus = "
+					+ Arrays.toString(this.myConsensusEdges)
+					+ "\tmodal = "
+					+ Arrays.toString(this.myModalPath) + " ("
+					+ this.myModalPathCount + " of " + this.myRuns
+					+ ")\tdistinct = " + this.myDistinctPaths;
+		}
+	}
+}
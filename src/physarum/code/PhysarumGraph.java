@@ -0,0 +1,404 @@
+/**
+ *    PhysarumGraph.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * The immutable topology of a Physarum network: the nodes, the connections
+ * between them and the connection lengths. A graph holds no per-run values
+ * (pressure, flux, conductivity, source and sink), those live in a
+ * PhysarumState. Any number of solvers can therefore share one graph.
+ * 
+ * Nodes and edges are addressed by their index. Node i of a graph created
+ * from PhysarumNodes is the node at position i of the node list, edge j is
+ * the connection at position j of the connection list.
+ * 
+ * Subclasses may store the topology differently, e.g. OffHeapPhysarumGraph
+ * outside of the Java heap, by overriding the getters.
+ * 
+ * @author Torsten
+ * 
+ */
+public class PhysarumGraph {
+	/** The id of each node, null if a subclass stores the topology */
+	private final int[] myNodeIds;
+
+	/** The start node index of each edge */
+	private final int[] myEdgeStart;
+
+	/** The end node index of each edge */
+	private final int[] myEdgeEnd;
+
+	/** The length L of each edge */
+	private final double[] myLengths;
+
+	/**
+	 * Offsets into myAdjacentEdges, the edges touching node n are stored at
+	 * myAdjacentEdges[myAdjacencyOffsets[n]] up to
+	 * myAdjacentEdges[myAdjacencyOffsets[n + 1] - 1]
+	 */
+	private final int[] myAdjacencyOffsets;
+
+	/** The edges touching each node, grouped by node */
+	private final int[] myAdjacentEdges;
+
+	/** The structural fingerprint, computed on first use */
+	private volatile long myFingerprint = 0L;
+
+	/** True once myFingerprint has been computed */
+	private volatile boolean myFingerprintComputed = false;
+
+	/**
+	 * Creates a graph whose node ids are equal to the node indexes
+	 * 
+	 * @param nodeCount
+	 *            The number of nodes
+	 * @param edgeStart
+	 *            The start node index of each edge
+	 * @param edgeEnd
+	 *            The end node index of each edge
+	 * @param lengths
+	 *            The length of each edge
+	 */
+	public PhysarumGraph(int nodeCount, int[] edgeStart, int[] edgeEnd,
+			double[] lengths) {
+		this(identity(nodeCount), edgeStart.clone(), edgeEnd.clone(), lengths
+				.clone(), true);
+	}
+
+	/**
+	 * Creates a graph
+	 * 
+	 * @param nodeIds
+	 *            The id of each node
+	 * @param edgeStart
+	 *            The start node index of each edge
+	 * @param edgeEnd
+	 *            The end node index of each edge
+	 * @param lengths
+	 *            The length of each edge
+	 */
+	public PhysarumGraph(int[] nodeIds, int[] edgeStart, int[] edgeEnd,
+			double[] lengths) {
+		this(nodeIds.clone(), edgeStart.clone(), edgeEnd.clone(), lengths
+				.clone(), true);
+	}
+
+	/**
+	 * Creates a graph that takes ownership of the given arrays, the caller
+	 * must not change them afterwards
+	 * 
+	 * @param nodeIds
+	 *            The id of each node
+	 * @param edgeStart
+	 *            The start node index of each edge
+	 * @param edgeEnd
+	 *            The end node index of each edge
+	 * @param lengths
+	 *            The length of each edge
+	 * @param validate
+	 *            check the arrays for consistency
+	 */
+	PhysarumGraph(int[] nodeIds, int[] edgeStart, int[] edgeEnd,
+			double[] lengths, boolean validate) {
+		if (validate) {
+			validate(nodeIds.length, edgeStart, edgeEnd, lengths);
+		}
+
+		this.myNodeIds = nodeIds;
+		this.myEdgeStart = edgeStart;
+		this.myEdgeEnd = edgeEnd;
+		this.myLengths = lengths;
+
+		// build the adjacency lists with a counting sort over the end points
+		int nodeCount = nodeIds.length;
+		this.myAdjacencyOffsets = new int[nodeCount + 1];
+		for (int e = 0; e < edgeStart.length; e++) {
+			this.myAdjacencyOffsets[edgeStart[e] + 1]++;
+			this.myAdjacencyOffsets[edgeEnd[e] + 1]++;
+		}
+		for (int n = 0; n < nodeCount; n++) {
+			this.myAdjacencyOffsets[n + 1] += this.myAdjacencyOffsets[n];
+		}
+
+		this.myAdjacentEdges = new int[this.myAdjacencyOffsets[nodeCount]];
+		int[] fill = new int[nodeCount];
+		for (int e = 0; e < edgeStart.length; e++) {
+			int s = edgeStart[e];
+			int t = edgeEnd[e];
+			this.myAdjacentEdges[this.myAdjacencyOffsets[s] + fill[s]++] = e;
+			this.myAdjacentEdges[this.myAdjacencyOffsets[t] + fill[t]++] = e;
+		}
+	}
+
+	/**
+	 * Creates a graph for subclasses that store the topology themselves and
+	 * override all getters
+	 */
+	protected PhysarumGraph() {
+		this.myNodeIds = null;
+		this.myEdgeStart = null;
+		this.myEdgeEnd = null;
+		this.myLengths = null;
+		this.myAdjacencyOffsets = null;
+		this.myAdjacentEdges = null;
+	}
+
+	/**
+	 * Creates a graph out of PhysarumNodes and PhysarumConnections. Only the
+	 * topology and the lengths are taken over, the per-run values can be read
+	 * with PhysarumState.readFrom
+	 * 
+	 * @param nodes
+	 *            A list of PhysarumNodes
+	 * @param connections
+	 *            A list of PhysarumConnections between the nodes
+	 * @return the graph
+	 */
+	public static PhysarumGraph fromConnections(
+			List<? extends PhysarumNode> nodes,
+			List<? extends PhysarumConnection> connections) {
+		// map the nodes to their position in the list
+		IdentityHashMap<PhysarumNode, Integer> index = new IdentityHashMap<PhysarumNode, Integer>();
+		int[] nodeIds = new int[nodes.size()];
+		for (int i = 0; i < nodes.size(); i++) {
+			index.put(nodes.get(i), i);
+			nodeIds[i] = nodes.get(i).getId();
+		}
+
+		int[] edgeStart = new int[connections.size()];
+		int[] edgeEnd = new int[connections.size()];
+		double[] lengths = new double[connections.size()];
+		for (int e = 0; e < connections.size(); e++) {
+			PhysarumConnection con = connections.get(e);
+			Integer start = index.get(con.getStartNode());
+			Integer end = index.get(con.getEndNode());
+			if (start == null || end == null) {
+				throw new IllegalArgumentException(con.getDescription()
+						+ " uses a node that is not in the node list");
+			}
+			edgeStart[e] = start;
+			edgeEnd[e] = end;
+			lengths[e] = con.getLength_L();
+		}
+
+		return new PhysarumGraph(nodeIds, edgeStart, edgeEnd, lengths, false);
+	}
+
+	static int[] identity(int nodeCount) {
+		int[] ids = new int[nodeCount];
+		for (int i = 0; i < nodeCount; i++) {
+			ids[i] = i;
+		}
+		return ids;
+	}
+
+	private static void validate(int nodeCount, int[] edgeStart,
+			int[] edgeEnd, double[] lengths) {
+		if (edgeStart.length != edgeEnd.length
+				|| edgeStart.length != lengths.length) {
+			throw new IllegalArgumentException(
+					"Edge start, end and length arrays differ in size");
+		}
+		for (int e = 0; e < edgeStart.length; e++) {
+			if (edgeStart[e] < 0 || edgeStart[e] >= nodeCount
+					|| edgeEnd[e] < 0 || edgeEnd[e] >= nodeCount) {
+				throw new IllegalArgumentException("Edge " + e
+						+ " references a node outside of 0.." + (nodeCount - 1));
+			}
+		}
+	}
+
+	/**
+	 * Get a 64 bit hash of the structure of the graph: the number of nodes,
+	 * the end points and the length of every edge. Graphs with equal
+	 * structure have equal fingerprints, node ids are not part of it. The
+	 * value is computed once on first use.
+	 * 
+	 * @return the fingerprint
+	 */
+	public long getFingerprint() {
+		if (!this.myFingerprintComputed) {
+			int edges = this.getEdgeCount();
+			long h = mix(0x5048595341525547L ^ this.getNodeCount());
+			for (int e = 0; e < edges; e++) {
+				h = mix(h ^ ((long) this.getEdgeStart(e) << 32 | (this.getEdgeEnd(e) & 0xFFFFFFFFL)));
+				h = mix(h ^ Double.doubleToLongBits(this.getLength(e)));
+			}
+			this.myFingerprint = mix(h ^ edges);
+			this.myFingerprintComputed = true;
+		}
+		return this.myFingerprint;
+	}
+
+	/**
+	 * The finalizer of the SplitMix64 generator, spreads every input bit over
+	 * the whole result
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	// ============================================================================================
+	// Getters
+	// ============================================================================================
+
+	/**
+	 * Get the number of nodes
+	 * 
+	 * @return
+	 */
+	public int getNodeCount() {
+		return this.myNodeIds.length;
+	}
+
+	/**
+	 * Get the number of edges
+	 * 
+	 * @return
+	 */
+	public int getEdgeCount() {
+		return this.myEdgeStart.length;
+	}
+
+	/**
+	 * Get the id of a node
+	 * 
+	 * @param node
+	 *            the node index
+	 * @return
+	 */
+	public int getNodeId(int node) {
+		return this.myNodeIds[node];
+	}
+
+	/**
+	 * Get the index of the first node with the given id
+	 * 
+	 * @param id
+	 *            the node id
+	 * @return the node index or -1 if there is no such node
+	 */
+	public int indexOfNodeId(int id) {
+		int nodes = this.getNodeCount();
+		for (int i = 0; i < nodes; i++) {
+			if (this.getNodeId(i) == id) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get the start node index of an edge
+	 * 
+	 * @param edge
+	 *            the edge index
+	 * @return
+	 */
+	public int getEdgeStart(int edge) {
+		return this.myEdgeStart[edge];
+	}
+
+	/**
+	 * Get the end node index of an edge
+	 * 
+	 * @param edge
+	 *            the edge index
+	 * @return
+	 */
+	public int getEdgeEnd(int edge) {
+		return this.myEdgeEnd[edge];
+	}
+
+	/**
+	 * Get the node at the other end of an edge
+	 * 
+	 * @param edge
+	 *            the edge index
+	 * @param node
+	 *            one end of the edge
+	 * @return the other end
+	 */
+	public int getOtherEnd(int edge, int node) {
+		int start = this.getEdgeStart(edge);
+		return start == node ? this.getEdgeEnd(edge) : start;
+	}
+
+	/**
+	 * Get the length L of an edge
+	 * 
+	 * @param edge
+	 *            the edge index
+	 * @return
+	 */
+	public double getLength(int edge) {
+		return this.myLengths[edge];
+	}
+
+	/**
+	 * Change the length L of an edge in place, for the owner of the graph
+	 * only: everybody holding the graph sees the new length
+	 * 
+	 * @param edge
+	 *            the edge index
+	 * @param length_L
+	 *            the new length
+	 * @throws UnsupportedOperationException
+	 *             if a subclass stores the lengths
+	 */
+	void setLength(int edge, double length_L) {
+		if (this.myLengths == null) {
+			throw new UnsupportedOperationException(
+					"The lengths are stored by a subclass");
+		}
+		this.myLengths[edge] = length_L;
+		this.myFingerprintComputed = false;
+	}
+
+	/**
+	 * Get the number of edges touching a node
+	 * 
+	 * @param node
+	 *            the node index
+	 * @return
+	 */
+	public int getDegree(int node) {
+		return this.myAdjacencyOffsets[node + 1]
+				- this.myAdjacencyOffsets[node];
+	}
+
+	/**
+	 * Get the k-th edge touching a node
+	 * 
+	 * @param node
+	 *            the node index
+	 * @param k
+	 *            0 <= k < getDegree(node)
+	 * @return the edge index
+	 */
+	public int getAdjacentEdge(int node, int k) {
+		return this.myAdjacentEdges[this.myAdjacencyOffsets[node] + k];
+	}
+
+	/**
+	 * Get a string describing an edge Example: Connection from 1 to 4
+	 * 
+	 * @param edge
+	 *            the edge index
+	 * @return
+	 */
+	public String getEdgeDescription(int edge) {
+		return "Connection from " + this.getNodeId(this.getEdgeStart(edge))
+				+ " to " + this.getNodeId(this.getEdgeEnd(edge));
+	}
+}
@@ -0,0 +1,217 @@
+/**
+ *    PhysarumGraphBuilder.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.util.Arrays;
+
+/**
+ * Collects edges into growing primitive arrays and builds a PhysarumGraph of
+ * them without copying the edges again. Meant for large generated or loaded
+ * graphs, where a list of PhysarumConnection objects would cost several
+ * times the memory.
+ * 
+ * @author Torsten
+ * 
+ */
+public class PhysarumGraphBuilder implements GraphSink {
+	/** The number of nodes */
+	private int myNodeCount = 0;
+
+	/** The source of the problem, -1 if none was given */
+	private int mySource = -1;
+
+	/** The sink of the problem, -1 if none was given */
+	private int mySink = -1;
+
+	/** The id of each node, null while all ids equal the indexes */
+	private int[] myNodeIds = null;
+
+	/** The number of edges */
+	private int myEdgeCount = 0;
+
+	/** The start node of each edge */
+	private int[] myEdgeStart;
+
+	/** The end node of each edge */
+	private int[] myEdgeEnd;
+
+	/** The length of each edge */
+	private double[] myLengths;
+
+	/**
+	 * Creates an empty builder
+	 */
+	public PhysarumGraphBuilder() {
+		this(16);
+	}
+
+	/**
+	 * Creates an empty builder
+	 * 
+	 * @param expectedEdges
+	 *            the expected number of edges, the arrays grow beyond it
+	 */
+	public PhysarumGraphBuilder(int expectedEdges) {
+		int capacity = Math.max(1, expectedEdges);
+		this.myEdgeStart = new int[capacity];
+		this.myEdgeEnd = new int[capacity];
+		this.myLengths = new double[capacity];
+	}
+
+	@Override
+	public void begin(int nodeCount, int source, int sink) {
+		this.setNodeCount(nodeCount);
+		this.mySource = source;
+		this.mySink = sink;
+	}
+
+	@Override
+	public void edge(int start, int end, double length) {
+		this.addEdge(start, end, length);
+	}
+
+	@Override
+	public void end() {
+	}
+
+	/**
+	 * Set the number of nodes
+	 * 
+	 * @param nodeCount
+	 */
+	public void setNodeCount(int nodeCount) {
+		if (this.myNodeIds != null) {
+			throw new IllegalStateException("Nodes were added with ids");
+		}
+		if (nodeCount < 0) {
+			throw new IllegalArgumentException("Negative node count");
+		}
+		this.myNodeCount = nodeCount;
+	}
+
+	/**
+	 * Add a node
+	 * 
+	 * @return the index of the new node
+	 */
+	public int addNode() {
+		if (this.myNodeIds != null) {
+			throw new IllegalStateException("Nodes were added with ids");
+		}
+		return this.myNodeCount++;
+	}
+
+	/**
+	 * Add a node with an id, e.g. its position in an image. Either all or no
+	 * nodes of a builder have ids.
+	 * 
+	 * @param id
+	 *            the id
+	 * @return the index of the new node
+	 */
+	public int addNode(int id) {
+		if (this.myNodeIds == null) {
+			if (this.myNodeCount > 0) {
+				throw new IllegalStateException("Nodes were added without ids");
+			}
+			this.myNodeIds = new int[16];
+		} else if (this.myNodeCount == this.myNodeIds.length) {
+			this.myNodeIds = Arrays.copyOf(this.myNodeIds, this.myNodeCount
+					+ (this.myNodeCount >> 1) + 1);
+		}
+		this.myNodeIds[this.myNodeCount] = id;
+		return this.myNodeCount++;
+	}
+
+	/**
+	 * Set the source and sink of buildProblem()
+	 * 
+	 * @param source
+	 *            the source node index
+	 * @param sink
+	 *            the sink node index
+	 */
+	public void setTerminals(int source, int sink) {
+		this.mySource = source;
+		this.mySink = sink;
+	}
+
+	/**
+	 * Add an edge
+	 * 
+	 * @param start
+	 *            the start node index
+	 * @param end
+	 *            the end node index
+	 * @param length
+	 *            the length
+	 * @return the index of the new edge
+	 */
+	public int addEdge(int start, int end, double length) {
+		if (this.myEdgeCount == this.myEdgeStart.length) {
+			int capacity = this.myEdgeCount + (this.myEdgeCount >> 1) + 1;
+			this.myEdgeStart = Arrays.copyOf(this.myEdgeStart, capacity);
+			this.myEdgeEnd = Arrays.copyOf(this.myEdgeEnd, capacity);
+			this.myLengths = Arrays.copyOf(this.myLengths, capacity);
+		}
+		this.myEdgeStart[this.myEdgeCount] = start;
+		this.myEdgeEnd[this.myEdgeCount] = end;
+		this.myLengths[this.myEdgeCount] = length;
+		return this.myEdgeCount++;
+	}
+
+	/**
+	 * Build the graph, the builder is empty afterwards
+	 * 
+	 * @return the graph
+	 * @throws IllegalArgumentException
+	 *             if an edge refers to a missing node or has no positive
+	 *             length
+	 */
+	public PhysarumGraph build() {
+		int m = this.myEdgeCount;
+		int[] start = m == this.myEdgeStart.length ? this.myEdgeStart : Arrays
+				.copyOf(this.myEdgeStart, m);
+		int[] end = m == this.myEdgeEnd.length ? this.myEdgeEnd : Arrays
+				.copyOf(this.myEdgeEnd, m);
+		double[] lengths = m == this.myLengths.length ? this.myLengths
+				: Arrays.copyOf(this.myLengths, m);
+
+		int[] ids = this.myNodeIds != null ? Arrays.copyOf(this.myNodeIds,
+				this.myNodeCount) : PhysarumGraph.identity(this.myNodeCount);
+
+		this.myEdgeStart = new int[1];
+		this.myEdgeEnd = new int[1];
+		this.myLengths = new double[1];
+		this.myEdgeCount = 0;
+		this.myNodeIds = null;
+		this.myNodeCount = 0;
+
+		return new PhysarumGraph(ids, start, end, lengths, true);
+	}
+
+	/**
+	 * Build the graph together with the source and sink given to begin() or
+	 * setTerminals()
+	 * 
+	 * @return the problem
+	 */
+	public PhysarumProblem buildProblem() {
+		int source = this.mySource;
+		int sink = this.mySink;
+		return new PhysarumProblem(this.build(), source, sink);
+	}
+
+	public int getNodeCount() {
+		return this.myNodeCount;
+	}
+
+	public int getEdgeCount() {
+		return this.myEdgeCount;
+	}
+}
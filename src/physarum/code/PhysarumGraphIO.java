@@ -0,0 +1,209 @@
+/**
+ *    PhysarumGraphIO.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Reads and writes graphs in a compact binary format: a header with the node
+ * count and the terminals, one record per edge and an end marker. The edge
+ * count is not part of the header, so a graph can be written while it is
+ * generated.
+ * 
+ * @author Torsten
+ * 
+ */
+public final class PhysarumGraphIO {
+	/** "PHYG" */
+	public static final int MAGIC = 0x50485947;
+
+	/** Version of the format */
+	private static final int VERSION = 1;
+
+	/** The start node of the end marker */
+	private static final int END_MARKER = -1;
+
+	private PhysarumGraphIO() {
+	}
+
+	/**
+	 * Write a problem to a file
+	 * 
+	 * @param problem
+	 *            the problem
+	 * @param file
+	 *            the file
+	 * @throws IOException
+	 */
+	public static void write(PhysarumProblem problem, File file)
+			throws IOException {
+		Writer writer = new Writer(new FileOutputStream(file));
+		try {
+			copy(problem.getGraph(), problem.getSource(), problem.getSink(),
+					writer);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Pass a graph to a sink
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param source
+	 *            the source, -1 for none
+	 * @param sink
+	 *            the sink, -1 for none
+	 * @param out
+	 *            the sink
+	 * @throws IOException
+	 */
+	public static void copy(PhysarumGraph graph, int source, int sink,
+			GraphSink out) throws IOException {
+		out.begin(graph.getNodeCount(), source, sink);
+		for (int e = 0; e < graph.getEdgeCount(); e++) {
+			out.edge(graph.getEdgeStart(e), graph.getEdgeEnd(e),
+					graph.getLength(e));
+		}
+		out.end();
+	}
+
+	/**
+	 * Read a problem from a file
+	 * 
+	 * @param file
+	 *            the file
+	 * @return the problem
+	 * @throws IOException
+	 *             if the file can't be read or is no graph file
+	 */
+	public static PhysarumProblem read(File file) throws IOException {
+		PhysarumGraphBuilder builder = new PhysarumGraphBuilder(
+				(int) Math.min(Integer.MAX_VALUE - 8, file.length() / 16));
+		InputStream in = new FileInputStream(file);
+		try {
+			read(in, builder);
+		} finally {
+			in.close();
+		}
+		return builder.buildProblem();
+	}
+
+	/**
+	 * Read a graph from a stream and pass it to a sink
+	 * 
+	 * @param in
+	 *            the stream, not closed
+	 * @param out
+	 *            the sink
+	 * @throws IOException
+	 *             if the stream can't be read or holds no graph
+	 */
+	public static void read(InputStream in, GraphSink out) throws IOException {
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in,
+				1 << 16));
+		try {
+			if (data.readInt() != MAGIC) {
+				throw new IOException("No Physarum graph");
+			}
+			int version = data.readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported graph version " + version);
+			}
+			int nodeCount = data.readInt();
+			int source = data.readInt();
+			int sink = data.readInt();
+			out.begin(nodeCount, source, sink);
+			while (true) {
+				int start = data.readInt();
+				if (start == END_MARKER) {
+					break;
+				}
+				out.edge(start, data.readInt(), data.readDouble());
+			}
+			out.end();
+		} catch (EOFException e) {
+			throw new IOException("Graph is truncated", e);
+		}
+	}
+
+	/**
+	 * Writes a graph passed edge by edge to a stream
+	 */
+	public static class Writer implements GraphSink, Closeable {
+		/** The output */
+		private final DataOutputStream myOut;
+
+		/** True once end() was called */
+		private boolean myEnded = false;
+
+		/**
+		 * Creates a writer
+		 * 
+		 * @param out
+		 *            the stream, closed by close()
+		 */
+		public Writer(OutputStream out) {
+			this.myOut = new DataOutputStream(new BufferedOutputStream(out,
+					1 << 16));
+		}
+
+		@Override
+		public void begin(int nodeCount, int source, int sink)
+				throws IOException {
+			this.myOut.writeInt(MAGIC);
+			this.myOut.writeInt(VERSION);
+			this.myOut.writeInt(nodeCount);
+			this.myOut.writeInt(source);
+			this.myOut.writeInt(sink);
+		}
+
+		@Override
+		public void edge(int start, int end, double length) throws IOException {
+			if (start < 0) {
+				throw new IllegalArgumentException("Negative node index");
+			}
+			this.myOut.writeInt(start);
+			this.myOut.writeInt(end);
+			this.myOut.writeDouble(length);
+		}
+
+		@Override
+		public void end() throws IOException {
+			this.myOut.writeInt(END_MARKER);
+			this.myOut.flush();
+			this.myEnded = true;
+		}
+
+		/**
+		 * Close the stream, a graph without end() is left incomplete
+		 */
+		@Override
+		public void close() throws IOException {
+			try {
+				if (!this.myEnded) {
+					this.myOut.flush();
+				}
+			} finally {
+				this.myOut.close();
+			}
+		}
+	}
+}
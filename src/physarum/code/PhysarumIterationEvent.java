@@ -0,0 +1,69 @@
+/**
+ *    PhysarumIterationEvent.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of one iteration of the PhysarumSolver
+ * 
+ * @author Torsten
+ * 
+ */
+@Name("physarum.Iteration")
+@Label("Physarum Iteration")
+@Category("Physarum")
+@Description("One iteration of the PhysarumSolver")
+final class PhysarumIterationEvent extends Event {
+	/** The type of the event, to check if it is enabled without creating one */
+	private static final EventType TYPE = EventType
+			.getEventType(PhysarumIterationEvent.class);
+
+	@Label("Iteration")
+	int iteration;
+
+	@Label("Nodes")
+	int nodeCount;
+
+	@Label("Edges")
+	int edgeCount;
+
+	@Label("Unchanged Connections")
+	@Description("Edges whose conductivity changed less than the delta threshold")
+	int unchangedConnections;
+
+	@Label("Max Delta D")
+	@Description("The largest absolute conductivity change")
+	double maximumChange;
+
+	@Label("Relative Residual")
+	@Description("Norm of the conductivity changes relative to the norm of the conductivities")
+	double relativeResidual;
+
+	@Label("Pressure Residual")
+	@Description("Relative residual of the pressure solve, 0 for the dense solver")
+	double pressureResidual;
+
+	@Label("Inner Iterations")
+	@Description("Iterations of the pressure solver, 0 for the dense solver")
+	int innerIterations;
+
+	/**
+	 * Checks if iteration events are recorded
+	 * 
+	 * @return true if a recording enabled the event
+	 */
+	static boolean isTypeEnabled() {
+		return TYPE.isEnabled();
+	}
+}
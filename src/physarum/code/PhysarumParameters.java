@@ -0,0 +1,428 @@
+/**
+ *    PhysarumParameters.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+import physarum.code.PhysarumConnection.Q_Method;
+
+/**
+ * The settings of a PhysarumSolver run bundled into one value object, so a run
+ * can be described, compared and repeated without a solver instance. Two
+ * parameter objects are equal if a run with them on the same graph and
+ * terminals gives the same result.
+ * 
+ * @author Torsten
+ * 
+ */
+public class PhysarumParameters {
+	/** Greek mue */
+	private double myMue = 1.2;
+
+	/** The flux I0 entering at the source */
+	private double myI0 = 1.0;
+
+	/** The maximum iterations that the physarum solver is allowed to run */
+	private int myMaximumIterations = 50;
+
+	/** Minimum conductivity of a survived connection */
+	private double mySurvivalThreshold = 0.001;
+
+	/** Conductivity changes below this threshold count as unchanged */
+	private double myDeltaConductivityThreshold = 0.00001;
+
+	/** Initial conductivity minimum */
+	private double myConductivityMinimum = 0.5;
+
+	/** Initial conductivity maximum */
+	private double myConductivityMaximum = 1.0;
+
+	/** alpha, the decay rate of the conductivity */
+	private double myAlpha = 1.0;
+
+	/** The alpha of Q method TypeTwo */
+	private double myfQAlpha = 15.0;
+
+	/** Scales each conductivity update */
+	private double myWeightAdaption = 1.0;
+
+	/** The flux response used to update the conductivities */
+	private Q_Method myQMethod = Q_Method.TypeOne;
+
+	/** Seed of the random initial conductivities */
+	private long mySeed = 0L;
+
+	/** Store the values of a run in single precision */
+	private boolean mySinglePrecision = false;
+
+	/**
+	 * Creates parameters with the PhysarumSolver defaults
+	 */
+	public PhysarumParameters() {
+	}
+
+	/**
+	 * Creates a copy of the parameters
+	 * 
+	 * @return the copy
+	 */
+	public PhysarumParameters copy() {
+		PhysarumParameters copy = new PhysarumParameters();
+		copy.myMue = this.myMue;
+		copy.myI0 = this.myI0;
+		copy.myMaximumIterations = this.myMaximumIterations;
+		copy.mySurvivalThreshold = this.mySurvivalThreshold;
+		copy.myDeltaConductivityThreshold = this.myDeltaConductivityThreshold;
+		copy.myConductivityMinimum = this.myConductivityMinimum;
+		copy.myConductivityMaximum = this.myConductivityMaximum;
+		copy.myAlpha = this.myAlpha;
+		copy.myfQAlpha = this.myfQAlpha;
+		copy.myWeightAdaption = this.myWeightAdaption;
+		copy.myQMethod = this.myQMethod;
+		copy.mySeed = this.mySeed;
+		copy.mySinglePrecision = this.mySinglePrecision;
+		return copy;
+	}
+
+	/**
+	 * Apply the parameters to a solver, the initial conductivities of the
+	 * solver are not touched
+	 * 
+	 * @param solver
+	 *            the solver
+	 */
+	public void applyTo(PhysarumSolver solver) {
+		solver.setMue(this.myMue);
+		solver.setI0(this.myI0);
+		solver.setMaximumIterations(this.myMaximumIterations);
+		solver.setSurvivalThreshold(this.mySurvivalThreshold);
+		solver.setDeltaConductivityThreshold(this.myDeltaConductivityThreshold);
+		solver.setConductivityMinimum(this.myConductivityMinimum);
+		solver.setConductivityMaximum(this.myConductivityMaximum);
+		solver.setAlpha(this.myAlpha);
+		solver.setfQAlpha(this.myfQAlpha);
+		solver.setWeightAdaption(this.myWeightAdaption);
+		solver.setQMethod(this.myQMethod);
+	}
+
+	/**
+	 * Creates a solver on a graph with these parameters. The initial
+	 * conductivities are drawn from a random number generator seeded with the
+	 * seed of the parameters, so equal parameters give equal runs.
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param source
+	 *            the source node index
+	 * @param sink
+	 *            the sink node index
+	 * @return the solver, with logging disabled
+	 */
+	public PhysarumSolver createSolver(PhysarumGraph graph, int source, int sink) {
+		return this.createSolver(graph, source, sink, new Random(this.mySeed));
+	}
+
+	/**
+	 * Creates a solver on a graph with these parameters, the initial
+	 * conductivities are drawn from the given generator instead of the seed
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param source
+	 *            the source node index
+	 * @param sink
+	 *            the sink node index
+	 * @param random
+	 *            the generator of the initial conductivities
+	 * @return the solver, with logging disabled
+	 */
+	public PhysarumSolver createSolver(PhysarumGraph graph, int source,
+			int sink, RandomGenerator random) {
+		PhysarumState state = this.createState(graph);
+		state.setSource(source);
+		state.setSink(sink);
+		state.randomizeConductivities(random, this.myConductivityMinimum,
+				this.myConductivityMaximum);
+
+		PhysarumSolver solver = new PhysarumSolver(graph, state);
+		solver.enableLogging(false);
+		this.applyTo(solver);
+		return solver;
+	}
+
+	/**
+	 * Creates an empty state for a graph, in single precision if the
+	 * parameters ask for it. The state of an OffHeapPhysarumGraph is an
+	 * OffHeapPhysarumState in the storage of the graph, always in double
+	 * precision.
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @return a PhysarumState, FloatPhysarumState or OffHeapPhysarumState
+	 */
+	public PhysarumState createState(PhysarumGraph graph) {
+		if (graph instanceof OffHeapPhysarumGraph) {
+			try {
+				return new OffHeapPhysarumState(graph,
+						((OffHeapPhysarumGraph) graph).getStorage());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return this.mySinglePrecision ? new FloatPhysarumState(graph)
+				: new PhysarumState(graph);
+	}
+
+	/**
+	 * Give back the memory of a state created by createState once its run is
+	 * over. An OffHeapPhysarumState is released from the storage of its graph
+	 * at once, which otherwise holds it as long as the graph; other states
+	 * are left to the garbage collector. The state must not be used
+	 * afterwards.
+	 * 
+	 * @param state
+	 *            the state, may be null
+	 */
+	public static void releaseState(PhysarumState state) {
+		if (state instanceof OffHeapPhysarumState) {
+			((OffHeapPhysarumState) state).close();
+		}
+	}
+
+	/**
+	 * Write the parameters in binary form
+	 * 
+	 * @param out
+	 *            the output
+	 * @throws IOException
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeDouble(this.myMue);
+		out.writeDouble(this.myI0);
+		out.writeInt(this.myMaximumIterations);
+		out.writeDouble(this.mySurvivalThreshold);
+		out.writeDouble(this.myDeltaConductivityThreshold);
+		out.writeDouble(this.myConductivityMinimum);
+		out.writeDouble(this.myConductivityMaximum);
+		out.writeDouble(this.myAlpha);
+		out.writeDouble(this.myfQAlpha);
+		out.writeDouble(this.myWeightAdaption);
+		out.writeByte(this.myQMethod.ordinal());
+		out.writeLong(this.mySeed);
+		out.writeBoolean(this.mySinglePrecision);
+	}
+
+	/**
+	 * Read parameters written by writeTo
+	 * 
+	 * @param in
+	 *            the input
+	 * @return the parameters
+	 * @throws IOException
+	 */
+	public static PhysarumParameters readFrom(DataInput in) throws IOException {
+		PhysarumParameters parameters = new PhysarumParameters();
+		parameters.myMue = in.readDouble();
+		parameters.myI0 = in.readDouble();
+		parameters.myMaximumIterations = in.readInt();
+		parameters.mySurvivalThreshold = in.readDouble();
+		parameters.myDeltaConductivityThreshold = in.readDouble();
+		parameters.myConductivityMinimum = in.readDouble();
+		parameters.myConductivityMaximum = in.readDouble();
+		parameters.myAlpha = in.readDouble();
+		parameters.myfQAlpha = in.readDouble();
+		parameters.myWeightAdaption = in.readDouble();
+		int method = in.readByte();
+		if (method < 0 || method >= Q_Method.values().length) {
+			throw new IOException("Unknown Q method " + method);
+		}
+		parameters.myQMethod = Q_Method.values()[method];
+		parameters.mySeed = in.readLong();
+		parameters.mySinglePrecision = in.readBoolean();
+		return parameters;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PhysarumParameters)) {
+			return false;
+		}
+		PhysarumParameters other = (PhysarumParameters) obj;
+		return Double.compare(this.myMue, other.myMue) == 0
+				&& Double.compare(this.myI0, other.myI0) == 0
+				&& this.myMaximumIterations == other.myMaximumIterations
+				&& Double.compare(this.mySurvivalThreshold,
+						other.mySurvivalThreshold) == 0
+				&& Double.compare(this.myDeltaConductivityThreshold,
+						other.myDeltaConductivityThreshold) == 0
+				&& Double.compare(this.myConductivityMinimum,
+						other.myConductivityMinimum) == 0
+				&& Double.compare(this.myConductivityMaximum,
+						other.myConductivityMaximum) == 0
+				&& Double.compare(this.myAlpha, other.myAlpha) == 0
+				&& Double.compare(this.myfQAlpha, other.myfQAlpha) == 0
+				&& Double.compare(this.myWeightAdaption, other.myWeightAdaption) == 0
+				&& this.myQMethod == other.myQMethod
+				&& this.mySeed == other.mySeed
+				&& this.mySinglePrecision == other.mySinglePrecision;
+	}
+
+	@Override
+	public int hashCode() {
+		long h = Double.doubleToLongBits(this.myMue);
+		h = 31 * h + Double.doubleToLongBits(this.myI0);
+		h = 31 * h + this.myMaximumIterations;
+		h = 31 * h + Double.doubleToLongBits(this.mySurvivalThreshold);
+		h = 31 * h + Double.doubleToLongBits(this.myDeltaConductivityThreshold);
+		h = 31 * h + Double.doubleToLongBits(this.myConductivityMinimum);
+		h = 31 * h + Double.doubleToLongBits(this.myConductivityMaximum);
+		h = 31 * h + Double.doubleToLongBits(this.myAlpha);
+		h = 31 * h + Double.doubleToLongBits(this.myfQAlpha);
+		h = 31 * h + Double.doubleToLongBits(this.myWeightAdaption);
+		h = 31 * h + this.myQMethod.ordinal();
+		h = 31 * h + this.mySeed;
+		h = 31 * h + (this.mySinglePrecision ? 1 : 0);
+		return (int) (h ^ (h >>> 32));
+	}
+
+	@Override
+	public String toString() {
+		return "mue = " + this.myMue + "\tI0 = " + this.myI0
+				+ "\tmaxIterations = " + this.myMaximumIterations
+				+ "\tsurvival = " + this.mySurvivalThreshold + "\tdeltaD = "
+				+ this.myDeltaConductivityThreshold + "\tD0 = ["
+				+ this.myConductivityMinimum + ", "
+				+ this.myConductivityMaximum + "]\talpha = " + this.myAlpha
+				+ "\tfQAlpha = " + this.myfQAlpha + "\tweight = "
+				+ this.myWeightAdaption + "\tQ = " + this.myQMethod
+				+ "\tseed = " + this.mySeed
+				+ (this.mySinglePrecision ? "\tsingle precision" : "");
+	}
+
+	// ============================================================================================
+	// Getters and setters
+	// ============================================================================================
+
+	public double getMue() {
+		return myMue;
+	}
+
+	public void setMue(double mue) {
+		this.myMue = mue;
+	}
+
+	public double getI0() {
+		return myI0;
+	}
+
+	public void setI0(double i0) {
+		this.myI0 = i0;
+	}
+
+	public int getMaximumIterations() {
+		return myMaximumIterations;
+	}
+
+	public void setMaximumIterations(int iterations) {
+		this.myMaximumIterations = iterations;
+	}
+
+	public double getSurvivalThreshold() {
+		return mySurvivalThreshold;
+	}
+
+	public void setSurvivalThreshold(double threshold) {
+		this.mySurvivalThreshold = threshold;
+	}
+
+	public double getDeltaConductivityThreshold() {
+		return myDeltaConductivityThreshold;
+	}
+
+	public void setDeltaConductivityThreshold(double threshold) {
+		this.myDeltaConductivityThreshold = threshold;
+	}
+
+	public double getConductivityMinimum() {
+		return myConductivityMinimum;
+	}
+
+	public void setConductivityMinimum(double dMin) {
+		this.myConductivityMinimum = dMin;
+	}
+
+	public double getConductivityMaximum() {
+		return myConductivityMaximum;
+	}
+
+	public void setConductivityMaximum(double dMax) {
+		this.myConductivityMaximum = dMax;
+	}
+
+	public double getAlpha() {
+		return myAlpha;
+	}
+
+	public void setAlpha(double alpha) {
+		this.myAlpha = alpha;
+	}
+
+	public double getfQAlpha() {
+		return myfQAlpha;
+	}
+
+	public void setfQAlpha(double fQAlpha) {
+		this.myfQAlpha = fQAlpha;
+	}
+
+	public double getWeightAdaption() {
+		return myWeightAdaption;
+	}
+
+	public void setWeightAdaption(double weightAdaption) {
+		this.myWeightAdaption = weightAdaption;
+	}
+
+	public Q_Method getQMethod() {
+		return myQMethod;
+	}
+
+	public void setQMethod(Q_Method qMethod) {
+		this.myQMethod = qMethod;
+	}
+
+	public long getSeed() {
+		return mySeed;
+	}
+
+	public void setSeed(long seed) {
+		this.mySeed = seed;
+	}
+
+	public boolean isSinglePrecision() {
+		return mySinglePrecision;
+	}
+
+	/**
+	 * Store the fluxes and conductivities of the runs in single
+	 * precision, see FloatPhysarumState
+	 * 
+	 * @param singlePrecision
+	 */
+	public void setSinglePrecision(boolean singlePrecision) {
+		this.mySinglePrecision = singlePrecision;
+	}
+}
@@ -0,0 +1,207 @@
+/**
+ *    PhysarumPaths.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Extracts paths from the flux of a PhysarumState and finds the shortest
+ * paths the solver is measured against
+ * 
+ * @author Torsten
+ * 
+ */
+public final class PhysarumPaths {
+
+	private PhysarumPaths() {
+	}
+
+	/**
+	 * Find the path from the source to the sink whose smallest absolute flux
+	 * is as large as possible. On a converged run this is the survived path,
+	 * before that it is the path the flux favours so far.
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param state
+	 *            the state holding the fluxes and the terminals
+	 * @return the edge indexes from source to sink, empty if the sink can't
+	 *         be reached over edges with flux
+	 */
+	public static int[] widestFluxPath(PhysarumGraph graph, PhysarumState state) {
+		int source = state.getSource();
+		int sink = state.getSink();
+		int n = graph.getNodeCount();
+		if (source < 0 || sink < 0) {
+			return new int[0];
+		}
+
+		double[] width = new double[n];
+		int[] via = new int[n];
+		boolean[] done = new boolean[n];
+		Arrays.fill(via, -1);
+		width[source] = Double.POSITIVE_INFINITY;
+
+		// widest first
+		PriorityQueue<double[]> queue = new PriorityQueue<double[]>(16,
+				new Comparator<double[]>() {
+					@Override
+					public int compare(double[] a, double[] b) {
+						return Double.compare(b[0], a[0]);
+					}
+				});
+		queue.add(new double[] { Double.POSITIVE_INFINITY, source });
+		while (!queue.isEmpty()) {
+			int node = (int) queue.poll()[1];
+			if (done[node]) {
+				continue;
+			}
+			done[node] = true;
+			if (node == sink) {
+				break;
+			}
+			for (int k = 0; k < graph.getDegree(node); k++) {
+				int edge = graph.getAdjacentEdge(node, k);
+				int next = graph.getOtherEnd(edge, node);
+				double w = Math.min(width[node], Math.abs(state.getFlux(edge)));
+				if (!done[next] && w > width[next]) {
+					width[next] = w;
+					via[next] = edge;
+					queue.add(new double[] { w, next });
+				}
+			}
+		}
+
+		if (!done[sink] || source == sink) {
+			return new int[0];
+		}
+
+		return trace(graph, source, sink, via);
+	}
+
+	/**
+	 * Find the shortest path from the source to the sink with Dijkstra
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param source
+	 *            the source node index
+	 * @param sink
+	 *            the sink node index
+	 * @return the edge indexes from source to sink, empty if the sink can't
+	 *         be reached
+	 */
+	public static int[] shortestPath(PhysarumGraph graph, int source, int sink) {
+		return shortestPath(graph, source, sink, null);
+	}
+
+	/**
+	 * Find the shortest path from the source to the sink with Dijkstra, using
+	 * only some of the edges
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param source
+	 *            the source node index
+	 * @param sink
+	 *            the sink node index
+	 * @param usable
+	 *            true for the edges the path may use, null for all edges
+	 * @return the edge indexes from source to sink, empty if the sink can't
+	 *         be reached
+	 */
+	public static int[] shortestPath(PhysarumGraph graph, int source,
+			int sink, boolean[] usable) {
+		int n = graph.getNodeCount();
+		if (source < 0 || sink < 0 || source == sink) {
+			return new int[0];
+		}
+
+		double[] distance = new double[n];
+		int[] via = new int[n];
+		boolean[] done = new boolean[n];
+		Arrays.fill(distance, Double.POSITIVE_INFINITY);
+		Arrays.fill(via, -1);
+		distance[source] = 0.0;
+
+		// nearest first
+		PriorityQueue<double[]> queue = new PriorityQueue<double[]>(16,
+				new Comparator<double[]>() {
+					@Override
+					public int compare(double[] a, double[] b) {
+						return Double.compare(a[0], b[0]);
+					}
+				});
+		queue.add(new double[] { 0.0, source });
+		while (!queue.isEmpty()) {
+			int node = (int) queue.poll()[1];
+			if (done[node]) {
+				continue;
+			}
+			done[node] = true;
+			if (node == sink) {
+				break;
+			}
+			for (int k = 0; k < graph.getDegree(node); k++) {
+				int edge = graph.getAdjacentEdge(node, k);
+				if (usable != null && !usable[edge]) {
+					continue;
+				}
+				int next = graph.getOtherEnd(edge, node);
+				double d = distance[node] + graph.getLength(edge);
+				if (!done[next] && d < distance[next]) {
+					distance[next] = d;
+					via[next] = edge;
+					queue.add(new double[] { d, next });
+				}
+			}
+		}
+
+		if (!done[sink]) {
+			return new int[0];
+		}
+		return trace(graph, source, sink, via);
+	}
+
+	/**
+	 * Get the total length of a path
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param path
+	 *            the edge indexes
+	 * @return the sum of the edge lengths
+	 */
+	public static double getLength(PhysarumGraph graph, int[] path) {
+		double length = 0.0;
+		for (int edge : path) {
+			length += graph.getLength(edge);
+		}
+		return length;
+	}
+
+	/**
+	 * Follow the via edges back from the sink to the source
+	 */
+	private static int[] trace(PhysarumGraph graph, int source, int sink,
+			int[] via) {
+		int length = 0;
+		int[] path = new int[graph.getNodeCount()];
+		for (int node = sink; node != source; node = graph.getOtherEnd(
+				via[node], node)) {
+			path[length++] = via[node];
+		}
+		int[] result = new int[length];
+		for (int i = 0; i < length; i++) {
+			result[i] = path[length - 1 - i];
+		}
+		return result;
+	}
+}
@@ -0,0 +1,50 @@
+/**
+ *    PhysarumPhaseEvent.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of one phase of an iteration of the PhysarumSolver.
+ * There are several per iteration, so the event is disabled unless a
+ * recording setting enables physarum.Phase.
+ * 
+ * @author Torsten
+ * 
+ */
+@Name("physarum.Phase")
+@Label("Physarum Phase")
+@Category("Physarum")
+@Description("One phase of an iteration of the PhysarumSolver")
+@Enabled(false)
+final class PhysarumPhaseEvent extends Event {
+	/** The type of the event, to check if it is enabled without creating one */
+	private static final EventType TYPE = EventType
+			.getEventType(PhysarumPhaseEvent.class);
+
+	@Label("Iteration")
+	int iteration;
+
+	@Label("Phase")
+	String phase;
+
+	/**
+	 * Checks if phase events are recorded
+	 * 
+	 * @return true if a recording enabled the event
+	 */
+	static boolean isTypeEnabled() {
+		return TYPE.isEnabled();
+	}
+}
@@ -0,0 +1,77 @@
+/**
+ *    PhysarumProblem.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+/**
+ * A graph together with the source and the sink to connect
+ * 
+ * @author Torsten
+ * 
+ */
+public class PhysarumProblem {
+	/** The graph */
+	private final PhysarumGraph myGraph;
+
+	/** The source node index */
+	private final int mySource;
+
+	/** The sink node index */
+	private final int mySink;
+
+	/**
+	 * Creates a problem
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param source
+	 *            the source node index
+	 * @param sink
+	 *            the sink node index
+	 */
+	public PhysarumProblem(PhysarumGraph graph, int source, int sink) {
+		if (source < 0 || source >= graph.getNodeCount() || sink < 0
+				|| sink >= graph.getNodeCount()) {
+			throw new IllegalArgumentException(
+					"Source or sink outside of the graph");
+		}
+		this.myGraph = graph;
+		this.mySource = source;
+		this.mySink = sink;
+	}
+
+	/**
+	 * Creates a solver for the problem
+	 * 
+	 * @param parameters
+	 *            the parameters
+	 * @return the solver, with logging disabled
+	 */
+	public PhysarumSolver createSolver(PhysarumParameters parameters) {
+		return parameters.createSolver(this.myGraph, this.mySource,
+				this.mySink);
+	}
+
+	public PhysarumGraph getGraph() {
+		return myGraph;
+	}
+
+	public int getSource() {
+		return mySource;
+	}
+
+	public int getSink() {
+		return mySink;
+	}
+
+	@Override
+	public String toString() {
+		return "nodes = " + this.myGraph.getNodeCount() + "\tedges = "
+				+ this.myGraph.getEdgeCount() + "\tsource = " + this.mySource
+				+ "\tsink = " + this.mySink;
+	}
+}
@@ -0,0 +1,42 @@
+/**
+ *    PhysarumSolveEvent.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of a call of PhysarumSolver.solve
+ * 
+ * @author Torsten
+ * 
+ */
+@Name("physarum.Solve")
+@Label("Physarum Solve")
+@Category("Physarum")
+@Description("A call of PhysarumSolver.solve")
+final class PhysarumSolveEvent extends Event {
+	@Label("Nodes")
+	int nodeCount;
+
+	@Label("Edges")
+	int edgeCount;
+
+	@Label("Iterations")
+	@Description("The iteration count of the state after the call")
+	int iterations;
+
+	@Label("Converged")
+	boolean converged;
+
+	@Label("Cancelled")
+	boolean cancelled;
+}
@@ -7,10 +7,18 @@
  */
 package physarum.code;
 
+import java.io.File;
+import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.apache.commons.math3.linear.DecompositionSolver;
@@ -18,21 +26,40 @@ import org.apache.commons.math3.linear.MatrixUtils;
 import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.linear.SingularValueDecomposition;
 
+import physarum.code.PhysarumConnection.Q_Method;
+
 /**
  * The Physarum solver can find the shortest path between a source and a sink.
  * The solver needs to get a list of nodes and a list of connections between
  * these nodes It is implemented with respect to the TeroKobayashi2006 Paper
  * 
+ * Internally the solver works on an immutable PhysarumGraph and a PhysarumState
+ * holding the values of this run. Several solvers may share one graph, each
+ * with its own state. When the solver was created from PhysarumNodes and
+ * PhysarumConnections, their values are updated after every iteration.
+ * 
  * @author Torsten Schoen
  * 
  */
 public class PhysarumSolver {
-	/** A list holding the PhysarumConnections between the PhysarumNodes */
+	/**
+	 * A list holding the PhysarumConnections between the PhysarumNodes, empty
+	 * if the solver was created from a PhysarumGraph
+	 */
 	protected ArrayList<PhysarumConnection> myConnections = new ArrayList<PhysarumConnection>();
 
-	/** A list holding the PhysarumNodes */
+	/**
+	 * A list holding the PhysarumNodes, empty if the solver was created from a
+	 * PhysarumGraph
+	 */
 	protected ArrayList<PhysarumNode> myNodes = new ArrayList<PhysarumNode>();
 
+	/** The topology the solver runs on, may be shared with other solvers */
+	protected PhysarumGraph myGraph;
+
+	/** The values of this run */
+	protected PhysarumState myState;
+
 	/** Random instance to generate random numbers */
 	protected Random myRandom = new Random();
 
@@ -69,11 +96,67 @@ public class PhysarumSolver {
 	/** Turn logging on and off */
 	protected boolean myLoggingEnabled = true;
 
-	protected boolean firstRun = true;
-
 	protected double I0 = 1.0;
 
-	protected PhysarumConnection[][] connectionIndexTable;
+	/** alpha, the decay rate of the conductivity */
+	protected double myAlpha = 1.0;
+
+	/** The alpha of Q method TypeTwo */
+	protected double myfQAlpha = 15.0;
+
+	/** Scales each conductivity update */
+	protected double myWeightAdaption = 1.0;
+
+	/** The flux response used to update the conductivities */
+	protected Q_Method myQMethod = Q_Method.TypeOne;
+
+	/** The file checkpoints are written to, null if checkpointing is off */
+	protected File myCheckpointFile = null;
+
+	/** Write a checkpoint every myCheckpointInterval iterations */
+	protected int myCheckpointInterval = 0;
+
+	/** Background writer for checkpoints, exists only during solve() */
+	protected ExecutorService myCheckpointWriter = null;
+
+	/**
+	 * The newest checkpoint that still waits for the writer. Older snapshots
+	 * that have not been written yet are simply replaced.
+	 */
+	protected AtomicReference<PhysarumCheckpoint> myQueuedCheckpoint = new AtomicReference<PhysarumCheckpoint>();
+
+	/** The first error of the checkpoint writer */
+	protected AtomicReference<IOException> myCheckpointError = new AtomicReference<IOException>();
+
+	/** The listeners notified when a conductivity crosses myEventThreshold */
+	protected ConductivityThresholdListener[] myThresholdListeners = new ConductivityThresholdListener[0];
+
+	/** The threshold of the crossing events, NaN for the survival threshold */
+	protected double myEventThreshold = Double.NaN;
+
+	/** Decides when the run is finished */
+	protected ConvergenceCriterion myConvergenceCriterion = new MaximumChangeCriterion();
+
+	/** The figures of the last conductivity update */
+	protected IterationStatistics myStatistics = new IterationStatistics();
+
+	/** Solves the pressures, null for the dense decomposition */
+	protected PressureSolver myPressureSolver = null;
+
+	/** Notified after every iteration, may be null */
+	protected volatile ProgressListener myProgressListener = null;
+
+	/** The phase timers and counters, null if instrumentation is disabled */
+	protected volatile SolverMetrics myMetrics = null;
+
+	/** Receives the phase timings, may be null */
+	protected volatile SolverListener mySolverListener = null;
+
+	/** The flight recorder event of the running phase, null if not recorded */
+	private PhysarumPhaseEvent myPhaseEvent = null;
+
+	/** The inner iterations of the last pressure solve */
+	private int myLastInnerIterations = 0;
 
 	/**
 	 * The constructor called with nodes and connections
@@ -90,32 +173,62 @@ public class PhysarumSolver {
 		this.myNodes = nodes_in;
 		this.myConnections = connections_in;
 
-		this.initConnectionIndexTable();
+		// split them into the topology and the values of this run
+		this.myGraph = PhysarumGraph.fromConnections(nodes_in, connections_in);
+		this.myState = new PhysarumState(this.myGraph);
+		this.myState.readFrom(nodes_in, connections_in);
+
+		// the conductivity dynamics are taken from the connections
+		if (!connections_in.isEmpty()) {
+			PhysarumConnection con = connections_in.get(0);
+			this.myAlpha = con.getMyAlpha();
+			this.myfQAlpha = con.getMyfQAlpha();
+			this.myWeightAdaption = con.getMyWeightAdaption();
+			this.myQMethod = con.getMyQMethod();
+		}
 
 		this.logNodes();
 		this.logConnections();
 	}
 
 	/**
-	 * 2D Array holding the indexes of the connections to be easily available
+	 * The constructor called with a (possibly shared) graph. The conductivities
+	 * are initialized with random values between the conductivity minimum and
+	 * maximum.
+	 * 
+	 * @param graph
+	 *            The graph
+	 * @param source
+	 *            The source node index
+	 * @param sink
+	 *            The sink node index
 	 */
-	protected void initConnectionIndexTable() {
-		this.connectionIndexTable = new PhysarumConnection[this.myNodes.size() + 1][this.myNodes
-				.size() + 1];
-
-		for (int i = 0; i < this.connectionIndexTable.length; i++) {
-			for (int j = 0; j < this.connectionIndexTable[i].length; j++) {
-				this.connectionIndexTable[i][j] = null;
-			}
-		}
-
-		for (PhysarumConnection con : this.myConnections) {
+	public PhysarumSolver(PhysarumGraph graph, int source, int sink) {
+		this(graph, new PhysarumState(graph));
+		this.myState.setSource(source);
+		this.myState.setSink(sink);
+		this.myState.randomizeConductivities(this.myRandom,
+				this.myConductivityMinimum, this.myConductivityMaximum);
+	}
 
-			this.connectionIndexTable[this.myNodes.indexOf(con.getStartNode())][this.myNodes
-					.indexOf(con.getEndNode())] = con;
-			this.connectionIndexTable[this.myNodes.indexOf(con.getEndNode())][this.myNodes
-					.indexOf(con.getStartNode())] = con;
+	/**
+	 * The constructor called with a (possibly shared) graph and the state of
+	 * this run. The state is used as is, it must not be shared with another
+	 * solver.
+	 * 
+	 * @param graph
+	 *            The graph
+	 * @param state
+	 *            The state of the run
+	 */
+	public PhysarumSolver(PhysarumGraph graph, PhysarumState state) {
+		if (state.getNodeCount() != graph.getNodeCount()
+				|| state.getEdgeCount() != graph.getEdgeCount()) {
+			throw new IllegalArgumentException(
+					"The state does not match the graph");
 		}
+		this.myGraph = graph;
+		this.myState = state;
 	}
 
 	/**
@@ -125,87 +238,340 @@ public class PhysarumSolver {
 	 * @throws Exception
 	 */
 	public void solve() throws Exception {
+		this.solve(CancellationToken.NONE);
+	}
+
+	/**
+	 * Runs the PhysarumSolver logic until it converges, reaches the maximum
+	 * iterations or the token is cancelled. The token is checked between the
+	 * iterations and, with an iterative pressure solver, inside the pressure
+	 * solve. A cancelled run keeps the values of its last finished iteration
+	 * and can be continued by calling solve again.
+	 * 
+	 * @param token
+	 *            the token to stop the run early
+	 * @return what was found so far
+	 * @throws Exception
+	 */
+	public AnytimeResult solve(CancellationToken token) throws Exception {
+		// a restored run that had already converged has nothing left to do
+		if (this.myState.isConverged()) {
+			return new AnytimeResult(this, false);
+		}
+
+		// pick up values changed on the connection objects since the last run
+		if (!this.myConnections.isEmpty()) {
+			this.myState.readFrom(this.myNodes, this.myConnections);
+		}
+
+		if (this.myCheckpointFile != null) {
+			this.startCheckpointWriter();
+		}
+
+		this.myConvergenceCriterion.start(this);
+
+		PhysarumSolveEvent event = new PhysarumSolveEvent();
+		event.begin();
+
+		boolean finished = false;
+		Throwable failure = null;
+		try {
+			finished = this.runIterations(token);
+		} catch (Throwable t) {
+			failure = t;
+			throw t;
+		} finally {
+			this.myPhaseEvent = null;
+
+			if (event.shouldCommit()) {
+				event.nodeCount = this.myGraph.getNodeCount();
+				event.edgeCount = this.myGraph.getEdgeCount();
+				event.iterations = this.myState.getIteration();
+				event.converged = this.myState.isConverged();
+				event.cancelled = !finished;
+				event.commit();
+			}
+
+			// a failed write must not hide the error of the run itself
+			try {
+				this.stopCheckpointWriter();
+			} catch (IOException e) {
+				if (failure == null) {
+					throw e;
+				}
+				failure.addSuppressed(e);
+			}
+		}
+		return new AnytimeResult(this, !finished);
+	}
+
+	/**
+	 * The iteration loop of solve(), continues with the iteration stored in
+	 * the state
+	 * 
+	 * @param token
+	 *            checked between and within the iterations
+	 * @return false if the token stopped the run
+	 * @throws Exception
+	 */
+	protected boolean runIterations(CancellationToken token) throws Exception {
 		// run maximal myMaximumIterations iterations
-		for (int i = 0; i < this.myMaximumIterations; i++) {
+		for (int i = this.myState.getIteration(); i < this.myMaximumIterations; i++) {
+			// stop if the thread running the solver was interrupted
+			if (Thread.interrupted()) {
+				throw new InterruptedException(
+						"PhysarumSolver interrupted at iteration " + i);
+			}
+			if (token.isCancelled()) {
+				this.log("PhysarumSolver cancelled at iteration " + i + "\n");
+				return false;
+			}
+
+			// time the phases only if somebody looks at them
+			SolverMetrics metrics = this.myMetrics;
+			long time = 0;
+			if (metrics != null) {
+				metrics.iterationStarted();
+				time = System.nanoTime();
+			}
+			PhysarumIterationEvent iterationEvent = null;
+			if (PhysarumIterationEvent.isTypeEnabled()) {
+				iterationEvent = new PhysarumIterationEvent();
+				iterationEvent.begin();
+			}
+			if (PhysarumPhaseEvent.isTypeEnabled()) {
+				this.myPhaseEvent = new PhysarumPhaseEvent();
+				this.myPhaseEvent.begin();
+			}
+
 			// create log string
 			this.log("---------------------------------------------------\n");
 			this.log("          iteration " + i + "\n");
 			this.log("---------------------------------------------------\n");
+			time = this.phaseFinished(metrics, i, SolverPhase.LOGGING, time);
 
-			// build the lefthand side of the equation system holding the
-			// different Flux definitions for the pressures
-			// 0.7p1 + 0.1p2
-			double[][] lefthandSide = this
-					.buildLinearEquationSystemLefthandSide();
+			// solve the pressures of the nodes, the values of the last
+			// iteration are kept if the token stops the solve
+			try {
+				this.solvePressures(token);
+			} catch (CancellationException e) {
+				this.log("PhysarumSolver cancelled at iteration " + i + "\n");
+				return false;
+			}
+			if (metrics != null) {
+				time = System.nanoTime();
+			}
+
+			// set updated conductivity values
+			this.updateConductivities(this.myMue);
+			time = this.phaseFinished(metrics, i,
+					SolverPhase.CONDUCTIVITY_UPDATE, time);
+
+			// generate log output
+			this.logFlux();
+			this.log("---------------------------------------------------\n");
+			time = this.phaseFinished(metrics, i, SolverPhase.LOGGING, time);
+
+			// ask the criterion, by default if no connection changed more
+			// than myDeltaConductivityThreshold in this iteration
+			boolean converged = this.myConvergenceCriterion.isConverged(this,
+					this.myStatistics);
+			time = this.phaseFinished(metrics, i,
+					SolverPhase.CONVERGENCE_CHECK, time);
+
+			this.myState.setIteration(i + 1);
+
+			if (iterationEvent != null && iterationEvent.shouldCommit()) {
+				iterationEvent.iteration = i;
+				iterationEvent.nodeCount = this.myGraph.getNodeCount();
+				iterationEvent.edgeCount = this.myGraph.getEdgeCount();
+				iterationEvent.unchangedConnections = this.myStatistics
+						.getUnchangedCount();
+				iterationEvent.maximumChange = this.myStatistics
+						.getMaximumChange();
+				iterationEvent.relativeResidual = this.myStatistics
+						.getRelativeResidual();
+				iterationEvent.pressureResidual = this.myPressureSolver != null ? this.myPressureSolver
+						.getLastResidual() : 0.0;
+				iterationEvent.innerIterations = this.myLastInnerIterations;
+				iterationEvent.commit();
+			}
+
+			// if the run converged, the physarum solver is stopped
+			if (converged) {
+				this.log("PhysarumSolver stopped at iteration " + i + "\n");
+				this.myState.setConverged(true);
+				this.syncConnections();
+				this.checkpoint();
+				this.phaseFinished(metrics, i, SolverPhase.SYNC, time);
+				this.myPhaseEvent = null;
+				this.notifyProgress(metrics, i);
+				// stop solver
+				break;
+			}
+
+			this.syncConnections();
 
-			// build the righthand side of the equation system holding the flux
-			// sum
-			// -1 if it is a source node
-			// +1 of it is a sink node
-			// 0 otherwise
-			double[][] righthandSide = this
-					.buildLinearEquationSystemRighthandSide();
+			if (this.myCheckpointFile != null
+					&& ((i + 1) % this.myCheckpointInterval == 0 || i + 1 == this.myMaximumIterations)) {
+				this.checkpoint();
+			}
+			this.phaseFinished(metrics, i, SolverPhase.SYNC, time);
+			this.myPhaseEvent = null;
+			this.notifyProgress(metrics, i);
+		}
+		return true;
+	}
 
+	/**
+	 * Solve the pressures of the current conductivities, with the pressure
+	 * solver if one is set and with a dense singular value decomposition
+	 * otherwise
+	 * 
+	 * @param token
+	 *            checked while solving
+	 * @throws CancellationException
+	 *             if the token stopped the solve
+	 */
+	protected void solvePressures(CancellationToken token) throws Exception {
+		SolverMetrics metrics = this.myMetrics;
+		int iteration = this.myState.getIteration();
+		long time = metrics != null ? System.nanoTime() : 0;
+
+		if (this.myPressureSolver != null) {
+			int inner = this.myPressureSolver.solve(this.myGraph,
+					this.myState, this.I0, token);
+			this.myLastInnerIterations = inner;
+			if (metrics != null) {
+				metrics.pressureSolved(inner,
+						this.myPressureSolver.getLastResidual());
+			}
+			time = this.phaseFinished(metrics, iteration,
+					SolverPhase.LINEAR_SOLVE, time);
+			this.logNodes();
+			this.phaseFinished(metrics, iteration, SolverPhase.LOGGING, time);
+			return;
+		}
+
+		// build the lefthand side of the equation system holding the
+		// different Flux definitions for the pressures
+		// 0.7p1 + 0.1p2
+		double[][] lefthandSide = this.buildLinearEquationSystemLefthandSide();
+
+		// build the righthand side of the equation system holding the flux
+		// sum
+		// -1 if it is a source node
+		// +1 of it is a sink node
+		// 0 otherwise
+		double[][] righthandSide = this
+				.buildLinearEquationSystemRighthandSide();
+		time = this.phaseFinished(metrics, iteration, SolverPhase.ASSEMBLY,
+				time);
+
+		// the decomposition can't be interrupted, so check before it
+		if (token.isCancelled()) {
+			throw new CancellationException("Pressure solve cancelled");
+		}
+
+		try {
 			// create matrixes out of the 2D arrays
-			RealMatrix m = new Array2DRowRealMatrix(lefthandSide);
-			RealMatrix n = new Array2DRowRealMatrix(righthandSide);
+			RealMatrix m = new Array2DRowRealMatrix(lefthandSide, false);
+			RealMatrix n = new Array2DRowRealMatrix(righthandSide, false);
 
 			DecompositionSolver solver = new SingularValueDecomposition(m)
 					.getSolver();
 
 			RealMatrix c = solver.solve(n);
 
-			try {
-				RealMatrix pressures = MatrixUtils
-						.createRealMatrix(c.getData());
-
-				// set updated pressure values
-				this.updatePressureForNodes(pressures.getData());
-
-				// set updated conductivity values
-				this.updateConductivities(this.myMue);
-
-				// generate log output
-				this.print2DArray(lefthandSide, "eq");
-				this.log("\n");
-				this.print2DArray(righthandSide, "eq");
-				this.log("\n");
-				this.print2DArray(pressures.getData(), "p");
-				this.log("\n");
-				this.logFlux();
-				this.log("---------------------------------------------------\n");
-
-				// counting how many connections haven't changed their
-				// conductivity more that myDeltaConductivityThreshold
-				int nrUnchangedConnections = 0;
-
-				// count how many connections didn't change their conductivity
-				// more than myDeltaConductivityThreshold in this iteration
-				for (PhysarumConnection con : this.myConnections) {
-					if (Math.abs(con.getConductivityChange()) < this.myDeltaConductivityThreshold) {
-						nrUnchangedConnections++;
-					}
-				}
+			RealMatrix pressures = MatrixUtils.createRealMatrix(c.getData());
+			this.myLastInnerIterations = 0;
+			if (metrics != null) {
+				metrics.pressureSolved(0, 0.0);
+			}
+			time = this.phaseFinished(metrics, iteration,
+					SolverPhase.LINEAR_SOLVE, time);
+
+			// set updated pressure values
+			this.updatePressureForNodes(pressures.getData());
+			time = this.phaseFinished(metrics, iteration,
+					SolverPhase.PRESSURE_UPDATE, time);
+
+			// generate log output
+			this.print2DArray(lefthandSide, "eq");
+			this.log("\n");
+			this.print2DArray(righthandSide, "eq");
+			this.log("\n");
+			this.print2DArray(pressures.getData(), "p");
+			this.log("\n");
+			this.phaseFinished(metrics, iteration, SolverPhase.LOGGING, time);
+		} catch (Exception e) {
+			// log the exception message
+			this.log("<><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><>\n");
+			this.log(e.getMessage() + "\n");
+			this.print2DArray(lefthandSide, "eq");
+			this.log("\n");
+			this.print2DArray(righthandSide, "eq");
+			this.log("\n");
+			this.log("<><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><>\n");
+			throw e;
+		}
+	}
 
-				// if no connection changed within this iteration, the physarum
-				// solver converged and is stopped
-				if (nrUnchangedConnections >= myConnections.size()) {
-					this.log("PhysarumSolver stopped at iteration " + i + "\n");
-					// stop solver
-					break;
-				}
-			} catch (Exception e) {
-				// log the exception message
-				this.log("<><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><>\n");
-				this.log(e.getMessage() + "\n");
-				this.print2DArray(lefthandSide, "eq");
-				this.log("\n");
-				this.print2DArray(righthandSide, "eq");
-				this.log("\n");
-				this.log("<><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><><>\n");
-				throw e;
+	/**
+	 * Record the time of a phase if instrumentation is enabled and commit its
+	 * flight recorder event if phase events are recorded
+	 * 
+	 * @return the current time, to be used as start of the next phase
+	 */
+	private long phaseFinished(SolverMetrics metrics, int iteration,
+			SolverPhase phase, long start) {
+		PhysarumPhaseEvent event = this.myPhaseEvent;
+		if (event != null) {
+			event.iteration = iteration;
+			event.phase = phase.name();
+			event.commit();
+			// the next phase starts now
+			this.myPhaseEvent = new PhysarumPhaseEvent();
+			this.myPhaseEvent.begin();
+		}
+
+		if (metrics == null) {
+			return 0;
+		}
+		long now = System.nanoTime();
+		metrics.phaseFinished(phase, now - start);
+		SolverListener listener = this.mySolverListener;
+		if (listener != null) {
+			listener.phaseFinished(iteration, phase, now - start);
+		}
+		return now;
+	}
+
+	/**
+	 * Notify the metrics and the listeners about a finished iteration
+	 */
+	private void notifyProgress(SolverMetrics metrics, int iteration) {
+		if (metrics != null) {
+			metrics.iterationFinished(this.myStatistics);
+			SolverListener listener = this.mySolverListener;
+			if (listener != null) {
+				listener.iterationFinished(iteration, metrics);
 			}
 		}
+		ProgressListener listener = this.myProgressListener;
+		if (listener != null) {
+			listener.iterationFinished(this, this.myStatistics);
+		}
+	}
+
+	/**
+	 * Write the state back into the PhysarumNodes and PhysarumConnections, if
+	 * the solver was created from them
+	 */
+	protected void syncConnections() {
+		if (!this.myConnections.isEmpty()) {
+			this.myState.writeTo(this.myNodes, this.myConnections);
+		}
 	}
 
 	/**
@@ -229,7 +595,8 @@ public class PhysarumSolver {
 	/**
 	 * Returns the connections that survived after the PhysarumSolver has
 	 * terminated e.g. The connections which's conductivity is greater than the
-	 * survival threshold
+	 * survival threshold. If the solver was created from a PhysarumGraph, new
+	 * connection objects holding the current values are returned.
 	 * 
 	 * @return ArrayList<PhysarumConnection> survived connections
 	 */
@@ -237,31 +604,291 @@ public class PhysarumSolver {
 		// init an array list
 		ArrayList<PhysarumConnection> survived = new ArrayList<PhysarumConnection>();
 
-		for (PhysarumConnection con : this.myConnections) {
+		for (int e : this.getSurvivedEdges()) {
+			if (!this.myConnections.isEmpty()) {
+				survived.add(this.myConnections.get(e));
+			} else {
+				survived.add(this.createConnection(e));
+			}
+		}
+
+		return survived;
+	}
+
+	/**
+	 * Returns the indexes of the edges which's conductivity is greater than the
+	 * survival threshold
+	 * 
+	 * @return the survived edge indexes in ascending order
+	 */
+	public int[] getSurvivedEdges() {
+		int count = 0;
+		int[] survived = new int[this.myGraph.getEdgeCount()];
+
+		for (int e = 0; e < this.myGraph.getEdgeCount(); e++) {
 			// add connections where the conductivity is greater than the
 			// survival threshold
-			if (con.getConductivity_D() > this.mySurvivalThreshold) {
-				survived.add(con);
+			if (this.myState.getConductivity(e) > this.mySurvivalThreshold) {
+				survived[count++] = e;
 			}
 		}
 
-		return survived;
+		return Arrays.copyOf(survived, count);
 	}
 
 	/**
-	 * Updates the conductivities of the nodes, based on the mue value given
+	 * Creates a detached connection object holding the current values of an
+	 * edge
+	 * 
+	 * @param edge
+	 *            the edge index
+	 * @return the connection
+	 */
+	protected PhysarumConnection createConnection(int edge) {
+		PhysarumConnection con = new PhysarumConnection(
+				this.createNode(this.myGraph.getEdgeStart(edge)),
+				this.createNode(this.myGraph.getEdgeEnd(edge)));
+		con.setLength_L(this.myGraph.getLength(edge));
+		con.setFlux_Q(this.myState.getFlux(edge));
+		con.setConductivity_D(this.myState.getConductivity(edge));
+		con.setFormerConductivity_D(this.myState.getFormerConductivity(edge));
+		con.setMyAlpha(this.myAlpha);
+		con.setMyfQAlpha(this.myfQAlpha);
+		con.setMyWeightAdaption(this.myWeightAdaption);
+		con.setMyQMethod(this.myQMethod);
+		return con;
+	}
+
+	/**
+	 * Creates a detached node object holding the current values of a node
+	 * 
+	 * @param node
+	 *            the node index
+	 * @return the node
+	 */
+	protected PhysarumNode createNode(int node) {
+		PhysarumNode result = new PhysarumNode(this.myGraph.getNodeId(node));
+		if (this.myState.isSource(node)) {
+			result.setSource(true);
+		} else if (this.myState.isSink(node)) {
+			result.setSink(true);
+		}
+		result.setPressure(this.myState.getPressure(node));
+		return result;
+	}
+
+	/**
+	 * Updates the flux and the conductivity of every edge, based on the new
+	 * pressures and the mue value given
 	 * 
 	 * @param mue_in
 	 *            The mue of Q^mue
 	 */
 	protected void updateConductivities(double mue_in) {
+		PhysarumGraph graph = this.myGraph;
+		PhysarumState state = this.myState;
+		ConductivityThresholdListener[] listeners = this.myThresholdListeners;
+		double threshold = this.getEventThreshold();
+		int iteration = state.getIteration();
+		IterationStatistics statistics = this.myStatistics;
+		statistics.reset(iteration, graph.getEdgeCount());
+		int unchanged = 0;
+		int active = 0;
+		double maximumChange = 0;
+		double squaredChangeSum = 0;
+		double squaredConductivitySum = 0;
+
 		// for each connection
-		for (PhysarumConnection con : this.myConnections) {
-			// update the flux conductivity based on the new pressures
-			con.updateFluxAndConductivity(mue_in);
+		for (int e = 0; e < graph.getEdgeCount(); e++) {
+			double d = state.getConductivity(e);
+
+			// first, update the flux as the pressure values of the nodes have
+			// been changed
+			double q = (d / graph.getLength(e))
+					* (state.getPressure(graph.getEdgeStart(e)) - state
+							.getPressure(graph.getEdgeEnd(e)));
+
+			// keep the actual conductivity and update it:
+			// deltaD = f(Q) - alpha * D
+			double next = d + this.myWeightAdaption
+					* (PhysarumConnection.f_Q(this.myQMethod, this.myfQAlpha, q,
+							mue_in) - (this.myAlpha * d));
+			state.setFlux(e, q);
+			state.setFormerConductivity(e, d);
+			state.setConductivity(e, next);
+
+			// gather the figures the convergence criterion looks at
+			double change = Math.abs(next - d);
+			if (change < this.myDeltaConductivityThreshold) {
+				unchanged++;
+			}
+			if (next > this.mySurvivalThreshold) {
+				active++;
+			}
+			maximumChange = Math.max(maximumChange, change);
+			squaredChangeSum += change * change;
+			squaredConductivitySum += next * next;
+
+			// tell the listeners if the edge died or came back
+			if (listeners.length > 0
+					&& PhysarumConnection.crossesThreshold(d, next, threshold)) {
+				for (int l = 0; l < listeners.length; l++) {
+					listeners[l].thresholdCrossed(iteration, e, d, next);
+				}
+			}
+		}
+
+		statistics.myUnchangedCount = unchanged;
+		statistics.myActiveCount = active;
+		statistics.myMaximumChange = maximumChange;
+		statistics.mySquaredChangeSum = squaredChangeSum;
+		statistics.mySquaredConductivitySum = squaredConductivitySum;
+	}
+
+	/**
+	 * Add a listener that is notified during the conductivity update whenever
+	 * the conductivity of an edge crosses the event threshold
+	 * 
+	 * @param listener
+	 *            the listener
+	 */
+	public synchronized void addThresholdListener(
+			ConductivityThresholdListener listener) {
+		ConductivityThresholdListener[] listeners = Arrays.copyOf(
+				this.myThresholdListeners, this.myThresholdListeners.length + 1);
+		listeners[listeners.length - 1] = listener;
+		this.myThresholdListeners = listeners;
+	}
+
+	/**
+	 * Remove a listener added before
+	 * 
+	 * @param listener
+	 *            the listener
+	 */
+	public synchronized void removeThresholdListener(
+			ConductivityThresholdListener listener) {
+		for (int i = 0; i < this.myThresholdListeners.length; i++) {
+			if (this.myThresholdListeners[i] == listener) {
+				ConductivityThresholdListener[] listeners = new ConductivityThresholdListener[this.myThresholdListeners.length - 1];
+				System.arraycopy(this.myThresholdListeners, 0, listeners, 0, i);
+				System.arraycopy(this.myThresholdListeners, i + 1, listeners,
+						i, listeners.length - i);
+				this.myThresholdListeners = listeners;
+				return;
+			}
 		}
 	}
 
+	/**
+	 * Set the solver of the pressure equations
+	 * 
+	 * @param solver
+	 *            the solver, belonging to this solver only, or null for the
+	 *            dense singular value decomposition
+	 */
+	public void setPressureSolver(PressureSolver solver) {
+		this.myPressureSolver = solver;
+	}
+
+	public PressureSolver getPressureSolver() {
+		return this.myPressureSolver;
+	}
+
+	/**
+	 * Enable or disable the phase timers and counters. Disabled, the solver
+	 * doesn't even read the clock.
+	 * 
+	 * @param enabled
+	 *            true to record metrics
+	 */
+	public void enableMetrics(boolean enabled) {
+		if (!enabled) {
+			this.myMetrics = null;
+		} else if (this.myMetrics == null) {
+			this.myMetrics = new SolverMetrics();
+		}
+	}
+
+	/**
+	 * Get the metrics of the solver
+	 * 
+	 * @return the live metrics, null if disabled
+	 */
+	public SolverMetrics getMetrics() {
+		return this.myMetrics;
+	}
+
+	/**
+	 * Set the listener receiving the phase timings, enables the metrics
+	 * 
+	 * @param listener
+	 *            the listener or null
+	 */
+	public void setSolverListener(SolverListener listener) {
+		this.mySolverListener = listener;
+		if (listener != null) {
+			this.enableMetrics(true);
+		}
+	}
+
+	/**
+	 * Set the listener notified after every iteration
+	 * 
+	 * @param listener
+	 *            the listener or null
+	 */
+	public void setProgressListener(ProgressListener listener) {
+		this.myProgressListener = listener;
+	}
+
+	/**
+	 * Set the criterion that decides when a run is finished, by default a
+	 * MaximumChangeCriterion with the delta conductivity threshold
+	 * 
+	 * @param criterion
+	 *            the criterion, belonging to this solver only
+	 */
+	public void setConvergenceCriterion(ConvergenceCriterion criterion) {
+		if (criterion == null) {
+			throw new IllegalArgumentException("Convergence criterion is null");
+		}
+		this.myConvergenceCriterion = criterion;
+	}
+
+	public ConvergenceCriterion getConvergenceCriterion() {
+		return this.myConvergenceCriterion;
+	}
+
+	/**
+	 * Get the figures of the last conductivity update
+	 * 
+	 * @return the statistics, updated by every iteration
+	 */
+	public IterationStatistics getIterationStatistics() {
+		return this.myStatistics;
+	}
+
+	/**
+	 * Get the threshold of the crossing events
+	 * 
+	 * @return the event threshold, the survival threshold if none was set
+	 */
+	public double getEventThreshold() {
+		return Double.isNaN(this.myEventThreshold) ? this.mySurvivalThreshold
+				: this.myEventThreshold;
+	}
+
+	/**
+	 * Set the threshold of the crossing events
+	 * 
+	 * @param threshold
+	 *            the threshold, NaN to use the survival threshold
+	 */
+	public void setEventThreshold(double threshold) {
+		this.myEventThreshold = threshold;
+	}
+
 	/**
 	 * Set the calculated pressures to the nodes
 	 * 
@@ -269,11 +896,10 @@ public class PhysarumSolver {
 	 *            the new pressure values
 	 */
 	protected void updatePressureForNodes(double[][] calculatedPressures_in) {
-		// the position in the array is equal to the position in the node list
+		// the position in the array is equal to the node index
 		for (int i = 0; i < calculatedPressures_in.length; i++) {
 			// set new pressure value
-			myNodes.get(i).setPressure(calculatedPressures_in[i][0]);
-
+			this.myState.setPressure(i, calculatedPressures_in[i][0]);
 		}
 	}
 
@@ -285,29 +911,16 @@ public class PhysarumSolver {
 	 * @return the 2d matrix of the result values (which is only an array)
 	 */
 	protected double[][] buildLinearEquationSystemRighthandSide() {
-		// init empty matrix of size myNodes.size()+1 and 1
-		// myNodes.size()+1 => one equation for each node + one equation to set
-		// sink pressure to 0
-		double[][] matrix = new double[myNodes.size()][1];
-
-		// for each node
-		for (int i = 0; i < myNodes.size(); i++) {
-			PhysarumNode node = myNodes.get(i);
-			// if the node is a source, the result is -1
-			if (node.isSource()) {
-				double[] tmp = { this.I0 };
-				matrix[i] = tmp;
-			}
-			// if the node is a sink, the result is +1
-			else if (node.isSink()) {
-				double[] tmp = { (-1) * this.I0 };
-				matrix[i] = tmp;
-			}
-			// else, the result is 0
-			else {
-				double[] tmp = { 0 };
-				matrix[i] = tmp;
-			}
+		// one equation for each node
+		double[][] matrix = new double[this.myGraph.getNodeCount()][1];
+
+		// if the node is a source, the result is I0, if it is a sink -I0, all
+		// other results stay 0
+		if (this.myState.getSource() >= 0) {
+			matrix[this.myState.getSource()][0] = this.I0;
+		}
+		if (this.myState.getSink() >= 0) {
+			matrix[this.myState.getSink()][0] = (-1) * this.I0;
 		}
 
 		return matrix;
@@ -324,66 +937,349 @@ public class PhysarumSolver {
 	protected double[][] buildLinearEquationSystemLefthandSide() {
 		// build a matrix:
 		// in each row: each column is for one nodes pressure value
-		// the 2d array has one more row, for constants
-		double[][] matrix = new double[myNodes.size()][myNodes.size()];
+		int size = this.myGraph.getNodeCount();
+		double[][] matrix = new double[size][size];
+
+		// every connection adds its D/L fraction to the equations of both of
+		// its nodes
+		for (int e = 0; e < this.myGraph.getEdgeCount(); e++) {
+			int i = this.myGraph.getEdgeStart(e);
+			int j = this.myGraph.getEdgeEnd(e);
+			if (i == j) {
+				continue;
+			}
 
-		// iterate through nodes and nodes
-		for (int j = 0; j < myNodes.size(); j++) {
-			// list of pressures plus 1 entry for the constant I0
-			double[] pressures = new double[myNodes.size()];
+			double dlf = this.myState.getConductivity(e)
+					/ this.myGraph.getLength(e);
+			matrix[j][i] += dlf;
+			matrix[j][j] -= dlf;
+			matrix[i][j] += dlf;
+			matrix[i][i] -= dlf;
+		}
 
-			// init pressures with 0
-			for (int k = 0; k < pressures.length; k++) {
-				pressures[k] = 0.0;
+		// in the first run the sink pressure is fixed to 0
+		int sink = this.myState.getSink();
+		if (this.myState.isFirstRun() && sink >= 0) {
+			for (int j = 0; j < size; j++) {
+				matrix[j][sink] = 0.0;
 			}
+		}
 
-			for (int i = 0; i < myNodes.size(); i++) {
-				double dlf = this.getDLFraction(myNodes.get(i), myNodes.get(j));
-				pressures[i] += dlf;
-				pressures[j] -= dlf;
-			}
+		this.myState.setFirstRun(false);
+		return matrix;
+	}
 
-			for (int i = 0; i < myNodes.size(); i++) {
-				if (myNodes.get(i).isSink() && firstRun) {
-					pressures[i] = 0.0;
-				}
+	// ============================================================================================
+	// Edits
+	// ============================================================================================
+
+	/**
+	 * Change the graph of the run and keep what the run has reached: the
+	 * conductivities and pressures are carried over to the edited graph and
+	 * the next solve() starts from them with the full iteration budget. The
+	 * edge indexes change with the edit, see GraphEdit.toNewEdge; threshold
+	 * listeners registered by edge index have to be registered again.
+	 * 
+	 * @param edit
+	 *            an edit of the graph of this solver
+	 * @throws IllegalStateException
+	 *             if the solver was created from PhysarumNodes and
+	 *             PhysarumConnections
+	 */
+	public void applyEdit(GraphEdit edit) {
+		if (!this.myConnections.isEmpty()) {
+			throw new IllegalStateException(
+					"A solver created from connections can't be edited");
+		}
+		if (edit.getGraph() != this.myGraph) {
+			throw new IllegalArgumentException(
+					"The edit belongs to another graph");
+		}
+		PhysarumState state = edit.carryOver(this.myState);
+		this.myGraph = edit.apply();
+		this.myState = state;
+	}
+
+	/**
+	 * Change edge lengths in place, the cheap way for runs whose topology
+	 * stays: nothing is copied and the pressure solver keeps its setup. As
+	 * with a GraphEdit, conductivities below the floor are raised to it and
+	 * the next solve() starts with the full iteration budget. The graph of the
+	 * solver is changed, so it must not be shared.
+	 * 
+	 * @param edges
+	 *            the edges to change
+	 * @param lengths_L
+	 *            the new length of each edge
+	 * @param count
+	 *            the number of edges at the start of edges
+	 * @param conductivityFloor
+	 *            the smallest conductivity an edge keeps
+	 * @throws IllegalStateException
+	 *             if the solver was created from PhysarumNodes and
+	 *             PhysarumConnections
+	 */
+	public void updateLengths(int[] edges, double[] lengths_L, int count,
+			double conductivityFloor) {
+		if (!this.myConnections.isEmpty()) {
+			throw new IllegalStateException(
+					"A solver created from connections can't be edited");
+		}
+		for (int k = 0; k < count; k++) {
+			if (!(lengths_L[k] > 0) || Double.isInfinite(lengths_L[k])) {
+				throw new IllegalArgumentException("Length must be positive: "
+						+ lengths_L[k]);
+			}
+		}
+		for (int k = 0; k < count; k++) {
+			this.myGraph.setLength(edges[k], lengths_L[k]);
+		}
+		for (int e = 0; e < this.myGraph.getEdgeCount(); e++) {
+			if (this.myState.getConductivity(e) < conductivityFloor) {
+				this.myState.setConductivity(e, conductivityFloor);
 			}
+		}
+		this.myState.setIteration(0);
+		this.myState.setConverged(false);
+		if (this.myPressureSolver != null) {
+			this.myPressureSolver.lengthsChanged(this.myGraph, edges, count);
+		}
+	}
+
+	// ============================================================================================
+	// Checkpoints
+	// ============================================================================================
 
-			// add the pressure array to the result matrix
-			matrix[j] = pressures;
+	/**
+	 * Write a checkpoint to file every interval iterations while solving. The
+	 * state is copied on the solver thread and written in the background, so
+	 * iterations are not stalled by disk I/O.
+	 * 
+	 * @param file
+	 *            the checkpoint file, null to turn checkpointing off
+	 * @param interval
+	 *            number of iterations between two checkpoints
+	 */
+	public void enableCheckpointing(File file, int interval) {
+		if (file != null && interval <= 0) {
+			throw new IllegalArgumentException(
+					"Checkpoint interval must be positive");
 		}
+		this.myCheckpointFile = file;
+		this.myCheckpointInterval = interval;
+	}
 
-		firstRun = false;
-		return matrix;
+	/**
+	 * Restore the solver from a checkpoint written by a solver over the same
+	 * graph. The next call to solve() continues with the iteration after the
+	 * checkpoint.
+	 * 
+	 * @param file
+	 *            the checkpoint file
+	 * @throws IOException
+	 *             if the file can't be read or doesn't match the graph
+	 */
+	public void resumeFromCheckpoint(File file) throws IOException {
+		this.restoreCheckpoint(PhysarumCheckpoint.read(file));
 	}
 
 	/**
-	 * Get the DLFraction between the nodes i and j, if there is no connection,
-	 * return 0.0
+	 * Take a snapshot of the current dynamic state
 	 * 
-	 * @param i
-	 *            node 1
-	 * @param j
-	 *            node 2
-	 * @return the DLFraction of i and j or 0
+	 * @return the checkpoint
+	 */
+	public PhysarumCheckpoint createCheckpoint() {
+		PhysarumState state = this.myState;
+		PhysarumCheckpoint checkpoint = new PhysarumCheckpoint(
+				state.getNodeCount(), state.getEdgeCount());
+
+		checkpoint.setGraphFingerprint(this.myGraph.getFingerprint());
+		checkpoint.setIteration(state.getIteration());
+		checkpoint.setConverged(state.isConverged());
+		checkpoint.setFirstRun(state.isFirstRun());
+		checkpoint.setMue(this.myMue);
+		checkpoint.setI0(this.I0);
+		checkpoint.setMaximumIterations(this.myMaximumIterations);
+		checkpoint.setSurvivalThreshold(this.mySurvivalThreshold);
+		checkpoint.setDeltaConductivityThreshold(this.myDeltaConductivityThreshold);
+		checkpoint.setConductivityMinimum(this.myConductivityMinimum);
+		checkpoint.setConductivityMaximum(this.myConductivityMaximum);
+		checkpoint.setAlpha(this.myAlpha);
+		checkpoint.setfQAlpha(this.myfQAlpha);
+		checkpoint.setWeightAdaption(this.myWeightAdaption);
+		checkpoint.setQMethod(this.myQMethod);
+		checkpoint.setSource(state.getSource());
+		checkpoint.setSink(state.getSink());
+
+		double[] pressures = checkpoint.getPressures();
+		for (int n = 0; n < pressures.length; n++) {
+			pressures[n] = state.getPressure(n);
+		}
+
+		double[] conductivities = checkpoint.getConductivities();
+		double[] formerConductivities = checkpoint.getFormerConductivities();
+		double[] fluxes = checkpoint.getFluxes();
+		for (int e = 0; e < conductivities.length; e++) {
+			conductivities[e] = state.getConductivity(e);
+			formerConductivities[e] = state.getFormerConductivity(e);
+			fluxes[e] = state.getFlux(e);
+		}
+
+		return checkpoint;
+	}
+
+	/**
+	 * Restore the dynamic state from a checkpoint
+	 * 
+	 * @param checkpoint
+	 *            the checkpoint
+	 * @throws IOException
+	 *             if the checkpoint doesn't match the graph or the source and
+	 *             sink of the solver
+	 */
+	public void restoreCheckpoint(PhysarumCheckpoint checkpoint)
+			throws IOException {
+		PhysarumState state = this.myState;
+		if (checkpoint.getPressures().length != state.getNodeCount()
+				|| checkpoint.getConductivities().length != state
+						.getEdgeCount()) {
+			throw new IOException("Checkpoint holds "
+					+ checkpoint.getPressures().length + " nodes and "
+					+ checkpoint.getConductivities().length
+					+ " connections, the solver " + state.getNodeCount()
+					+ " nodes and " + state.getEdgeCount() + " connections");
+		}
+		if (checkpoint.getGraphFingerprint() != this.myGraph.getFingerprint()) {
+			throw new IOException("Checkpoint was taken on another graph");
+		}
+		if (checkpoint.getSource() != state.getSource()
+				|| checkpoint.getSink() != state.getSink()) {
+			throw new IOException("Checkpoint runs from " + checkpoint.getSource()
+					+ " to " + checkpoint.getSink() + ", the solver from "
+					+ state.getSource() + " to " + state.getSink());
+		}
+
+		state.setIteration(checkpoint.getIteration());
+		state.setConverged(checkpoint.isConverged());
+		state.setFirstRun(checkpoint.isFirstRun());
+		this.myMue = checkpoint.getMue();
+		this.I0 = checkpoint.getI0();
+		this.myMaximumIterations = checkpoint.getMaximumIterations();
+		this.mySurvivalThreshold = checkpoint.getSurvivalThreshold();
+		this.myDeltaConductivityThreshold = checkpoint
+				.getDeltaConductivityThreshold();
+		this.myConductivityMinimum = checkpoint.getConductivityMinimum();
+		this.myConductivityMaximum = checkpoint.getConductivityMaximum();
+		this.myAlpha = checkpoint.getAlpha();
+		this.myfQAlpha = checkpoint.getfQAlpha();
+		this.myWeightAdaption = checkpoint.getWeightAdaption();
+		this.myQMethod = checkpoint.getQMethod();
+
+		double[] pressures = checkpoint.getPressures();
+		for (int n = 0; n < pressures.length; n++) {
+			state.setPressure(n, pressures[n]);
+		}
+
+		double[] conductivities = checkpoint.getConductivities();
+		double[] formerConductivities = checkpoint.getFormerConductivities();
+		double[] fluxes = checkpoint.getFluxes();
+		for (int e = 0; e < conductivities.length; e++) {
+			state.setConductivity(e, conductivities[e]);
+			state.setFormerConductivity(e, formerConductivities[e]);
+			state.setFlux(e, fluxes[e]);
+		}
+
+		this.syncConnections();
+
+		this.log("PhysarumSolver resumed at iteration " + state.getIteration()
+				+ "\n");
+	}
+
+	/**
+	 * Hand a snapshot of the current state to the background writer
+	 */
+	protected void checkpoint() {
+		if (this.myCheckpointWriter == null) {
+			return;
+		}
+
+		// only schedule a write if no older snapshot is still waiting, the
+		// waiting task will then pick up this newer one
+		if (this.myQueuedCheckpoint.getAndSet(this.createCheckpoint()) == null) {
+			this.myCheckpointWriter.execute(new Runnable() {
+				@Override
+				public void run() {
+					writeQueuedCheckpoint();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Write the newest queued checkpoint, runs on the writer thread
 	 */
-	protected double getDLFraction(PhysarumNode i, PhysarumNode j) {
-		// if the nodes are the same, the dlfraction is 0
-		if (i == j) {
-			return 0.0;
+	protected void writeQueuedCheckpoint() {
+		PhysarumCheckpoint checkpoint = this.myQueuedCheckpoint.getAndSet(null);
+		if (checkpoint == null) {
+			return;
+		}
+
+		try {
+			checkpoint.write(this.myCheckpointFile);
+		} catch (IOException e) {
+			this.myCheckpointError.compareAndSet(null, e);
 		}
+	}
 
-		// if the is no connection, the fraction is 0
-		double fraction = 0.0;
+	/**
+	 * Start the background checkpoint writer
+	 */
+	protected void startCheckpointWriter() {
+		this.myCheckpointError.set(null);
+		this.myCheckpointWriter = Executors
+				.newSingleThreadExecutor(new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, "PhysarumCheckpointWriter");
+						t.setDaemon(true);
+						return t;
+					}
+				});
+	}
 
-		PhysarumConnection con = this.connectionIndexTable[myNodes.indexOf(i)][myNodes
-				.indexOf(j)];
+	/**
+	 * Wait for pending checkpoint writes and stop the writer
+	 * 
+	 * @throws IOException
+	 *             if a checkpoint could not be written
+	 */
+	protected void stopCheckpointWriter() throws IOException {
+		if (this.myCheckpointWriter == null) {
+			return;
+		}
 
-		if (con != null) {
-			fraction = con.getDLFraction();
+		try {
+			// the executor runs tasks in order, so this returns once all
+			// earlier writes are done
+			this.myCheckpointWriter.submit(new Runnable() {
+				@Override
+				public void run() {
+					writeQueuedCheckpoint();
+				}
+			}).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		} finally {
+			this.myCheckpointWriter.shutdown();
+			this.myCheckpointWriter = null;
 		}
 
-		return fraction;
+		IOException error = this.myCheckpointError.getAndSet(null);
+		if (error != null) {
+			throw error;
+		}
 	}
 
 	// ============================================================================================
@@ -516,6 +1412,133 @@ public class PhysarumSolver {
 		I0 = i0;
 	}
 
+	/**
+	 * Get DeltaConductivityThreshold
+	 * 
+	 * @return myDeltaConductivityThreshold
+	 */
+	public double getDeltaConductivityThreshold() {
+		return this.myDeltaConductivityThreshold;
+	}
+
+	/**
+	 * Set the threshold below which a conductivity change counts as unchanged
+	 * 
+	 * @param threshold
+	 */
+	public void setDeltaConductivityThreshold(double threshold) {
+		this.myDeltaConductivityThreshold = threshold;
+	}
+
+	/**
+	 * Get alpha
+	 * 
+	 * @return myAlpha
+	 */
+	public double getAlpha() {
+		return this.myAlpha;
+	}
+
+	/**
+	 * Set alpha, the decay rate of the conductivity
+	 * 
+	 * @param alpha
+	 */
+	public void setAlpha(double alpha) {
+		this.myAlpha = alpha;
+	}
+
+	/**
+	 * Get the alpha of Q method TypeTwo
+	 * 
+	 * @return myfQAlpha
+	 */
+	public double getfQAlpha() {
+		return this.myfQAlpha;
+	}
+
+	/**
+	 * Set the alpha of Q method TypeTwo
+	 * 
+	 * @param fQAlpha
+	 */
+	public void setfQAlpha(double fQAlpha) {
+		this.myfQAlpha = fQAlpha;
+	}
+
+	/**
+	 * Get the weight adaption
+	 * 
+	 * @return myWeightAdaption
+	 */
+	public double getWeightAdaption() {
+		return this.myWeightAdaption;
+	}
+
+	/**
+	 * Set the factor each conductivity update is scaled with
+	 * 
+	 * @param weightAdaption
+	 */
+	public void setWeightAdaption(double weightAdaption) {
+		this.myWeightAdaption = weightAdaption;
+	}
+
+	/**
+	 * Get the Q method
+	 * 
+	 * @return myQMethod
+	 */
+	public Q_Method getQMethod() {
+		return this.myQMethod;
+	}
+
+	/**
+	 * Set the Q method used to update the conductivities
+	 * 
+	 * @param qMethod
+	 */
+	public void setQMethod(Q_Method qMethod) {
+		this.myQMethod = qMethod;
+	}
+
+	/**
+	 * Get the graph the solver runs on
+	 * 
+	 * @return myGraph
+	 */
+	public PhysarumGraph getGraph() {
+		return this.myGraph;
+	}
+
+	/**
+	 * Get the state of this run
+	 * 
+	 * @return myState
+	 */
+	public PhysarumState getState() {
+		return this.myState;
+	}
+
+	/**
+	 * Get the number of iterations run so far
+	 * 
+	 * @return
+	 */
+	public int getIterationCount() {
+		return this.myState.getIteration();
+	}
+
+	/**
+	 * Returns true if the last solve() stopped because no conductivity changed
+	 * any more
+	 * 
+	 * @return
+	 */
+	public boolean isConverged() {
+		return this.myState.isConverged();
+	}
+
 	// ============================================================================================
 	// Log methods
 	// ============================================================================================
@@ -536,11 +1559,18 @@ public class PhysarumSolver {
 	 * builds a log output of myConnections
 	 */
 	protected void logConnections() {
+		if (!this.myLoggingEnabled) {
+			return;
+		}
+
 		this.log("<======================================================================>\n");
 		this.log("Connections:\n");
 
-		for (PhysarumConnection con : this.myConnections) {
-			this.log(con.getDetailedDescription() + "\n");
+		for (int e = 0; e < this.myGraph.getEdgeCount(); e++) {
+			this.log(this.myGraph.getEdgeDescription(e) + "\tQ = "
+					+ this.myState.getFlux(e) + "\tL = "
+					+ this.myGraph.getLength(e) + "\tD = "
+					+ this.myState.getConductivity(e) + "\n");
 		}
 
 		this.log("<======================================================================>\n");
@@ -550,11 +1580,19 @@ public class PhysarumSolver {
 	 * Builds a log output of myNodes
 	 */
 	protected void logNodes() {
+		if (!this.myLoggingEnabled) {
+			return;
+		}
+
 		this.log("<======================================================================>\n");
 		this.log("Nodes:\n");
 
-		for (PhysarumNode node : this.myNodes) {
-			this.log(node.getDescription() + "\n");
+		for (int n = 0; n < this.myGraph.getNodeCount(); n++) {
+			String type = this.myState.isSource(n) ? "SOURCE" : (this.myState
+					.isSink(n) ? "SINK" : "NORMAL");
+			this.log("Node: id = " + this.myGraph.getNodeId(n) + "\t"
+					+ "pressure = " + this.myState.getPressure(n) + "\t"
+					+ type + "\n");
 		}
 
 		this.log("<======================================================================>\n");
@@ -564,15 +1602,20 @@ public class PhysarumSolver {
 	 * Log the new Flux values
 	 */
 	protected void logFlux() {
+		if (!this.myLoggingEnabled) {
+			return;
+		}
+
 		// define the format
 		DecimalFormat f = new DecimalFormat("#0.00000");
 
-		for (PhysarumConnection con : this.myConnections) {
-			this.log(con.getDescription() + ", Q = "
-					+ f.format(con.getFlux_Q()) + "\tD = "
-					+ f.format(con.getConductivity_D()) + "\tdeltaD = "
-					+ f.format(con.getConductivityChange()) + "\tL = "
-					+ con.getLength_L() + "\n");
+		for (int e = 0; e < this.myGraph.getEdgeCount(); e++) {
+			this.log(this.myGraph.getEdgeDescription(e) + ", Q = "
+					+ f.format(this.myState.getFlux(e)) + "\tD = "
+					+ f.format(this.myState.getConductivity(e))
+					+ "\tdeltaD = "
+					+ f.format(this.myState.getConductivityChange(e))
+					+ "\tL = " + this.myGraph.getLength(e) + "\n");
 		}
 	}
-}
+}
\ No newline at end of file
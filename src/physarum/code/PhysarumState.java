@@ -0,0 +1,363 @@
+/**
+ *    PhysarumState.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * The per-run state of a Physarum solver on a PhysarumGraph: the pressure of
+ * each node, the flux, conductivity and former conductivity of each edge, the
+ * source and sink node and the progress of the run. The values are held in
+ * primitive arrays indexed like the nodes and edges of the graph, so a run
+ * costs a few small arrays instead of a copy of the graph. Subclasses may
+ * store the values differently, e.g. FloatPhysarumState in single precision,
+ * by overriding the getters and setters of the values and newState.
+ * 
+ * @author Torsten
+ * 
+ */
+public class PhysarumState {
+	/** The number of nodes */
+	private final int myNodeCount;
+
+	/** The number of edges */
+	private final int myEdgeCount;
+
+	/** The pressure of each node, null if a subclass stores the values */
+	private final double[] myPressure;
+
+	/** The flux Q of each edge */
+	private final double[] myFlux;
+
+	/** The conductivity D of each edge */
+	private final double[] myConductivity;
+
+	/** The conductivity of each edge before the last update */
+	private final double[] myFormerConductivity;
+
+	/** The source node index, -1 if there is none */
+	private int mySource = -1;
+
+	/** The sink node index, -1 if there is none */
+	private int mySink = -1;
+
+	/** The number of iterations run so far */
+	private int myIteration = 0;
+
+	/** True until the first iteration has been run */
+	private boolean myFirstRun = true;
+
+	/** True once the run converged */
+	private boolean myConverged = false;
+
+	/**
+	 * Creates an empty state for a graph, all values are 0
+	 * 
+	 * @param graph
+	 *            the graph
+	 */
+	public PhysarumState(PhysarumGraph graph) {
+		this(graph.getNodeCount(), graph.getEdgeCount());
+	}
+
+	/**
+	 * Creates an empty state, all values are 0
+	 * 
+	 * @param nodeCount
+	 *            The number of nodes
+	 * @param edgeCount
+	 *            The number of edges
+	 */
+	public PhysarumState(int nodeCount, int edgeCount) {
+		this(nodeCount, edgeCount, true);
+	}
+
+	/**
+	 * Creates a state, for subclasses that store the values themselves
+	 * 
+	 * @param nodeCount
+	 *            The number of nodes
+	 * @param edgeCount
+	 *            The number of edges
+	 * @param allocate
+	 *            false if the subclass stores the values and overrides their
+	 *            getters and setters
+	 */
+	protected PhysarumState(int nodeCount, int edgeCount, boolean allocate) {
+		this.myNodeCount = nodeCount;
+		this.myEdgeCount = edgeCount;
+		this.myPressure = allocate ? new double[nodeCount] : null;
+		this.myFlux = allocate ? new double[edgeCount] : null;
+		this.myConductivity = allocate ? new double[edgeCount] : null;
+		this.myFormerConductivity = allocate ? new double[edgeCount] : null;
+	}
+
+	/**
+	 * Creates an empty state that stores its values like this one
+	 * 
+	 * @param nodeCount
+	 *            The number of nodes
+	 * @param edgeCount
+	 *            The number of edges
+	 * @return the state, all values are 0
+	 */
+	public PhysarumState newState(int nodeCount, int edgeCount) {
+		return new PhysarumState(nodeCount, edgeCount);
+	}
+
+	/**
+	 * Creates a deep copy of the state
+	 * 
+	 * @return the copy
+	 */
+	public PhysarumState copy() {
+		PhysarumState copy = this.newState(this.getNodeCount(),
+				this.getEdgeCount());
+		copy.copyFrom(this);
+		return copy;
+	}
+
+	/**
+	 * Overwrite this state with the values of another state of the same size
+	 * 
+	 * @param other
+	 *            the state to copy
+	 */
+	public void copyFrom(PhysarumState other) {
+		if (other.getNodeCount() != this.getNodeCount()
+				|| other.getEdgeCount() != this.getEdgeCount()) {
+			throw new IllegalArgumentException("State sizes differ");
+		}
+
+		for (int n = 0; n < this.getNodeCount(); n++) {
+			this.setPressure(n, other.getPressure(n));
+		}
+		for (int e = 0; e < this.getEdgeCount(); e++) {
+			this.setFlux(e, other.getFlux(e));
+			this.setConductivity(e, other.getConductivity(e));
+			this.setFormerConductivity(e, other.getFormerConductivity(e));
+		}
+
+		this.mySource = other.mySource;
+		this.mySink = other.mySink;
+		this.myIteration = other.myIteration;
+		this.myFirstRun = other.myFirstRun;
+		this.myConverged = other.myConverged;
+	}
+
+	/**
+	 * Set every conductivity to the same value
+	 * 
+	 * @param conductivity_D
+	 *            the conductivity
+	 */
+	public void initConductivities(double conductivity_D) {
+		for (int e = 0; e < this.getEdgeCount(); e++) {
+			this.setConductivity(e, conductivity_D);
+			this.setFormerConductivity(e, 0.0);
+		}
+	}
+
+	/**
+	 * Set the conductivities to random values in the range between min and max
+	 * 
+	 * @param random
+	 *            the random number generator
+	 * @param min_in
+	 *            lower bound
+	 * @param max_in
+	 *            upper bound
+	 */
+	public void randomizeConductivities(RandomGenerator random, double min_in,
+			double max_in) {
+		for (int e = 0; e < this.getEdgeCount(); e++) {
+			this.setConductivity(e, min_in + random.nextDouble()
+					* (max_in - min_in));
+			this.setFormerConductivity(e, 0.0);
+		}
+	}
+
+	/**
+	 * Take over the pressures, fluxes, conductivities and the source and sink
+	 * flags of PhysarumNodes and PhysarumConnections. The lists must be the
+	 * ones the graph of this state was created from.
+	 * 
+	 * @param nodes
+	 *            the nodes
+	 * @param connections
+	 *            the connections
+	 */
+	public void readFrom(List<? extends PhysarumNode> nodes,
+			List<? extends PhysarumConnection> connections) {
+		this.mySource = -1;
+		this.mySink = -1;
+
+		for (int n = 0; n < nodes.size(); n++) {
+			PhysarumNode node = nodes.get(n);
+			this.setPressure(n, node.getPressure());
+			if (node.isSource() && this.mySource < 0) {
+				this.mySource = n;
+			} else if (node.isSink() && this.mySink < 0) {
+				this.mySink = n;
+			}
+		}
+
+		for (int e = 0; e < connections.size(); e++) {
+			PhysarumConnection con = connections.get(e);
+			this.setFlux(e, con.getFlux_Q());
+			this.setConductivity(e, con.getConductivity_D());
+			this.setFormerConductivity(e, con.getFormerConductivity_D());
+		}
+	}
+
+	/**
+	 * Write the pressures, fluxes and conductivities back into PhysarumNodes
+	 * and PhysarumConnections
+	 * 
+	 * @param nodes
+	 *            the nodes
+	 * @param connections
+	 *            the connections
+	 */
+	public void writeTo(List<? extends PhysarumNode> nodes,
+			List<? extends PhysarumConnection> connections) {
+		for (int n = 0; n < nodes.size(); n++) {
+			nodes.get(n).setPressure(this.getPressure(n));
+		}
+
+		for (int e = 0; e < connections.size(); e++) {
+			PhysarumConnection con = connections.get(e);
+			con.setFlux_Q(this.getFlux(e));
+			con.setConductivity_D(this.getConductivity(e));
+			con.setFormerConductivity_D(this.getFormerConductivity(e));
+		}
+	}
+
+	// ============================================================================================
+	// Getters and setters
+	// ============================================================================================
+
+	/**
+	 * Get the number of nodes
+	 * 
+	 * @return
+	 */
+	public int getNodeCount() {
+		return this.myNodeCount;
+	}
+
+	/**
+	 * Get the number of edges
+	 * 
+	 * @return
+	 */
+	public int getEdgeCount() {
+		return this.myEdgeCount;
+	}
+
+	/**
+	 * Get the memory taken by the pressures, fluxes and conductivities
+	 * 
+	 * @return the size of the value arrays in bytes
+	 */
+	public long getValueBytes() {
+		return 8L * this.myNodeCount + 24L * this.myEdgeCount;
+	}
+
+	public double getPressure(int node) {
+		return this.myPressure[node];
+	}
+
+	public void setPressure(int node, double p) {
+		this.myPressure[node] = p;
+	}
+
+	public double getFlux(int edge) {
+		return this.myFlux[edge];
+	}
+
+	public void setFlux(int edge, double flux_Q) {
+		this.myFlux[edge] = flux_Q;
+	}
+
+	public double getConductivity(int edge) {
+		return this.myConductivity[edge];
+	}
+
+	public void setConductivity(int edge, double conductivity_D) {
+		this.myConductivity[edge] = conductivity_D;
+	}
+
+	public double getFormerConductivity(int edge) {
+		return this.myFormerConductivity[edge];
+	}
+
+	public void setFormerConductivity(int edge, double conductivity_D) {
+		this.myFormerConductivity[edge] = conductivity_D;
+	}
+
+	/**
+	 * Get the change of the conductivity of an edge in the last update
+	 * 
+	 * @param edge
+	 *            the edge index
+	 * @return
+	 */
+	public double getConductivityChange(int edge) {
+		return this.getConductivity(edge) - this.getFormerConductivity(edge);
+	}
+
+	public int getSource() {
+		return mySource;
+	}
+
+	public void setSource(int source) {
+		this.mySource = source;
+	}
+
+	public int getSink() {
+		return mySink;
+	}
+
+	public void setSink(int sink) {
+		this.mySink = sink;
+	}
+
+	public boolean isSource(int node) {
+		return node == this.mySource;
+	}
+
+	public boolean isSink(int node) {
+		return node == this.mySink;
+	}
+
+	public int getIteration() {
+		return myIteration;
+	}
+
+	public void setIteration(int iteration) {
+		this.myIteration = iteration;
+	}
+
+	public boolean isFirstRun() {
+		return myFirstRun;
+	}
+
+	public void setFirstRun(boolean firstRun) {
+		this.myFirstRun = firstRun;
+	}
+
+	public boolean isConverged() {
+		return myConverged;
+	}
+
+	public void setConverged(boolean converged) {
+		this.myConverged = converged;
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ *    PressureSolver.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Solves the node pressures of one iteration of the PhysarumSolver: for every
+ * node the sum of the fluxes D/L (p_j - p_i) over its edges is I0 at the
+ * source, -I0 at the sink and 0 otherwise. By default the solver uses a dense
+ * singular value decomposition; other implementations can be set with
+ * PhysarumSolver.setPressureSolver.
+ * 
+ * The pressures are only determined up to a constant, implementations may fix
+ * any node, the fluxes don't depend on it.
+ * 
+ * @author Torsten
+ * 
+ */
+public interface PressureSolver {
+	/**
+	 * Solve the pressures for the current conductivities of the state and
+	 * store them in the state. The pressures in the state may be used as start
+	 * value.
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param state
+	 *            the state, its pressures are replaced
+	 * @param I0
+	 *            the flux entering at the source
+	 * @param token
+	 *            checked while solving
+	 * @return the number of inner iterations, 0 for direct methods
+	 * @throws CancellationException
+	 *             if the token was cancelled, the pressures of the state are
+	 *             unchanged then
+	 */
+	int solve(PhysarumGraph graph, PhysarumState state, double I0,
+			CancellationToken token) throws CancellationException;
+
+	/**
+	 * Get the relative residual of the last solve
+	 * 
+	 * @return the residual, 0 for direct methods
+	 */
+	double getLastResidual();
+
+	/**
+	 * Called after lengths of a graph were changed in place, the structure of
+	 * the graph is unchanged. Solvers that keep copies of the lengths take the
+	 * new ones over, the others need not do anything.
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param edges
+	 *            the changed edges
+	 * @param count
+	 *            the number of changed edges at the start of edges
+	 */
+	default void lengthsChanged(PhysarumGraph graph, int[] edges, int count) {
+	}
+}
@@ -0,0 +1,27 @@
+/**
+ *    ProgressListener.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+/**
+ * Is notified by the PhysarumSolver after every finished iteration, on the
+ * thread running the solver
+ * 
+ * @author Torsten
+ * 
+ */
+public interface ProgressListener {
+	/**
+	 * An iteration finished
+	 * 
+	 * @param solver
+	 *            the solver, its state holds the values of the iteration
+	 * @param statistics
+	 *            the figures of the iteration, only valid during the call
+	 */
+	void iterationFinished(PhysarumSolver solver, IterationStatistics statistics);
+}
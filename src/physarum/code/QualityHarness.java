@@ -0,0 +1,491 @@
+/**
+ *    QualityHarness.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks whether solver configurations still find the right path. Every
+ * configuration is run on every case and the survived edges are compared with
+ * the exact shortest path found by Dijkstra: the length of the path through
+ * the survived edges against the optimum and the overlap of both edge sets.
+ * Iterations, wall time and allocated memory are recorded alongside, so a
+ * faster configuration can be checked for a loss of accuracy.
+ * 
+ * The runs are made one after another on the calling thread, so their times
+ * are comparable.
+ * 
+ * @author Torsten
+ * 
+ */
+public class QualityHarness {
+	/** The problems to solve, by name */
+	private final Map<String, PhysarumProblem> myCases = new LinkedHashMap<String, PhysarumProblem>();
+
+	/** The configurations to compare */
+	private final List<Configuration> myConfigurations = new ArrayList<Configuration>();
+
+	/** Length ratios up to 1 + this count as optimal */
+	private double myTolerance = 1e-9;
+
+	/**
+	 * Add a case
+	 * 
+	 * @param name
+	 *            the name of the case, unique
+	 * @param problem
+	 *            the graph and its terminals
+	 */
+	public void addCase(String name, PhysarumProblem problem) {
+		if (this.myCases.containsKey(name)) {
+			throw new IllegalArgumentException("Duplicate case " + name);
+		}
+		this.myCases.put(name, problem);
+	}
+
+	/**
+	 * Add a configuration
+	 * 
+	 * @param configuration
+	 *            the configuration, with a unique name
+	 */
+	public void addConfiguration(Configuration configuration) {
+		for (Configuration other : this.myConfigurations) {
+			if (other.getName().equals(configuration.getName())) {
+				throw new IllegalArgumentException("Duplicate configuration "
+						+ configuration.getName());
+			}
+		}
+		this.myConfigurations.add(configuration);
+	}
+
+	/**
+	 * Run every configuration on every case
+	 * 
+	 * @return the results, case by case in the order they were added
+	 */
+	public List<Result> run() {
+		List<Result> results = new ArrayList<Result>();
+		for (Map.Entry<String, PhysarumProblem> entry : this.myCases
+				.entrySet()) {
+			PhysarumProblem problem = entry.getValue();
+			int[] optimum = PhysarumPaths.shortestPath(problem.getGraph(),
+					problem.getSource(), problem.getSink());
+			for (Configuration configuration : this.myConfigurations) {
+				results.add(this.run(entry.getKey(), problem, optimum,
+						configuration));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Run one configuration on one case
+	 */
+	private Result run(String name, PhysarumProblem problem, int[] optimum,
+			Configuration configuration) {
+		PhysarumGraph graph = problem.getGraph();
+		double optimalLength = PhysarumPaths.getLength(graph, optimum);
+
+		PhysarumSolver solver = problem.createSolver(configuration
+				.getParameters());
+		try {
+			return this.evaluate(name, problem, optimum, configuration, solver,
+					optimalLength);
+		} finally {
+			PhysarumParameters.releaseState(solver.getState());
+		}
+	}
+
+	/**
+	 * Solve and compare the survived path with the optimum
+	 */
+	private Result evaluate(String name, PhysarumProblem problem,
+			int[] optimum, Configuration configuration, PhysarumSolver solver,
+			double optimalLength) {
+		PhysarumGraph graph = problem.getGraph();
+		solver.enableMetrics(true);
+		configuration.configure(solver);
+
+		long start = System.nanoTime();
+		try {
+			solver.solve();
+		} catch (Exception e) {
+			return new Result(name, configuration.getName(), optimalLength,
+					Double.NaN, 0.0, 0, solver.getIterationCount(), false,
+					System.nanoTime() - start, -1, e.toString());
+		}
+		long nanos = System.nanoTime() - start;
+
+		// the best path the survived connections offer
+		int[] survived = solver.getSurvivedEdges();
+		boolean[] usable = new boolean[graph.getEdgeCount()];
+		for (int edge : survived) {
+			usable[edge] = true;
+		}
+		int[] path = PhysarumPaths.shortestPath(graph, problem.getSource(),
+				problem.getSink(), usable);
+		double length = path.length > 0 ? PhysarumPaths.getLength(graph, path)
+				: Double.POSITIVE_INFINITY;
+
+		// Jaccard overlap of the survived edges and the optimum
+		boolean[] optimal = new boolean[graph.getEdgeCount()];
+		for (int edge : optimum) {
+			optimal[edge] = true;
+		}
+		int common = 0;
+		for (int edge : survived) {
+			if (optimal[edge]) {
+				common++;
+			}
+		}
+		int union = survived.length + optimum.length - common;
+		double overlap = union > 0 ? (double) common / union : 1.0;
+
+		return new Result(name, configuration.getName(), optimalLength,
+				length, overlap, survived.length, solver.getIterationCount(),
+				solver.isConverged(), nanos, solver.getMetrics()
+						.getAllocatedBytes(), null);
+	}
+
+	/**
+	 * Summarize results per configuration
+	 * 
+	 * @param results
+	 *            the results of run()
+	 * @return the summaries in the order the configurations first appear
+	 */
+	public Map<String, Summary> summarize(List<Result> results) {
+		Map<String, Summary> summaries = new LinkedHashMap<String, Summary>();
+		for (Result result : results) {
+			Summary summary = summaries.get(result.getConfiguration());
+			if (summary == null) {
+				summary = new Summary(result.getConfiguration());
+				summaries.put(result.getConfiguration(), summary);
+			}
+			summary.add(result, this.myTolerance);
+		}
+		return summaries;
+	}
+
+	public double getTolerance() {
+		return myTolerance;
+	}
+
+	/**
+	 * Set how far above the optimum a path may be to count as optimal
+	 * 
+	 * @param tolerance
+	 *            relative to the optimal length
+	 */
+	public void setTolerance(double tolerance) {
+		this.myTolerance = tolerance;
+	}
+
+	// ============================================================================================
+	// Configurations and results
+	// ============================================================================================
+
+	/**
+	 * A named solver configuration: the parameters and everything else set on
+	 * the solver before it runs, e.g. the pressure solver or the convergence
+	 * criterion
+	 */
+	public static class Configuration {
+		private final String myName;
+		private final PhysarumParameters myParameters;
+
+		/**
+		 * Creates a configuration
+		 * 
+		 * @param name
+		 *            the name
+		 * @param parameters
+		 *            the parameters, copied
+		 */
+		public Configuration(String name, PhysarumParameters parameters) {
+			this.myName = name;
+			this.myParameters = parameters.copy();
+		}
+
+		/**
+		 * Configure a solver created from the parameters, overwrite to change
+		 * more than the parameters. A new solver is configured for every run.
+		 * 
+		 * @param solver
+		 *            the solver
+		 */
+		public void configure(PhysarumSolver solver) {
+		}
+
+		public String getName() {
+			return myName;
+		}
+
+		/**
+		 * Get a copy of the parameters
+		 * 
+		 * @return
+		 */
+		public PhysarumParameters getParameters() {
+			return myParameters.copy();
+		}
+	}
+
+	/**
+	 * The outcome of one configuration on one case
+	 */
+	public static class Result {
+		private final String myCase;
+		private final String myConfiguration;
+		private final double myOptimalLength;
+		private final double myPathLength;
+		private final double myOverlap;
+		private final int mySurvivedEdgeCount;
+		private final int myIterations;
+		private final boolean myConverged;
+		private final long myNanos;
+		private final long myAllocatedBytes;
+		private final String myError;
+
+		Result(String name, String configuration, double optimalLength,
+				double pathLength, double overlap, int survivedEdgeCount,
+				int iterations, boolean converged, long nanos,
+				long allocatedBytes, String error) {
+			this.myCase = name;
+			this.myConfiguration = configuration;
+			this.myOptimalLength = optimalLength;
+			this.myPathLength = pathLength;
+			this.myOverlap = overlap;
+			this.mySurvivedEdgeCount = survivedEdgeCount;
+			this.myIterations = iterations;
+			this.myConverged = converged;
+			this.myNanos = nanos;
+			this.myAllocatedBytes = allocatedBytes;
+			this.myError = error;
+		}
+
+		public String getCase() {
+			return myCase;
+		}
+
+		public String getConfiguration() {
+			return myConfiguration;
+		}
+
+		public double getOptimalLength() {
+			return myOptimalLength;
+		}
+
+		/**
+		 * Get the length of the shortest source to sink path over the
+		 * survived edges
+		 * 
+		 * @return infinite if the survived edges don't connect source and
+		 *         sink, NaN if the run failed
+		 */
+		public double getPathLength() {
+			return myPathLength;
+		}
+
+		/**
+		 * Get the path length relative to the optimum
+		 * 
+		 * @return 1 for an optimal path
+		 */
+		public double getLengthRatio() {
+			return myPathLength / myOptimalLength;
+		}
+
+		/**
+		 * Get the common edges of the survived edges and the optimal path
+		 * relative to the edges in either of them
+		 * 
+		 * @return 1 if exactly the optimal path survived
+		 */
+		public double getOverlap() {
+			return myOverlap;
+		}
+
+		public int getSurvivedEdgeCount() {
+			return mySurvivedEdgeCount;
+		}
+
+		public int getIterations() {
+			return myIterations;
+		}
+
+		public boolean isConverged() {
+			return myConverged;
+		}
+
+		public long getNanos() {
+			return myNanos;
+		}
+
+		/**
+		 * Get the bytes allocated by the solver thread during the run
+		 * 
+		 * @return -1 if the JVM can't measure it
+		 */
+		public long getAllocatedBytes() {
+			return myAllocatedBytes;
+		}
+
+		/**
+		 * Get the exception of a failed run
+		 * 
+		 * @return null if the run didn't fail
+		 */
+		public String getError() {
+			return myError;
+		}
+
+		@Override
+		public String toString() {
+			return this.myCase + "\t" + this.myConfiguration + "\tratio = "
+					+ this.getLengthRatio() + "\toverlap = " + this.myOverlap
+					+ "\titerations = " + this.myIterations + "\tconverged = "
+					+ this.myConverged + "\ttime = " + (this.myNanos / 1000000.0)
+					+ " ms\tallocated = " + this.myAllocatedBytes
+					+ (this.myError != null ? "\terror = " + this.myError : "");
+		}
+	}
+
+	/**
+	 * The results of one configuration over all cases
+	 */
+	public static class Summary {
+		private final String myConfiguration;
+		private int myCases = 0;
+		private int myFailed = 0;
+		private int myConnected = 0;
+		private int myOptimal = 0;
+		private int myConverged = 0;
+		private double myRatioSum = 0.0;
+		private double myWorstRatio = 1.0;
+		private double myOverlapSum = 0.0;
+		private long myIterations = 0;
+		private long myNanos = 0;
+		private long myAllocatedBytes = 0;
+
+		Summary(String configuration) {
+			this.myConfiguration = configuration;
+		}
+
+		void add(Result result, double tolerance) {
+			this.myCases++;
+			this.myNanos += result.getNanos();
+			this.myIterations += result.getIterations();
+			if (result.getError() != null) {
+				this.myFailed++;
+				return;
+			}
+			if (result.isConverged()) {
+				this.myConverged++;
+			}
+			this.myOverlapSum += result.getOverlap();
+			this.myAllocatedBytes += Math.max(0, result.getAllocatedBytes());
+			double ratio = result.getLengthRatio();
+			if (!Double.isInfinite(ratio)) {
+				this.myConnected++;
+				this.myRatioSum += ratio;
+				if (ratio <= 1.0 + tolerance) {
+					this.myOptimal++;
+				}
+			}
+			this.myWorstRatio = Math.max(this.myWorstRatio, ratio);
+		}
+
+		public String getConfiguration() {
+			return myConfiguration;
+		}
+
+		public int getCaseCount() {
+			return myCases;
+		}
+
+		public int getFailedCount() {
+			return myFailed;
+		}
+
+		/**
+		 * Get the number of cases whose survived edges connect source and
+		 * sink
+		 * 
+		 * @return
+		 */
+		public int getConnectedCount() {
+			return myConnected;
+		}
+
+		/**
+		 * Get the number of cases that found a shortest path
+		 * 
+		 * @return
+		 */
+		public int getOptimalCount() {
+			return myOptimal;
+		}
+
+		public int getConvergedCount() {
+			return myConverged;
+		}
+
+		/**
+		 * Get the mean length ratio of the connected cases
+		 * 
+		 * @return
+		 */
+		public double getMeanLengthRatio() {
+			return myConnected > 0 ? myRatioSum / myConnected : Double.NaN;
+		}
+
+		/**
+		 * Get the largest length ratio, infinite if a case didn't connect
+		 * 
+		 * @return
+		 */
+		public double getWorstLengthRatio() {
+			return myWorstRatio;
+		}
+
+		public double getMeanOverlap() {
+			int runs = myCases - myFailed;
+			return runs > 0 ? myOverlapSum / runs : Double.NaN;
+		}
+
+		public double getMeanIterations() {
+			return myCases > 0 ? (double) myIterations / myCases : Double.NaN;
+		}
+
+		public long getTotalNanos() {
+			return myNanos;
+		}
+
+		public long getTotalAllocatedBytes() {
+			return myAllocatedBytes;
+		}
+
+		@Override
+		public String toString() {
+			return this.myConfiguration + "\tcases = " + this.myCases
+					+ "\toptimal = " + this.myOptimal + "\tconnected = "
+					+ this.myConnected + "\tfailed = " + this.myFailed
+					+ "\tmeanRatio = " + this.getMeanLengthRatio()
+					+ "\tworstRatio = " + this.myWorstRatio
+					+ "\tmeanOverlap = " + this.getMeanOverlap()
+					+ "\tmeanIterations = " + this.getMeanIterations()
+					+ "\ttime = " + (this.myNanos / 1000000.0)
+					+ " ms\tallocated = " + this.myAllocatedBytes;
+		}
+	}
+}
@@ -0,0 +1,41 @@
+/**
+ *    RelativeResidualCriterion.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+/**
+ * Converged if the norm of the conductivity changes of the last iteration
+ * relative to the norm of the conductivities is below a tolerance. Unlike the
+ * maximum change it doesn't depend on the scale of the conductivities.
+ * 
+ * @author Torsten
+ * 
+ */
+public class RelativeResidualCriterion implements ConvergenceCriterion {
+	/** The tolerance */
+	private final double myTolerance;
+
+	/**
+	 * Creates the criterion
+	 * 
+	 * @param tolerance
+	 *            the tolerance, e.g. 1e-6
+	 */
+	public RelativeResidualCriterion(double tolerance) {
+		this.myTolerance = tolerance;
+	}
+
+	@Override
+	public void start(PhysarumSolver solver) {
+	}
+
+	@Override
+	public boolean isConverged(PhysarumSolver solver,
+			IterationStatistics statistics) {
+		return statistics.getRelativeResidual() < this.myTolerance;
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ *    SolveRequest.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+/**
+ * A request to the SolveService: which registered graph to solve, between
+ * which source and sink, with which parameters and until when the caller is
+ * willing to wait for the answer.
+ * 
+ * @author Torsten
+ * 
+ */
+public class SolveRequest {
+	/** The handle the graph was registered with */
+	private final String myGraphHandle;
+
+	/** The source node index */
+	private final int mySource;
+
+	/** The sink node index */
+	private final int mySink;
+
+	/** The solver parameters */
+	private final PhysarumParameters myParameters;
+
+	/** Maximum time to wait for the result in milliseconds, 0 for no limit */
+	private long myTimeoutMillis = 0;
+
+	/**
+	 * Creates a request
+	 * 
+	 * @param graphHandle
+	 *            The handle the graph was registered with
+	 * @param source
+	 *            The source node index
+	 * @param sink
+	 *            The sink node index
+	 * @param parameters
+	 *            The solver parameters, copied
+	 */
+	public SolveRequest(String graphHandle, int source, int sink,
+			PhysarumParameters parameters) {
+		this.myGraphHandle = graphHandle;
+		this.mySource = source;
+		this.mySink = sink;
+		this.myParameters = parameters.copy();
+	}
+
+	public String getGraphHandle() {
+		return myGraphHandle;
+	}
+
+	public int getSource() {
+		return mySource;
+	}
+
+	public int getSink() {
+		return mySink;
+	}
+
+	/**
+	 * Get a copy of the parameters
+	 * 
+	 * @return
+	 */
+	public PhysarumParameters getParameters() {
+		return myParameters.copy();
+	}
+
+	public long getTimeoutMillis() {
+		return myTimeoutMillis;
+	}
+
+	/**
+	 * Set the deadline of the request relative to its submission
+	 * 
+	 * @param timeoutMillis
+	 *            milliseconds, 0 for no limit
+	 */
+	public void setTimeoutMillis(long timeoutMillis) {
+		this.myTimeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * Two requests are the same work if they solve the same graph between the
+	 * same terminals with equal parameters, the timeout doesn't matter
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof SolveRequest)) {
+			return false;
+		}
+		SolveRequest other = (SolveRequest) obj;
+		return this.myGraphHandle.equals(other.myGraphHandle)
+				&& this.mySource == other.mySource
+				&& this.mySink == other.mySink
+				&& this.myParameters.equals(other.myParameters);
+	}
+
+	@Override
+	public int hashCode() {
+		int h = this.myGraphHandle.hashCode();
+		h = 31 * h + this.mySource;
+		h = 31 * h + this.mySink;
+		h = 31 * h + this.myParameters.hashCode();
+		return h;
+	}
+
+	@Override
+	public String toString() {
+		return "Solve " + this.myGraphHandle + " from " + this.mySource
+				+ " to " + this.mySink;
+	}
+}
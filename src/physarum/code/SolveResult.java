@@ -0,0 +1,157 @@
+/**
+ *    SolveResult.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The immutable outcome of a PhysarumSolver run: the survived edges, the
+ * number of iterations, whether the run converged and how long it took.
+ * 
+ * @author Torsten
+ * 
+ */
+public class SolveResult {
+	/** The indexes of the survived edges in ascending order */
+	private final int[] mySurvivedEdges;
+
+	/** The number of iterations run */
+	private final int myIterations;
+
+	/** True if the run converged before the iteration limit */
+	private final boolean myConverged;
+
+	/** The wall time of the run in nanoseconds */
+	private final long myNanos;
+
+	/**
+	 * Creates a result
+	 * 
+	 * @param survivedEdges
+	 *            The indexes of the survived edges, the array is taken over
+	 * @param iterations
+	 *            The number of iterations run
+	 * @param converged
+	 *            True if the run converged
+	 * @param nanos
+	 *            The wall time in nanoseconds
+	 */
+	public SolveResult(int[] survivedEdges, int iterations, boolean converged,
+			long nanos) {
+		this.mySurvivedEdges = survivedEdges;
+		this.myIterations = iterations;
+		this.myConverged = converged;
+		this.myNanos = nanos;
+	}
+
+	/**
+	 * Creates the result of a finished solver
+	 * 
+	 * @param solver
+	 *            The solver
+	 * @param nanos
+	 *            The wall time in nanoseconds
+	 * @return the result
+	 */
+	public static SolveResult of(PhysarumSolver solver, long nanos) {
+		return new SolveResult(solver.getSurvivedEdges(),
+				solver.getIterationCount(), solver.isConverged(), nanos);
+	}
+
+	/**
+	 * Write the result in binary form
+	 * 
+	 * @param out
+	 *            the output
+	 * @throws IOException
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(this.myIterations);
+		out.writeBoolean(this.myConverged);
+		out.writeLong(this.myNanos);
+		out.writeInt(this.mySurvivedEdges.length);
+		for (int i = 0; i < this.mySurvivedEdges.length; i++) {
+			out.writeInt(this.mySurvivedEdges[i]);
+		}
+	}
+
+	/**
+	 * Read a result written by writeTo
+	 * 
+	 * @param in
+	 *            the input
+	 * @return the result
+	 * @throws IOException
+	 */
+	public static SolveResult readFrom(DataInput in) throws IOException {
+		int iterations = in.readInt();
+		boolean converged = in.readBoolean();
+		long nanos = in.readLong();
+		int count = in.readInt();
+		if (count < 0) {
+			throw new IOException("Corrupt result");
+		}
+		int[] survived = new int[count];
+		for (int i = 0; i < count; i++) {
+			survived[i] = in.readInt();
+		}
+		return new SolveResult(survived, iterations, converged, nanos);
+	}
+
+	/**
+	 * Get a copy of the survived edge indexes
+	 * 
+	 * @return
+	 */
+	public int[] getSurvivedEdges() {
+		return mySurvivedEdges.clone();
+	}
+
+	/**
+	 * Get the number of survived edges
+	 * 
+	 * @return
+	 */
+	public int getSurvivedEdgeCount() {
+		return mySurvivedEdges.length;
+	}
+
+	/**
+	 * Get the index of the i-th survived edge
+	 * 
+	 * @param i
+	 *            0 <= i < getSurvivedEdgeCount()
+	 * @return
+	 */
+	public int getSurvivedEdge(int i) {
+		return mySurvivedEdges[i];
+	}
+
+	public int getIterations() {
+		return myIterations;
+	}
+
+	public boolean isConverged() {
+		return myConverged;
+	}
+
+	public long getNanos() {
+		return myNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "survived = " + Arrays.toString(this.mySurvivedEdges)
+				+ "\titerations = " + this.myIterations + "\tconverged = "
+				+ this.myConverged + "\ttime = " + (this.myNanos / 1000000.0)
+				+ " ms";
+	}
+}
@@ -0,0 +1,394 @@
+/**
+ *    SolveResultCache.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded least recently used cache of solver results. Entries are keyed by
+ * the structural fingerprint of the graph, the source, the sink and the
+ * parameters, so a repeated request on an equal graph is answered without a
+ * run even if the graph was loaded again or registered under another handle.
+ * 
+ * The cache is bounded by the number of entries and by the total weight, the
+ * approximate number of bytes the results hold. The most recently used entries
+ * can be saved to a file and loaded again after a restart.
+ * 
+ * @author Torsten
+ * 
+ */
+public class SolveResultCache {
+	/** "PHYR" */
+	public static final int MAGIC = 0x50485952;
+
+	/** Version of the file format */
+	private static final int VERSION = 1;
+
+	/** The fixed weight of an entry besides the survived edges */
+	private static final long ENTRY_OVERHEAD = 160;
+
+	/** The entries in access order, least recently used first */
+	private final LinkedHashMap<Key, SolveResult> myEntries = new LinkedHashMap<Key, SolveResult>(
+			16, 0.75f, true);
+
+	/** The maximum number of entries */
+	private final int myMaximumEntries;
+
+	/** The maximum total weight of the entries */
+	private final long myMaximumWeight;
+
+	/** The total weight of the entries */
+	private long myWeight = 0;
+
+	/** Number of lookups that found a result */
+	private final AtomicLong myHits = new AtomicLong();
+
+	/** Number of lookups that found nothing */
+	private final AtomicLong myMisses = new AtomicLong();
+
+	/** Number of entries removed to stay within the bounds */
+	private final AtomicLong myEvictions = new AtomicLong();
+
+	/**
+	 * Creates a cache
+	 * 
+	 * @param maximumEntries
+	 *            The maximum number of entries
+	 * @param maximumWeight
+	 *            The maximum total weight in approximate bytes
+	 */
+	public SolveResultCache(int maximumEntries, long maximumWeight) {
+		if (maximumEntries <= 0 || maximumWeight <= 0) {
+			throw new IllegalArgumentException(
+					"Entry and weight limits must be positive");
+		}
+		this.myMaximumEntries = maximumEntries;
+		this.myMaximumWeight = maximumWeight;
+	}
+
+	/**
+	 * Look up the result of a run
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param source
+	 *            the source node index
+	 * @param sink
+	 *            the sink node index
+	 * @param parameters
+	 *            the parameters
+	 * @return the cached result or null
+	 */
+	public SolveResult get(PhysarumGraph graph, int source, int sink,
+			PhysarumParameters parameters) {
+		Key key = new Key(graph, source, sink, parameters, false);
+		SolveResult result;
+		synchronized (this) {
+			result = this.myEntries.get(key);
+		}
+		if (result != null) {
+			this.myHits.incrementAndGet();
+		} else {
+			this.myMisses.incrementAndGet();
+		}
+		return result;
+	}
+
+	/**
+	 * Store the result of a run, evicting the least recently used entries if
+	 * the cache grows beyond its bounds. A result heavier than the whole cache
+	 * is not stored.
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @param source
+	 *            the source node index
+	 * @param sink
+	 *            the sink node index
+	 * @param parameters
+	 *            the parameters, copied
+	 * @param result
+	 *            the result
+	 */
+	public void put(PhysarumGraph graph, int source, int sink,
+			PhysarumParameters parameters, SolveResult result) {
+		this.put(new Key(graph, source, sink, parameters, true), result);
+	}
+
+	private synchronized void put(Key key, SolveResult result) {
+		long weight = weightOf(result);
+		if (weight > this.myMaximumWeight) {
+			return;
+		}
+
+		SolveResult former = this.myEntries.put(key, result);
+		if (former != null) {
+			this.myWeight -= weightOf(former);
+		}
+		this.myWeight += weight;
+
+		Iterator<SolveResult> it = this.myEntries.values().iterator();
+		while ((this.myEntries.size() > this.myMaximumEntries || this.myWeight > this.myMaximumWeight)
+				&& it.hasNext()) {
+			this.myWeight -= weightOf(it.next());
+			it.remove();
+			this.myEvictions.incrementAndGet();
+		}
+	}
+
+	private static long weightOf(SolveResult result) {
+		return ENTRY_OVERHEAD + 4L * result.getSurvivedEdgeCount();
+	}
+
+	/**
+	 * Remove all entries, the counters are kept
+	 */
+	public synchronized void clear() {
+		this.myEntries.clear();
+		this.myWeight = 0;
+	}
+
+	// ============================================================================================
+	// Persistence
+	// ============================================================================================
+
+	/**
+	 * Save the most recently used entries to a file. The file is written to a
+	 * temporary file first and moved in place, so a crash never leaves a
+	 * broken file behind.
+	 * 
+	 * @param file
+	 *            the file
+	 * @param maximumEntries
+	 *            the maximum number of entries to save
+	 * @return the number of saved entries
+	 * @throws IOException
+	 */
+	public int save(File file, int maximumEntries) throws IOException {
+		List<Key> keys = new ArrayList<Key>();
+		List<SolveResult> results = new ArrayList<SolveResult>();
+		synchronized (this) {
+			int skip = Math.max(0, this.myEntries.size() - maximumEntries);
+			for (Map.Entry<Key, SolveResult> entry : this.myEntries.entrySet()) {
+				if (skip > 0) {
+					skip--;
+					continue;
+				}
+				keys.add(entry.getKey());
+				results.add(entry.getValue());
+			}
+		}
+
+		File tmp = new File(file.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(tmp)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(keys.size());
+			// least recently used first, so loading restores the order
+			for (int i = 0; i < keys.size(); i++) {
+				keys.get(i).writeTo(out);
+				results.get(i).writeTo(out);
+			}
+		} finally {
+			out.close();
+		}
+		try {
+			Files.move(tmp.toPath(), file.toPath(),
+					StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp.toPath(), file.toPath(),
+					StandardCopyOption.REPLACE_EXISTING);
+		}
+		return keys.size();
+	}
+
+	/**
+	 * Load entries saved by save into the cache
+	 * 
+	 * @param file
+	 *            the file
+	 * @return the number of loaded entries
+	 * @throws IOException
+	 *             if the file can't be read or is no cache file
+	 */
+	public int load(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file)));
+		try {
+			if (in.readInt() != MAGIC) {
+				throw new IOException(file + " is no result cache file");
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported result cache version "
+						+ version);
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				Key key = Key.readFrom(in);
+				this.put(key, SolveResult.readFrom(in));
+			}
+			return count;
+		} catch (EOFException e) {
+			throw new IOException(file + " is truncated", e);
+		} finally {
+			in.close();
+		}
+	}
+
+	// ============================================================================================
+	// Getters
+	// ============================================================================================
+
+	public synchronized int getSize() {
+		return this.myEntries.size();
+	}
+
+	/**
+	 * Get the total weight of the entries in approximate bytes
+	 * 
+	 * @return
+	 */
+	public synchronized long getWeight() {
+		return this.myWeight;
+	}
+
+	public int getMaximumEntries() {
+		return this.myMaximumEntries;
+	}
+
+	public long getMaximumWeight() {
+		return this.myMaximumWeight;
+	}
+
+	public long getHitCount() {
+		return this.myHits.get();
+	}
+
+	public long getMissCount() {
+		return this.myMisses.get();
+	}
+
+	public long getEvictionCount() {
+		return this.myEvictions.get();
+	}
+
+	/**
+	 * Get the share of lookups that found a result
+	 * 
+	 * @return the hit rate between 0 and 1, 0 without lookups
+	 */
+	public double getHitRate() {
+		long hits = this.myHits.get();
+		long total = hits + this.myMisses.get();
+		return total == 0 ? 0.0 : (double) hits / total;
+	}
+
+	@Override
+	public String toString() {
+		return "entries = " + this.getSize() + "\tweight = "
+				+ this.getWeight() + "\thits = " + this.getHitCount()
+				+ "\tmisses = " + this.getMissCount() + "\tevictions = "
+				+ this.getEvictionCount();
+	}
+
+	/**
+	 * The identity of a run. The node and edge count are kept besides the
+	 * fingerprint so a collision needs graphs of the same size.
+	 */
+	private static final class Key {
+		final long myFingerprint;
+		final int myNodeCount;
+		final int myEdgeCount;
+		final int mySource;
+		final int mySink;
+		final PhysarumParameters myParameters;
+
+		Key(PhysarumGraph graph, int source, int sink,
+				PhysarumParameters parameters, boolean copy) {
+			this(graph.getFingerprint(), graph.getNodeCount(), graph
+					.getEdgeCount(), source, sink, copy ? parameters.copy()
+					: parameters);
+		}
+
+		Key(long fingerprint, int nodeCount, int edgeCount, int source,
+				int sink, PhysarumParameters parameters) {
+			this.myFingerprint = fingerprint;
+			this.myNodeCount = nodeCount;
+			this.myEdgeCount = edgeCount;
+			this.mySource = source;
+			this.mySink = sink;
+			this.myParameters = parameters;
+		}
+
+		void writeTo(DataOutputStream out) throws IOException {
+			out.writeLong(this.myFingerprint);
+			out.writeInt(this.myNodeCount);
+			out.writeInt(this.myEdgeCount);
+			out.writeInt(this.mySource);
+			out.writeInt(this.mySink);
+			this.myParameters.writeTo(out);
+		}
+
+		static Key readFrom(DataInputStream in) throws IOException {
+			long fingerprint = in.readLong();
+			int nodeCount = in.readInt();
+			int edgeCount = in.readInt();
+			int source = in.readInt();
+			int sink = in.readInt();
+			return new Key(fingerprint, nodeCount, edgeCount, source, sink,
+					PhysarumParameters.readFrom(in));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return this.myFingerprint == other.myFingerprint
+					&& this.myNodeCount == other.myNodeCount
+					&& this.myEdgeCount == other.myEdgeCount
+					&& this.mySource == other.mySource
+					&& this.mySink == other.mySink
+					&& this.myParameters.equals(other.myParameters);
+		}
+
+		@Override
+		public int hashCode() {
+			int h = (int) (this.myFingerprint ^ (this.myFingerprint >>> 32));
+			h = 31 * h + this.mySource;
+			h = 31 * h + this.mySink;
+			h = 31 * h + this.myParameters.hashCode();
+			return h;
+		}
+	}
+}
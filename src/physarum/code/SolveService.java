@@ -0,0 +1,570 @@
+/**
+ *    SolveService.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * An in-process service that solves requests on registered, shared graphs.
+ * 
+ * The solver runs are CPU bound and execute on a fixed pool of worker threads.
+ * Waiting for results is cheap: callers get a CompletableFuture, and the
+ * request executor (virtual threads where the JVM supports them) is meant for
+ * callers that want to block. Identical requests that are in flight at the
+ * same time share one run, and all runs share the registered graph instead of
+ * copying it. Requests are only coalesced on the same graph, a request made
+ * after registerGraph replaced a graph starts a run on the new one. The
+ * number of distinct runs that are queued or running is bounded; further
+ * requests are rejected. Every request may carry a deadline, a run nobody
+ * waits for any more is cancelled. A cancelled run keeps its place in the
+ * bound until its solver thread has actually stopped.
+ * 
+ * @author Torsten
+ * 
+ */
+public class SolveService {
+	/** The registered graphs by handle */
+	private final ConcurrentHashMap<String, PhysarumGraph> myGraphs = new ConcurrentHashMap<String, PhysarumGraph>();
+
+	/** The runs that are queued or running, by graph and request */
+	private final ConcurrentHashMap<RunKey, Work> myInFlight = new ConcurrentHashMap<RunKey, Work>();
+
+	/** The bounded pool the solver runs execute on */
+	private final ThreadPoolExecutor mySolverExecutor;
+
+	/** The executor for callers that block while waiting for a result */
+	private final ExecutorService myRequestExecutor;
+
+	/** One permit per run that may be queued or running */
+	private final Semaphore myPermits;
+
+	/** Number of submitted requests */
+	private final AtomicLong mySubmitted = new AtomicLong();
+
+	/** Number of requests that joined a run already in flight */
+	private final AtomicLong myCoalesced = new AtomicLong();
+
+	/** Number of requests rejected because too many runs were pending */
+	private final AtomicLong myRejected = new AtomicLong();
+
+	/** Number of requests that missed their deadline */
+	private final AtomicLong myTimedOut = new AtomicLong();
+
+	/** Number of runs that finished */
+	private final AtomicLong myCompleted = new AtomicLong();
+
+	/** Results of earlier runs, null if results are not cached */
+	private volatile SolveResultCache myResultCache = null;
+
+	/**
+	 * Creates a service with one solver thread per processor
+	 */
+	public SolveService() {
+		this(Runtime.getRuntime().availableProcessors(), 4 * Runtime
+				.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a service
+	 * 
+	 * @param solverThreads
+	 *            The number of threads running solvers
+	 * @param maxPendingRuns
+	 *            The maximum number of distinct runs queued or running
+	 */
+	public SolveService(int solverThreads, int maxPendingRuns) {
+		if (solverThreads <= 0 || maxPendingRuns <= 0) {
+			throw new IllegalArgumentException(
+					"Thread and pending run limits must be positive");
+		}
+
+		this.mySolverExecutor = new ThreadPoolExecutor(solverThreads,
+				solverThreads, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>(), daemonThreads("PhysarumSolveWorker"));
+		this.myRequestExecutor = newRequestExecutor();
+		this.myPermits = new Semaphore(maxPendingRuns);
+	}
+
+	/**
+	 * Creates an executor that starts a virtual thread per task if the JVM
+	 * supports them (Java 21 and newer) and a cached pool of daemon threads
+	 * otherwise
+	 * 
+	 * @return the executor
+	 */
+	public static ExecutorService newRequestExecutor() {
+		try {
+			Method factory = Executors.class
+					.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool(daemonThreads("PhysarumRequest"));
+		}
+	}
+
+	private static ThreadFactory daemonThreads(final String name) {
+		final AtomicInteger counter = new AtomicInteger();
+		return new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, name + "-" + counter.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		};
+	}
+
+	// ============================================================================================
+	// Graphs
+	// ============================================================================================
+
+	/**
+	 * Register a graph under a handle, replacing a graph registered before
+	 * 
+	 * @param handle
+	 *            the handle requests refer to
+	 * @param graph
+	 *            the graph
+	 */
+	public void registerGraph(String handle, PhysarumGraph graph) {
+		this.myGraphs.put(handle, graph);
+	}
+
+	/**
+	 * Remove a graph, runs already in flight are not affected
+	 * 
+	 * @param handle
+	 *            the handle
+	 */
+	public void unregisterGraph(String handle) {
+		this.myGraphs.remove(handle);
+	}
+
+	/**
+	 * Get a registered graph
+	 * 
+	 * @param handle
+	 *            the handle
+	 * @return the graph or null
+	 */
+	public PhysarumGraph getGraph(String handle) {
+		return this.myGraphs.get(handle);
+	}
+
+	// ============================================================================================
+	// Requests
+	// ============================================================================================
+
+	/**
+	 * Submit a request. The future completes with the result, or exceptionally
+	 * with a TimeoutException when the deadline of the request passes, a
+	 * RejectedExecutionException when too many runs are pending or an
+	 * IllegalArgumentException for an unknown graph or invalid terminals.
+	 * 
+	 * @param request
+	 *            the request
+	 * @return the future result
+	 */
+	public CompletableFuture<SolveResult> submit(SolveRequest request) {
+		this.mySubmitted.incrementAndGet();
+
+		final PhysarumGraph graph = this.myGraphs
+				.get(request.getGraphHandle());
+		if (graph == null) {
+			return failed(new IllegalArgumentException("Unknown graph "
+					+ request.getGraphHandle()));
+		}
+		if (request.getSource() < 0
+				|| request.getSource() >= graph.getNodeCount()
+				|| request.getSink() < 0
+				|| request.getSink() >= graph.getNodeCount()) {
+			return failed(new IllegalArgumentException(
+					"Source or sink outside of the graph"));
+		}
+
+		SolveResultCache cache = this.myResultCache;
+		if (cache != null) {
+			SolveResult cached = cache.get(graph, request.getSource(),
+					request.getSink(), request.getParameters());
+			if (cached != null) {
+				return CompletableFuture.completedFuture(cached);
+			}
+		}
+
+		RunKey key = new RunKey(graph, request);
+		while (true) {
+			Work work = this.myInFlight.get(key);
+			if (work == null) {
+				// publish a new run, only the thread that wins the race takes
+				// a permit for it
+				final Work fresh = new Work(key);
+				work = this.myInFlight.putIfAbsent(key, fresh);
+				if (work == null) {
+					CompletableFuture<SolveResult> waiter = this.waitFor(fresh,
+							request.getTimeoutMillis());
+					if (!this.myPermits.tryAcquire()) {
+						this.myRejected.incrementAndGet();
+						fresh.myResult
+								.completeExceptionally(new RejectedExecutionException(
+										"Too many pending solve requests"));
+						this.finish(fresh);
+						return waiter;
+					}
+
+					fresh.myHasPermit = true;
+					try {
+						fresh.myTask = this.mySolverExecutor.submit(new Runnable() {
+							@Override
+							public void run() {
+								runWork(fresh, graph);
+							}
+						});
+					} catch (RejectedExecutionException e) {
+						// the service was shut down
+						fresh.myResult.completeExceptionally(e);
+						if (fresh.myStarted.compareAndSet(false, true)) {
+							this.releasePermit(fresh);
+						}
+						this.finish(fresh);
+					}
+					return waiter;
+				}
+			}
+
+			// join the run of the same request
+			if (work.addWaiter()) {
+				this.myCoalesced.incrementAndGet();
+				return this.waitFor(work, request.getTimeoutMillis());
+			}
+
+			// the run is being cancelled, start a new one
+			this.myInFlight.remove(key, work);
+		}
+	}
+
+	/**
+	 * Submit a request and wait for the result, meant to be called from a
+	 * thread of the request executor
+	 * 
+	 * @param request
+	 *            the request
+	 * @return the result
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 *             if the run failed or was rejected
+	 * @throws TimeoutException
+	 *             if the deadline passed
+	 */
+	public SolveResult solve(SolveRequest request) throws InterruptedException,
+			ExecutionException, TimeoutException {
+		try {
+			return this.submit(request).get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof TimeoutException) {
+				throw (TimeoutException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Creates the future of one waiter of a run
+	 */
+	private CompletableFuture<SolveResult> waitFor(final Work work,
+			long timeoutMillis) {
+		CompletableFuture<SolveResult> waiter = new CompletableFuture<SolveResult>();
+		work.myResult.whenComplete(new Forward(waiter));
+		if (timeoutMillis > 0) {
+			waiter.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+
+		waiter.whenComplete(new BiConsumer<SolveResult, Throwable>() {
+			@Override
+			public void accept(SolveResult result, Throwable error) {
+				if (error instanceof TimeoutException) {
+					myTimedOut.incrementAndGet();
+				}
+				if (work.removeWaiter()) {
+					// nobody waits for the run any more. A run that has not
+					// started gives its permit back here, a running one only
+					// when its solver thread returns
+					work.myResult.completeExceptionally(new CancellationException());
+					if (work.myStarted.compareAndSet(false, true)) {
+						releasePermit(work);
+					}
+					Future<?> task = work.myTask;
+					if (task != null) {
+						task.cancel(true);
+					}
+					finish(work);
+				}
+			}
+		});
+		return waiter;
+	}
+
+	/**
+	 * Runs a solver for a request, executed on a solver thread
+	 */
+	private void runWork(Work work, PhysarumGraph graph) {
+		if (!work.myStarted.compareAndSet(false, true)) {
+			// cancelled before it started, the permit is back already
+			return;
+		}
+		try {
+			if (work.myResult.isDone()) {
+				return;
+			}
+
+			SolveRequest request = work.myRequest;
+			long start = System.nanoTime();
+			PhysarumSolver solver = request.getParameters().createSolver(
+					graph, request.getSource(), request.getSink());
+			SolveResult result;
+			try {
+				solver.solve();
+				result = SolveResult.of(solver, System.nanoTime() - start);
+			} finally {
+				PhysarumParameters.releaseState(solver.getState());
+			}
+			SolveResultCache cache = this.myResultCache;
+			if (cache != null) {
+				cache.put(graph, request.getSource(), request.getSink(),
+						request.getParameters(), result);
+			}
+			work.myResult.complete(result);
+			this.myCompleted.incrementAndGet();
+		} catch (InterruptedException e) {
+			work.myResult.completeExceptionally(new CancellationException(
+					e.getMessage()));
+		} catch (Throwable e) {
+			work.myResult.completeExceptionally(e);
+		} finally {
+			this.finish(work);
+			this.releasePermit(work);
+		}
+	}
+
+	/**
+	 * Remove a run from the in-flight table, so later requests start a new
+	 * run, only the first call has an effect
+	 */
+	private void finish(Work work) {
+		if (work.myFinished.compareAndSet(false, true)) {
+			this.myInFlight.remove(work.myKey, work);
+		}
+	}
+
+	/**
+	 * Give back the permit of a run if it has one. Called once per run, by
+	 * the solver thread when it returns or by whoever cancelled the run
+	 * before it started, as decided by myStarted.
+	 */
+	private void releasePermit(Work work) {
+		if (work.myHasPermit) {
+			this.myPermits.release();
+		}
+	}
+
+	private static CompletableFuture<SolveResult> failed(Throwable error) {
+		CompletableFuture<SolveResult> future = new CompletableFuture<SolveResult>();
+		future.completeExceptionally(error);
+		return future;
+	}
+
+	/**
+	 * Stop accepting work and interrupt running solvers
+	 */
+	public void shutdown() {
+		this.mySolverExecutor.shutdownNow();
+		this.myRequestExecutor.shutdownNow();
+	}
+
+	// ============================================================================================
+	// Getters and setters
+	// ============================================================================================
+
+	/**
+	 * Set the cache that answers repeated requests without a run
+	 * 
+	 * @param cache
+	 *            the cache, null to disable caching
+	 */
+	public void setResultCache(SolveResultCache cache) {
+		this.myResultCache = cache;
+	}
+
+	public SolveResultCache getResultCache() {
+		return this.myResultCache;
+	}
+
+	/**
+	 * Get the executor for callers that want to block on solve()
+	 * 
+	 * @return
+	 */
+	public ExecutorService getRequestExecutor() {
+		return this.myRequestExecutor;
+	}
+
+	public long getSubmittedCount() {
+		return this.mySubmitted.get();
+	}
+
+	public long getCoalescedCount() {
+		return this.myCoalesced.get();
+	}
+
+	public long getRejectedCount() {
+		return this.myRejected.get();
+	}
+
+	public long getTimedOutCount() {
+		return this.myTimedOut.get();
+	}
+
+	public long getCompletedCount() {
+		return this.myCompleted.get();
+	}
+
+	/**
+	 * Get the number of distinct runs queued or running that requests can
+	 * still join, cancelled runs that have not stopped yet are not counted
+	 * 
+	 * @return
+	 */
+	public int getPendingRunCount() {
+		return this.myInFlight.size();
+	}
+
+	/**
+	 * Identifies a run: a request on one registered graph instance. The graph
+	 * is compared by identity, the handle in the request may point to another
+	 * graph by now.
+	 */
+	private static class RunKey {
+		final PhysarumGraph myGraph;
+
+		final SolveRequest myRequest;
+
+		RunKey(PhysarumGraph graph, SolveRequest request) {
+			this.myGraph = graph;
+			this.myRequest = request;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof RunKey)) {
+				return false;
+			}
+			RunKey other = (RunKey) obj;
+			return this.myGraph == other.myGraph
+					&& this.myRequest.equals(other.myRequest);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(this.myGraph)
+					+ this.myRequest.hashCode();
+		}
+	}
+
+	/**
+	 * One run shared by all waiters of equal requests
+	 */
+	private static class Work {
+		final RunKey myKey;
+
+		final SolveRequest myRequest;
+
+		final CompletableFuture<SolveResult> myResult = new CompletableFuture<SolveResult>();
+
+		final AtomicBoolean myFinished = new AtomicBoolean();
+
+		/** Set by whoever runs or cancels the run first, the solver thread or the last waiter */
+		final AtomicBoolean myStarted = new AtomicBoolean();
+
+		volatile Future<?> myTask;
+
+		/** True if the run holds a permit */
+		volatile boolean myHasPermit = false;
+
+		/** Number of callers waiting, guarded by this, starts with the creator */
+		private int myWaiters = 1;
+
+		/** True once the run was given up, guarded by this */
+		private boolean myAbandoned = false;
+
+		Work(RunKey key) {
+			this.myKey = key;
+			this.myRequest = key.myRequest;
+		}
+
+		/**
+		 * @return false if the run was already abandoned
+		 */
+		synchronized boolean addWaiter() {
+			if (this.myAbandoned) {
+				return false;
+			}
+			this.myWaiters++;
+			return true;
+		}
+
+		/**
+		 * @return true if this was the last waiter of an unfinished run
+		 */
+		synchronized boolean removeWaiter() {
+			this.myWaiters--;
+			if (this.myWaiters == 0 && !this.myResult.isDone()) {
+				this.myAbandoned = true;
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Completes a waiter with the outcome of the shared run
+	 */
+	private static class Forward implements
+			BiConsumer<SolveResult, Throwable> {
+		private final CompletableFuture<SolveResult> myTarget;
+
+		Forward(CompletableFuture<SolveResult> target) {
+			this.myTarget = target;
+		}
+
+		@Override
+		public void accept(SolveResult result, Throwable error) {
+			if (error != null) {
+				this.myTarget.completeExceptionally(error);
+			} else {
+				this.myTarget.complete(result);
+			}
+		}
+	}
+}
@@ -0,0 +1,193 @@
+/**
+ *    SolveWorker.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The worker side of a WorkerPool: a JVM that reads solve tasks from its
+ * standard input and writes the results to its standard output. Anything the
+ * solver prints goes to standard error, which the pool passes on.
+ * 
+ * A task carries the parameters, the terminals and the graph in the format of
+ * PhysarumGraphIO. A worker keeps the last GRAPH_CACHE graphs by fingerprint,
+ * the pool keeps the same list and only sends a graph the worker doesn't hold.
+ * A graph that can't be read or a solver exception is sent back as a failure;
+ * an Error, e.g. an OutOfMemoryError, ends the worker, the pool then restarts
+ * it.
+ * 
+ * @author Torsten
+ * 
+ */
+public class SolveWorker {
+	/** The greeting of a worker, "PHSW" */
+	static final int MAGIC = 0x50485357;
+
+	/** Message types from the pool */
+	static final byte SHUTDOWN = 0;
+	static final byte TASK = 1;
+
+	/** Message types from the worker */
+	static final byte RESULT = 1;
+	static final byte FAILURE = 2;
+
+	/** The number of graphs a worker keeps */
+	static final int GRAPH_CACHE = 8;
+
+	/** The graphs of earlier tasks by fingerprint */
+	private final Map<Long, PhysarumGraph> myGraphs = createGraphCache();
+
+	/**
+	 * Creates the cache of graphs, the pool mirrors it with the same class
+	 * 
+	 * @return a map that drops the least recently used graph
+	 */
+	static <V> Map<Long, V> createGraphCache() {
+		return new LinkedHashMap<Long, V>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+				return size() > GRAPH_CACHE;
+			}
+		};
+	}
+
+	/**
+	 * Serve tasks until the pool shuts the worker down or closes the stream
+	 * 
+	 * @param in
+	 *            the tasks
+	 * @param out
+	 *            the results
+	 * @throws IOException
+	 */
+	public void serve(InputStream in, OutputStream out) throws IOException {
+		DataInputStream input = new DataInputStream(new BufferedInputStream(in,
+				1 << 16));
+		DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(out, 1 << 16));
+		output.writeInt(MAGIC);
+		output.flush();
+
+		while (true) {
+			byte type;
+			try {
+				type = input.readByte();
+			} catch (EOFException e) {
+				return;
+			}
+			if (type == SHUTDOWN) {
+				return;
+			}
+			if (type != TASK) {
+				throw new IOException("Unknown message " + type);
+			}
+
+			long id = input.readLong();
+			long fingerprint = input.readLong();
+			byte[] bytes = null;
+			if (input.readBoolean()) {
+				bytes = new byte[input.readInt()];
+				input.readFully(bytes);
+			}
+			int source = input.readInt();
+			int sink = input.readInt();
+			PhysarumParameters parameters = PhysarumParameters.readFrom(input);
+			boolean iterative = input.readBoolean();
+
+			try {
+				PhysarumGraph graph;
+				if (bytes != null) {
+					// a graph that can't be read stays cached as null, the
+					// pool counts it as sent and the caches stay in step
+					this.myGraphs.put(fingerprint, null);
+					PhysarumGraphBuilder builder = new PhysarumGraphBuilder();
+					PhysarumGraphIO.read(new ByteArrayInputStream(bytes),
+							builder);
+					graph = builder.build();
+					this.myGraphs.put(fingerprint, graph);
+				} else {
+					graph = this.myGraphs.get(fingerprint);
+					if (graph == null) {
+						throw new IllegalStateException("Graph "
+								+ fingerprint
+								+ (this.myGraphs.containsKey(fingerprint) ? " could not be read"
+										: " is not cached"));
+					}
+				}
+				long start = System.nanoTime();
+				PhysarumSolver solver = parameters.createSolver(graph, source,
+						sink);
+				if (iterative) {
+					solver.setPressureSolver(new ConjugateGradientPressureSolver());
+				}
+				solver.solve();
+				SolveResult result = SolveResult.of(solver, System.nanoTime()
+						- start);
+				output.writeByte(RESULT);
+				output.writeLong(id);
+				result.writeTo(output);
+			} catch (Exception e) {
+				output.writeByte(FAILURE);
+				output.writeLong(id);
+				output.writeUTF(String.valueOf(e));
+			}
+			output.flush();
+		}
+	}
+
+	/**
+	 * Encode a graph for a task
+	 * 
+	 * @param graph
+	 *            the graph
+	 * @return the graph in the format of PhysarumGraphIO
+	 * @throws IOException
+	 */
+	static byte[] encode(PhysarumGraph graph) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+				32 + 16 * graph.getEdgeCount());
+		PhysarumGraphIO.Writer writer = new PhysarumGraphIO.Writer(bytes);
+		try {
+			PhysarumGraphIO.copy(graph, -1, -1, writer);
+		} finally {
+			writer.close();
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Runs a worker on standard input and output, started by a WorkerPool
+	 * 
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		OutputStream out = new FileOutputStream(FileDescriptor.out);
+		System.setOut(System.err);
+		try {
+			new SolveWorker().serve(System.in, out);
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,40 @@
+/**
+ *    SolverListener.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+/**
+ * Receives the timings of the PhysarumSolver while it runs. The calls come
+ * from the thread running the solver and pass primitives and the reused
+ * metrics object only, so listening doesn't allocate.
+ * 
+ * @author Torsten
+ * 
+ */
+public interface SolverListener {
+	/**
+	 * A phase of an iteration finished
+	 * 
+	 * @param iteration
+	 *            the iteration, starting with 0
+	 * @param phase
+	 *            the phase
+	 * @param nanos
+	 *            the time the phase took
+	 */
+	void phaseFinished(int iteration, SolverPhase phase, long nanos);
+
+	/**
+	 * An iteration finished
+	 * 
+	 * @param iteration
+	 *            the iteration, starting with 0
+	 * @param metrics
+	 *            the metrics of the solver, use snapshot() to keep them
+	 */
+	void iterationFinished(int iteration, SolverMetrics metrics);
+}
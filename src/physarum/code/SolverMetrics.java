@@ -0,0 +1,296 @@
+/**
+ *    SolverMetrics.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Counters and phase timers of a PhysarumSolver. The solver updates them on
+ * its own thread; other threads read them through snapshot(), which returns a
+ * consistent copy.
+ * 
+ * @author Torsten
+ * 
+ */
+public class SolverMetrics {
+	/** Reads the bytes allocated by a thread, null if not supported */
+	private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = allocationBean();
+
+	/** Total nanoseconds per phase */
+	private final long[] myPhaseNanos = new long[SolverPhase.values().length];
+
+	/** Nanoseconds per phase of the last iteration */
+	private final long[] myLastPhaseNanos = new long[SolverPhase.values().length];
+
+	/** Number of finished iterations */
+	private int myIterations = 0;
+
+	/** Total inner iterations of the pressure solver */
+	private long myInnerIterations = 0;
+
+	/** Inner iterations of the pressure solver in the last iteration */
+	private int myLastInnerIterations = 0;
+
+	/** Relative residual of the last pressure solve */
+	private double myPressureResidual = 0;
+
+	/** Relative residual of the last conductivity update */
+	private double myRelativeResidual = 0;
+
+	/** Largest conductivity change of the last iteration */
+	private double myMaximumChange = 0;
+
+	/** Edges that changed less than the delta threshold */
+	private int myUnchangedEdges = 0;
+
+	/** Edges above the survival threshold */
+	private int myActiveEdges = 0;
+
+	/** Edges not above the survival threshold */
+	private int myPrunedEdges = 0;
+
+	/** Total bytes allocated by the solving threads, -1 if unknown */
+	private long myAllocatedBytes = 0;
+
+	/** Bytes allocated in the last iteration, -1 if unknown */
+	private long myLastAllocatedBytes = 0;
+
+	/** Allocation counter of the thread when the iteration started */
+	private long myIterationStartBytes = -1;
+
+	/**
+	 * Creates empty metrics
+	 */
+	public SolverMetrics() {
+	}
+
+	private static com.sun.management.ThreadMXBean allocationBean() {
+		try {
+			ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if (bean instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+				if (sunBean.isThreadAllocatedMemorySupported()
+						&& sunBean.isThreadAllocatedMemoryEnabled()) {
+					return sunBean;
+				}
+			}
+		} catch (LinkageError e) {
+			// no management classes in this runtime
+		}
+		return null;
+	}
+
+	// ============================================================================================
+	// Recording, called by the solver
+	// ============================================================================================
+
+	/**
+	 * An iteration starts on the current thread
+	 */
+	void iterationStarted() {
+		this.myIterationStartBytes = ALLOCATION_BEAN != null ? ALLOCATION_BEAN
+				.getCurrentThreadAllocatedBytes() : -1;
+	}
+
+	/**
+	 * A phase finished
+	 */
+	synchronized void phaseFinished(SolverPhase phase, long nanos) {
+		this.myPhaseNanos[phase.ordinal()] += nanos;
+		this.myLastPhaseNanos[phase.ordinal()] = nanos;
+	}
+
+	/**
+	 * The pressure solver finished
+	 */
+	synchronized void pressureSolved(int innerIterations, double residual) {
+		this.myInnerIterations += innerIterations;
+		this.myLastInnerIterations = innerIterations;
+		this.myPressureResidual = residual;
+	}
+
+	/**
+	 * An iteration finished on the current thread
+	 */
+	synchronized void iterationFinished(IterationStatistics statistics) {
+		this.myIterations++;
+		this.myRelativeResidual = statistics.getRelativeResidual();
+		this.myMaximumChange = statistics.getMaximumChange();
+		this.myUnchangedEdges = statistics.getUnchangedCount();
+		this.myActiveEdges = statistics.getActiveCount();
+		this.myPrunedEdges = statistics.getEdgeCount()
+				- statistics.getActiveCount();
+
+		if (this.myIterationStartBytes >= 0 && this.myAllocatedBytes >= 0) {
+			this.myLastAllocatedBytes = ALLOCATION_BEAN
+					.getCurrentThreadAllocatedBytes()
+					- this.myIterationStartBytes;
+			this.myAllocatedBytes += this.myLastAllocatedBytes;
+		} else {
+			this.myLastAllocatedBytes = -1;
+			this.myAllocatedBytes = -1;
+		}
+	}
+
+	/**
+	 * Set all counters to 0
+	 */
+	public synchronized void reset() {
+		for (int i = 0; i < this.myPhaseNanos.length; i++) {
+			this.myPhaseNanos[i] = 0;
+			this.myLastPhaseNanos[i] = 0;
+		}
+		this.myIterations = 0;
+		this.myInnerIterations = 0;
+		this.myLastInnerIterations = 0;
+		this.myPressureResidual = 0;
+		this.myRelativeResidual = 0;
+		this.myMaximumChange = 0;
+		this.myUnchangedEdges = 0;
+		this.myActiveEdges = 0;
+		this.myPrunedEdges = 0;
+		this.myAllocatedBytes = 0;
+		this.myLastAllocatedBytes = 0;
+	}
+
+	/**
+	 * Get a consistent copy of the metrics
+	 * 
+	 * @return the copy
+	 */
+	public synchronized SolverMetrics snapshot() {
+		SolverMetrics copy = new SolverMetrics();
+		System.arraycopy(this.myPhaseNanos, 0, copy.myPhaseNanos, 0,
+				this.myPhaseNanos.length);
+		System.arraycopy(this.myLastPhaseNanos, 0, copy.myLastPhaseNanos, 0,
+				this.myLastPhaseNanos.length);
+		copy.myIterations = this.myIterations;
+		copy.myInnerIterations = this.myInnerIterations;
+		copy.myLastInnerIterations = this.myLastInnerIterations;
+		copy.myPressureResidual = this.myPressureResidual;
+		copy.myRelativeResidual = this.myRelativeResidual;
+		copy.myMaximumChange = this.myMaximumChange;
+		copy.myUnchangedEdges = this.myUnchangedEdges;
+		copy.myActiveEdges = this.myActiveEdges;
+		copy.myPrunedEdges = this.myPrunedEdges;
+		copy.myAllocatedBytes = this.myAllocatedBytes;
+		copy.myLastAllocatedBytes = this.myLastAllocatedBytes;
+		return copy;
+	}
+
+	// ============================================================================================
+	// Getters
+	// ============================================================================================
+
+	/**
+	 * Get the total time spent in a phase
+	 * 
+	 * @param phase
+	 *            the phase
+	 * @return nanoseconds
+	 */
+	public synchronized long getPhaseNanos(SolverPhase phase) {
+		return this.myPhaseNanos[phase.ordinal()];
+	}
+
+	/**
+	 * Get the time spent in a phase in the last iteration
+	 * 
+	 * @param phase
+	 *            the phase
+	 * @return nanoseconds
+	 */
+	public synchronized long getLastPhaseNanos(SolverPhase phase) {
+		return this.myLastPhaseNanos[phase.ordinal()];
+	}
+
+	/**
+	 * Get the total time of all phases
+	 * 
+	 * @return nanoseconds
+	 */
+	public synchronized long getTotalNanos() {
+		long total = 0;
+		for (long nanos : this.myPhaseNanos) {
+			total += nanos;
+		}
+		return total;
+	}
+
+	public synchronized int getIterations() {
+		return this.myIterations;
+	}
+
+	public synchronized long getInnerIterations() {
+		return this.myInnerIterations;
+	}
+
+	public synchronized int getLastInnerIterations() {
+		return this.myLastInnerIterations;
+	}
+
+	public synchronized double getPressureResidual() {
+		return this.myPressureResidual;
+	}
+
+	public synchronized double getRelativeResidual() {
+		return this.myRelativeResidual;
+	}
+
+	public synchronized double getMaximumChange() {
+		return this.myMaximumChange;
+	}
+
+	public synchronized int getUnchangedEdges() {
+		return this.myUnchangedEdges;
+	}
+
+	public synchronized int getActiveEdges() {
+		return this.myActiveEdges;
+	}
+
+	public synchronized int getPrunedEdges() {
+		return this.myPrunedEdges;
+	}
+
+	/**
+	 * Get the bytes allocated by the solving threads during the iterations
+	 * 
+	 * @return the bytes, -1 if the JVM can't tell
+	 */
+	public synchronized long getAllocatedBytes() {
+		return this.myAllocatedBytes;
+	}
+
+	/**
+	 * Get the bytes allocated during the last iteration
+	 * 
+	 * @return the bytes, -1 if the JVM can't tell
+	 */
+	public synchronized long getLastAllocatedBytes() {
+		return this.myLastAllocatedBytes;
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder text = new StringBuilder();
+		text.append("iterations = ").append(this.myIterations);
+		text.append("\tinner = ").append(this.myInnerIterations);
+		text.append("\tactive = ").append(this.myActiveEdges);
+		text.append("\tpruned = ").append(this.myPrunedEdges);
+		text.append("\tmaxDeltaD = ").append(this.myMaximumChange);
+		text.append("\tallocated = ").append(this.myAllocatedBytes);
+		for (SolverPhase phase : SolverPhase.values()) {
+			text.append('\t').append(phase).append(" = ")
+					.append(this.myPhaseNanos[phase.ordinal()] / 1000000.0)
+					.append(" ms");
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,31 @@
+/**
+ *    SolverPhase.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+/**
+ * The phases of an iteration of the PhysarumSolver that are timed separately
+ * 
+ * @author Torsten
+ * 
+ */
+public enum SolverPhase {
+	/** Building the equation system of the pressures */
+	ASSEMBLY,
+	/** Solving the equation system */
+	LINEAR_SOLVE,
+	/** Storing the solved pressures */
+	PRESSURE_UPDATE,
+	/** Updating flux and conductivity of the edges */
+	CONDUCTIVITY_UPDATE,
+	/** Writing the log */
+	LOGGING,
+	/** Asking the convergence criterion */
+	CONVERGENCE_CHECK,
+	/** Updating connection objects and queueing checkpoints */
+	SYNC
+}
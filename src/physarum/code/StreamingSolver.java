@@ -0,0 +1,407 @@
+/**
+ *    StreamingSolver.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 19. October 2026
+ */
+package physarum.code;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a PhysarumSolver continuously on a graph whose edge lengths change,
+ * e.g. travel times in traffic. Producers hand in new lengths with
+ * updateLength from any thread; an engine thread takes them over between the
+ * iterations and publishes the surviving network after every step as a
+ * Snapshot that readers get without locking.
+ * 
+ * Updates of the same edge that arrive between two steps are merged, the last
+ * length wins. So the pending updates never exceed one per edge and a step
+ * never takes in more than the edges of the graph, however high the update
+ * rate is. A step writes the pending lengths into the graph in place, which
+ * keeps the conductivities, the pressures and the setup of the pressure
+ * solver, and then runs the iterations of a step. Once the run has converged
+ * the engine sleeps until the next update.
+ * 
+ * The engine runs on a private copy of the graph given, made once when it is
+ * created. The edge indexes stay those of the graph given, only the lengths
+ * change.
+ * The maximum iterations of the solver are set by the engine and its logging
+ * is turned off, the log would grow without end.
+ * 
+ * @author Torsten
+ * 
+ */
+public class StreamingSolver {
+	/** The bits of the length of an edge without pending update */
+	private static final long NONE = Double.doubleToRawLongBits(Double.NaN);
+
+	/** The solver, used by the engine thread only */
+	private final PhysarumSolver mySolver;
+
+	/** The pending length of each edge, NONE if there is none */
+	private final AtomicLongArray myPending;
+
+	/** The edges with a pending length, each at most once */
+	private final ConcurrentLinkedQueue<Integer> myDirty = new ConcurrentLinkedQueue<Integer>();
+
+	/** The edges and lengths taken over by a step, used by the engine only */
+	private final int[] myStepEdges;
+	private final double[] myStepLengths;
+
+	/** The latest snapshot */
+	private final AtomicReference<Snapshot> myLatest = new AtomicReference<Snapshot>();
+
+	/** The error that stopped the engine, null while it runs */
+	private final AtomicReference<Exception> myError = new AtomicReference<Exception>();
+
+	/** Iterations run per step */
+	private int myIterationsPerStep = 1;
+
+	/**
+	 * The smallest conductivity an edge keeps when lengths change. Edges that
+	 * died carry almost no flux and would not come back when the path gets
+	 * longer, the floor lets the run find around a jam.
+	 */
+	private volatile double myConductivityFloor = 1e-3;
+
+	/** The engine thread, null until start() */
+	private volatile Thread myThread = null;
+
+	/** True once stop() was called */
+	private volatile boolean myStopped = false;
+
+	/** The token of the running step, cancelled by stop() */
+	private volatile CancellationToken myToken = new CancellationToken();
+
+	/** Counters */
+	private final AtomicLong myReceived = new AtomicLong();
+	private long myApplied = 0;
+	private long myIterations = 0;
+	private long myVersion = 0;
+
+	/**
+	 * Creates an engine, the solver is run by start()
+	 * 
+	 * @param solver
+	 *            a solver created from a PhysarumGraph, not used by anybody
+	 *            else afterwards
+	 */
+	public StreamingSolver(PhysarumSolver solver) {
+		this.mySolver = solver;
+		this.mySolver.enableLogging(false);
+
+		// the lengths are changed in place, so the engine gets its own graph
+		GraphEdit copy = new GraphEdit(solver.getGraph());
+		copy.setConductivityFloor(0.0);
+		solver.applyEdit(copy);
+
+		int edges = solver.getGraph().getEdgeCount();
+		this.myStepEdges = new int[edges];
+		this.myStepLengths = new double[edges];
+		this.myPending = new AtomicLongArray(edges);
+		for (int e = 0; e < edges; e++) {
+			this.myPending.set(e, NONE);
+		}
+		this.myLatest.set(new Snapshot(solver, 0, 0, 0));
+	}
+
+	/**
+	 * Start the engine thread
+	 */
+	public synchronized void start() {
+		if (this.myThread != null) {
+			throw new IllegalStateException("Engine already started");
+		}
+		this.myThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				runEngine();
+			}
+		}, "PhysarumStreamingSolver");
+		this.myThread.setDaemon(true);
+		this.myThread.start();
+	}
+
+	/**
+	 * Stop the engine, a running step is cancelled
+	 * 
+	 * @throws InterruptedException
+	 */
+	public void stop() throws InterruptedException {
+		Thread thread;
+		synchronized (this) {
+			this.myStopped = true;
+			thread = this.myThread;
+		}
+		this.myToken.cancel();
+		if (thread != null) {
+			LockSupport.unpark(thread);
+			thread.join();
+		}
+	}
+
+	/**
+	 * Hand in a new length of an edge, never blocks
+	 * 
+	 * @param edge
+	 *            the edge index
+	 * @param length_L
+	 *            the new length
+	 */
+	public void updateLength(int edge, double length_L) {
+		if (!(length_L > 0) || Double.isInfinite(length_L)) {
+			throw new IllegalArgumentException("Length must be positive: "
+					+ length_L);
+		}
+		long previous = this.myPending.getAndSet(edge,
+				Double.doubleToRawLongBits(length_L));
+		this.myReceived.incrementAndGet();
+		if (previous == NONE) {
+			this.myDirty.add(edge);
+			Thread thread = this.myThread;
+			if (thread != null) {
+				LockSupport.unpark(thread);
+			}
+		}
+	}
+
+	/**
+	 * The loop of the engine thread
+	 */
+	private void runEngine() {
+		PhysarumSolver solver = this.mySolver;
+		try {
+			while (!this.myStopped) {
+				int applied = this.applyPending();
+				PhysarumState state = solver.getState();
+				if (state.isConverged()) {
+					if (applied == 0) {
+						LockSupport.park(this);
+					}
+					continue;
+				}
+
+				int before = state.getIteration();
+				solver.setMaximumIterations(before + this.myIterationsPerStep);
+				solver.solve(this.myToken);
+				this.myIterations += solver.getState().getIteration() - before;
+				this.myLatest.set(new Snapshot(solver, ++this.myVersion,
+						this.myIterations, this.myApplied));
+			}
+		} catch (Exception e) {
+			this.myError.set(e);
+		}
+	}
+
+	/**
+	 * Move the pending lengths into the graph of the solver
+	 * 
+	 * @return the number of edges changed
+	 */
+	private int applyPending() {
+		if (this.myDirty.isEmpty()) {
+			return 0;
+		}
+		// an edge updated again while the queue is drained comes twice, the
+		// later length wins and the rest waits for the next step
+		int count = 0;
+		Integer edge;
+		while (count < this.myStepEdges.length
+				&& (edge = this.myDirty.poll()) != null) {
+			// an update arriving after this queues the edge again
+			long bits = this.myPending.getAndSet(edge, NONE);
+			if (bits != NONE) {
+				this.myStepEdges[count] = edge;
+				this.myStepLengths[count] = Double.longBitsToDouble(bits);
+				count++;
+			}
+		}
+		if (count > 0) {
+			this.mySolver.updateLengths(this.myStepEdges, this.myStepLengths,
+					count, this.myConductivityFloor);
+			this.myApplied += count;
+		}
+		return count;
+	}
+
+	/**
+	 * Get the latest published network, never blocks
+	 * 
+	 * @return the snapshot
+	 */
+	public Snapshot getSnapshot() {
+		return this.myLatest.get();
+	}
+
+	/**
+	 * Get the error that stopped the engine
+	 * 
+	 * @return the exception, null while the engine runs
+	 */
+	public Exception getError() {
+		return this.myError.get();
+	}
+
+	/**
+	 * Get the number of length updates handed in, merged ones included
+	 * 
+	 * @return
+	 */
+	public long getReceivedCount() {
+		return this.myReceived.get();
+	}
+
+	public int getIterationsPerStep() {
+		return myIterationsPerStep;
+	}
+
+	/**
+	 * Set the iterations run between two looks at the pending updates
+	 * 
+	 * @param iterations
+	 *            the iterations, 1 by default
+	 */
+	public void setIterationsPerStep(int iterations) {
+		if (iterations <= 0) {
+			throw new IllegalArgumentException(
+					"Iterations per step must be positive");
+		}
+		this.myIterationsPerStep = iterations;
+	}
+
+	public double getConductivityFloor() {
+		return myConductivityFloor;
+	}
+
+	/**
+	 * Set the smallest conductivity an edge keeps when lengths change, higher
+	 * values find around jams better but keep more edges alive
+	 * 
+	 * @param conductivity_D
+	 *            the floor, 1e-3 by default
+	 * @see GraphEdit#setConductivityFloor(double)
+	 */
+	public void setConductivityFloor(double conductivity_D) {
+		this.myConductivityFloor = conductivity_D;
+	}
+
+	// ============================================================================================
+	// Snapshots
+	// ============================================================================================
+
+	/**
+	 * The surviving network after a step of the engine
+	 */
+	public static class Snapshot {
+		/** Counts the published snapshots, 0 for the one before the first step */
+		private final long myVersion;
+
+		/** The graph of the engine, its lengths follow later steps */
+		private final PhysarumGraph myGraph;
+
+		/** The indexes of the survived edges */
+		private final int[] mySurvivedEdges;
+
+		/** The path the flux favours, from source to sink */
+		private final int[] myPath;
+
+		/** The length of the path with the lengths of this step */
+		private final double myPathLength;
+
+		/** The iterations run by the engine so far */
+		private final long myIterations;
+
+		/** The edge updates taken over so far, merged ones counted once */
+		private final long myAppliedUpdates;
+
+		/** True if the run had converged on the current lengths */
+		private final boolean myConverged;
+
+		/** The System.nanoTime() of the snapshot */
+		private final long myNanoTime;
+
+		Snapshot(PhysarumSolver solver, long version, long iterations,
+				long appliedUpdates) {
+			this.myVersion = version;
+			this.myGraph = solver.getGraph();
+			this.mySurvivedEdges = solver.getSurvivedEdges();
+			this.myPath = PhysarumPaths.widestFluxPath(this.myGraph,
+					solver.getState());
+			this.myPathLength = PhysarumPaths.getLength(this.myGraph,
+					this.myPath);
+			this.myIterations = iterations;
+			this.myAppliedUpdates = appliedUpdates;
+			this.myConverged = solver.getState().isConverged();
+			this.myNanoTime = System.nanoTime();
+		}
+
+		public long getVersion() {
+			return myVersion;
+		}
+
+		/**
+		 * Get the graph of the engine. Its lengths are changed in place by
+		 * later steps, they are those of this snapshot only until the next
+		 * update is taken over.
+		 * 
+		 * @return
+		 */
+		public PhysarumGraph getGraph() {
+			return myGraph;
+		}
+
+		public int[] getSurvivedEdges() {
+			return mySurvivedEdges.clone();
+		}
+
+		/**
+		 * Get the path from the source to the sink whose smallest flux is the
+		 * largest
+		 * 
+		 * @return the edge indexes, empty before the first step
+		 */
+		public int[] getPath() {
+			return myPath.clone();
+		}
+
+		/**
+		 * Get the length of the path with the lengths of this snapshot
+		 * 
+		 * @return
+		 */
+		public double getPathLength() {
+			return myPathLength;
+		}
+
+		public long getIterations() {
+			return myIterations;
+		}
+
+		public long getAppliedUpdates() {
+			return myAppliedUpdates;
+		}
+
+		public boolean isConverged() {
+			return myConverged;
+		}
+
+		public long getNanoTime() {
+			return myNanoTime;
+		}
+
+		@Override
+		public String toString() {
+			return "version = " + this.myVersion + "\titerations = "
+					+ this.myIterations + "\tupdates = "
+					+ this.myAppliedUpdates + "\tconverged = "
+					+ this.myConverged + "\tpath = " + this.myPath.length
+					+ " edges, " + this.myPathLength;
+		}
+	}
+}
@@ -0,0 +1,108 @@
+/**
+ *    SurvivorTracker.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+/**
+ * Keeps the set of edges above the event threshold of a solver up to date
+ * from its crossing events, so the survivors are known after every iteration
+ * without scanning all edges. Changes of the state that bypass the solver's
+ * conductivity update, e.g. restoring a checkpoint, require attaching a new
+ * tracker.
+ * 
+ * @author Torsten
+ * 
+ */
+public class SurvivorTracker implements ConductivityThresholdListener {
+	/** True for every edge above the threshold */
+	private final boolean[] mySurviving;
+
+	/** The number of edges above the threshold */
+	private int mySurvivorCount;
+
+	/** The iteration of the last crossing, -1 if there was none */
+	private int myLastChangeIteration = -1;
+
+	/** The number of crossings seen */
+	private long myCrossingCount = 0;
+
+	/**
+	 * Creates a tracker for the current conductivities of a solver and adds it
+	 * as listener
+	 * 
+	 * @param solver
+	 *            the solver
+	 */
+	public SurvivorTracker(PhysarumSolver solver) {
+		PhysarumState state = solver.getState();
+		double threshold = solver.getEventThreshold();
+		this.mySurviving = new boolean[solver.getGraph().getEdgeCount()];
+		for (int e = 0; e < this.mySurviving.length; e++) {
+			if (state.getConductivity(e) > threshold) {
+				this.mySurviving[e] = true;
+				this.mySurvivorCount++;
+			}
+		}
+		solver.addThresholdListener(this);
+	}
+
+	@Override
+	public void thresholdCrossed(int iteration, int edge,
+			double formerConductivity, double conductivity) {
+		boolean surviving = conductivity > formerConductivity;
+		if (this.mySurviving[edge] != surviving) {
+			this.mySurviving[edge] = surviving;
+			this.mySurvivorCount += surviving ? 1 : -1;
+		}
+		this.myLastChangeIteration = iteration;
+		this.myCrossingCount++;
+	}
+
+	/**
+	 * Checks if an edge is above the threshold
+	 * 
+	 * @param edge
+	 *            the edge index
+	 * @return
+	 */
+	public boolean isSurviving(int edge) {
+		return this.mySurviving[edge];
+	}
+
+	public int getSurvivorCount() {
+		return this.mySurvivorCount;
+	}
+
+	/**
+	 * Get the iteration an edge last crossed the threshold in
+	 * 
+	 * @return the iteration, -1 if no edge crossed it yet
+	 */
+	public int getLastChangeIteration() {
+		return this.myLastChangeIteration;
+	}
+
+	public long getCrossingCount() {
+		return this.myCrossingCount;
+	}
+
+	/**
+	 * Get the indexes of the edges above the threshold
+	 * 
+	 * @return the edge indexes in ascending order
+	 */
+	public int[] getSurvivedEdges() {
+		int[] survived = new int[this.mySurvivorCount];
+		int count = 0;
+		for (int e = 0; e < this.mySurviving.length; e++) {
+			if (this.mySurviving[e]) {
+				survived[count++] = e;
+			}
+		}
+		return survived;
+	}
+}
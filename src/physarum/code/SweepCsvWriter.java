@@ -0,0 +1,74 @@
+/**
+ *    SweepCsvWriter.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes the results of a ParameterSweep as comma separated lines as soon as
+ * the runs finish. One line per run, in the order the runs finish; the index
+ * column gives the position of the configuration in the sweep.
+ * 
+ * @author Torsten
+ * 
+ */
+public class SweepCsvWriter implements ParameterSweep.Listener {
+	/** The header line */
+	public static final String HEADER = "index,qMethod,mue,alpha,survivalThreshold,deltaThreshold,seed,"
+			+ "iterations,converged,overBudget,survivedEdges,pathLength,wallMillis,error";
+
+	/** The output */
+	private final Writer myOut;
+
+	/**
+	 * Creates a writer and writes the header line
+	 * 
+	 * @param out
+	 *            the output, flushed after every line and not closed
+	 * @throws IOException
+	 */
+	public SweepCsvWriter(Writer out) throws IOException {
+		this.myOut = out;
+		this.myOut.write(HEADER);
+		this.myOut.write('\n');
+		this.myOut.flush();
+	}
+
+	@Override
+	public synchronized void resultAvailable(ParameterSweep.Result result) {
+		PhysarumParameters parameters = result.getParameters();
+		StringBuilder line = new StringBuilder(160);
+		line.append(result.getIndex()).append(',');
+		line.append(parameters.getQMethod()).append(',');
+		line.append(parameters.getMue()).append(',');
+		line.append(parameters.getAlpha()).append(',');
+		line.append(parameters.getSurvivalThreshold()).append(',');
+		line.append(parameters.getDeltaConductivityThreshold()).append(',');
+		line.append(parameters.getSeed()).append(',');
+		line.append(result.getIterations()).append(',');
+		line.append(result.isConverged()).append(',');
+		line.append(result.isOverBudget()).append(',');
+		line.append(result.getSurvivedEdgeCount()).append(',');
+		line.append(result.getPathLength()).append(',');
+		line.append(result.getNanos() / 1000000.0).append(',');
+		if (result.getError() != null) {
+			line.append('"').append(result.getError().replace("\"", "\"\""))
+					.append('"');
+		}
+		line.append('\n');
+
+		try {
+			this.myOut.write(line.toString());
+			this.myOut.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
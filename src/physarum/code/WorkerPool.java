@@ -0,0 +1,579 @@
+/**
+ *    WorkerPool.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.code;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Solves runs in separate worker JVMs on the local host, for batches that
+ * don't fit into one heap or must survive a run that takes its JVM down. Each
+ * worker is a SolveWorker process fed through its standard input and output;
+ * a coordinator thread per worker takes the next task from a shared queue,
+ * sends it and waits for the result, so a worker runs one task at a time.
+ * 
+ * When a worker dies it is restarted and the task is queued again, up to the
+ * maximum number of attempts. A worker that misses the task timeout is killed
+ * and restarted too, but its task fails with a TimeoutException instead of
+ * being tried again. A solver exception in the worker is no crash, the task
+ * fails at once. The results are the SolveResults of an in-process run with
+ * the same parameters and the dense default pressure solver, unless
+ * setIterativeNodes moves large graphs to the conjugate gradient solver.
+ * 
+ * The protocol only needs a pair of streams, so workers on other hosts can
+ * be served the same way later.
+ * 
+ * @author Torsten
+ * 
+ */
+public class WorkerPool implements Closeable {
+	/** Time to wait for a worker to exit after the shutdown message */
+	private static final long EXIT_MILLIS = 2000;
+
+	/** The number of workers */
+	private final int myWorkerCount;
+
+	/** The tasks not yet taken by a worker */
+	private final BlockingQueue<Task> myQueue = new LinkedBlockingQueue<Task>();
+
+	/** The workers, created by start() */
+	private final List<Worker> myWorkers = new ArrayList<Worker>();
+
+	/** The maximum heap of a worker JVM, e.g. "512m", null for the default */
+	private String myWorkerHeap = null;
+
+	/** Further JVM options of the workers */
+	private List<String> myJvmOptions = new ArrayList<String>();
+
+	/** Attempts of a task before it fails */
+	private int myMaximumAttempts = 3;
+
+	/** The time a worker gets for one task, 0 for no limit */
+	private volatile long myTaskTimeoutMillis = 0;
+
+	/** The thread killing workers that miss the timeout, null until needed */
+	private Thread myWatchdog = null;
+
+	/**
+	 * Graphs with at least this many nodes use the conjugate gradient solver,
+	 * 0 for none
+	 */
+	private volatile int myIterativeNodes = 0;
+
+	/** True once close() was called */
+	private volatile boolean myClosed = false;
+
+	/** Counters */
+	private final AtomicLong mySubmitted = new AtomicLong();
+	private final AtomicLong myCompleted = new AtomicLong();
+	private final AtomicLong myFailed = new AtomicLong();
+	private final AtomicLong myRetried = new AtomicLong();
+	private final AtomicLong myRestarts = new AtomicLong();
+
+	/**
+	 * Creates a pool, the workers are started by start()
+	 * 
+	 * @param workers
+	 *            the number of worker JVMs
+	 */
+	public WorkerPool(int workers) {
+		if (workers <= 0) {
+			throw new IllegalArgumentException("Worker count must be positive");
+		}
+		this.myWorkerCount = workers;
+	}
+
+	/**
+	 * Start the coordinator threads, they start their worker JVMs
+	 */
+	public synchronized void start() {
+		if (!this.myWorkers.isEmpty() || this.myClosed) {
+			throw new IllegalStateException("Pool already started");
+		}
+		for (int i = 0; i < this.myWorkerCount; i++) {
+			Worker worker = new Worker(i);
+			this.myWorkers.add(worker);
+			worker.myThread.start();
+		}
+		this.startWatchdog();
+	}
+
+	/**
+	 * Start the watchdog once the pool runs and a task timeout is set
+	 */
+	private synchronized void startWatchdog() {
+		if (this.myWatchdog != null || this.myWorkers.isEmpty()
+				|| this.myTaskTimeoutMillis <= 0) {
+			return;
+		}
+		this.myWatchdog = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				watch();
+			}
+		}, "PhysarumWorkerWatchdog");
+		this.myWatchdog.setDaemon(true);
+		this.myWatchdog.start();
+	}
+
+	/**
+	 * Queue a run
+	 * 
+	 * @param problem
+	 *            the graph and terminals
+	 * @param parameters
+	 *            the parameters
+	 * @return the result, fails with the solver exception of the worker, a
+	 *         TimeoutException if the worker missed the task timeout or an
+	 *         IOException if the workers crashed on every attempt
+	 */
+	public CompletableFuture<SolveResult> submit(PhysarumProblem problem,
+			PhysarumParameters parameters) {
+		Task task = new Task(problem, parameters.copy(),
+				this.mySubmitted.getAndIncrement());
+		// under the lock of close(), so no task is queued after it drained
+		synchronized (this) {
+			if (this.myClosed) {
+				throw new IllegalStateException("Pool is closed");
+			}
+			this.myQueue.add(task);
+		}
+		return task.myResult;
+	}
+
+	/**
+	 * Queue every combination of problems and parameters
+	 * 
+	 * @param problems
+	 *            the problems
+	 * @param parameters
+	 *            the parameter sets
+	 * @return the results, problem after problem and for each problem in the
+	 *         order of the parameters
+	 */
+	public List<CompletableFuture<SolveResult>> submitAll(
+			List<PhysarumProblem> problems, List<PhysarumParameters> parameters) {
+		List<CompletableFuture<SolveResult>> results = new ArrayList<CompletableFuture<SolveResult>>(
+				problems.size() * parameters.size());
+		for (PhysarumProblem problem : problems) {
+			for (PhysarumParameters p : parameters) {
+				results.add(this.submit(problem, p));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Stop the workers, queued tasks fail and running ones are finished
+	 * first
+	 */
+	@Override
+	public void close() throws IOException {
+		List<Worker> workers;
+		synchronized (this) {
+			this.myClosed = true;
+			workers = new ArrayList<Worker>(this.myWorkers);
+		}
+		this.failQueued();
+		for (Worker worker : workers) {
+			try {
+				worker.myThread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		// tasks a crashed worker queued again after the first drain
+		this.failQueued();
+	}
+
+	/**
+	 * Fail the tasks not yet taken by a worker
+	 */
+	private void failQueued() {
+		Task task;
+		while ((task = this.myQueue.poll()) != null) {
+			task.myResult.completeExceptionally(new IOException(
+					"Pool closed"));
+			this.myFailed.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Kill the workers that miss the timeout of their task
+	 */
+	private void watch() {
+		while (!this.myClosed) {
+			long now = System.nanoTime();
+			for (Worker worker : this.myWorkers) {
+				Process process = worker.myProcess;
+				long deadline = worker.myDeadline;
+				if (process != null && deadline != 0 && now - deadline > 0) {
+					worker.myTimedOut = true;
+					process.destroyForcibly();
+				}
+			}
+			long timeout = this.myTaskTimeoutMillis;
+			try {
+				Thread.sleep(timeout > 0 ? Math.min(100, timeout) : 100);
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	// ============================================================================================
+	// Workers
+	// ============================================================================================
+
+	/**
+	 * A queued run
+	 */
+	private static class Task {
+		private final PhysarumProblem myProblem;
+		private final PhysarumParameters myParameters;
+		private final long myId;
+		private final CompletableFuture<SolveResult> myResult = new CompletableFuture<SolveResult>();
+		private int myAttempts = 0;
+
+		Task(PhysarumProblem problem, PhysarumParameters parameters, long id) {
+			this.myProblem = problem;
+			this.myParameters = parameters;
+			this.myId = id;
+		}
+	}
+
+	/**
+	 * A worker JVM and the coordinator thread that feeds it
+	 */
+	private class Worker implements Runnable {
+		private final int myIndex;
+		private final Thread myThread;
+
+		/** The process, null while none is running */
+		private volatile Process myProcess = null;
+		private DataInputStream myIn;
+		private DataOutputStream myOut;
+
+		/** The nanoTime by which the running task must finish, 0 for none */
+		private volatile long myDeadline = 0;
+
+		/** True if the watchdog killed the process for the running task */
+		private volatile boolean myTimedOut = false;
+
+		/** The graphs the worker holds, the mirror of its cache */
+		private Map<Long, Boolean> myGraphs;
+
+		Worker(int index) {
+			this.myIndex = index;
+			this.myThread = new Thread(this, "PhysarumWorker-" + index);
+			this.myThread.setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (!myClosed || !myQueue.isEmpty()) {
+					Task task = myQueue.poll(100, TimeUnit.MILLISECONDS);
+					if (task == null || task.myResult.isDone()) {
+						continue;
+					}
+					task.myAttempts++;
+					this.myTimedOut = false;
+					try {
+						this.ensureProcess();
+						task.myResult.complete(this.exchange(task));
+						myCompleted.incrementAndGet();
+					} catch (IllegalStateException e) {
+						task.myResult.completeExceptionally(e);
+						myFailed.incrementAndGet();
+					} catch (IOException e) {
+						this.stopProcess(true);
+						myRestarts.incrementAndGet();
+						if (this.myTimedOut) {
+							TimeoutException timeout = new TimeoutException(
+									"Worker missed the task timeout of "
+											+ myTaskTimeoutMillis + " ms");
+							timeout.initCause(e);
+							task.myResult.completeExceptionally(timeout);
+							myFailed.incrementAndGet();
+						} else if (task.myAttempts >= myMaximumAttempts
+								|| myClosed) {
+							task.myResult.completeExceptionally(new IOException(
+									"Worker crashed on all " + task.myAttempts
+											+ " attempts", e));
+							myFailed.incrementAndGet();
+						} else {
+							myRetried.incrementAndGet();
+							myQueue.add(task);
+						}
+					} catch (RuntimeException e) {
+						// e.g. a garbled result, the stream can't be trusted
+						// any more
+						this.stopProcess(true);
+						myRestarts.incrementAndGet();
+						task.myResult.completeExceptionally(e);
+						myFailed.incrementAndGet();
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				this.stopProcess(false);
+			}
+		}
+
+		/**
+		 * Send a task and read its result
+		 * 
+		 * @throws IllegalStateException
+		 *             if the solver failed in the worker
+		 * @throws IOException
+		 *             if the worker died
+		 */
+		private SolveResult exchange(Task task) throws IOException {
+			PhysarumGraph graph = task.myProblem.getGraph();
+			Long fingerprint = graph.getFingerprint();
+			boolean cached = this.myGraphs.get(fingerprint) != null;
+
+			DataOutputStream out = this.myOut;
+			out.writeByte(SolveWorker.TASK);
+			out.writeLong(task.myId);
+			out.writeLong(fingerprint);
+			out.writeBoolean(!cached);
+			if (!cached) {
+				byte[] bytes = SolveWorker.encode(graph);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+				this.myGraphs.put(fingerprint, Boolean.TRUE);
+			}
+			out.writeInt(task.myProblem.getSource());
+			out.writeInt(task.myProblem.getSink());
+			task.myParameters.writeTo(out);
+			out.writeBoolean(myIterativeNodes > 0
+					&& graph.getNodeCount() >= myIterativeNodes);
+			if (myTaskTimeoutMillis > 0) {
+				this.myDeadline = System.nanoTime()
+						+ TimeUnit.MILLISECONDS.toNanos(myTaskTimeoutMillis);
+			}
+			try {
+				out.flush();
+
+				DataInputStream in = this.myIn;
+				byte type = in.readByte();
+				long id = in.readLong();
+				if (id != task.myId) {
+					throw new IOException("Worker answered task " + id
+							+ " instead of " + task.myId);
+				}
+				if (type == SolveWorker.RESULT) {
+					return SolveResult.readFrom(in);
+				} else if (type == SolveWorker.FAILURE) {
+					throw new IllegalStateException("Worker solve failed: "
+							+ in.readUTF());
+				}
+				throw new IOException("Unknown message " + type);
+			} finally {
+				this.myDeadline = 0;
+			}
+		}
+
+		/**
+		 * Start the worker JVM if none is running and wait for its greeting
+		 */
+		private void ensureProcess() throws IOException {
+			if (this.myProcess != null) {
+				return;
+			}
+			List<String> command = new ArrayList<String>();
+			command.add(System.getProperty("java.home") + File.separator
+					+ "bin" + File.separator + "java");
+			if (myWorkerHeap != null) {
+				command.add("-Xmx" + myWorkerHeap);
+			}
+			command.add("-XX:+ExitOnOutOfMemoryError");
+			command.addAll(myJvmOptions);
+			command.add("-cp");
+			command.add(System.getProperty("java.class.path"));
+			command.add(SolveWorker.class.getName());
+
+			ProcessBuilder builder = new ProcessBuilder(command);
+			builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+			Process process = builder.start();
+			this.myIn = new DataInputStream(new BufferedInputStream(
+					process.getInputStream(), 1 << 16));
+			this.myOut = new DataOutputStream(new BufferedOutputStream(
+					process.getOutputStream(), 1 << 16));
+			this.myGraphs = SolveWorker.createGraphCache();
+			this.myProcess = process;
+			if (this.myIn.readInt() != SolveWorker.MAGIC) {
+				throw new IOException("Worker " + this.myIndex
+						+ " sent no greeting");
+			}
+		}
+
+		/**
+		 * Stop the worker JVM
+		 * 
+		 * @param kill
+		 *            kill it instead of asking it to exit
+		 */
+		private void stopProcess(boolean kill) {
+			Process process = this.myProcess;
+			if (process == null) {
+				return;
+			}
+			this.myProcess = null;
+			try {
+				if (!kill) {
+					this.myOut.writeByte(SolveWorker.SHUTDOWN);
+					this.myOut.flush();
+					process.waitFor(EXIT_MILLIS, TimeUnit.MILLISECONDS);
+				}
+			} catch (IOException e) {
+				// the worker is gone already
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				process.destroyForcibly();
+			}
+		}
+	}
+
+	// ============================================================================================
+	// Getters and setters
+	// ============================================================================================
+
+	public int getWorkerCount() {
+		return myWorkerCount;
+	}
+
+	/**
+	 * Set the maximum heap of a worker JVM, takes effect for workers started
+	 * afterwards
+	 * 
+	 * @param heap
+	 *            the size as for -Xmx, e.g. "512m", null for the JVM default
+	 */
+	public void setWorkerHeap(String heap) {
+		this.myWorkerHeap = heap;
+	}
+
+	/**
+	 * Set further JVM options of the workers
+	 * 
+	 * @param options
+	 */
+	public void setJvmOptions(List<String> options) {
+		this.myJvmOptions = new ArrayList<String>(options);
+	}
+
+	public List<String> getJvmOptions() {
+		return Collections.unmodifiableList(myJvmOptions);
+	}
+
+	public int getMaximumAttempts() {
+		return myMaximumAttempts;
+	}
+
+	/**
+	 * Set how often a task is tried before it fails
+	 * 
+	 * @param attempts
+	 */
+	public void setMaximumAttempts(int attempts) {
+		if (attempts <= 0) {
+			throw new IllegalArgumentException("Attempts must be positive");
+		}
+		this.myMaximumAttempts = attempts;
+	}
+
+	/**
+	 * Set the time a worker gets for one task before it is killed, takes
+	 * effect for tasks sent afterwards
+	 * 
+	 * @param millis
+	 *            the time, 0 for no limit
+	 */
+	public void setTaskTimeoutMillis(long millis) {
+		this.myTaskTimeoutMillis = millis;
+		this.startWatchdog();
+	}
+
+	public int getIterativeNodes() {
+		return myIterativeNodes;
+	}
+
+	/**
+	 * Set the node count from which the workers use the conjugate gradient
+	 * pressure solver instead of the dense default. Faster on large graphs,
+	 * but the results then differ slightly from in-process runs.
+	 * 
+	 * @param nodes
+	 *            the node count, 0 by default for the dense solver always
+	 */
+	public void setIterativeNodes(int nodes) {
+		this.myIterativeNodes = nodes;
+	}
+
+	public long getSubmittedCount() {
+		return mySubmitted.get();
+	}
+
+	public long getCompletedCount() {
+		return myCompleted.get();
+	}
+
+	public long getFailedCount() {
+		return myFailed.get();
+	}
+
+	/**
+	 * Get the number of tasks queued again after a crash
+	 * 
+	 * @return
+	 */
+	public long getRetriedCount() {
+		return myRetried.get();
+	}
+
+	/**
+	 * Get the number of workers restarted after a crash, a timeout or a
+	 * broken message
+	 * 
+	 * @return
+	 */
+	public long getRestartCount() {
+		return myRestarts.get();
+	}
+
+	@Override
+	public String toString() {
+		return "workers = " + this.myWorkerCount + "\tsubmitted = "
+				+ this.getSubmittedCount() + "\tcompleted = "
+				+ this.getCompletedCount() + "\tfailed = "
+				+ this.getFailedCount() + "\tretried = "
+				+ this.getRetriedCount() + "\trestarts = "
+				+ this.getRestartCount();
+	}
+}
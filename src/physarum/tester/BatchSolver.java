@@ -0,0 +1,308 @@
+/**
+ *    BatchSolver.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 19. October 2026
+ */
+package physarum.tester;
+
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import physarum.code.BitmapMazeReader;
+import physarum.code.ConjugateGradientPressureSolver;
+import physarum.code.PhysarumGraph;
+import physarum.code.PhysarumGraphIO;
+import physarum.code.PhysarumParameters;
+import physarum.code.PhysarumPaths;
+import physarum.code.PhysarumProblem;
+import physarum.code.PhysarumSolver;
+
+/**
+ * Solves every graph file below a directory: files written by
+ * PhysarumGraphIO and maze images BitmapMazeReader can read. The files are
+ * solved in parallel, a file is only read when a thread is free for it, so
+ * at most one graph per thread is held in memory however large the directory
+ * is. Each result is written as one tab separated line as soon as it is
+ * done, in the order the files finish:
+ * 
+ * file nodes edges iterations converged millis survivedEdges pathLength path
+ * 
+ * where survivedEdges and path are comma separated edge indexes, the path
+ * from source to sink. A file that can't be read or solved gets a line with
+ * its name and "error" followed by the message. The throughput and the
+ * latency percentiles are printed to the console at the end. All runs use
+ * the conjugate gradient pressure solver, which is faster than the dense one
+ * from a few dozen nodes on.
+ * 
+ * @author Torsten
+ * 
+ */
+public class BatchSolver {
+	/** The header line of the output */
+	private static final String HEADER = "#file\tnodes\tedges\titerations\tconverged\tmillis\tsurvivedEdges\tpathLength\tpath";
+
+	/** The solver parameters */
+	private final PhysarumParameters myParameters;
+
+	/** The result lines */
+	private final Writer myOut;
+
+	/** The wall times of the finished files in nanoseconds */
+	private long[] myLatencies = new long[1024];
+
+	/** The number of finished files */
+	private int myFinished = 0;
+
+	/** The number of files that failed */
+	private final AtomicInteger myFailed = new AtomicInteger();
+
+	/**
+	 * Creates a batch
+	 * 
+	 * @param parameters
+	 *            the parameters of every run
+	 * @param out
+	 *            the result lines, not closed
+	 */
+	public BatchSolver(PhysarumParameters parameters, Writer out) {
+		this.myParameters = parameters;
+		this.myOut = out;
+	}
+
+	/**
+	 * Solve every regular file below a directory
+	 * 
+	 * @param directory
+	 *            the directory
+	 * @param threads
+	 *            the number of files solved at the same time
+	 * @throws IOException
+	 *             if the directory can't be walked or the output written
+	 * @throws InterruptedException
+	 */
+	public void run(Path directory, int threads) throws IOException,
+			InterruptedException {
+		this.myOut.write(HEADER);
+		this.myOut.write('\n');
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final Semaphore free = new Semaphore(threads);
+		Stream<Path> files = Files.walk(directory);
+		try {
+			Iterator<Path> it = files.iterator();
+			while (it.hasNext()) {
+				final Path file = it.next();
+				if (!Files.isRegularFile(file)
+						|| file.getFileName().toString().startsWith(".")) {
+					continue;
+				}
+				free.acquire();
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							solve(file);
+						} finally {
+							free.release();
+						}
+					}
+				});
+			}
+		} finally {
+			files.close();
+			executor.shutdown();
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+			this.myOut.flush();
+		}
+	}
+
+	/**
+	 * Read and solve one file and write its line
+	 * 
+	 * @param file
+	 *            the file
+	 */
+	private void solve(Path file) {
+		long start = System.nanoTime();
+		StringBuilder line = new StringBuilder(256);
+		line.append(file).append('\t');
+		try {
+			PhysarumProblem problem = read(file);
+			PhysarumGraph graph = problem.getGraph();
+			PhysarumSolver solver = problem.createSolver(this.myParameters);
+			solver.setPressureSolver(new ConjugateGradientPressureSolver());
+			solver.solve();
+			int[] survived = solver.getSurvivedEdges();
+			int[] path = PhysarumPaths.widestFluxPath(graph, solver.getState());
+			long nanos = System.nanoTime() - start;
+
+			line.append(graph.getNodeCount()).append('\t');
+			line.append(graph.getEdgeCount()).append('\t');
+			line.append(solver.getIterationCount()).append('\t');
+			line.append(solver.isConverged()).append('\t');
+			line.append(nanos / 1000000.0).append('\t');
+			appendEdges(line, survived).append('\t');
+			line.append(PhysarumPaths.getLength(graph, path)).append('\t');
+			appendEdges(line, path);
+			this.finished(line, nanos, false);
+		} catch (Exception e) {
+			line.append("error\t").append(
+					String.valueOf(e).replace('\t', ' ').replace('\n', ' '));
+			this.finished(line, System.nanoTime() - start, true);
+		}
+	}
+
+	/**
+	 * Read a graph file or a maze image, told apart by the magic number
+	 * 
+	 * @param file
+	 *            the file
+	 * @return the problem
+	 * @throws IOException
+	 */
+	private static PhysarumProblem read(Path file) throws IOException {
+		int magic = 0;
+		if (Files.size(file) >= 4) {
+			DataInputStream in = new DataInputStream(new FileInputStream(
+					file.toFile()));
+			try {
+				magic = in.readInt();
+			} finally {
+				in.close();
+			}
+		}
+		if (magic == PhysarumGraphIO.MAGIC) {
+			return PhysarumGraphIO.read(file.toFile());
+		}
+		return new BitmapMazeReader().read(file.toFile());
+	}
+
+	private static StringBuilder appendEdges(StringBuilder line, int[] edges) {
+		for (int i = 0; i < edges.length; i++) {
+			if (i > 0) {
+				line.append(',');
+			}
+			line.append(edges[i]);
+		}
+		return line;
+	}
+
+	/**
+	 * Write the line of a finished file and record its time
+	 */
+	private synchronized void finished(StringBuilder line, long nanos,
+			boolean failed) {
+		line.append('\n');
+		try {
+			this.myOut.write(line.toString());
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		if (failed) {
+			this.myFailed.incrementAndGet();
+		}
+		if (this.myFinished == this.myLatencies.length) {
+			this.myLatencies = Arrays.copyOf(this.myLatencies,
+					2 * this.myFinished);
+		}
+		this.myLatencies[this.myFinished++] = nanos;
+	}
+
+	/**
+	 * Get the number of finished files
+	 * 
+	 * @return
+	 */
+	public synchronized int getFinishedCount() {
+		return this.myFinished;
+	}
+
+	/**
+	 * Get the number of files that could not be read or solved
+	 * 
+	 * @return
+	 */
+	public int getFailedCount() {
+		return this.myFailed.get();
+	}
+
+	/**
+	 * Get a percentile of the wall times per file, reading included
+	 * 
+	 * @param percent
+	 *            0 < percent <= 100
+	 * @return the wall time in nanoseconds, 0 if no file finished
+	 */
+	public synchronized long getLatencyPercentile(double percent) {
+		if (this.myFinished == 0) {
+			return 0;
+		}
+		long[] sorted = Arrays.copyOf(this.myLatencies, this.myFinished);
+		Arrays.sort(sorted);
+		int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+		return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+	}
+
+	/**
+	 * Solves a directory of graph files
+	 * 
+	 * @param args
+	 *            directory [output|-] [threads] [iterations]
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.out.println("Usage: BatchSolver <directory> [output|-] [threads] [iterations]");
+			return;
+		}
+		Path directory = Paths.get(args[0]);
+		boolean toFile = args.length > 1 && !args[1].equals("-");
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime
+				.getRuntime().availableProcessors();
+
+		PhysarumParameters parameters = new PhysarumParameters();
+		parameters.setMaximumIterations(args.length > 3 ? Integer
+				.parseInt(args[3]) : 1000);
+
+		Writer out = new BufferedWriter(toFile ? new FileWriter(args[1])
+				: new OutputStreamWriter(System.out), 1 << 16);
+		BatchSolver batch = new BatchSolver(parameters, out);
+		long start = System.nanoTime();
+		try {
+			batch.run(directory, threads);
+		} finally {
+			if (toFile) {
+				out.close();
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		int files = batch.getFinishedCount();
+		System.err.println(files + " files, " + batch.getFailedCount()
+				+ " failed, " + threads + " threads, "
+				+ String.format("%.1f", seconds) + " s, "
+				+ String.format("%.1f", files / seconds) + " files/s");
+		System.err.println("latency ms: p50 = "
+				+ batch.getLatencyPercentile(50) / 1000000.0 + "\tp90 = "
+				+ batch.getLatencyPercentile(90) / 1000000.0 + "\tp99 = "
+				+ batch.getLatencyPercentile(99) / 1000000.0 + "\tmax = "
+				+ batch.getLatencyPercentile(100) / 1000000.0);
+	}
+}
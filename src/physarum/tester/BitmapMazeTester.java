@@ -0,0 +1,68 @@
+/**
+ *    BitmapMazeTester.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.tester;
+
+import java.io.File;
+import java.io.IOException;
+
+import physarum.code.BitmapMazeReader;
+import physarum.code.ConjugateGradientPressureSolver;
+import physarum.code.PhysarumGraph;
+import physarum.code.PhysarumParameters;
+import physarum.code.PhysarumPaths;
+import physarum.code.PhysarumProblem;
+import physarum.code.PhysarumSolver;
+
+/**
+ * Solves a maze image: white corridors, black walls, a red source pixel and a
+ * blue sink pixel. The image file is the first argument, the maximum number
+ * of iterations the optional second one.
+ * 
+ * @author Torsten
+ * 
+ */
+public class BitmapMazeTester {
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.out.println("Usage: BitmapMazeTester <image> [iterations]");
+			return;
+		}
+
+		BitmapMazeReader reader = new BitmapMazeReader();
+		PhysarumProblem problem;
+		try {
+			problem = reader.read(new File(args[0]));
+		} catch (IOException e) {
+			System.out.println(args[0] + ": " + e.getMessage());
+			return;
+		}
+		PhysarumGraph graph = problem.getGraph();
+		System.out.println(problem);
+
+		PhysarumParameters parameters = new PhysarumParameters();
+		parameters.setMaximumIterations(args.length > 1 ? Integer
+				.parseInt(args[1]) : 1000);
+		PhysarumSolver solver = problem.createSolver(parameters);
+		solver.setPressureSolver(new ConjugateGradientPressureSolver());
+		solver.solve();
+
+		int[] survived = solver.getSurvivedEdges();
+		System.out.println("iterations = " + solver.getIterationCount()
+				+ "\tconverged = " + solver.isConverged() + "\tsurvived = "
+				+ survived.length + "\tlength = "
+				+ PhysarumPaths.getLength(graph, survived) + "\tshortest = "
+				+ PhysarumPaths.getLength(graph, PhysarumPaths.shortestPath(
+						graph, problem.getSource(), problem.getSink())));
+
+		// the node ids are the pixel positions y * width + x
+		for (int i = 0; i < survived.length && i < 100; i++) {
+			System.out.println(graph.getEdgeDescription(survived[i]));
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ *    CheckpointTester.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 19. October 2026
+ */
+package physarum.tester;
+
+import java.io.File;
+import java.util.Arrays;
+
+import physarum.code.ConjugateGradientPressureSolver;
+import physarum.code.GraphGenerator;
+import physarum.code.PhysarumParameters;
+import physarum.code.PhysarumProblem;
+import physarum.code.PhysarumSolver;
+import physarum.code.PhysarumState;
+
+/**
+ * Solves a maze once without a break and once in two parts: the first part
+ * writes a checkpoint and stops halfway, the second part resumes from it in
+ * a solver created with other parameters. The resumed run must end exactly
+ * like the uninterrupted one. The width of the square maze is the optional
+ * first argument.
+ * 
+ * @author Torsten
+ * 
+ */
+public class CheckpointTester {
+
+	public static void main(String[] args) throws Exception {
+		int width = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+		PhysarumProblem problem = new GraphGenerator(7).gridMaze(width, width,
+				0.3);
+		PhysarumParameters parameters = new PhysarumParameters();
+		parameters.setMaximumIterations(3000);
+		parameters.setWeightAdaption(0.5);
+		parameters.setMue(1.5);
+
+		PhysarumSolver full = problem.createSolver(parameters);
+		full.setPressureSolver(new ConjugateGradientPressureSolver());
+		full.solve();
+		int iterations = full.getIterationCount();
+
+		File file = File.createTempFile("physarum", ".checkpoint");
+		try {
+			PhysarumSolver first = problem.createSolver(parameters);
+			first.setPressureSolver(new ConjugateGradientPressureSolver());
+			first.enableCheckpointing(file, 5);
+			first.setMaximumIterations(iterations / 2);
+			first.solve();
+
+			// the dynamics settings and the seed of this solver are replaced
+			// by the ones of the checkpoint
+			PhysarumParameters other = new PhysarumParameters();
+			other.setSeed(99);
+			PhysarumSolver resumed = problem.createSolver(other);
+			resumed.setPressureSolver(new ConjugateGradientPressureSolver());
+			resumed.resumeFromCheckpoint(file);
+			resumed.setMaximumIterations(parameters.getMaximumIterations());
+			resumed.solve();
+
+			double difference = 0;
+			PhysarumState a = full.getState();
+			PhysarumState b = resumed.getState();
+			for (int e = 0; e < a.getEdgeCount(); e++) {
+				difference = Math.max(difference,
+						Math.abs(a.getConductivity(e) - b.getConductivity(e)));
+			}
+			System.out.println("uninterrupted: iterations = " + iterations
+					+ "\tresumed at " + first.getIterationCount()
+					+ ": iterations = " + resumed.getIterationCount());
+			System.out.println("same edges = "
+					+ Arrays.equals(full.getSurvivedEdges(),
+							resumed.getSurvivedEdges())
+					+ "\tlargest conductivity difference = " + difference);
+		} finally {
+			file.delete();
+		}
+	}
+}
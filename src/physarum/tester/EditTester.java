@@ -0,0 +1,73 @@
+/**
+ *    EditTester.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 19. October 2026
+ */
+package physarum.tester;
+
+import physarum.code.ConjugateGradientPressureSolver;
+import physarum.code.GraphEdit;
+import physarum.code.GraphGenerator;
+import physarum.code.PhysarumGraph;
+import physarum.code.PhysarumParameters;
+import physarum.code.PhysarumPaths;
+import physarum.code.PhysarumProblem;
+import physarum.code.PhysarumSolver;
+
+/**
+ * Solves a maze, closes a corridor in the middle of the found path and solves
+ * again, once going on from the converged run and once from scratch. The
+ * width of the square maze is the optional first argument.
+ * 
+ * @author Torsten
+ * 
+ */
+public class EditTester {
+
+	public static void main(String[] args) throws Exception {
+		int width = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+		PhysarumProblem problem = new GraphGenerator(3).gridMaze(width, width,
+				0.3);
+		PhysarumParameters parameters = new PhysarumParameters();
+		parameters.setMaximumIterations(3000);
+
+		PhysarumSolver solver = problem.createSolver(parameters);
+		solver.setPressureSolver(new ConjugateGradientPressureSolver());
+		long start = System.nanoTime();
+		solver.solve();
+		print("first run", solver, System.nanoTime() - start);
+
+		// close the corridor in the middle of the path
+		int[] path = solver.getSurvivedEdges();
+		GraphEdit edit = new GraphEdit(solver.getGraph());
+		edit.removeEdge(path[path.length / 2]);
+
+		solver.applyEdit(edit);
+		start = System.nanoTime();
+		solver.solve();
+		print("warm re-solve", solver, System.nanoTime() - start);
+
+		PhysarumGraph edited = edit.apply();
+		PhysarumSolver cold = new PhysarumProblem(edited, problem.getSource(),
+				problem.getSink()).createSolver(parameters);
+		cold.setPressureSolver(new ConjugateGradientPressureSolver());
+		start = System.nanoTime();
+		cold.solve();
+		print("cold re-solve", cold, System.nanoTime() - start);
+
+		System.out.println("shortest = "
+				+ PhysarumPaths.getLength(edited, PhysarumPaths.shortestPath(
+						edited, problem.getSource(), problem.getSink())));
+	}
+
+	private static void print(String name, PhysarumSolver solver, long nanos) {
+		System.out.println(name + ": iterations = "
+				+ solver.getIterationCount() + "\tconverged = "
+				+ solver.isConverged() + "\tlength = "
+				+ PhysarumPaths.getLength(solver.getGraph(),
+						solver.getSurvivedEdges()) + "\ttime = " + nanos
+				/ 1000000 + " ms");
+	}
+}
@@ -0,0 +1,52 @@
+/**
+ *    EnsembleTester.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.tester;
+
+import java.util.concurrent.ExecutionException;
+
+import physarum.code.PhysarumEnsemble;
+import physarum.code.PhysarumGraph;
+import physarum.code.PhysarumParameters;
+
+/**
+ * Runs an ensemble of up to 1000 runs on the Tero paper maze and prints the
+ * edge survival frequencies. The seed can be given as first argument, the
+ * same seed always gives the same output.
+ * 
+ * @author Torsten
+ * 
+ */
+public class EnsembleTester {
+
+	public static void main(String[] args) {
+		long seed = args.length > 0 ? Long.parseLong(args[0]) : 42L;
+
+		MazeTester tester = new MazeTester();
+		tester.initTeroPaperMaze();
+		PhysarumGraph graph = PhysarumGraph.fromConnections(tester.myNodes,
+				tester.myConnections);
+
+		PhysarumParameters parameters = new PhysarumParameters();
+		parameters.setMaximumIterations(200);
+		PhysarumEnsemble ensemble = new PhysarumEnsemble(parameters);
+
+		try {
+			PhysarumEnsemble.Result result = ensemble.run(graph, 0, 1, 1000,
+					seed);
+			System.out.println(result);
+			for (int e = 0; e < graph.getEdgeCount(); e++) {
+				System.out.println(graph.getEdgeDescription(e) + "\t"
+						+ result.getSurvivalFrequency(e));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			e.getCause().printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/**
+ *    LatticeTester.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.tester;
+
+import java.util.Random;
+
+import physarum.code.ConjugateGradientPressureSolver;
+import physarum.code.GraphGenerator;
+import physarum.code.LatticeSolver;
+import physarum.code.PhysarumGraph;
+import physarum.code.PhysarumParameters;
+import physarum.code.PhysarumSolver;
+import physarum.code.PhysarumState;
+
+/**
+ * Draws a braided maze of n x n rooms into a lattice of (2n + 1) x (2n + 1)
+ * cells and solves it with the LatticeSolver. A small maze is solved with the
+ * PhysarumSolver too and the conductivities are compared. The number of rooms
+ * per side is the optional first argument, the maximum number of iterations
+ * the second one.
+ * 
+ * @author Torsten
+ * 
+ */
+public class LatticeTester {
+
+	public static void main(String[] args) throws Exception {
+		int rooms = args.length > 0 ? Integer.parseInt(args[0]) : 15;
+		PhysarumParameters parameters = new PhysarumParameters();
+		parameters.setMaximumIterations(args.length > 1 ? Integer
+				.parseInt(args[1]) : 1000);
+
+		LatticeSolver lattice = createMaze(rooms, 5L);
+		lattice.setParameters(parameters);
+		lattice.initializeConductivities();
+		System.out.println("cells = " + lattice.getCellCount());
+
+		long start = System.nanoTime();
+		lattice.solve();
+		System.out.println("lattice:\titerations = "
+				+ lattice.getIterationCount() + "\tconverged = "
+				+ lattice.isConverged() + "\tsurvived = "
+				+ lattice.getSurvivedEdgeCount() + "\tinner = "
+				+ lattice.getLastInnerIterations() + "\ttime = "
+				+ (System.nanoTime() - start) / 1000000 + " ms");
+
+		if (lattice.getCellCount() > 100000) {
+			return;
+		}
+
+		// the edges of toProblem() are in the order of the lattice edges
+		lattice = createMaze(rooms, 5L);
+		lattice.setParameters(parameters);
+		lattice.initializeConductivities();
+		PhysarumSolver solver = lattice.toProblem().createSolver(parameters);
+		solver.setPressureSolver(new ConjugateGradientPressureSolver());
+		start = System.nanoTime();
+		solver.solve();
+		System.out.println("graph:\t\titerations = "
+				+ solver.getIterationCount() + "\tconverged = "
+				+ solver.isConverged() + "\tsurvived = "
+				+ solver.getSurvivedEdges().length + "\ttime = "
+				+ (System.nanoTime() - start) / 1000000 + " ms");
+
+		lattice.solve();
+		PhysarumState state = solver.getState();
+		double difference = 0.0;
+		int edge = 0;
+		for (int cell = 0; cell < lattice.getCellCount(); cell++) {
+			for (int d = 0; d < 2; d++) {
+				if (lattice.hasEdge(cell, d)) {
+					difference = Math.max(difference, Math.abs(lattice
+							.getConductivity(cell, d)
+							- state.getConductivity(edge)));
+					edge++;
+				}
+			}
+		}
+		System.out.println("edges = " + edge + "\tmaximum difference = "
+				+ difference);
+	}
+
+	/**
+	 * Draw a perfect maze of the GraphGenerator into a lattice and open one
+	 * wall in ten rooms to braid it. The source is the upper left room, the
+	 * sink the lower right one.
+	 * 
+	 * @param rooms
+	 *            the rooms per side
+	 * @param seed
+	 *            the seed of the maze
+	 * @return the lattice
+	 */
+	private static LatticeSolver createMaze(int rooms, long seed) {
+		PhysarumGraph maze = new GraphGenerator(seed).perfectMaze(rooms, rooms)
+				.getGraph();
+		int size = 2 * rooms + 1;
+		LatticeSolver lattice = new LatticeSolver(size, size);
+		for (int cell = 0; cell < lattice.getCellCount(); cell++) {
+			lattice.setOpen(cell, false);
+		}
+		for (int room = 0; room < rooms * rooms; room++) {
+			lattice.setOpen(lattice.getCell(2 * (room % rooms) + 1,
+					2 * (room / rooms) + 1, 0), true);
+		}
+		for (int e = 0; e < maze.getEdgeCount(); e++) {
+			int from = maze.getEdgeStart(e);
+			int to = maze.getEdgeEnd(e);
+			lattice.setOpen(lattice.getCell(from % rooms + to % rooms + 1,
+					from / rooms + to / rooms + 1, 0), true);
+		}
+
+		Random random = new Random(seed);
+		for (int k = 0; k < rooms * rooms / 10; k++) {
+			int x = 1 + random.nextInt(size - 2);
+			int y = 1 + random.nextInt(size - 2);
+			if (((x + y) & 1) == 1) {
+				lattice.setOpen(lattice.getCell(x, y, 0), true);
+			}
+		}
+
+		lattice.setSource(lattice.getCell(1, 1, 0));
+		lattice.setSink(lattice.getCell(size - 2, size - 2, 0));
+		return lattice;
+	}
+}
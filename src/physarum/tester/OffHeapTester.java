@@ -0,0 +1,85 @@
+/**
+ *    OffHeapTester.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 19. October 2026
+ */
+package physarum.tester;
+
+import java.io.File;
+import java.util.Arrays;
+
+import physarum.code.ConjugateGradientPressureSolver;
+import physarum.code.GraphGenerator;
+import physarum.code.OffHeapGraphBuilder;
+import physarum.code.OffHeapStorage;
+import physarum.code.PhysarumParameters;
+import physarum.code.PhysarumProblem;
+import physarum.code.PhysarumSolver;
+
+/**
+ * Solves a maze on the heap, in direct memory and in a memory mapped file
+ * and compares the survived edges and the times. The off-heap mazes are
+ * generated straight into their storage. The width of the square maze is
+ * the optional first argument.
+ * 
+ * @author Torsten
+ * 
+ */
+public class OffHeapTester {
+
+	public static void main(String[] args) throws Exception {
+		int width = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		PhysarumParameters parameters = new PhysarumParameters();
+		parameters.setMaximumIterations(3000);
+
+		PhysarumProblem problem = new GraphGenerator(5).gridMaze(width,
+				width, 0.3);
+		int[] reference = solve("heap", problem, parameters, null);
+
+		OffHeapStorage direct = new OffHeapStorage();
+		try {
+			OffHeapGraphBuilder builder = new OffHeapGraphBuilder(direct,
+					2 * width * width);
+			new GraphGenerator(5).gridMaze(width, width, 0.3, builder);
+			int[] survived = solve("direct", builder.getProblem(),
+					parameters, direct);
+			System.out.println("same edges as on the heap = "
+					+ Arrays.equals(reference, survived));
+		} finally {
+			direct.close();
+		}
+
+		File file = File.createTempFile("physarum", ".graph");
+		OffHeapStorage mapped = new OffHeapStorage(file);
+		try {
+			OffHeapGraphBuilder builder = new OffHeapGraphBuilder(mapped,
+					2 * width * width);
+			new GraphGenerator(5).gridMaze(width, width, 0.3, builder);
+			int[] survived = solve("mapped file", builder.getProblem(),
+					parameters, mapped);
+			System.out.println("same edges as on the heap = "
+					+ Arrays.equals(reference, survived) + "\tfile size = "
+					+ file.length());
+		} finally {
+			mapped.close();
+			file.delete();
+		}
+	}
+
+	private static int[] solve(String name, PhysarumProblem problem,
+			PhysarumParameters parameters, OffHeapStorage storage)
+			throws Exception {
+		PhysarumSolver solver = problem.createSolver(parameters);
+		solver.setPressureSolver(new ConjugateGradientPressureSolver());
+		long start = System.nanoTime();
+		solver.solve();
+		System.out.println(name + ": iterations = "
+				+ solver.getIterationCount() + "\tconverged = "
+				+ solver.isConverged() + "\ttime = "
+				+ (System.nanoTime() - start) / 1000000 + " ms"
+				+ (storage != null ? "\t" + storage : ""));
+		return solver.getSurvivedEdges();
+	}
+}
@@ -0,0 +1,75 @@
+/**
+ *    PrecisionTester.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 19. October 2026
+ */
+package physarum.tester;
+
+import java.util.Arrays;
+
+import physarum.code.ConjugateGradientPressureSolver;
+import physarum.code.GraphGenerator;
+import physarum.code.MixedPrecisionPressureSolver;
+import physarum.code.PhysarumParameters;
+import physarum.code.PhysarumProblem;
+import physarum.code.PhysarumSolver;
+import physarum.code.PressureSolver;
+
+/**
+ * Solves mazes with a double precision state, with a single precision state
+ * and with a single precision state and the mixed precision pressure solver,
+ * and compares the survived edges, the state sizes and the times. The width
+ * of the square mazes is the optional first argument.
+ * 
+ * @author Torsten
+ * 
+ */
+public class PrecisionTester {
+	private static final String[] NAMES = { "double", "single state",
+			"single state, mixed solver" };
+
+	public static void main(String[] args) throws Exception {
+		int width = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+		int runs = 4;
+		PhysarumParameters parameters = new PhysarumParameters();
+		parameters.setMaximumIterations(3000);
+		PhysarumParameters single = parameters.copy();
+		single.setSinglePrecision(true);
+
+		long[] nanos = new long[NAMES.length];
+		int[] equal = new int[NAMES.length];
+		long[] bytes = new long[NAMES.length];
+		for (int seed = 0; seed < runs; seed++) {
+			PhysarumProblem problem = new GraphGenerator(seed).gridMaze(width,
+					width, 0.3);
+			int[] reference = null;
+			for (int c = 0; c < NAMES.length; c++) {
+				PhysarumSolver solver = problem.createSolver(c == 0 ? parameters
+						: single);
+				PressureSolver pressureSolver = c == 2 ? new MixedPrecisionPressureSolver()
+						: new ConjugateGradientPressureSolver();
+				solver.setPressureSolver(pressureSolver);
+				long start = System.nanoTime();
+				solver.solve();
+				nanos[c] += System.nanoTime() - start;
+				bytes[c] = solver.getState().getValueBytes();
+
+				int[] survived = solver.getSurvivedEdges();
+				if (c == 0) {
+					reference = survived;
+				}
+				if (Arrays.equals(reference, survived)) {
+					equal[c]++;
+				}
+			}
+		}
+
+		for (int c = 0; c < NAMES.length; c++) {
+			System.out.println(NAMES[c] + ": " + equal[c] + " of " + runs
+					+ " runs with the edges of the double runs\tstate bytes = "
+					+ bytes[c] + "\ttime = " + nanos[c] / 1000000 + " ms");
+		}
+	}
+}
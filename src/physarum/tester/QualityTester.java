@@ -0,0 +1,90 @@
+/**
+ *    QualityTester.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.tester;
+
+import java.util.List;
+
+import physarum.code.ConjugateGradientPressureSolver;
+import physarum.code.GraphGenerator;
+import physarum.code.GraphGenerator.LengthDistribution;
+import physarum.code.PathStableCriterion;
+import physarum.code.PhysarumGraph;
+import physarum.code.PhysarumParameters;
+import physarum.code.PhysarumProblem;
+import physarum.code.PhysarumSolver;
+import physarum.code.QualityHarness;
+import physarum.code.RelativeResidualCriterion;
+
+/**
+ * Compares the paths of several solver configurations with the Dijkstra
+ * shortest path on the Tero paper maze and on generated graphs, prints every
+ * run and a summary per configuration. The seed of the generated graphs can
+ * be given as first argument.
+ * 
+ * @author Torsten
+ * 
+ */
+public class QualityTester {
+
+	public static void main(String[] args) {
+		long seed = args.length > 0 ? Long.parseLong(args[0]) : 1L;
+
+		QualityHarness harness = new QualityHarness();
+
+		MazeTester tester = new MazeTester();
+		tester.initTeroPaperMaze();
+		harness.addCase("tero", new PhysarumProblem(PhysarumGraph
+				.fromConnections(tester.myNodes, tester.myConnections), 0, 1));
+		for (int i = 0; i < 3; i++) {
+			GraphGenerator generator = new GraphGenerator(seed + i);
+			harness.addCase("maze-" + i, generator.gridMaze(12, 12, 0.2));
+			harness.addCase("planar-" + i, generator.planar(150));
+			generator.setLengthDistribution(LengthDistribution.EUCLIDEAN, 1.0,
+					1.0);
+			harness.addCase("geometric-" + i,
+					generator.randomGeometric(150, 6.0));
+		}
+
+		PhysarumParameters parameters = new PhysarumParameters();
+		parameters.setMaximumIterations(500);
+		harness.addConfiguration(new QualityHarness.Configuration("default",
+				parameters));
+		harness.addConfiguration(new QualityHarness.Configuration(
+				"conjugate-gradient", parameters) {
+			@Override
+			public void configure(PhysarumSolver solver) {
+				solver.setPressureSolver(new ConjugateGradientPressureSolver());
+			}
+		});
+		harness.addConfiguration(new QualityHarness.Configuration(
+				"path-stable", parameters) {
+			@Override
+			public void configure(PhysarumSolver solver) {
+				solver.setConvergenceCriterion(new PathStableCriterion(10));
+			}
+		});
+		harness.addConfiguration(new QualityHarness.Configuration(
+				"relative-residual", parameters) {
+			@Override
+			public void configure(PhysarumSolver solver) {
+				solver.setConvergenceCriterion(new RelativeResidualCriterion(
+						1e-4));
+			}
+		});
+
+		List<QualityHarness.Result> results = harness.run();
+		for (QualityHarness.Result result : results) {
+			System.out.println(result);
+		}
+		System.out.println();
+		for (QualityHarness.Summary summary : harness.summarize(results)
+				.values()) {
+			System.out.println(summary);
+		}
+	}
+}
@@ -0,0 +1,235 @@
+/**
+ *    SolveServer.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.tester;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import physarum.code.PhysarumConnection.Q_Method;
+import physarum.code.PhysarumGraph;
+import physarum.code.PhysarumParameters;
+import physarum.code.SolveRequest;
+import physarum.code.SolveResult;
+import physarum.code.SolveResultCache;
+import physarum.code.SolveService;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A small HTTP front end of the SolveService that listens on the loopback
+ * interface only, meant for local load tests. The Tero paper maze is
+ * registered as graph "tero".
+ * 
+ * GET /solve?graph=tero&source=0&sink=1&mue=1.2&seed=7&timeout=500 solves a
+ * request, GET /stats prints the service counters.
+ * 
+ * @author Torsten
+ * 
+ */
+public class SolveServer {
+	/** The service behind the front end */
+	private final SolveService myService;
+
+	/** The HTTP server */
+	private final HttpServer myServer;
+
+	/**
+	 * Creates a server on the loopback interface
+	 * 
+	 * @param service
+	 *            The service to forward requests to
+	 * @param port
+	 *            The port, 0 for any free port
+	 * @throws IOException
+	 */
+	public SolveServer(SolveService service, int port) throws IOException {
+		this.myService = service;
+		this.myServer = HttpServer.create(new InetSocketAddress(
+				InetAddress.getLoopbackAddress(), port), 256);
+		this.myServer.setExecutor(service.getRequestExecutor());
+
+		this.myServer.createContext("/solve", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				handleSolve(exchange);
+			}
+		});
+		this.myServer.createContext("/stats", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				handleStats(exchange);
+			}
+		});
+	}
+
+	/**
+	 * Start serving requests
+	 */
+	public void start() {
+		this.myServer.start();
+	}
+
+	/**
+	 * Stop the server
+	 */
+	public void stop() {
+		this.myServer.stop(0);
+	}
+
+	/**
+	 * Get the port the server listens on
+	 * 
+	 * @return
+	 */
+	public int getPort() {
+		return this.myServer.getAddress().getPort();
+	}
+
+	private void handleSolve(HttpExchange exchange) throws IOException {
+		Map<String, String> query = parseQuery(exchange.getRequestURI()
+				.getRawQuery());
+
+		SolveRequest request;
+		try {
+			PhysarumParameters parameters = new PhysarumParameters();
+			if (query.containsKey("mue")) {
+				parameters.setMue(Double.parseDouble(query.get("mue")));
+			}
+			if (query.containsKey("i0")) {
+				parameters.setI0(Double.parseDouble(query.get("i0")));
+			}
+			if (query.containsKey("iterations")) {
+				parameters.setMaximumIterations(Integer.parseInt(query
+						.get("iterations")));
+			}
+			if (query.containsKey("survival")) {
+				parameters.setSurvivalThreshold(Double.parseDouble(query
+						.get("survival")));
+			}
+			if (query.containsKey("q")) {
+				parameters.setQMethod(Q_Method.valueOf(query.get("q")));
+			}
+			if (query.containsKey("seed")) {
+				parameters.setSeed(Long.parseLong(query.get("seed")));
+			}
+
+			String graph = query.containsKey("graph") ? query.get("graph")
+					: "tero";
+			request = new SolveRequest(graph, Integer.parseInt(query
+					.get("source")), Integer.parseInt(query.get("sink")),
+					parameters);
+			if (query.containsKey("timeout")) {
+				request.setTimeoutMillis(Long.parseLong(query.get("timeout")));
+			}
+		} catch (RuntimeException e) {
+			respond(exchange, 400, "Bad request: " + e + "\n");
+			return;
+		}
+
+		try {
+			SolveResult result = this.myService.solve(request);
+			respond(exchange, 200, result.toString() + "\n");
+		} catch (TimeoutException e) {
+			respond(exchange, 504, "Deadline exceeded\n");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RejectedExecutionException) {
+				respond(exchange, 503, cause.getMessage() + "\n");
+			} else if (cause instanceof IllegalArgumentException) {
+				respond(exchange, 400, cause.getMessage() + "\n");
+			} else {
+				respond(exchange, 500, cause + "\n");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			respond(exchange, 503, "Interrupted\n");
+		}
+	}
+
+	private void handleStats(HttpExchange exchange) throws IOException {
+		respond(exchange, 200, "submitted = "
+				+ this.myService.getSubmittedCount() + "\ncoalesced = "
+				+ this.myService.getCoalescedCount() + "\nrejected = "
+				+ this.myService.getRejectedCount() + "\ntimedOut = "
+				+ this.myService.getTimedOutCount() + "\ncompleted = "
+				+ this.myService.getCompletedCount() + "\npending = "
+				+ this.myService.getPendingRunCount() + "\n"
+				+ (this.myService.getResultCache() != null ? "cache = "
+						+ this.myService.getResultCache() + "\n" : ""));
+	}
+
+	private static void respond(HttpExchange exchange, int status,
+			String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type",
+				"text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(status, bytes.length);
+		OutputStream out = exchange.getResponseBody();
+		try {
+			out.write(bytes);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static Map<String, String> parseQuery(String rawQuery) {
+		Map<String, String> query = new HashMap<String, String>();
+		if (rawQuery == null) {
+			return query;
+		}
+		for (String pair : rawQuery.split("&")) {
+			int eq = pair.indexOf('=');
+			if (eq > 0) {
+				query.put(URLDecoder.decode(pair.substring(0, eq),
+						StandardCharsets.UTF_8), URLDecoder.decode(
+						pair.substring(eq + 1), StandardCharsets.UTF_8));
+			}
+		}
+		return query;
+	}
+
+	/**
+	 * Starts the server, the port can be given as first argument
+	 * 
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+
+		MazeTester tester = new MazeTester();
+		tester.initTeroPaperMaze();
+		PhysarumGraph tero = PhysarumGraph.fromConnections(tester.myNodes,
+				tester.myConnections);
+
+		SolveService service = new SolveService();
+		service.registerGraph("tero", tero);
+		service.setResultCache(new SolveResultCache(4096, 16L << 20));
+
+		try {
+			SolveServer server = new SolveServer(service, port);
+			server.start();
+			System.out.println("PhysarumSolver listening on http://"
+					+ InetAddress.getLoopbackAddress().getHostAddress() + ":"
+					+ server.getPort() + "/solve?source=0&sink=1");
+		} catch (IOException e) {
+			e.printStackTrace();
+			service.shutdown();
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/**
+ *    StreamingTester.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 19. October 2026
+ */
+package physarum.tester;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import physarum.code.ConjugateGradientPressureSolver;
+import physarum.code.GraphGenerator;
+import physarum.code.PhysarumGraph;
+import physarum.code.PhysarumParameters;
+import physarum.code.PhysarumPaths;
+import physarum.code.PhysarumProblem;
+import physarum.code.PhysarumSolver;
+import physarum.code.StreamingSolver;
+
+/**
+ * Runs a StreamingSolver on a maze while producer threads change edge lengths
+ * as fast as they can and a reader thread queries the network. Then the
+ * middle of the current path gets jammed, its lengths are multiplied by ten,
+ * and the engine has to find around it. The run time in seconds is the optional first
+ * argument.
+ * 
+ * @author Torsten
+ * 
+ */
+public class StreamingTester {
+
+	public static void main(String[] args) throws Exception {
+		final long seconds = args.length > 0 ? Long.parseLong(args[0]) : 5;
+		PhysarumProblem problem = new GraphGenerator(5).gridMaze(40, 40, 0.3);
+		final PhysarumGraph graph = problem.getGraph();
+		PhysarumParameters parameters = new PhysarumParameters();
+		PhysarumSolver solver = problem.createSolver(parameters);
+		solver.setPressureSolver(new ConjugateGradientPressureSolver());
+
+		final StreamingSolver engine = new StreamingSolver(solver);
+		engine.start();
+
+		// producers jitter the lengths by up to 10 percent
+		final long end = System.nanoTime() + seconds * 1000000000L;
+		Thread[] producers = new Thread[2];
+		final long[] updateNanos = new long[producers.length];
+		for (int t = 0; t < producers.length; t++) {
+			final int index = t;
+			producers[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					Random random = new Random(index);
+					long spent = 0;
+					while (System.nanoTime() < end) {
+						int edge = random.nextInt(graph.getEdgeCount());
+						double length = graph.getLength(edge)
+								* (0.9 + 0.2 * random.nextDouble());
+						long start = System.nanoTime();
+						engine.updateLength(edge, length);
+						spent += System.nanoTime() - start;
+					}
+					updateNanos[index] = spent;
+				}
+			});
+			producers[t].start();
+		}
+
+		// the reader queries the network
+		long[] readNanos = new long[1 << 20];
+		int reads = 0;
+		long lastVersion = 0;
+		while (System.nanoTime() < end) {
+			long start = System.nanoTime();
+			StreamingSolver.Snapshot snapshot = engine.getSnapshot();
+			int[] path = snapshot.getPath();
+			long nanos = System.nanoTime() - start;
+			if (reads < readNanos.length && path.length >= 0) {
+				readNanos[reads++] = nanos;
+			}
+			lastVersion = snapshot.getVersion();
+			Thread.yield();
+		}
+		for (Thread producer : producers) {
+			producer.join();
+		}
+
+		long received = engine.getReceivedCount();
+		long spent = 0;
+		for (long nanos : updateNanos) {
+			spent += nanos;
+		}
+		Arrays.sort(readNanos, 0, reads);
+		System.out.println(received + " updates in " + seconds + " s, "
+				+ spent / Math.max(1, received) + " ns per update call");
+		System.out.println(lastVersion + " snapshots, "
+				+ engine.getSnapshot().getAppliedUpdates()
+				+ " edge updates applied after merging");
+		System.out.println(reads + " reads, p50 = " + readNanos[reads / 2]
+				+ " ns\tp99 = " + readNanos[(int) (reads * 0.99)]
+				+ " ns\tmax = " + readNanos[reads - 1] + " ns");
+		waitConverged(engine, -1);
+		StreamingSolver.Snapshot before = engine.getSnapshot();
+		System.out.println("before the jam: " + before);
+
+		// jam the middle third of the path
+		int[] path = before.getPath();
+		for (int i = path.length / 3; i < 2 * path.length / 3; i++) {
+			engine.updateLength(path[i],
+					10 * before.getGraph().getLength(path[i]));
+		}
+		waitConverged(engine, before.getVersion());
+		StreamingSolver.Snapshot after = engine.getSnapshot();
+		System.out.println("after the jam: " + after);
+		PhysarumGraph jammed = after.getGraph();
+		System.out.println("shortest = "
+				+ PhysarumPaths.getLength(jammed, PhysarumPaths.shortestPath(
+						jammed, problem.getSource(), problem.getSink())));
+		engine.stop();
+		if (engine.getError() != null) {
+			engine.getError().printStackTrace();
+		}
+	}
+
+	/**
+	 * Wait for a converged snapshot newer than a version
+	 */
+	private static void waitConverged(StreamingSolver engine, long version)
+			throws InterruptedException {
+		while (!engine.getSnapshot().isConverged()
+				|| engine.getSnapshot().getVersion() <= version) {
+			if (engine.getError() != null) {
+				return;
+			}
+			Thread.sleep(10);
+		}
+	}
+}
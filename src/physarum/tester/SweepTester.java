@@ -0,0 +1,85 @@
+/**
+ *    SweepTester.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.tester;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
+import physarum.code.ParameterSweep;
+import physarum.code.PhysarumConnection.Q_Method;
+import physarum.code.PhysarumGraph;
+import physarum.code.PhysarumParameters;
+import physarum.code.SweepCsvWriter;
+
+/**
+ * Sweeps mue, the Q method and the survival threshold on the Tero paper maze
+ * and writes the results as CSV to the file given as first argument or to the
+ * console. With "random N" as further arguments N random configurations are
+ * run instead of the grid.
+ * 
+ * @author Torsten
+ * 
+ */
+public class SweepTester {
+
+	public static void main(String[] args) {
+		MazeTester tester = new MazeTester();
+		tester.initTeroPaperMaze();
+		PhysarumGraph graph = PhysarumGraph.fromConnections(tester.myNodes,
+				tester.myConnections);
+
+		PhysarumParameters base = new PhysarumParameters();
+		base.setMaximumIterations(200);
+		ParameterSweep sweep = new ParameterSweep(base);
+		sweep.setMueValues(0.8, 1.0, 1.2, 1.5, 1.8);
+		sweep.setQMethods(Q_Method.values());
+		sweep.setSurvivalThresholds(0.0005, 0.001, 0.005);
+		sweep.setSeeds(1, 2, 3, 4);
+		sweep.setIterationBudget(4);
+
+		List<PhysarumParameters> configurations;
+		if (args.length > 2 && args[1].equals("random")) {
+			configurations = sweep.randomConfigurations(
+					Integer.parseInt(args[2]), 42);
+		} else {
+			configurations = sweep.gridConfigurations();
+		}
+
+		try {
+			Writer out = args.length > 0 ? new FileWriter(args[0])
+					: new OutputStreamWriter(System.out);
+			try {
+				long start = System.nanoTime();
+				List<ParameterSweep.Result> results = sweep.run(graph, 0, 1,
+						configurations, new SweepCsvWriter(out));
+
+				int converged = 0;
+				int overBudget = 0;
+				for (ParameterSweep.Result result : results) {
+					converged += result.isConverged() ? 1 : 0;
+					overBudget += result.isOverBudget() ? 1 : 0;
+				}
+				System.err.println(results.size() + " runs, " + converged
+						+ " converged, " + overBudget + " over budget in "
+						+ (System.nanoTime() - start) / 1000000 + " ms");
+			} finally {
+				out.flush();
+				if (args.length > 0) {
+					out.close();
+				}
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
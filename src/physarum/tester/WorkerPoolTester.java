@@ -0,0 +1,84 @@
+/**
+ *    WorkerPoolTester.java
+ *    
+ *    @author Torsten Schoen
+ *    
+ *    @date 18. October 2026
+ */
+package physarum.tester;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import physarum.code.GraphGenerator;
+import physarum.code.PhysarumParameters;
+import physarum.code.PhysarumProblem;
+import physarum.code.PhysarumSolver;
+import physarum.code.SolveResult;
+import physarum.code.WorkerPool;
+
+/**
+ * Solves mazes times parameter sets in worker JVMs and checks the results
+ * against runs in this JVM. One extra run needs a dense matrix larger than
+ * the worker heap, its worker dies on every attempt and the run fails while
+ * the others go on. The number of workers is the optional first argument.
+ * 
+ * @author Torsten
+ * 
+ */
+public class WorkerPoolTester {
+
+	public static void main(String[] args) throws Exception {
+		int workers = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+
+		List<PhysarumProblem> problems = new ArrayList<PhysarumProblem>();
+		for (int seed = 0; seed < 8; seed++) {
+			problems.add(new GraphGenerator(seed).gridMaze(10, 10, 0.2));
+		}
+		List<PhysarumParameters> parameters = new ArrayList<PhysarumParameters>();
+		for (double mue : new double[] { 1.0, 1.2, 1.5 }) {
+			PhysarumParameters p = new PhysarumParameters();
+			p.setMue(mue);
+			p.setMaximumIterations(500);
+			parameters.add(p);
+		}
+
+		WorkerPool pool = new WorkerPool(workers);
+		pool.setWorkerHeap("64m");
+		pool.setMaximumAttempts(2);
+		pool.start();
+
+		long start = System.nanoTime();
+		List<CompletableFuture<SolveResult>> results = pool.submitAll(
+				problems, parameters);
+		CompletableFuture<SolveResult> tooLarge = pool.submit(
+				new GraphGenerator(99).grid(100, 100), parameters.get(0));
+
+		int equal = 0;
+		for (int i = 0; i < results.size(); i++) {
+			PhysarumSolver solver = problems.get(i / parameters.size())
+					.createSolver(parameters.get(i % parameters.size()));
+			solver.solve();
+			SolveResult result = results.get(i).get();
+			if (Arrays.equals(solver.getSurvivedEdges(),
+					result.getSurvivedEdges())) {
+				equal++;
+			}
+		}
+		System.out.println(equal + " of " + results.size()
+				+ " results equal to the local runs, "
+				+ (System.nanoTime() - start) / 1000000 + " ms");
+
+		try {
+			tooLarge.get();
+			System.out.println("The large run did not fail");
+		} catch (ExecutionException e) {
+			System.out.println("The large run failed: " + e.getCause());
+		}
+		System.out.println(pool);
+		pool.close();
+	}
+}